@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmark.pagecache;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+/**
+ * Optimistic reads racing with writers on a small set of hot pages. Readers report how often {@link PageCursor#shouldRetry()} sent them
+ * back around through the {@code retries} and {@code reads} auxiliary counters, so the retry rate can be compared across {@code hotPages}.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class OptimisticReadRetries extends PageCacheBenchmarkSupport
+{
+    @Param( {"1", "16", "1024"} )
+    public int hotPages;
+
+    @Override
+    protected long cacheSizeMiB()
+    {
+        return 16;
+    }
+
+    @Override
+    protected long fileSizeMiB()
+    {
+        return 8;
+    }
+
+    @State( Scope.Thread )
+    public static class Reader
+    {
+        PageCursor cursor;
+
+        @Setup
+        public void openCursor( OptimisticReadRetries benchmark ) throws IOException
+        {
+            cursor = benchmark.pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL );
+        }
+
+        @TearDown
+        public void closeCursor()
+        {
+            cursor.close();
+        }
+    }
+
+    @State( Scope.Thread )
+    @AuxCounters( AuxCounters.Type.EVENTS )
+    public static class Retries
+    {
+        public long reads;
+        public long retries;
+
+        @Setup( Level.Iteration )
+        public void reset()
+        {
+            reads = 0;
+            retries = 0;
+        }
+    }
+
+    @Benchmark
+    @Group( "readWrite" )
+    @GroupThreads( 3 )
+    public long read( Reader reader, Retries counters ) throws IOException
+    {
+        PageCursor cursor = reader.cursor;
+        cursor.next( hotPage() );
+        long value;
+        long attempts = 0;
+        do
+        {
+            attempts++;
+            value = cursor.getLong( 0 );
+        }
+        while ( cursor.shouldRetry() );
+        counters.reads++;
+        counters.retries += attempts - 1;
+        return value;
+    }
+
+    @Benchmark
+    @Group( "readWrite" )
+    @GroupThreads( 1 )
+    public void write() throws IOException
+    {
+        // A write cursor keeps the page write locked until it moves on, so the writer must let go after every write or readers would spin
+        try ( PageCursor cursor = pagedFile.io( hotPage(), PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            cursor.next();
+            cursor.putLong( 0, cursor.getLong( 0 ) + 1 );
+        }
+    }
+
+    private long hotPage()
+    {
+        return ThreadLocalRandom.current().nextInt( hotPages );
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmark.pagecache;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.FileUtils;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.memory.EmptyMemoryTracker;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.time.Clocks;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.eclipse.collections.api.factory.Sets.immutable;
+import static org.neo4j.io.ByteUnit.mebiBytes;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+/**
+ * Shared fixture for the page cache benchmarks. Sets up a {@link MuninnPageCache} of {@link #cacheSizeMiB()} over a single mapped file of
+ * {@link #fileSizeMiB()}, where every page has been written once so that reads never hit unallocated pages.
+ * <p>
+ * The {@code fileSystem} parameter selects where the mapped file lives: {@code ephemeral} keeps it in an {@link EphemeralFileSystemAbstraction}
+ * on the heap, anything else is taken as a directory on the real file system, e.g. {@code -p fileSystem=/dev/shm} to run against tmpfs.
+ */
+@State( Scope.Benchmark )
+public abstract class PageCacheBenchmarkSupport
+{
+    static final String EPHEMERAL = "ephemeral";
+
+    @Param( EPHEMERAL )
+    public String fileSystem;
+
+    protected PageCache pageCache;
+    protected PagedFile pagedFile;
+    protected long filePages;
+
+    private FileSystemAbstraction fs;
+    private ThreadPoolJobScheduler jobScheduler;
+    private File directory;
+
+    /**
+     * @return how much memory, in mebibytes, to give the page cache.
+     */
+    protected abstract long cacheSizeMiB();
+
+    /**
+     * @return size of the mapped file, in mebibytes.
+     */
+    protected abstract long fileSizeMiB();
+
+    @Setup
+    public void setUpPageCache() throws IOException
+    {
+        if ( EPHEMERAL.equals( fileSystem ) )
+        {
+            fs = new EphemeralFileSystemAbstraction();
+            directory = new File( "benchmark" ).getAbsoluteFile();
+            fs.mkdirs( directory );
+        }
+        else
+        {
+            fs = new DefaultFileSystemAbstraction();
+            directory = Files.createTempDirectory( new File( fileSystem ).toPath(), "pagecache-benchmark" ).toFile();
+        }
+        jobScheduler = new ThreadPoolJobScheduler();
+        MemoryAllocator allocator = MemoryAllocator.createAllocator( mebiBytes( cacheSizeMiB() ), EmptyMemoryTracker.INSTANCE );
+        pageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( fs ), allocator, PageCacheTracer.NULL, EmptyVersionContextSupplier.EMPTY,
+                jobScheduler, Clocks.nanoClock(), EmptyMemoryTracker.INSTANCE );
+        pagedFile = pageCache.map( new File( directory, "benchmark.db" ), PageCache.PAGE_SIZE, immutable.of( CREATE ) );
+        filePages = mebiBytes( fileSizeMiB() ) / PageCache.PAGE_SIZE;
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            for ( long pageId = 0; pageId < filePages; pageId++ )
+            {
+                cursor.next( pageId );
+                cursor.putLong( pageId );
+            }
+        }
+        pagedFile.flushAndForce();
+    }
+
+    @TearDown
+    public void tearDownPageCache() throws Exception
+    {
+        pagedFile.close();
+        pageCache.close();
+        jobScheduler.shutdown();
+        if ( fs instanceof DefaultFileSystemAbstraction )
+        {
+            FileUtils.deleteRecursively( directory );
+        }
+        fs.close();
+    }
+
+    /**
+     * Reads the long at the start of the page the cursor is currently on, retrying until the optimistic read is consistent.
+     */
+    static long readLong( PageCursor cursor ) throws IOException
+    {
+        long value;
+        do
+        {
+            value = cursor.getLong( 0 );
+        }
+        while ( cursor.shouldRetry() );
+        return value;
+    }
+}
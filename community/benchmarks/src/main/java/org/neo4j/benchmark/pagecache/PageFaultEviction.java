@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmark.pagecache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+/**
+ * Random access to a file that is {@code fileToCacheRatio} times larger than the page cache, so that most pins have to fault the page in
+ * and evict some other page to make room. Writes dirty the pages, which makes eviction flush them as well.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@Threads( 4 )
+public class PageFaultEviction extends PageCacheBenchmarkSupport
+{
+    @Param( "16" )
+    public long cacheSizeMiB;
+
+    @Param( {"2", "8"} )
+    public long fileToCacheRatio;
+
+    @Override
+    protected long cacheSizeMiB()
+    {
+        return cacheSizeMiB;
+    }
+
+    @Override
+    protected long fileSizeMiB()
+    {
+        return cacheSizeMiB * fileToCacheRatio;
+    }
+
+    @Benchmark
+    public long faultRead() throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( randomPage(), PF_SHARED_READ_LOCK, NULL ) )
+        {
+            cursor.next();
+            return readLong( cursor );
+        }
+    }
+
+    @Benchmark
+    public void faultWrite() throws IOException
+    {
+        long pageId = randomPage();
+        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            cursor.next();
+            cursor.putLong( 0, pageId );
+        }
+    }
+
+    private long randomPage()
+    {
+        return ThreadLocalRandom.current().nextLong( filePages );
+    }
+}
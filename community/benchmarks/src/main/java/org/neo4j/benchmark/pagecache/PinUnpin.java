@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmark.pagecache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+/**
+ * Cost of pinning and unpinning pages that are already in memory, for read and write cursors. The whole file fits in the cache, so no
+ * page faults happen during measurement. Cursors are kept open per thread so that only {@link PageCursor#next(long)} is measured, except in
+ * the {@code openAndPin} benchmarks which also include acquiring and closing the cursor.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@Threads( 4 )
+public class PinUnpin extends PageCacheBenchmarkSupport
+{
+    @Param( "64" )
+    public long fileSizeMiB;
+
+    @Override
+    protected long cacheSizeMiB()
+    {
+        return fileSizeMiB + 8;
+    }
+
+    @Override
+    protected long fileSizeMiB()
+    {
+        return fileSizeMiB;
+    }
+
+    @State( Scope.Thread )
+    public static class Cursors
+    {
+        PageCursor reader;
+        PageCursor writer;
+
+        @Setup
+        public void openCursors( PinUnpin benchmark ) throws IOException
+        {
+            reader = benchmark.pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL );
+            writer = benchmark.pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL );
+        }
+
+        @TearDown
+        public void closeCursors()
+        {
+            reader.close();
+            writer.close();
+        }
+    }
+
+    @Benchmark
+    public long pinRead( Cursors cursors ) throws IOException
+    {
+        PageCursor cursor = cursors.reader;
+        cursor.next( randomPage() );
+        return readLong( cursor );
+    }
+
+    @Benchmark
+    public void pinWrite( Cursors cursors ) throws IOException
+    {
+        PageCursor cursor = cursors.writer;
+        long pageId = randomPage();
+        cursor.next( pageId );
+        cursor.putLong( 0, pageId );
+    }
+
+    @Benchmark
+    public long openAndPinRead() throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( randomPage(), PF_SHARED_READ_LOCK, NULL ) )
+        {
+            cursor.next();
+            return readLong( cursor );
+        }
+    }
+
+    @Benchmark
+    public void openAndPinWrite() throws IOException
+    {
+        long pageId = randomPage();
+        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            cursor.next();
+            cursor.putLong( 0, pageId );
+        }
+    }
+
+    private long randomPage()
+    {
+        return ThreadLocalRandom.current().nextLong( filePages );
+    }
+}
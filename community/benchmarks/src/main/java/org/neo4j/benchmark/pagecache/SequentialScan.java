@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmark.pagecache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+/**
+ * Full sequential scan of a file that does not fit in the page cache, with and without {@link org.neo4j.io.pagecache.PagedFile#PF_READ_AHEAD}.
+ * With read-ahead the pre-fetcher faults pages in on a helper thread ahead of the scanning cursor. The difference is only meaningful on a
+ * file system with real IO latency, so run this with {@code -p fileSystem=<directory>} as well as against the ephemeral file system.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class SequentialScan extends PageCacheBenchmarkSupport
+{
+    @Param( {"false", "true"} )
+    public boolean readAhead;
+
+    @Override
+    protected long cacheSizeMiB()
+    {
+        return 16;
+    }
+
+    @Override
+    protected long fileSizeMiB()
+    {
+        return 128;
+    }
+
+    @Benchmark
+    public long scan() throws IOException
+    {
+        int flags = readAhead ? PF_SHARED_READ_LOCK | PF_READ_AHEAD : PF_SHARED_READ_LOCK;
+        long sum = 0;
+        try ( PageCursor cursor = pagedFile.io( 0, flags, NULL ) )
+        {
+            while ( cursor.next() )
+            {
+                sum += readLong( cursor );
+            }
+        }
+        return sum;
+    }
+}
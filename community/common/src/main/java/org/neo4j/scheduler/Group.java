@@ -34,6 +34,10 @@ public enum Group
     PAGE_CACHE_EVICTION( "PageCacheEviction" ),
     /* Page cache background eviction. */
     PAGE_CACHE_PRE_FETCHER( "PageCachePreFetcher", ExecutorServiceFactory.cachedWithDiscard() ),
+    /** Periodic sampling of which pages are in memory, so the page cache can be warmed up after a restart. */
+    PAGE_CACHE_PROFILER( "PageCacheProfiler" ),
+    /** Background write-back of dirty pages, ahead of check-points. */
+    PAGE_CACHE_WRITE_BACK( "PageCacheWriteBack" ),
     /** Watch out for, and report, external manipulation of store files. */
     FILE_WATCHER( "FileWatcher" ),
     /** Monitor and report system-wide pauses, in case they lead to service interruption. */
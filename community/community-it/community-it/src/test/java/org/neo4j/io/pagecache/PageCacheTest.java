@@ -6192,6 +6192,70 @@ public abstract class PageCacheTest<T extends PageCache> extends PageCacheTestSu
         assertFalse( nofault.checkAndClearBoundsFlag() ); // Access must not be out of bounds.
     }
 
+    @Test
+    void writeBackMustWriteDirtyPagesSoTheNextFlushHasNothingToWrite() throws Exception
+    {
+        DefaultPageCacheTracer cacheTracer = new DefaultPageCacheTracer();
+        getPageCache( fs, maxPages, cacheTracer );
+
+        File file = file( "a" );
+        ensureExists( file );
+        try ( PagedFile pf = map( file, filePageSize ) )
+        {
+            try ( PageCursor cursor = pf.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                for ( int i = 0; i < 10; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    writeRecords( cursor );
+                }
+            }
+
+            pf.writeBack( IOLimiter.UNLIMITED );
+            assertThat( cacheTracer.flushes() ).isEqualTo( 10L );
+            verifyRecordsInFile( file, recordsPerFilePage * 10 );
+
+            pf.writeBack( IOLimiter.UNLIMITED );
+            pf.flushAndForce();
+            assertThat( cacheTracer.flushes() ).isEqualTo( 10L );
+        }
+    }
+
+    @Test
+    void touchMustLoadPagesNotInMemory() throws Exception
+    {
+        DefaultPageCacheTracer cacheTracer = new DefaultPageCacheTracer();
+        getPageCache( fs, maxPages, cacheTracer );
+
+        File file = file( "a" );
+        generateFileWithRecords( file, recordsPerFilePage * 10, recordSize );
+        try ( PagedFile pf = map( file, filePageSize );
+                PageCursorTracer cursorTracer = cacheTracer.createPageCursorTracer( "touchMustLoadPagesNotInMemory" ) )
+        {
+            try ( PageCursor cursor = pf.io( 3, PF_SHARED_READ_LOCK, cursorTracer ) )
+            {
+                assertTrue( cursor.next() );
+            }
+            assertThat( cursorTracer.faults() ).isEqualTo( 1L );
+
+            // Page 3 is already in memory, and pages beyond the end of the file must be ignored.
+            assertThat( pf.touch( 0, 20, cursorTracer ) ).isEqualTo( 9 );
+            assertThat( cursorTracer.faults() ).isEqualTo( 10L );
+            assertThat( pf.touch( 0, 10, cursorTracer ) ).isEqualTo( 0 );
+
+            try ( PageCursor cursor = pf.io( 0, PF_SHARED_READ_LOCK, cursorTracer ) )
+            {
+                for ( int i = 0; i < 10; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    verifyRecordsMatchExpected( cursor );
+                }
+                assertFalse( cursor.next() );
+            }
+            assertThat( cursorTracer.faults() ).isEqualTo( 10L );
+        }
+    }
+
     @Test
     void noFaultReadOfPagesNotInMemory() throws Exception
     {
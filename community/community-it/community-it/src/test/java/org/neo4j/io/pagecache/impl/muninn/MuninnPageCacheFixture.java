@@ -19,6 +19,7 @@
  */
 package org.neo4j.io.pagecache.impl.muninn;
 
+import java.util.Arrays;
 import java.util.concurrent.CountDownLatch;
 
 import org.neo4j.io.mem.MemoryAllocator;
@@ -27,13 +28,17 @@ import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.memory.MemoryTracker;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.time.Clocks;
 
 public class MuninnPageCacheFixture extends PageCacheTestSupport.Fixture<MuninnPageCache>
 {
     CountDownLatch backgroundFlushLatch;
-    private MemoryAllocator allocator;
+    EvictionPolicy evictionPolicy = EvictionPolicy.CLOCK;
+    int partitions = 1;
+    volatile int localPartition;
+    MemoryAllocator allocator;
 
     @Override
     public MuninnPageCache createPageCache( PageSwapperFactory swapperFactory, int maxPages, PageCacheTracer tracer, VersionContextSupplier contextSupplier,
@@ -41,8 +46,8 @@ public class MuninnPageCacheFixture extends PageCacheTestSupport.Fixture<MuninnP
     {
         long memory = MuninnPageCache.memoryRequiredForPages( maxPages );
         var memoryTracker = new LocalMemoryTracker();
-        allocator = MemoryAllocator.createAllocator( memory, memoryTracker );
-        return new MuninnPageCache( swapperFactory, allocator, tracer, contextSupplier, jobScheduler, Clocks.nanoClock(), memoryTracker );
+        allocator = partitions == 1 ? MemoryAllocator.createAllocator( memory, memoryTracker ) : new PartitionedAllocator( memory, memoryTracker );
+        return new MuninnPageCache( swapperFactory, allocator, tracer, contextSupplier, jobScheduler, Clocks.nanoClock(), memoryTracker, evictionPolicy );
     }
 
     @Override
@@ -56,4 +61,63 @@ public class MuninnPageCacheFixture extends PageCacheTestSupport.Fixture<MuninnP
         pageCache.close();
         allocator.close();
     }
+
+    /**
+     * Stands in for a NUMA partitioned allocator, where the test decides which partition is local.
+     */
+    private class PartitionedAllocator implements MemoryAllocator
+    {
+        private final MemoryAllocator[] allocators;
+
+        PartitionedAllocator( long memory, MemoryTracker memoryTracker )
+        {
+            allocators = new MemoryAllocator[partitions];
+            for ( int i = 0; i < partitions; i++ )
+            {
+                allocators[i] = MemoryAllocator.createAllocator( memory / partitions, memoryTracker );
+            }
+        }
+
+        @Override
+        public long usedMemory()
+        {
+            return Arrays.stream( allocators ).mapToLong( MemoryAllocator::usedMemory ).sum();
+        }
+
+        @Override
+        public long availableMemory()
+        {
+            return Arrays.stream( allocators ).mapToLong( MemoryAllocator::availableMemory ).sum();
+        }
+
+        @Override
+        public long allocateAligned( long bytes, long alignment )
+        {
+            return allocators[localPartition].allocateAligned( bytes, alignment );
+        }
+
+        @Override
+        public void close()
+        {
+            Arrays.stream( allocators ).forEach( MemoryAllocator::close );
+        }
+
+        @Override
+        public int partitions()
+        {
+            return allocators.length;
+        }
+
+        @Override
+        public MemoryAllocator partition( int partition )
+        {
+            return allocators[partition];
+        }
+
+        @Override
+        public int localPartition()
+        {
+            return localPartition;
+        }
+    }
 }
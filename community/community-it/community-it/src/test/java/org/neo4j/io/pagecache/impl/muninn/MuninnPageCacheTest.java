@@ -57,14 +57,18 @@ import org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer.Fault;
 
+import static java.nio.file.StandardOpenOption.CREATE;
 import static java.time.Duration.ofMillis;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.collections.api.factory.Sets.immutable;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
@@ -150,6 +154,44 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test
+    void pageFaultsMustTakePagesFromLocalPartition() throws IOException
+    {
+        fixture.partitions = 2;
+        fixture.localPartition = 1;
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4096, PageCacheTracer.NULL );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            PagePartition[] partitions = pageCache.getPartitions();
+            assertThat( partitions ).hasSize( 2 );
+            assertThat( fixture.allocator.partition( 0 ).usedMemory() ).isZero();
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                for ( int i = 0; i < 100; i++ )
+                {
+                    assertTrue( cursor.next() );
+                }
+            }
+            assertThat( partitions[1].localFaults() ).isEqualTo( 100 );
+            assertThat( partitions[1].remoteFaults() ).isZero();
+            assertThat( partitions[0].localFaults() + partitions[0].remoteFaults() ).isZero();
+            assertThat( fixture.allocator.partition( 0 ).usedMemory() ).isZero();
+
+            fixture.localPartition = 0;
+            try ( PageCursor cursor = pagedFile.io( 100, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                for ( int i = 0; i < 10; i++ )
+                {
+                    assertTrue( cursor.next() );
+                }
+            }
+            assertThat( partitions[0].localFaults() ).isEqualTo( 10 );
+            assertThat( fixture.allocator.partition( 0 ).usedMemory() ).isPositive();
+            assertThat( pageCache.toString() ).contains( "partitions:" );
+        }
+    }
+
     @Test
     void mustEvictCleanPageWithoutFlushing() throws Exception
     {
@@ -271,6 +313,195 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test
+    void scanResistantEvictionPolicyMustKeepHotPagesDuringScans() throws IOException
+    {
+        fixture.evictionPolicy = EvictionPolicy.SCAN_RESISTANT;
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 8, tracer );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                for ( int i = 0; i < 32; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    cursor.putLong( i );
+                }
+            }
+            pageCache.flushAndForce();
+
+            // Page 0 is part of our hot working set.
+            for ( int i = 0; i < 4; i++ )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+                {
+                    assertTrue( cursor.next() );
+                }
+            }
+
+            // A scan that is three times larger than the page cache, touches every page only once.
+            try ( PageCursor cursor = pagedFile.io( 1, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                for ( int i = 1; i < 24; i++ )
+                {
+                    assertTrue( cursor.next() );
+                }
+            }
+
+            try ( var cursorTracer = tracer.createPageCursorTracer( "scanResistantEvictionPolicyMustKeepHotPagesDuringScans" );
+                    PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, cursorTracer ) )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( 0, cursorTracer.faults() );
+            }
+            assertThat( tracer.protectedPages() ).isGreaterThan( 0 );
+        }
+    }
+
+    @Test
+    void pageQuotaMustKeepReservedPagesDuringScansOfOtherFiles() throws IOException
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 8, tracer );
+                PagedFile reservedFile = map( pageCache, file( "a" ), 8 );
+                PagedFile scannedFile = map( pageCache, file( "b" ), 8, immutable.of( CREATE ) ) )
+        {
+            reservedFile.setPageQuota( 2, Long.MAX_VALUE );
+            try ( PageCursor cursor = reservedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+                assertTrue( cursor.next() );
+            }
+            try ( PageCursor cursor = scannedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                for ( int i = 0; i < 32; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    cursor.putLong( i );
+                }
+            }
+            assertEquals( 2, tracer.residentPages( file( "a" ) ) );
+
+            try ( var cursorTracer = tracer.createPageCursorTracer( "pageQuotaMustKeepReservedPagesDuringScansOfOtherFiles" );
+                    PageCursor cursor = reservedFile.io( 0, PF_SHARED_READ_LOCK, cursorTracer ) )
+            {
+                assertTrue( cursor.next() );
+                assertTrue( cursor.next() );
+                assertEquals( 0, cursorTracer.faults() );
+            }
+            assertThat( tracer.protectedPages() ).isGreaterThan( 0 );
+        }
+    }
+
+    @Test
+    void pageQuotaMustEvictPagesOfFilesOverTheirLimitBeforeColdPagesOfOtherFiles() throws IOException
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 16, tracer );
+                PagedFile limitedFile = map( pageCache, file( "a" ), 8 );
+                PagedFile otherFile = map( pageCache, file( "b" ), 8, immutable.of( CREATE ) ) )
+        {
+            limitedFile.setPageQuota( 0, 2 );
+            // The pages of the limited file are hot, while the pages of the other file are cold.
+            for ( int i = 0; i < 4; i++ )
+            {
+                try ( PageCursor cursor = limitedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                {
+                    for ( int j = 0; j < 4; j++ )
+                    {
+                        assertTrue( cursor.next() );
+                        cursor.putLong( j );
+                    }
+                }
+            }
+            try ( PageCursor cursor = otherFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+                assertTrue( cursor.next() );
+            }
+            assertEquals( 4, tracer.residentPages( file( "a" ) ) );
+            assertEquals( 2, tracer.residentPages( file( "b" ) ) );
+
+            pageCache.evictPages( 2, 0, tracer.beginPageEvictions( 2 ) );
+
+            assertEquals( 2, tracer.residentPages( file( "a" ) ) );
+            assertEquals( 2, tracer.residentPages( file( "b" ) ) );
+        }
+    }
+
+    @Test
+    void mustRecordFaultAndFlushLatenciesPerMappedFile() throws IOException
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 16, tracer ) )
+        {
+            try ( PagedFile writtenFile = map( pageCache, file( "a" ), 8 );
+                    PagedFile otherFile = map( pageCache, file( "b" ), 8, immutable.of( CREATE ) ) )
+            {
+                try ( PageCursor cursor = writtenFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                {
+                    for ( int i = 0; i < 4; i++ )
+                    {
+                        assertTrue( cursor.next() );
+                        cursor.putLong( i );
+                    }
+                }
+                writtenFile.flushAndForce();
+
+                assertEquals( 4, tracer.faultLatencies( file( "a" ) ).count() );
+                assertThat( tracer.flushLatencies( file( "a" ) ).count() ).isGreaterThan( 0 );
+                assertThat( tracer.faultLatencies( file( "a" ) ).maxNanos() ).isGreaterThan( 0 );
+                assertEquals( 0, tracer.faultLatencies( file( "b" ) ).count() );
+                assertEquals( 0, tracer.flushLatencies( file( "b" ) ).count() );
+            }
+            assertNull( tracer.faultLatencies( file( "a" ) ) );
+            assertNull( tracer.flushLatencies( file( "a" ) ) );
+        }
+    }
+
+    @Test
+    void prefetchHintsMustFaultPagesInFromTheBackground()
+    {
+        assertTimeoutPreemptively( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+        {
+            try ( MuninnPageCache pageCache = createPageCache( fs, 16, PageCacheTracer.NULL );
+                    PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                {
+                    for ( int i = 0; i < 8; i++ )
+                    {
+                        assertTrue( cursor.next() );
+                        cursor.putLong( i );
+                    }
+                }
+                pagedFile.flushAndForce();
+                evictAllPages( pageCache );
+
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+                {
+                    cursor.prefetch( 6 );
+                    cursor.prefetch( 2 );
+                    cursor.prefetch( 3 );
+                    while ( !isInMemory( pagedFile, 6 ) || !isInMemory( pagedFile, 2 ) || !isInMemory( pagedFile, 3 ) )
+                    {
+                        Thread.sleep( 1 );
+                    }
+                }
+                assertFalse( isInMemory( pagedFile, 4 ) );
+            }
+        } );
+    }
+
+    private static boolean isInMemory( PagedFile pagedFile, long pageId ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK | PF_NO_FAULT, NULL ) )
+        {
+            return cursor.next() && cursor.getCurrentPageId() == pageId;
+        }
+    }
+
     @Test
     void trackPageModificationTransactionId() throws Exception
     {
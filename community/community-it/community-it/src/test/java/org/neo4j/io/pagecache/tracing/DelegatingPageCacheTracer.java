@@ -20,8 +20,10 @@
 package org.neo4j.io.pagecache.tracing;
 
 import java.io.File;
+import java.util.function.LongSupplier;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
 /**
@@ -110,12 +112,48 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.unmappedFile( file );
     }
 
+    @Override
+    public void residentPages( File file, LongSupplier residentPages )
+    {
+        delegate.residentPages( file, residentPages );
+    }
+
+    @Override
+    public void latencies( File file, LatencyHistogram faultLatencies, LatencyHistogram flushLatencies )
+    {
+        delegate.latencies( file, faultLatencies, flushLatencies );
+    }
+
     @Override
     public long evictionExceptions()
     {
         return delegate.evictionExceptions();
     }
 
+    @Override
+    public long protectedPages()
+    {
+        return delegate.protectedPages();
+    }
+
+    @Override
+    public long residentPages( File file )
+    {
+        return delegate.residentPages( file );
+    }
+
+    @Override
+    public LatencyHistogram faultLatencies( File file )
+    {
+        return delegate.faultLatencies( file );
+    }
+
+    @Override
+    public LatencyHistogram flushLatencies( File file )
+    {
+        return delegate.flushLatencies( file );
+    }
+
     @Override
     public double hitRatio()
     {
@@ -170,6 +208,12 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.evictionExceptions( evictionExceptions );
     }
 
+    @Override
+    public void protectedPages( long protectedPages )
+    {
+        delegate.protectedPages( protectedPages );
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -20,8 +20,10 @@
 package org.neo4j.io.pagecache.tracing.linear;
 
 import java.io.File;
+import java.util.function.LongSupplier;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
@@ -67,6 +69,16 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         tracer.add( new UnmappedFileHEvent( file ) );
     }
 
+    @Override
+    public void residentPages( File file, LongSupplier residentPages )
+    {
+    }
+
+    @Override
+    public void latencies( File file, LatencyHistogram faultLatencies, LatencyHistogram flushLatencies )
+    {
+    }
+
     @Override
     public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
     {
@@ -157,6 +169,30 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long protectedPages()
+    {
+        return 0;
+    }
+
+    @Override
+    public long residentPages( File file )
+    {
+        return 0;
+    }
+
+    @Override
+    public LatencyHistogram faultLatencies( File file )
+    {
+        return null;
+    }
+
+    @Override
+    public LatencyHistogram flushLatencies( File file )
+    {
+        return null;
+    }
+
     @Override
     public double hitRatio()
     {
@@ -204,6 +240,11 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     {
     }
 
+    @Override
+    public void protectedPages( long protectedPages )
+    {
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
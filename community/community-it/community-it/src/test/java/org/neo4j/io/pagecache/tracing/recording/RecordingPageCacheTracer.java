@@ -22,8 +22,10 @@ package org.neo4j.io.pagecache.tracing.recording;
 import java.io.File;
 import java.io.IOException;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
 import org.neo4j.io.pagecache.tracing.EvictionEvent;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
@@ -60,6 +62,16 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         // we currently do not record these
     }
 
+    @Override
+    public void residentPages( File file, LongSupplier residentPages )
+    {
+    }
+
+    @Override
+    public void latencies( File file, LatencyHistogram faultLatencies, LatencyHistogram flushLatencies )
+    {
+    }
+
     @Override
     public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
     {
@@ -162,6 +174,30 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return 0;
     }
 
+    @Override
+    public long protectedPages()
+    {
+        return 0;
+    }
+
+    @Override
+    public long residentPages( File file )
+    {
+        return 0;
+    }
+
+    @Override
+    public LatencyHistogram faultLatencies( File file )
+    {
+        return null;
+    }
+
+    @Override
+    public LatencyHistogram flushLatencies( File file )
+    {
+        return null;
+    }
+
     @Override
     public double hitRatio()
     {
@@ -212,6 +248,11 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
     {
     }
 
+    @Override
+    public void protectedPages( long protectedPages )
+    {
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
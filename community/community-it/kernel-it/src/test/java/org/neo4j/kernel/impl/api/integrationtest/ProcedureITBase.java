@@ -46,6 +46,17 @@ public interface ProcedureITBase
                         stringArray( "reader", "editor", "publisher", "architect", "admin" ), "DBMS", true ),
                 proc( "dbms.listConfig", "(searchString =  :: STRING?) :: (name :: STRING?, description :: STRING?, value :: STRING?, dynamic :: BOOLEAN?)",
                         "List the currently active config of Neo4j.", stringArray( "admin" ), "DBMS" ),
+                proc( "dbms.listPageCacheLatencies", "() :: (file :: STRING?, faults :: INTEGER?, faultP50Micros :: INTEGER?, " +
+                                "faultP99Micros :: INTEGER?, faultMaxMicros :: INTEGER?, flushes :: INTEGER?, flushP50Micros :: INTEGER?, " +
+                                "flushP99Micros :: INTEGER?, flushMaxMicros :: INTEGER?)",
+                        "List the page fault and flush latencies of the files that are mapped by the page cache.", stringArray( "admin" ), "DBMS" ),
+                proc( "dbms.listCommitLatencies", "() :: (phase :: STRING?, samples :: INTEGER?, p50Micros :: INTEGER?, p99Micros :: INTEGER?, " +
+                                "p999Micros :: INTEGER?, maxMicros :: INTEGER?, totalMicros :: INTEGER?)",
+                        "List the latencies of the phases of a sample of the transactions committed to the current database.",
+                        stringArray( "admin" ), "DBMS" ),
+                proc( "dbms.listDeadlockDetectionStatistics", "() :: (detections :: INTEGER?, detectedCycles :: INTEGER?, p50Micros :: INTEGER?, " +
+                                "p99Micros :: INTEGER?, maxMicros :: INTEGER?, totalMicros :: INTEGER?)",
+                        "List the statistics of the deadlock detection done by the lock manager of the current database.", stringArray( "admin" ), "DBMS" ),
                 proc( "db.constraints", "() :: (name :: STRING?, description :: STRING?, details :: STRING?)",
                         "List all constraints in the database.",
                         stringArray( "reader", "editor", "publisher", "architect", "admin" ), "READ" ),
@@ -27,6 +27,7 @@ import org.junit.jupiter.api.condition.OS;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -47,6 +48,7 @@ import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
 import org.neo4j.test.rule.TestDirectory;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FORMAT_LOG_HEADER_SIZE;
 
@@ -99,21 +101,47 @@ class TransactionLogChannelAllocatorIT
         }
     }
 
+    @Test
+    @EnabledOnOs( OS.LINUX )
+    void writeNewTransactionLogFileWithDirectIO() throws IOException
+    {
+        TransactionLogChannelAllocator fileAllocator = createLogFileAllocator( true );
+        byte[] data = {1, 2, 3, 4, 5, 6, 7};
+        try ( PhysicalLogVersionedStoreChannel channel = fileAllocator.createLogChannel( 12, () -> 1L ) )
+        {
+            channel.position( CURRENT_FORMAT_LOG_HEADER_SIZE );
+            channel.writeAll( ByteBuffer.wrap( data ) );
+        }
+
+        try ( PhysicalLogVersionedStoreChannel channel = fileAllocator.openLogChannel( 12 ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( data.length );
+            channel.readAll( buffer );
+            assertArrayEquals( data, buffer.array() );
+        }
+    }
+
     private TransactionLogChannelAllocator createLogFileAllocator()
+    {
+        return createLogFileAllocator( false );
+    }
+
+    private TransactionLogChannelAllocator createLogFileAllocator( boolean directIO )
     {
         LogHeaderCache logHeaderCache = new LogHeaderCache( 10 );
-        var logFileContext = createLogFileContext();
+        var logFileContext = createLogFileContext( directIO );
         var nativeChannelAccessor = new LogFileChannelNativeAccessor( fileSystem, logFileContext );
-        return new TransactionLogChannelAllocator( logFileContext, fileHelper, logHeaderCache, nativeChannelAccessor );
+        var recycledLogFiles = new RecycledLogFiles( testDirectory.homeDir(), logFileContext );
+        return new TransactionLogChannelAllocator( logFileContext, fileHelper, logHeaderCache, nativeChannelAccessor, recycledLogFiles );
     }
 
-    private TransactionLogFilesContext createLogFileContext()
+    private TransactionLogFilesContext createLogFileContext( boolean directIO )
     {
         return new TransactionLogFilesContext( new AtomicLong( ROTATION_THRESHOLD ), new AtomicBoolean( true ),
                 new VersionAwareLogEntryReader( new TestCommandReaderFactory() ), () -> 1L,
                 () -> 1L, () -> new LogPosition( 0, 1 ),
                 SimpleLogVersionRepository::new, fileSystem,
                 NullLogProvider.getInstance(), DatabaseTracers.EMPTY, () -> StoreId.UNKNOWN, NativeAccessProvider.getNativeAccess(),
-                EmptyMemoryTracker.INSTANCE );
+                EmptyMemoryTracker.INSTANCE, directIO, 0 );
     }
 }
@@ -85,6 +85,8 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.neo4j.configuration.Config.defaults;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.recovery_parallel_batch_size;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.recovery_parallelism;
 import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
 import static org.neo4j.configuration.GraphDatabaseSettings.fail_on_missing_files;
 import static org.neo4j.configuration.GraphDatabaseSettings.logical_log_rotation_threshold;
@@ -338,6 +340,78 @@ class RecoveryIT
         }
     }
 
+    @Test
+    void recoverDatabaseWithParallelRecovery() throws Throwable
+    {
+        GraphDatabaseService database = createDatabase();
+
+        Label label = Label.label( "label" );
+        String key = "key";
+        try ( Transaction transaction = database.beginTx() )
+        {
+            transaction.schema().indexFor( label ).on( key ).create();
+            transaction.commit();
+        }
+        awaitIndexesOnline( database );
+
+        int numberOfNodes = 10;
+        int numberOfRounds = 20;
+        long[] nodeIds = new long[numberOfNodes];
+        try ( Transaction transaction = database.beginTx() )
+        {
+            for ( int i = 0; i < numberOfNodes; i++ )
+            {
+                nodeIds[i] = transaction.createNode( label ).getId();
+            }
+            transaction.commit();
+        }
+        for ( int round = 0; round < numberOfRounds; round++ )
+        {
+            for ( int i = 0; i < numberOfNodes; i++ )
+            {
+                try ( Transaction transaction = database.beginTx() )
+                {
+                    Node node = transaction.getNodeById( nodeIds[i] );
+                    node.setProperty( key, round * numberOfNodes + i );
+                    node.setProperty( "text", valueOf( round ).repeat( 100 ) );
+                    node.createRelationshipTo( transaction.getNodeById( nodeIds[(i + 1) % numberOfNodes] ), withName( "TYPE" + round ) );
+                    transaction.commit();
+                }
+            }
+        }
+        managementService.shutdown();
+        removeLastCheckpointRecordFromLastLogFile();
+
+        Config config = Config.newBuilder()
+                .set( enable_relationship_type_scan_store, enableRelationshipTypeScanStore() )
+                .set( recovery_parallelism, 4 )
+                .set( recovery_parallel_batch_size, 7 )
+                .build();
+        assertTrue( isRecoveryRequired( databaseLayout, config ) );
+        performRecovery( fileSystem, pageCache, EMPTY, config, databaseLayout, INSTANCE );
+        assertFalse( isRecoveryRequired( databaseLayout, config ) );
+
+        GraphDatabaseService recoveredDatabase = createDatabase();
+        try ( Transaction transaction = recoveredDatabase.beginTx() )
+        {
+            int lastRound = numberOfRounds - 1;
+            for ( int i = 0; i < numberOfNodes; i++ )
+            {
+                Node node = transaction.getNodeById( nodeIds[i] );
+                int value = lastRound * numberOfNodes + i;
+                assertEquals( value, node.getProperty( key ) );
+                assertEquals( valueOf( lastRound ).repeat( 100 ), node.getProperty( "text" ) );
+                assertEquals( numberOfRounds * 2, node.getDegree() );
+                assertEquals( node, transaction.findNode( label, key, value ) );
+            }
+            assertEquals( numberOfNodes * numberOfRounds, count( transaction.getAllRelationships() ) );
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+    }
+
     @Test
     void recoverDatabaseWithRelationshipIndex() throws Throwable
     {
@@ -36,6 +36,7 @@ import static org.neo4j.configuration.SettingConstraints.min;
 import static org.neo4j.configuration.SettingConstraints.range;
 import static org.neo4j.configuration.SettingImpl.newBuilder;
 import static org.neo4j.configuration.SettingValueParsers.BOOL;
+import static org.neo4j.configuration.SettingValueParsers.BYTES;
 import static org.neo4j.configuration.SettingValueParsers.DOUBLE;
 import static org.neo4j.configuration.SettingValueParsers.DURATION;
 import static org.neo4j.configuration.SettingValueParsers.INT;
@@ -67,6 +68,10 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     @Internal
     public static final Setting<String> lock_manager = newBuilder( "unsupported.dbms.lock_manager", STRING, "" ).build();
 
+    @Internal
+    @Description( "Use the striped lock manager in community edition, which does not serialize lock acquisitions and releases on global monitors." )
+    public static final Setting<Boolean> community_striped_locks = newBuilder( "unsupported.dbms.locks.community.striped", BOOL, false ).build();
+
     @Internal
     public static final Setting<String> tracer = newBuilder( "unsupported.dbms.tracer", STRING, null ).build();
 
@@ -244,6 +249,31 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     public static final Setting<Boolean> cypher_read_properties_from_cursor =
             newBuilder( "unsupported.cypher.read_properties_from_cursor", BOOL, false).build();
 
+    @Internal
+    @Description( "Amount of heap memory the rows buffered by a single operator of the interpreted runtime, for example to sort them, can use " +
+            "before the operator spills them to files in unsupported.cypher.directories.spill. Zero disables spilling." )
+    public static final Setting<Long> cypher_spill_threshold =
+            newBuilder( "unsupported.cypher.spill_threshold", BYTES, 0L ).addConstraint( min( 0L ) ).build();
+
+    @Internal
+    @Description( "Directory for the files that query operators spill rows to." )
+    public static final Setting<Path> cypher_spill_directory =
+            newBuilder( "unsupported.cypher.directories.spill", PATH, Path.of( "cypher-spill" ) )
+                    .setDependency( GraphDatabaseSettings.data_directory ).build();
+
+    @Internal
+    @Description( "Number of rows that filters and projections of the interpreted runtime evaluate at a time, in read-only queries " +
+            "that are not profiled. Zero evaluates one row at a time." )
+    public static final Setting<Integer> cypher_interpreted_batch_size =
+            newBuilder( "unsupported.cypher.interpreted_batch_size", INT, 0 ).addConstraint( min( 0 ) ).build();
+
+    @Internal
+    @Description( "Number of worker threads that the interpreted runtime splits a node scan among, when a read-only query only aggregates " +
+            "properties of the scanned nodes. Zero or one scans on the thread executing the query. When `dbms.track_query_allocation` " +
+            "is enabled, grouping aggregations and `collect` still scan on the thread executing the query." )
+    public static final Setting<Integer> cypher_parallel_scan_workers =
+            newBuilder( "unsupported.cypher.parallel_scan_workers", INT, 0 ).addConstraint( min( 0 ) ).build();
+
     @Internal
     @Description( "Max number of recent queries to collect in the data collector module. Will round down to the" +
             " nearest power of two. The default number (8192 query invocations) " +
@@ -330,6 +360,63 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     public static final Setting<Boolean> fail_on_corrupted_log_files =
             newBuilder("unsupported.dbms.tx_log.fail_on_corrupted_log_files", BOOL, true ).build();
 
+    @Internal
+    @Description( "Number of threads applying transactions concurrently in the forward pass of recovery. Transactions that touch the same records " +
+            "are still applied in commit order, and schema and token changes are applied in isolation. A value of 1 applies all transactions " +
+            "sequentially on the recovering thread." )
+    public static final Setting<Integer> recovery_parallelism =
+            newBuilder( "unsupported.dbms.recovery.parallelism", INT, 1 ).addConstraint( min( 1 ) ).build();
+
+    @Internal
+    @Description( "Maximum number of transactions scheduled for concurrent application in recovery before waiting for all of them to be applied." )
+    public static final Setting<Integer> recovery_parallel_batch_size =
+            newBuilder( "unsupported.dbms.recovery.parallel_batch_size", INT, 1000 ).addConstraint( min( 1 ) ).build();
+
+    @Internal
+    @Description( "Apply transactions that are committed concurrently to the store as one batch, by whichever of the committing threads " +
+            "gets there first. This amortizes the cost of setting up store, index and counts updates over the group." )
+    public static final Setting<Boolean> group_apply_transactions = newBuilder( "unsupported.dbms.tx.group_apply", BOOL, false ).build();
+
+    @Internal
+    @Description( "Log how long each phase of committing a transaction took, for commits that take longer than this. " +
+            "The phases are acquiring locks, creating commands, appending to and forcing the transaction log, and applying to the store. " +
+            "Zero disables the logging." )
+    public static final Setting<Duration> commit_latency_log_threshold =
+            newBuilder( "unsupported.dbms.tx.commit_latency_log_threshold", DURATION, Duration.ZERO ).build();
+
+    @Internal
+    @Description( "Record the latencies of the phases of every this many commits of a thread in the commit latency histograms, " +
+            "1 records every commit. Sampling keeps the shared histograms off the commit path of most transactions. " +
+            "Slow commits are logged whether they are sampled or not." )
+    public static final Setting<Integer> commit_latency_sample_interval =
+            newBuilder( "unsupported.dbms.tx.commit_latency_sample_interval", INT, 16 ).addConstraint( min( 1 ) ).build();
+
+    @Internal
+    @Description( "Write the transaction log with direct I/O, bypassing the operating system page cache. Only supported on file systems " +
+            "that allow direct I/O, otherwise the log is written through the page cache as usual." )
+    public static final Setting<Boolean> transaction_log_direct_io = newBuilder( "unsupported.dbms.tx_log.direct_io", BOOL, false ).build();
+
+    @Internal
+    @Description( "Maximum number of pruned transaction log files to keep, zeroed, for reuse as new log files instead of creating new files " +
+            "on rotation. Reused files are overwritten in place, so their contents are gone as soon as they are pruned. " +
+            "A value of 0 deletes pruned files." )
+    public static final Setting<Integer> transaction_log_recycled_files =
+            newBuilder( "unsupported.dbms.tx_log.recycled_files", INT, 0 ).addConstraint( min( 0 ) ).build();
+
+    @Internal
+    @Description( "Amount of off-heap memory a transaction can use for its transaction state before further large blocks of it are " +
+            "spilled to memory mapped files in unsupported.dbms.directories.tx_state_spill. This bounds the memory used by very large " +
+            "transactions, at the cost of disk I/O when the operating system evicts their pages. Only used when " +
+            "dbms.tx_state.memory_allocation is set to 'OFF_HEAP'. Zero disables spilling." )
+    public static final Setting<Long> tx_state_spill_threshold =
+            newBuilder( "unsupported.dbms.tx_state.spill_threshold", BYTES, 0L ).addConstraint( min( 0L ) ).build();
+
+    @Internal
+    @Description( "Directory for the files that transaction state is spilled to." )
+    public static final Setting<Path> tx_state_spill_directory =
+            newBuilder( "unsupported.dbms.directories.tx_state_spill", PATH, Path.of( "tx-state-spill" ) )
+                    .setDependency( GraphDatabaseSettings.data_directory ).build();
+
     @Internal
     @Description( "Specifies if engine should run cypher query based on a snapshot of accessed data. " +
             "Query will be restarted in case if concurrent modification of data will be detected." )
@@ -410,8 +410,8 @@ public class GraphDatabaseSettings implements SettingsDeclaration
             newBuilder( "dbms.checkpoint.interval.time", DURATION, ofMinutes( 15 ) ).build();
 
     @Description( "Limit the number of IOs the background checkpoint process will consume per second. " +
-            "This setting is advisory, is ignored in Neo4j Community Edition, and is followed to " +
-            "best effort in Enterprise Edition. " +
+            "This setting is advisory, is ignored in Neo4j Community Edition unless " +
+            "`dbms.checkpoint.latency_target` is set, and is followed to best effort in Enterprise Edition. " +
             "An IO is in this case a 8 KiB (mostly sequential) write. Limiting the write IO in " +
             "this way will leave more bandwidth in the IO subsystem to service random-read IOs, " +
             "which is important for the response time of queries when the database cannot fit " +
@@ -424,6 +424,14 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     public static final Setting<Integer> check_point_iops_limit =
             newBuilder( "dbms.checkpoint.iops.limit", INT, 600 ).dynamic().build();
 
+    @Description( "Target for the latency of transaction log forces and page faults, that the background checkpoint " +
+            "process adapts its IO limit to. The limit starts out at `dbms.checkpoint.iops.limit`, and is lowered " +
+            "while the observed latency is above the target, and raised again while it is well below it. " +
+            "Every change of the limit is logged along with the latency that caused it. " +
+            "This replaces the fixed limit of `dbms.checkpoint.iops.limit`. A value of 0 disables the adaptive limit." )
+    public static final Setting<Duration> check_point_latency_target =
+            newBuilder( "dbms.checkpoint.latency_target", DURATION, Duration.ZERO ).build();
+
     // Index sampling
     @Description( "Enable or disable background index sampling" )
     public static final Setting<Boolean> index_background_sampling_enabled =
@@ -554,16 +562,72 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     public static final Setting<Integer> pagecache_scan_prefetch = newBuilder( "dbms.memory.pagecache.scan.prefetchers", INT, 4 )
             .addConstraint( range( 0, 255 ) ).build();
 
+    public enum PageCacheEvictionPolicy
+    {
+        CLOCK, SCAN_RESISTANT
+    }
+
+    @Description( "The page replacement policy used by the page cache when it needs to evict pages. " +
+            "The default 'clock' policy ages every page the eviction clock passes by, which means that a single large scan, " +
+            "such as a full store scan or a consistency check, can push the entire working set out of the page cache. " +
+            "The 'scan_resistant' policy prefers to evict pages that have only been accessed once since they were loaded, " +
+            "and only slowly ages frequently accessed pages while such cold pages are available." )
+    public static final Setting<PageCacheEvictionPolicy> pagecache_eviction_policy =
+            newBuilder( "dbms.memory.pagecache.eviction_policy", ofEnum( PageCacheEvictionPolicy.class ), PageCacheEvictionPolicy.CLOCK ).build();
+
+    public enum PageCacheHugePages
+    {
+        DISABLED, TRANSPARENT, EXPLICIT
+    }
+
+    @Description( "Back the page cache memory with huge pages, which reduces the TLB misses when accessing a large page cache. " +
+            "With 'transparent', the page cache memory is aligned to huge pages and the operating system is advised to back it " +
+            "with transparent huge pages. With 'explicit', the page cache memory is mapped from the huge pages that have been reserved " +
+            "by the operating system, for instance through `vm.nr_hugepages` on Linux, and falls back to transparent huge pages " +
+            "once those are exhausted. Huge pages are only supported on Linux; when they are unavailable, the next best option is used, " +
+            "and the option that is used is logged at startup." )
+    public static final Setting<PageCacheHugePages> pagecache_huge_pages =
+            newBuilder( "dbms.memory.pagecache.huge_pages", ofEnum( PageCacheHugePages.class ), PageCacheHugePages.DISABLED ).build();
+
+    @Description( "Split the page cache into one partition per NUMA node, where the memory of each partition is allocated on its node, " +
+            "and page faults prefer pages from the partition that is local to the faulting thread. This reduces the accesses to memory " +
+            "on remote NUMA nodes on machines with more than one CPU socket. NUMA partitioning is only supported on Linux; when the " +
+            "machine has a single NUMA node, or the NUMA topology cannot be determined, the page cache is not partitioned." )
+    public static final Setting<Boolean> pagecache_numa_partitioning =
+            newBuilder( "dbms.memory.pagecache.numa_partitioning", BOOL, false ).build();
+
+    @Description( "Page cache memory reserved for the pages of specific database files, as a comma separated list of " +
+            "`<file name regex>=<size>` entries, for example `index-.*=100m,neostore\\.relationshipstore\\.db=1g`. " +
+            "An entry only ends at a comma that follows its size, so regexes may contain commas, as in `index-[0-9]{1,3}=100m`. " +
+            "Every mapped file whose name matches a pattern gets the given amount of page cache memory reserved for its own pages, " +
+            "which protects those pages from being evicted by accesses to other files, such as large store scans. " +
+            "The first matching pattern applies. Reserved pages can still be evicted if the page cache finds nothing else to evict." )
+    public static final Setting<String> pagecache_file_reservations =
+            newBuilder( "dbms.memory.pagecache.file_reservations", STRING, "" ).build();
+
+    @Description( "The maximum amount of page cache memory that the pages of specific database files may use, as a comma separated " +
+            "list of `<file name regex>=<size>` entries, for example `neostore\\.propertystore\\.db.*=2g`. " +
+            "An entry only ends at a comma that follows its size, so regexes may contain commas. " +
+            "Once a mapped file whose name matches a pattern uses more than the given amount of page cache memory, its pages are " +
+            "evicted regardless of how recently they were used. The first matching pattern applies." )
+    public static final Setting<String> pagecache_file_limits =
+            newBuilder( "dbms.memory.pagecache.file_limits", STRING, "" ).build();
+
+    @Description( "How often the dirty pages of the database files are written back to storage in the background, ahead of check-points. " +
+            "The pages are written in file order, with adjacent pages merged into single writes, and at the IO rate that check-points are " +
+            "limited to, if any. This way check-points only have to flush the pages that were modified after the last write-back, " +
+            "instead of all pages that were modified since the last check-point. A value of 0 disables background write-back." )
+    public static final Setting<Duration> pagecache_writeback_interval =
+            newBuilder( "dbms.memory.pagecache.writeback.interval", DURATION, Duration.ZERO ).build();
+
     @Description( "The profiling frequency for the page cache. Accurate profiles allow the page cache to do active " +
-            "warmup after a restart, reducing the mean time to performance. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "warmup after a restart, reducing the mean time to performance." )
     public static final Setting<Duration> pagecache_warmup_profiling_interval =
             newBuilder( "dbms.memory.pagecache.warmup.profile.interval", DURATION, ofMinutes( 1 ) ).build();
 
     @Description( "Page cache can be configured to perform usage sampling of loaded pages that can be used to construct active load profile. " +
             "According to that profile pages can be reloaded on the restart, replication, etc. " +
-            "This setting allows disabling that behavior. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "This setting allows disabling that behavior." )
     public static final Setting<Boolean> pagecache_warmup_enabled =
             newBuilder( "dbms.memory.pagecache.warmup.enable", BOOL, true ).build();
 
@@ -36,7 +36,10 @@ import org.neo4j.cypher.internal.compiler.StatsDivergenceCalculator
 import org.neo4j.cypher.internal.runtime.MEMORY_TRACKING
 import org.neo4j.cypher.internal.runtime.MemoryTracking
 import org.neo4j.cypher.internal.runtime.MemoryTrackingController
+import org.neo4j.cypher.internal.runtime.NO_SPILLING
 import org.neo4j.cypher.internal.runtime.NO_TRACKING
+import org.neo4j.cypher.internal.runtime.SPILL_TO_DISK
+import org.neo4j.cypher.internal.runtime.Spilling
 
 /**
  * Holds all configuration options for the Neo4j Cypher execution engine, compilers and runtimes.
@@ -66,10 +69,19 @@ object CypherConfiguration {
       CypherOperatorEngineOption(config.get(GraphDatabaseInternalSettings.cypher_operator_engine).toString),
       CypherInterpretedPipesFallbackOption(config.get(GraphDatabaseInternalSettings.cypher_pipelined_interpreted_pipes_fallback).toString),
       new ConfigMemoryTrackingController(config),
-      config.get(GraphDatabaseInternalSettings.cypher_enable_runtime_monitors)
+      config.get(GraphDatabaseInternalSettings.cypher_enable_runtime_monitors),
+      spillingFromConfig(config),
+      config.get(GraphDatabaseInternalSettings.cypher_interpreted_batch_size).intValue(),
+      config.get(GraphDatabaseInternalSettings.cypher_parallel_scan_workers).intValue()
     )
   }
 
+  def spillingFromConfig(config: Config): Spilling = {
+    val threshold = config.get(GraphDatabaseInternalSettings.cypher_spill_threshold).longValue()
+    if (threshold > 0) SPILL_TO_DISK(threshold, config.get(GraphDatabaseInternalSettings.cypher_spill_directory))
+    else NO_SPILLING
+  }
+
   def statsDivergenceFromConfig(config: Config): StatsDivergenceCalculator = {
     val divergenceThreshold = config.get(GraphDatabaseSettings.query_statistics_divergence_threshold).doubleValue()
     val targetThreshold = config.get(GraphDatabaseInternalSettings.query_statistics_divergence_target).doubleValue()
@@ -130,7 +142,10 @@ case class CypherConfiguration(version: CypherVersion,
                                operatorEngine: CypherOperatorEngineOption,
                                interpretedPipesFallback: CypherInterpretedPipesFallbackOption,
                                memoryTrackingController: MemoryTrackingController,
-                               enableMonitors: Boolean) {
+                               enableMonitors: Boolean,
+                               spilling: Spilling,
+                               interpretedBatchSize: Int,
+                               parallelScanWorkers: Int) {
 
   def toCypherRuntimeConfiguration: CypherRuntimeConfiguration =
     CypherRuntimeConfiguration(
@@ -139,7 +154,10 @@ case class CypherConfiguration(version: CypherVersion,
       schedulerTracing = toSchedulerTracingConfiguration(doSchedulerTracing, schedulerTracingFile),
       lenientCreateRelationship = lenientCreateRelationship,
       memoryTrackingController = memoryTrackingController,
-      enableMonitors
+      enableMonitors,
+      spilling,
+      interpretedBatchSize,
+      parallelScanWorkers
     )
 
   def toSchedulerTracingConfiguration(doSchedulerTracing: Boolean,
@@ -54,7 +54,8 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
 
     val converters = new ExpressionConverters(CommunityExpressionConverter(context.tokenContext))
     val queryIndexRegistrator = new QueryIndexRegistrator(context.schemaRead)
-    val pipeMapper = InterpretedPipeMapper(query.readOnly, converters, context.tokenContext, queryIndexRegistrator)(query.semanticTable)
+    val pipeMapper = InterpretedPipeMapper(query.readOnly, converters, context.tokenContext, queryIndexRegistrator,
+      context.config.parallelScanWorkers)(query.semanticTable)
     val pipeTreeBuilder = PipeTreeBuilder(pipeMapper)
     val logicalPlanWithConvertedNestedPlans = NestedPipeExpressions.build(pipeTreeBuilder, withSlottedParameters, availableExpressionVars)
     val pipe = pipeTreeBuilder.build(logicalPlanWithConvertedNestedPlans)
@@ -68,7 +69,9 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
       withSlottedParameters,
       context.config.lenientCreateRelationship,
       context.config.memoryTrackingController,
-      query.hasLoadCSV)
+      query.hasLoadCSV,
+      context.config.spilling,
+      context.config.interpretedBatchSize)
 
     new InterpretedExecutionPlan(query.periodicCommitInfo,
       resultBuilderFactory,
@@ -38,6 +38,7 @@ import org.neo4j.cypher.internal.plandescription.Arguments.Runtime
 import org.neo4j.cypher.internal.plandescription.Arguments.RuntimeImpl
 import org.neo4j.cypher.internal.plandescription.Arguments.RuntimeVersion
 import org.neo4j.cypher.internal.plandescription.Arguments.SourceCode
+import org.neo4j.cypher.internal.plandescription.Arguments.SpilledBytes
 import org.neo4j.cypher.internal.plandescription.Arguments.Time
 import org.neo4j.cypher.internal.plandescription.Arguments.Version
 import org.neo4j.cypher.internal.plandescription.asPrettyString.PrettyStringMaker
@@ -50,6 +51,7 @@ object PlanDescriptionArgumentSerializer {
       case DbHits(value) => Long.box(value)
       case Memory(value) => Long.box(value)
       case GlobalMemory(value) => Long.box(value)
+      case SpilledBytes(value) => Long.box(value)
       case PageCacheHits(value) => Long.box(value)
       case PageCacheMisses(value) => Long.box(value)
       case PageCacheHitRatio(value) => Double.box(value)
@@ -65,6 +65,7 @@ class PlanDescriptionBuilder(logicalPlan: LogicalPlan,
           .addArgument(Arguments.PageCacheHitRatio, data.pageCacheHitRatio())
           .addArgument(Arguments.Time, data.time())
           .addArgument(Arguments.Memory, data.maxAllocatedMemory())
+          .addArgument(Arguments.SpilledBytes, data.spilledBytes())
         .plan
     }
   }
@@ -37,6 +37,7 @@ import org.neo4j.cypher.internal.plandescription.Arguments.Runtime
 import org.neo4j.cypher.internal.plandescription.Arguments.RuntimeImpl
 import org.neo4j.cypher.internal.plandescription.Arguments.RuntimeVersion
 import org.neo4j.cypher.internal.plandescription.Arguments.SourceCode
+import org.neo4j.cypher.internal.plandescription.Arguments.SpilledBytes
 import org.neo4j.cypher.internal.plandescription.Arguments.Time
 import org.neo4j.cypher.internal.plandescription.Arguments.Version
 
@@ -54,6 +55,7 @@ object renderAsTreeTable extends (InternalPlanDescription => String) {
   private val ROWS = "Rows"
   private val HITS = "DB Hits"
   private val MEMORY = "Memory (Bytes)"
+  private val SPILLED = "Spilled (Bytes)"
   private val PAGE_CACHE_HITS = "Page Cache Hits"
   private val PAGE_CACHE_MISSES = "Page Cache Misses"
   private val PAGE_CACHE_HIT_RATIO = "Page Cache Hit Ratio"
@@ -61,7 +63,7 @@ object renderAsTreeTable extends (InternalPlanDescription => String) {
   private val ORDER = "Order"
   val MAX_DETAILS_COLUMN_WIDTH = 100
   private val OTHER = "Other"
-  private val HEADERS = Seq(OPERATOR, DETAILS, ESTIMATED_ROWS, ROWS, HITS, MEMORY, PAGE_CACHE_HITS, PAGE_CACHE_MISSES, PAGE_CACHE_HIT_RATIO, TIME,
+  private val HEADERS = Seq(OPERATOR, DETAILS, ESTIMATED_ROWS, ROWS, HITS, MEMORY, SPILLED, PAGE_CACHE_HITS, PAGE_CACHE_MISSES, PAGE_CACHE_HIT_RATIO, TIME,
     ORDER, OTHER)
   private val newLine = System.lineSeparator()
   private val SEPARATOR = ","
@@ -173,6 +175,7 @@ object renderAsTreeTable extends (InternalPlanDescription => String) {
     case Rows(count) => mapping(ROWS, RightJustifiedCell(count.toString), columns)
     case DbHits(count) => mapping(HITS, RightJustifiedCell(count.toString), columns)
     case Memory(count) => mapping(MEMORY, RightJustifiedCell(count.toString), columns)
+    case SpilledBytes(count) => mapping(SPILLED, RightJustifiedCell(count.toString), columns)
     case PageCacheHits(count) => mapping(PAGE_CACHE_HITS, RightJustifiedCell(count.toString), columns)
     case PageCacheMisses(count) => mapping(PAGE_CACHE_MISSES, RightJustifiedCell(count.toString), columns)
     case PageCacheHitRatio(ratio) => mapping(PAGE_CACHE_HIT_RATIO, RightJustifiedCell("%.4f".format(ratio)), columns)
@@ -248,6 +251,7 @@ object renderAsTreeTable extends (InternalPlanDescription => String) {
         !x.isInstanceOf[DbHits] &&
         !x.isInstanceOf[Memory] &&
         !x.isInstanceOf[GlobalMemory] &&
+        !x.isInstanceOf[SpilledBytes] &&
         !x.isInstanceOf[PageCacheHits] &&
         !x.isInstanceOf[PageCacheMisses] &&
         !x.isInstanceOf[PageCacheHitRatio] &&
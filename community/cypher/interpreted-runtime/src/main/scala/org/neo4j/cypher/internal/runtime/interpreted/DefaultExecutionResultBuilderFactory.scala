@@ -23,10 +23,12 @@ import org.neo4j.cypher.internal.logical.plans.LogicalPlan
 import org.neo4j.cypher.internal.runtime.ExpressionCursors
 import org.neo4j.cypher.internal.runtime.InputDataStream
 import org.neo4j.cypher.internal.runtime.MemoryTrackingController
+import org.neo4j.cypher.internal.runtime.NO_SPILLING
 import org.neo4j.cypher.internal.runtime.ParameterMapping
 import org.neo4j.cypher.internal.runtime.QueryContext
 import org.neo4j.cypher.internal.runtime.QueryIndexes
 import org.neo4j.cypher.internal.runtime.QueryMemoryTracker
+import org.neo4j.cypher.internal.runtime.Spilling
 import org.neo4j.cypher.internal.runtime.createParameterArray
 import org.neo4j.cypher.internal.runtime.interpreted.load_csv.LoadCsvPeriodicCommitObserver
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.ExternalCSVResource
@@ -85,7 +87,9 @@ case class InterpretedExecutionResultBuilderFactory(pipe: Pipe,
                                                     logicalPlan: LogicalPlan,
                                                     lenientCreateRelationship: Boolean,
                                                     memoryTrackingController: MemoryTrackingController,
-                                                    hasLoadCSV: Boolean = false)
+                                                    hasLoadCSV: Boolean = false,
+                                                    spilling: Spilling = NO_SPILLING,
+                                                    batchSize: Int = 0)
   extends BaseExecutionResultBuilderFactory(pipe, readOnly, columns, logicalPlan, hasLoadCSV) {
 
   override def create(queryContext: QueryContext): ExecutionResultBuilder = InterpretedExecutionResultBuilder(queryContext: QueryContext)
@@ -107,7 +111,10 @@ case class InterpretedExecutionResultBuilderFactory(pipe: Pipe,
                      pipeDecorator,
                      lenientCreateRelationship = lenientCreateRelationship,
                      prePopulateResults = prePopulateResults,
-                     input = input)
+                     input = input,
+                     spilling = spilling,
+                     // evaluating rows ahead of the pipes above is only invisible when no rows are written in between
+                     batchSize = if (readOnly) batchSize else 0)
     }
   }
 
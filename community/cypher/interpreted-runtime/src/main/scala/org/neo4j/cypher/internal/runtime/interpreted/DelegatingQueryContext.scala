@@ -20,6 +20,7 @@
 package org.neo4j.cypher.internal.runtime.interpreted
 
 import java.net.URL
+import java.util.concurrent.Executor
 
 import org.eclipse.collections.api.iterator.LongIterator
 import org.neo4j.cypher.internal.expressions.SemanticDirection
@@ -376,6 +377,12 @@ class DelegatingQueryTransactionalContext(val inner: QueryTransactionalContext)
 
   override def cursors: CursorFactory = inner.cursors
 
+  override def workerCursors: CursorFactory = inner.workerCursors
+
+  override def workerExecutor: Executor = inner.workerExecutor
+
+  override def hasTxStateWithChanges: Boolean = inner.hasTxStateWithChanges
+
   override def dataRead: Read = inner.dataRead
 
   override def tokenRead: TokenRead = inner.tokenRead
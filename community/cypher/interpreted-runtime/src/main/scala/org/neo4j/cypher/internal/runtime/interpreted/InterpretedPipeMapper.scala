@@ -184,6 +184,7 @@ import org.neo4j.cypher.internal.runtime.interpreted.pipes.OptionalExpandIntoPip
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.OptionalPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.OrderedAggregationPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.OrderedDistinctPipe
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ParallelScanAggregationPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.PartialSortPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.PartialTop1Pipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.PartialTop1WithTiesPipe
@@ -242,7 +243,8 @@ import org.neo4j.values.virtual.RelationshipValue
 case class InterpretedPipeMapper(readOnly: Boolean,
                                  expressionConverters: ExpressionConverters,
                                  tokenContext: TokenContext,
-                                 indexRegistrator: QueryIndexRegistrator)
+                                 indexRegistrator: QueryIndexRegistrator,
+                                 parallelScanWorkers: Int = 0)
                                 (implicit semanticTable: SemanticTable) extends PipeMapper {
 
   private def getBuildExpression(id: Id): internal.expressions.Expression => Expression =
@@ -470,18 +472,23 @@ case class InterpretedPipeMapper(readOnly: Boolean,
         val aggregationColumns = aggregatingExpressions.map {
           case (key, value) => AggregationPipe.AggregatingCol(key, buildExpression(value).asInstanceOf[AggregationExpression])
         }.toArray
+        val groupingColumns = groupingExpressions.map {
+          case (key, value) => DistinctPipe.GroupingCol(key, buildExpression(value))
+        }.toArray
 
         val tableFactory =
-          if (groupingExpressions.isEmpty) {
+          if (groupingColumns.isEmpty) {
             NonGroupingAggTable.Factory(aggregationColumns)
           } else {
-            val groupingColumns = groupingExpressions.map {
-              case (key, value) => DistinctPipe.GroupingCol(key, buildExpression(value))
-            }.toArray
             val groupingFunction: (CypherRow, QueryState) => AnyValue = AggregationPipe.computeGroupingFunction(groupingColumns)
             GroupingAggTable.Factory(groupingColumns, groupingFunction, aggregationColumns)
           }
-        EagerAggregationPipe(source, tableFactory)(id = id)
+        val aggregationPipe = EagerAggregationPipe(source, tableFactory)(id = id)
+        if (readOnly && parallelScanWorkers > 1) {
+          ParallelScanAggregationPipe.over(aggregationPipe, source, groupingColumns, aggregationColumns, parallelScanWorkers)(id).getOrElse(aggregationPipe)
+        } else {
+          aggregationPipe
+        }
 
       case OrderedAggregation(_, groupingExpressions, aggregatingExpressions, orderToLeverage) =>
         val aggregationColumns = aggregatingExpressions.map {
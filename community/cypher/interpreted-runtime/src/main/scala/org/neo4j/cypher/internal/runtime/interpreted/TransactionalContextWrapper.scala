@@ -19,6 +19,8 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted
 
+import java.util.concurrent.Executor
+
 import org.neo4j.cypher.internal.profiling.KernelStatisticProvider
 import org.neo4j.cypher.internal.runtime.QueryTransactionalContext
 import org.neo4j.internal.kernel.api.CursorFactory
@@ -27,12 +29,16 @@ import org.neo4j.internal.kernel.api.SchemaRead
 import org.neo4j.internal.kernel.api.TokenRead
 import org.neo4j.internal.kernel.api.Write
 import org.neo4j.kernel.GraphDatabaseQueryService
+import org.neo4j.kernel.api.Kernel
 import org.neo4j.kernel.api.KernelTransaction
 import org.neo4j.kernel.api.dbms.DbmsOperations
+import org.neo4j.kernel.api.txstate.TxStateHolder
 import org.neo4j.kernel.database.NamedDatabaseId
 import org.neo4j.kernel.impl.api.SchemaStateKey
 import org.neo4j.kernel.impl.factory.DbmsInfo
 import org.neo4j.kernel.impl.query.TransactionalContext
+import org.neo4j.scheduler.Group
+import org.neo4j.scheduler.JobScheduler
 
 /**
  * TODO: Currently threadSafeCursors is entirely unused (always null), so we should consider removing it
@@ -49,6 +55,15 @@ case class TransactionalContextWrapper(tc: TransactionalContext, threadSafeCurso
 
   override def cursors: CursorFactory = if (threadSafeCursors == null) tc.kernelTransaction.cursors() else threadSafeCursors
 
+  override def workerCursors: CursorFactory = tc.graph().getDependencyResolver.resolveDependency(classOf[Kernel]).cursors()
+
+  override def workerExecutor: Executor = tc.graph().getDependencyResolver.resolveDependency(classOf[JobScheduler]).executor(Group.CYPHER_WORKER)
+
+  override def hasTxStateWithChanges: Boolean = tc.kernelTransaction() match {
+    case txStateHolder: TxStateHolder => txStateHolder.hasTxStateWithChanges
+    case _ => true
+  }
+
   override def dataRead: Read = tc.kernelTransaction().dataRead()
 
   override def tokenRead: TokenRead = tc.kernelTransaction().tokenRead()
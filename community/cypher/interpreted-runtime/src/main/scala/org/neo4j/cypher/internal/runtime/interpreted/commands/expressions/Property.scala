@@ -41,7 +41,12 @@ import scala.util.Try
 case class Property(mapExpr: Expression, propertyKey: KeyToken)
   extends Expression with Product with Serializable
 {
-  def apply(row: ReadableRow, state: QueryState): AnyValue = mapExpr(row, state) match {
+  def apply(row: ReadableRow, state: QueryState): AnyValue = propertyOf(mapExpr(row, state), state)
+
+  /**
+   * @return the property of `value`, the value of `mapExpr` for some row
+   */
+  def propertyOf(value: AnyValue, state: QueryState): AnyValue = value match {
     case IsNoValue() => Values.NO_VALUE
     case n: VirtualNodeValue =>
       propertyKey.getOptId(state.query) match {
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.util
+
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.IsFalseValue
+import org.neo4j.cypher.internal.runtime.IsNoValue
+import org.neo4j.cypher.internal.runtime.IsTrueValue
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Literal
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.ParameterFromSlot
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Property
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Variable
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.ComparablePredicate
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.CompositeBooleanPredicate
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.Equals
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.IsNull
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.Not
+import org.neo4j.values.AnyValue
+import org.neo4j.values.Equality
+import org.neo4j.values.storable.Values
+
+/**
+ * An expression evaluated over a batch of rows one part of the expression at a time, instead of one row at a time.
+ *
+ * Only expressions that read the rows and the graph can be batched, because a batch is evaluated before the pipes above have pulled
+ * its rows. A batched expression fails for the whole batch if it fails for any of its rows. [[RowBatches]] then evaluates that batch
+ * again one row at a time, so that the failure surfaces at the row, and only if that row is pulled.
+ */
+abstract class BatchedExpression {
+
+  /**
+   * Evaluates the expression for the rows `rows(selection(j))`, `j < selected`, into `out(selection(j))`.
+   */
+  def evaluate(rows: Array[CypherRow], selection: Array[Int], selected: Int, state: QueryState, out: Array[AnyValue]): Unit
+}
+
+object BatchedExpression {
+
+  /**
+   * @return `expression` evaluated over batches of up to `batchSize` rows, if every part of it can be batched
+   */
+  def apply(expression: Expression, batchSize: Int): Option[BatchedExpression] = expression match {
+    case Literal(value) =>
+      Some(new Constant(_ => value))
+    case ParameterFromSlot(offset, _) =>
+      Some(new Constant(state => state.params(offset)))
+    case Variable(name) =>
+      Some(new RowVariable(name))
+    case property: Property =>
+      apply(property.mapExpr, batchSize).map(new PropertyOf(property, _, batchSize))
+    case Equals(a, b) =>
+      both(a, b, batchSize)((l, r) => l.ternaryEquals(r) match {
+        case Equality.TRUE => Values.TRUE
+        case Equality.FALSE => Values.FALSE
+        case Equality.UNDEFINED => Values.NO_VALUE
+      })
+    case comparison: ComparablePredicate =>
+      both(comparison.left, comparison.right, batchSize)((l, r) => comparison.comparator(l, r) match {
+        case IsTrueValue() => Values.TRUE
+        case IsFalseValue() => Values.FALSE
+        case IsNoValue() => Values.NO_VALUE
+      })
+    case Not(a) =>
+      apply(a, batchSize).map(new Negation(_, batchSize))
+    case IsNull(a) =>
+      apply(a, batchSize).map(new NullCheck(_, batchSize))
+    case composite: CompositeBooleanPredicate =>
+      val predicates = composite.predicates.toIndexedSeq.map(apply(_, batchSize))
+      if (predicates.forall(_.isDefined)) Some(new ShortCircuit(predicates.map(_.get).toArray, composite.shouldExitWhen, batchSize)) else None
+    case _ =>
+      None
+  }
+
+  private def both(a: Expression, b: Expression, batchSize: Int)(f: (AnyValue, AnyValue) => AnyValue): Option[BatchedExpression] =
+    for (l <- apply(a, batchSize); r <- apply(b, batchSize)) yield new Binary(l, r, batchSize, f)
+
+  private class Constant(value: QueryState => AnyValue) extends BatchedExpression {
+    override def evaluate(rows: Array[CypherRow], selection: Array[Int], selected: Int, state: QueryState, out: Array[AnyValue]): Unit = {
+      val v = value(state)
+      var j = 0
+      while (j < selected) {
+        out(selection(j)) = v
+        j += 1
+      }
+    }
+  }
+
+  private class RowVariable(name: String) extends BatchedExpression {
+    override def evaluate(rows: Array[CypherRow], selection: Array[Int], selected: Int, state: QueryState, out: Array[AnyValue]): Unit = {
+      var j = 0
+      while (j < selected) {
+        val i = selection(j)
+        out(i) = rows(i).getByName(name)
+        j += 1
+      }
+    }
+  }
+
+  private class PropertyOf(property: Property, map: BatchedExpression, batchSize: Int) extends BatchedExpression {
+    private val maps = new Array[AnyValue](batchSize)
+
+    override def evaluate(rows: Array[CypherRow], selection: Array[Int], selected: Int, state: QueryState, out: Array[AnyValue]): Unit = {
+      map.evaluate(rows, selection, selected, state, maps)
+      var j = 0
+      while (j < selected) {
+        val i = selection(j)
+        out(i) = property.propertyOf(maps(i), state)
+        j += 1
+      }
+    }
+  }
+
+  private class Binary(a: BatchedExpression, b: BatchedExpression, batchSize: Int, f: (AnyValue, AnyValue) => AnyValue) extends BatchedExpression {
+    private val lhs = new Array[AnyValue](batchSize)
+    private val rhs = new Array[AnyValue](batchSize)
+
+    override def evaluate(rows: Array[CypherRow], selection: Array[Int], selected: Int, state: QueryState, out: Array[AnyValue]): Unit = {
+      a.evaluate(rows, selection, selected, state, lhs)
+      b.evaluate(rows, selection, selected, state, rhs)
+      var j = 0
+      while (j < selected) {
+        val i = selection(j)
+        out(i) = f(lhs(i), rhs(i))
+        j += 1
+      }
+    }
+  }
+
+  private class Negation(a: BatchedExpression, batchSize: Int) extends BatchedExpression {
+    private val values = new Array[AnyValue](batchSize)
+
+    override def evaluate(rows: Array[CypherRow], selection: Array[Int], selected: Int, state: QueryState, out: Array[AnyValue]): Unit = {
+      a.evaluate(rows, selection, selected, state, values)
+      var j = 0
+      while (j < selected) {
+        val i = selection(j)
+        out(i) = values(i) match {
+          case IsTrueValue() => Values.FALSE
+          case IsFalseValue() => Values.TRUE
+          case IsNoValue() => Values.NO_VALUE
+        }
+        j += 1
+      }
+    }
+  }
+
+  private class NullCheck(a: BatchedExpression, batchSize: Int) extends BatchedExpression {
+    private val values = new Array[AnyValue](batchSize)
+
+    override def evaluate(rows: Array[CypherRow], selection: Array[Int], selected: Int, state: QueryState, out: Array[AnyValue]): Unit = {
+      a.evaluate(rows, selection, selected, state, values)
+      var j = 0
+      while (j < selected) {
+        val i = selection(j)
+        out(i) = if (values(i) eq Values.NO_VALUE) Values.TRUE else Values.FALSE
+        j += 1
+      }
+    }
+  }
+
+  /**
+   * AND or OR of predicates, that evaluates each predicate only for the rows whose result the previous predicates did not decide.
+   */
+  private class ShortCircuit(predicates: Array[BatchedExpression], exitWhen: Boolean, batchSize: Int) extends BatchedExpression {
+    private val exitValue = Values.booleanValue(exitWhen)
+    private val otherValue = Values.booleanValue(!exitWhen)
+    private val undecided = new Array[Int](batchSize)
+    private val values = new Array[AnyValue](batchSize)
+    private val sawNull = new Array[Boolean](batchSize)
+
+    override def evaluate(rows: Array[CypherRow], selection: Array[Int], selected: Int, state: QueryState, out: Array[AnyValue]): Unit = {
+      util.Arrays.fill(sawNull, false)
+      System.arraycopy(selection, 0, undecided, 0, selected)
+      var remaining = selected
+      var p = 0
+      while (p < predicates.length && remaining > 0) {
+        predicates(p).evaluate(rows, undecided, remaining, state, values)
+        var kept = 0
+        var j = 0
+        while (j < remaining) {
+          val i = undecided(j)
+          val value = values(i)
+          if (value eq exitValue) {
+            out(i) = exitValue
+          } else {
+            if (value eq Values.NO_VALUE) {
+              sawNull(i) = true
+            }
+            undecided(kept) = i
+            kept += 1
+          }
+          j += 1
+        }
+        remaining = kept
+        p += 1
+      }
+      var j = 0
+      while (j < remaining) {
+        val i = undecided(j)
+        out(i) = if (sawNull(i)) Values.NO_VALUE else otherValue
+        j += 1
+      }
+    }
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.util.Comparator
+import java.util.PriorityQueue
+
+import org.neo4j.collection.trackable.HeapTrackingArrayList
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.ReadableRow
+import org.neo4j.cypher.internal.runtime.SPILL_TO_DISK
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.internal.kernel.api.AutoCloseablePlus
+import org.neo4j.internal.kernel.api.DefaultCloseListenable
+import org.neo4j.memory.MemoryTracker
+
+import scala.collection.JavaConverters.asScalaIteratorConverter
+import scala.collection.mutable.ArrayBuffer
+
+object ExternalSorter {
+  /**
+   * The maximum number of runs that are read at the same time when merging.
+   */
+  final val MAX_MERGE_FAN_IN = 64
+}
+
+/**
+ * Sorts rows in memory until they use more heap than the spill threshold, then writes them to disk as a sorted run and continues with
+ * the next rows. When the sorted rows are pulled, the runs are merged lazily. Only the first `limit` rows of each run are written,
+ * since no more than that can be returned. If there are more runs than `maxMergeFanIn`, they are first merged into fewer, longer runs,
+ * so that no more than `maxMergeFanIn` files are open at the same time.
+ *
+ * The sorter is traced by the resources of the query, so that its spill files are deleted when the query is closed before all sorted
+ * rows have been pulled.
+ */
+class ExternalSorter(comparator: Comparator[ReadableRow],
+                     spilling: SPILL_TO_DISK,
+                     state: QueryState,
+                     id: Id,
+                     memoryTracker: MemoryTracker,
+                     limit: Long = Long.MaxValue,
+                     maxMergeFanIn: Int = ExternalSorter.MAX_MERGE_FAN_IN) extends DefaultCloseListenable with AutoCloseablePlus {
+
+  private val spilledRows = new SpilledRows(spilling.directory, state, id)
+  private val runs = new ArrayBuffer[spilledRows.SpillFile]
+  private var buffer: HeapTrackingArrayList[CypherRow] = HeapTrackingArrayList.newArrayList(256, memoryTracker)
+  private var bufferHeapUsage = 0L
+  private var closed = false
+  require(maxMergeFanIn >= 2, "Must merge at least two runs at a time")
+  state.query.resources.trace(this)
+
+  def add(row: CypherRow): Unit = {
+    val heapUsage = row.estimatedHeapUsage()
+    memoryTracker.allocateHeap(heapUsage)
+    bufferHeapUsage += heapUsage
+    buffer.add(row)
+    if (bufferHeapUsage > spilling.threshold && SpilledRows.canSpill(row)) {
+      spillRun()
+    }
+  }
+
+  /**
+   * The first `limit` rows added so far, in sorted order.
+   */
+  def sorted(): Iterator[CypherRow] = {
+    buffer.sort(comparator)
+    // Leave room for the buffer, which is merged together with the runs
+    while (runs.size >= maxMergeFanIn) {
+      val merged = runs.grouped(maxMergeFanIn).map(group => if (group.size == 1) group.head else mergeRuns(group)).toList
+      runs.clear()
+      runs ++= merged
+    }
+    val rows =
+      if (runs.isEmpty) buffer.iterator().asScala
+      else new MergingIterator(runs.map(_.reader()) :+ buffer.iterator().asScala)
+    if (limit == Long.MaxValue) rows
+    else new Iterator[CypherRow] {
+      private var remaining = limit
+
+      override def hasNext: Boolean = remaining > 0 && rows.hasNext
+
+      override def next(): CypherRow = {
+        remaining -= 1
+        rows.next()
+      }
+    }
+  }
+
+  override def close(): Unit = {
+    closeInternal()
+    val listener = closeListener
+    if (listener != null) {
+      listener.onClosed(this)
+    }
+  }
+
+  override def closeInternal(): Unit = {
+    if (!closed) {
+      closed = true
+      buffer.close()
+      buffer = null
+      memoryTracker.releaseHeap(bufferHeapUsage)
+      bufferHeapUsage = 0
+      spilledRows.close()
+    }
+  }
+
+  override def isClosed: Boolean = closed
+
+  private def spillRun(): Unit = {
+    buffer.sort(comparator)
+    val writer = spilledRows.newFile()
+    try {
+      var i = 0
+      while (i < buffer.size() && i < limit) {
+        writer.write(buffer.get(i))
+        i += 1
+      }
+    } finally {
+      runs += writer.finish()
+    }
+    buffer.clear()
+    memoryTracker.releaseHeap(bufferHeapUsage)
+    bufferHeapUsage = 0
+  }
+
+  /**
+   * Merge consecutive runs into a single run, and delete them. Since the runs are consecutive, the merged run keeps the sort stable.
+   */
+  private def mergeRuns(group: Seq[spilledRows.SpillFile]): spilledRows.SpillFile = {
+    val readers = group.map(_.reader())
+    val writer = spilledRows.newFile()
+    try {
+      val rows = new MergingIterator(readers)
+      while (rows.hasNext && writer.count < limit) {
+        writer.write(rows.next())
+      }
+    } finally {
+      writer.close()
+      readers.foreach(_.close())
+    }
+    group.foreach(_.delete())
+    writer.finish()
+  }
+
+  /**
+   * Merges sorted sources. Rows that compare equal are returned in the order of their sources, which keeps the sort stable.
+   */
+  private class MergingIterator(sources: Seq[Iterator[CypherRow]]) extends Iterator[CypherRow] {
+    private case class Head(row: CypherRow, source: Int)
+
+    private val heads = new PriorityQueue[Head](sources.size.max(1), (a: Head, b: Head) => {
+      val comparison = comparator.compare(a.row, b.row)
+      if (comparison != 0) comparison else Integer.compare(a.source, b.source)
+    })
+    sources.indices.foreach(advance)
+
+    override def hasNext: Boolean = !heads.isEmpty
+
+    override def next(): CypherRow = {
+      val head = heads.poll()
+      if (head == null) {
+        Iterator.empty.next()
+      }
+      advance(head.source)
+      head.row
+    }
+
+    private def advance(source: Int): Unit = {
+      val iterator = sources(source)
+      if (iterator.hasNext) {
+        heads.add(Head(iterator.next(), source))
+      }
+    }
+  }
+}
@@ -28,5 +28,5 @@ case class FilterPipe(source: Pipe, predicate: Expression)
                      (val id: Id = Id.INVALID_ID) extends PipeWithSource(source) {
 
   protected def internalCreateResults(input: Iterator[CypherRow], state: QueryState): Iterator[CypherRow] =
-    input.filter(ctx => predicate(ctx, state) eq Values.TRUE)
+    RowBatches.filter(input, predicate, state).getOrElse(input.filter(ctx => predicate(ctx, state) eq Values.TRUE))
 }
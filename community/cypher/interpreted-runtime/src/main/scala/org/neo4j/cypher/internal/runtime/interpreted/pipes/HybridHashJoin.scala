@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.util.PriorityQueue
+
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.SPILL_TO_DISK
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.internal.kernel.api.AutoCloseablePlus
+import org.neo4j.internal.kernel.api.DefaultCloseListenable
+import org.neo4j.kernel.impl.util.collection.ProbeTable
+import org.neo4j.memory.MemoryTracker
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.NumberValue
+import org.neo4j.values.storable.Values
+
+import scala.collection.JavaConverters.asScalaIteratorConverter
+
+object HybridHashJoin {
+  final val PARTITIONS = 16
+}
+
+/**
+ * A hash join that keeps the build rows in a probe table on heap until they use more heap than the spill threshold. The build rows
+ * after that are written to one of [[HybridHashJoin.PARTITIONS]] spill files, picked by the hash of their key. Probe rows are joined
+ * with the table on heap as they arrive, and are also written to the partition of their key if any build rows were spilled to it.
+ * Once all probe rows have been seen, each partition is joined on its own, with only its own build rows on heap.
+ *
+ * The joined rows are returned in the order of the probe rows, since the planner relies on a hash join keeping the order of its right
+ * hand side. Probe rows are numbered as they arrive. Once the first probe row has been spilled, the rows joined on heap are spilled
+ * as well, together with the number of their probe row, and so are the rows joined per partition. These files are all in probe row
+ * order, and are merged by probe row number.
+ *
+ * A partition is always joined on heap, even if it is larger than the threshold itself.
+ *
+ * The join is traced by the resources of the query, so that its spill files are deleted when the query is closed before all joined
+ * rows have been pulled.
+ */
+class HybridHashJoin[K <: AnyValue](spilling: SPILL_TO_DISK,
+                                    state: QueryState,
+                                    id: Id,
+                                    memoryTracker: MemoryTracker,
+                                    merge: (CypherRow, CypherRow) => CypherRow) extends DefaultCloseListenable with AutoCloseablePlus {
+  import HybridHashJoin.PARTITIONS
+
+  private var table = ProbeTable.createProbeTable[K, CypherRow](memoryTracker)
+  private var tableHeapUsage = 0L
+  private val spilledRows = new SpilledRows(spilling.directory, state, id)
+  private var buildPartitions: Array[spilledRows.SpillFileWriter] = _
+  private val probePartitions = new Array[spilledRows.SpillFileWriter](PARTITIONS)
+  private var probeRowNumber = 0L
+  private var deferredMatches: spilledRows.SpillFileWriter = _
+  private var closed = false
+  state.query.resources.trace(this)
+
+  def build(key: K, row: CypherRow): Unit = {
+    if (buildPartitions == null) {
+      table.put(key, row)
+      tableHeapUsage += key.estimatedHeapUsage() + row.estimatedHeapUsage()
+      if (tableHeapUsage > spilling.threshold && SpilledRows.canSpill(row)) {
+        buildPartitions = Array.fill(PARTITIONS)(spilledRows.newFile())
+      }
+    } else {
+      buildPartitions(partition(key)).write(key, row)
+    }
+  }
+
+  def isEmpty: Boolean = table.isEmpty && buildPartitions == null
+
+  /**
+   * The joined rows of a probe row that can be returned right away. If build rows with the same hash were spilled, the probe row is
+   * spilled as well, and is joined with them by [[spilledMatches]]. From then on, all joined rows are returned by [[spilledMatches]].
+   */
+  def probe(key: K, row: CypherRow): Iterator[CypherRow] = {
+    val rowNumber = probeRowNumber
+    probeRowNumber += 1
+    if (buildPartitions != null) {
+      val p = partition(key)
+      if (buildPartitions(p).count > 0) {
+        if (probePartitions(p) == null) {
+          probePartitions(p) = spilledRows.newFile()
+        }
+        probePartitions(p).write(rowNumber, key, row)
+        if (deferredMatches == null) {
+          deferredMatches = spilledRows.newFile()
+        }
+      }
+    }
+    val matches = table.get(key).asScala.map(merge(_, row))
+    if (deferredMatches == null) {
+      matches
+    } else {
+      matches.foreach(joined => deferredMatches.write(Values.longValue(rowNumber), joined))
+      Iterator.empty
+    }
+  }
+
+  /**
+   * The joined rows that were not returned by [[probe]], in probe row order. Must only be called once all probe rows have been probed.
+   */
+  def spilledMatches(): Iterator[CypherRow] = {
+    if (deferredMatches == null) {
+      return Iterator.empty
+    }
+    table.close()
+    table = null
+    val builds = buildPartitions.map(_.finish())
+    val probes = probePartitions.map(writer => if (writer == null) null else writer.finish())
+    val partitionMatches = (0 until PARTITIONS).filter(p => probes(p) != null).map(p => joinPartition(builds(p), probes(p)))
+    builds.foreach(_.delete())
+    new ProbeOrderIterator((deferredMatches.finish() +: partitionMatches).map(_.keyedReader()))
+  }
+
+  override def close(): Unit = {
+    closeInternal()
+    val listener = closeListener
+    if (listener != null) {
+      listener.onClosed(this)
+    }
+  }
+
+  override def closeInternal(): Unit = {
+    if (!closed) {
+      closed = true
+      if (table != null) {
+        table.close()
+        table = null
+      }
+      if (buildPartitions != null) {
+        buildPartitions.foreach(_.close())
+      }
+      probePartitions.foreach(writer => if (writer != null) writer.close())
+      if (deferredMatches != null) {
+        deferredMatches.close()
+      }
+      spilledRows.close()
+    }
+  }
+
+  override def isClosed: Boolean = closed
+
+  /**
+   * Join the probe rows of a partition with its build rows, and spill the joined rows together with the number of their probe row.
+   */
+  private def joinPartition(build: spilledRows.SpillFile, probe: spilledRows.SpillFile): spilledRows.SpillFile = {
+    val partitionTable = ProbeTable.createProbeTable[K, CypherRow](memoryTracker)
+    val writer = spilledRows.newFile()
+    try {
+      build.keyedReader().foreach {
+        case (key, row) => partitionTable.put(key.asInstanceOf[K], row)
+      }
+      probe.sequencedReader().foreach {
+        case (rowNumber, key, probeRow) =>
+          partitionTable.get(key.asInstanceOf[K]).asScala.foreach(buildRow => writer.write(Values.longValue(rowNumber), merge(buildRow, probeRow)))
+      }
+    } finally {
+      partitionTable.close()
+      writer.close()
+    }
+    probe.delete()
+    writer.finish()
+  }
+
+  private def partition(key: K): Int = (key.hashCode() & Int.MaxValue) % PARTITIONS
+
+  /**
+   * Merges joined rows that are each in probe row order.
+   */
+  private class ProbeOrderIterator(sources: Seq[Iterator[(AnyValue, CypherRow)]]) extends Iterator[CypherRow] {
+    private case class Head(rowNumber: Long, row: CypherRow, source: Int)
+
+    private val heads = new PriorityQueue[Head](sources.size, (a: Head, b: Head) => java.lang.Long.compare(a.rowNumber, b.rowNumber))
+    sources.indices.foreach(advance)
+
+    override def hasNext: Boolean = !heads.isEmpty
+
+    override def next(): CypherRow = {
+      val head = heads.poll()
+      if (head == null) {
+        Iterator.empty.next()
+      }
+      advance(head.source)
+      head.row
+    }
+
+    private def advance(source: Int): Unit = {
+      val iterator = sources(source)
+      if (iterator.hasNext) {
+        val (rowNumber, row) = iterator.next()
+        heads.add(Head(rowNumber.asInstanceOf[NumberValue].longValue(), row, source))
+      }
+    }
+  }
+}
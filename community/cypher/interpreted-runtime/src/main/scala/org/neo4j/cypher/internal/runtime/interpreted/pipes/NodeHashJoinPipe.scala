@@ -22,6 +22,8 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.IsNoValue
 import org.neo4j.cypher.internal.runtime.Iterators
+import org.neo4j.cypher.internal.runtime.NO_SPILLING
+import org.neo4j.cypher.internal.runtime.SPILL_TO_DISK
 import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.exceptions.CypherTypeException
 import org.neo4j.kernel.impl.util.collection
@@ -44,6 +46,13 @@ case class NodeHashJoinPipe(nodeVariables: Set[String], left: Pipe, right: Pipe)
     if (rhsIterator.isEmpty)
       return Iterator.empty
 
+    state.spilling match {
+      case spilling: SPILL_TO_DISK => joinWithSpilling(input, rhsIterator, spilling, state)
+      case NO_SPILLING => joinInMemory(input, rhsIterator, state)
+    }
+  }
+
+  private def joinInMemory(input: Iterator[CypherRow], rhsIterator: Iterator[CypherRow], state: QueryState): Iterator[CypherRow] = {
     val table = buildProbeTable(input, state)
 
     if (table.isEmpty) {
@@ -66,6 +75,43 @@ case class NodeHashJoinPipe(nodeVariables: Set[String], left: Pipe, right: Pipe)
     Iterators.resourceClosingIterator[CypherRow](result.flatten, table)
   }
 
+  private def joinWithSpilling(input: Iterator[CypherRow],
+                               rhsIterator: Iterator[CypherRow],
+                               spilling: SPILL_TO_DISK,
+                               state: QueryState): Iterator[CypherRow] = {
+    val join = new HybridHashJoin[LongArray](spilling, state, id, state.memoryTracker.memoryTrackerForOperator(id.x), merge(_, _, state))
+    try {
+      for {context <- input
+           joinKey <- computeKey(context)} {
+        join.build(joinKey, context)
+      }
+    } catch {
+      case e: Throwable =>
+        join.close()
+        throw e
+    }
+
+    if (join.isEmpty) {
+      join.close()
+      return Iterator.empty
+    }
+
+    val result =
+      for {rhsRow <- rhsIterator
+           joinKey <- computeKey(rhsRow)
+           output <- join.probe(joinKey, rhsRow)}
+        yield output
+
+    // `++` only evaluates this once all rhs rows have been probed, which is when the spilled partitions are complete
+    Iterators.resourceClosingIterator[CypherRow](result ++ join.spilledMatches(), join)
+  }
+
+  private def merge(lhsRow: CypherRow, rhsRow: CypherRow, state: QueryState): CypherRow = {
+    val output = lhsRow.createClone()
+    output.mergeWith(rhsRow, state.query)
+    output
+  }
+
   private def buildProbeTable(input: Iterator[CypherRow], queryState: QueryState): collection.ProbeTable[LongArray, CypherRow] = {
     val table = collection.ProbeTable.createProbeTable[LongArray, CypherRow](queryState.memoryTracker.memoryTrackerForOperator(id.x))
 
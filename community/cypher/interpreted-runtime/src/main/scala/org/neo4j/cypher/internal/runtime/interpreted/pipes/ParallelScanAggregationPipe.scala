@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.FutureTask
+
+import org.eclipse.collections.api.block.function.Function2
+import org.neo4j.cypher.internal.logical.plans.IndexOrderNone
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.NoMemoryTracker
+import org.neo4j.cypher.internal.runtime.QueryTransactionalContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Avg
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Collect
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Count
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.CountStar
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Max
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Min
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Property
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Sum
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Variable
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.KeyToken
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregatingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.computeNewAggregatorsFunction
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe.GroupingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ParallelScanAggregationPipe.AllNodes
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ParallelScanAggregationPipe.BATCH_SIZE
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ParallelScanAggregationPipe.NodeScan
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ParallelScanAggregationPipe.NodesWithLabel
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ParallelScanAggregationPipe.PARALLEL_SCAN_TAG
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ParallelScanAggregationPipe.WorkerMemoryTracker
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ParallelScanAggregationPipe.propertyVariable
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.AggregationFunction
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.SpillableAggregationFunction
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.internal.kernel.api.Cursor
+import org.neo4j.internal.kernel.api.CursorFactory
+import org.neo4j.internal.kernel.api.NodeCursor
+import org.neo4j.internal.kernel.api.NodeLabelIndexCursor
+import org.neo4j.internal.kernel.api.PropertyCursor
+import org.neo4j.internal.kernel.api.Scan
+import org.neo4j.internal.kernel.api.TokenRead
+import org.neo4j.io.pagecache.tracing.PageCacheTracer
+import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer
+import org.neo4j.kernel.impl.query.QuerySubscriber
+import org.neo4j.kernel.impl.util.collection.HeapTrackingOrderedAppendMap
+import org.neo4j.memory.MemoryTracker
+import org.neo4j.memory.ScopedMemoryTracker
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Values
+
+import scala.collection.mutable
+
+/**
+ * An [[EagerAggregationPipe]] over a node scan, with the scan split among several worker threads.
+ *
+ * Each worker has its own cursors and reserves batches of the shared kernel [[Scan]]. For each node it reads the properties that the
+ * columns need into a row, and aggregates that row into groups of its own. The partial results of all workers are then merged on the
+ * thread executing the query. Workers only see what is committed and cannot be profiled, so a transaction with changes, or a query
+ * with a pipe decorator, runs `serial` instead.
+ *
+ * Workers trace their page accesses with tracers of their own, which are added to the tracer of the transaction when they are done.
+ * The groups of the workers are tracked by the memory tracker of this operator, which the workers share under a lock.
+ *
+ * @param serial          the same aggregation over the ordinary scan pipe, with the same id
+ * @param nodeScan        the scan to split among the workers
+ * @param properties      the properties of the scanned nodes to read, property i into the variable `propertyVariable(i)`
+ * @param groupingColumns the grouping columns, with properties replaced by their variables
+ * @param aggregations    the aggregation columns, with properties replaced by their variables
+ * @param workers         the number of worker threads
+ */
+case class ParallelScanAggregationPipe(serial: Pipe,
+                                       nodeScan: NodeScan,
+                                       properties: Array[KeyToken],
+                                       groupingColumns: Array[GroupingCol],
+                                       aggregations: Array[AggregatingCol],
+                                       workers: Int)
+                                      (val id: Id = Id.INVALID_ID) extends Pipe {
+
+  private val groupingFunction: (CypherRow, QueryState) => AnyValue =
+    if (groupingColumns.isEmpty) (_, _) => Values.NO_VALUE else AggregationPipe.computeGroupingFunction(groupingColumns)
+  private val addKeys: (CypherRow, AnyValue) => Unit = AggregationPipe.computeAddKeysToResultRowFunction(groupingColumns)
+  private val newAggregators: Function2[AnyValue, MemoryTracker, Array[AggregationFunction]] =
+    computeNewAggregatorsFunction(aggregations.map(_.expression))
+  private val variables: Array[String] = properties.indices.map(propertyVariable).toArray
+
+  override def createResults(state: QueryState): Iterator[CypherRow] =
+    if ((state.decorator eq NullPipeDecorator) && !state.query.transactionalContext.hasTxStateWithChanges) {
+      super.createResults(state)
+    } else {
+      serial.createResults(state)
+    }
+
+  protected def internalCreateResults(state: QueryState): Iterator[CypherRow] = {
+    val propertyKeys = properties.map(_.getOptId(state.query).getOrElse(TokenRead.NO_TOKEN))
+    val transactionalContext = state.query.transactionalContext
+    val memoryTracker = state.memoryTracker.memoryTrackerForOperator(id.x)
+    val workerMemoryTracker = if (state.memoryTracker.isEnabled) new WorkerMemoryTracker(memoryTracker) else memoryTracker
+    val scanWorkers = newWorkers(state, transactionalContext, propertyKeys, workerMemoryTracker)
+    val tasks = scanWorkers.map(new FutureTask(_))
+    val executor = transactionalContext.workerExecutor
+    tasks.foreach(executor.execute)
+
+    // wait for all workers before failing, so that none of them is still reading when the transaction closes
+    val partialResults = tasks.map { task =>
+      try {
+        Right(task.get())
+      } catch {
+        case e: ExecutionException => Left(e.getCause)
+      }
+    }
+    val queryCursorTracer = transactionalContext.transaction.pageCursorTracer()
+    scanWorkers.foreach(worker => queryCursorTracer.merge(worker.cursorTracer))
+    partialResults.collectFirst { case Left(failure) => failure }.foreach { failure =>
+      partialResults.foreach(_.foreach(_.close()))
+      throw failure
+    }
+
+    val resultMap = HeapTrackingOrderedAppendMap.createOrderedMap[AnyValue, Array[AggregationFunction]](memoryTracker)
+    if (groupingColumns.isEmpty) {
+      // an aggregation without grouping has a result even when the scan is empty
+      resultMap.getIfAbsentPutWithMemoryTracker2(Values.NO_VALUE, newAggregators)
+    }
+    partialResults.foreach(_.foreach { groups =>
+      val workerGroups = groups.autoClosingEntryIterator()
+      while (workerGroups.hasNext) {
+        val group = workerGroups.next()
+        val aggregationFunctions = resultMap.getIfAbsentPutWithMemoryTracker2(group.getKey, newAggregators)
+        val workerFunctions = group.getValue
+        var i = 0
+        while (i < aggregationFunctions.length) {
+          aggregationFunctions(i).asInstanceOf[SpillableAggregationFunction]
+            .mergePartialResult(workerFunctions(i).asInstanceOf[SpillableAggregationFunction].partialResult, state)
+          i += 1
+        }
+      }
+    })
+
+    val innerIterator = resultMap.autoClosingEntryIterator()
+    new Iterator[CypherRow] {
+      override def hasNext: Boolean = innerIterator.hasNext
+
+      override def next(): CypherRow = {
+        val entry = innerIterator.next() // NOTE: This entry is transient and only valid until we call next() again
+        val aggregateFunctions = entry.getValue
+        val row = state.newExecutionContext(executionContextFactory)
+        addKeys(row, entry.getKey)
+        var i = 0
+        while (i < aggregateFunctions.length) {
+          row.set(aggregations(i).key, aggregateFunctions(i).result(state))
+          i += 1
+        }
+        row
+      }
+    }
+  }
+
+  private def newWorkers(state: QueryState,
+                         transactionalContext: QueryTransactionalContext,
+                         propertyKeys: Array[Int],
+                         memoryTracker: MemoryTracker): Seq[Worker[_]] = {
+    val dataRead = transactionalContext.dataRead
+    nodeScan match {
+      case AllNodes =>
+        val scan = dataRead.allNodesScan()
+        Seq.fill(workers)(new Worker[NodeCursor](scan, state, transactionalContext, propertyKeys, memoryTracker) {
+          override protected def allocateCursor(cursors: CursorFactory): NodeCursor = cursors.allocateNodeCursor(cursorTracer)
+
+          override protected def node(cursor: NodeCursor, nodeCursor: NodeCursor): NodeCursor = cursor
+        })
+
+      case NodesWithLabel(label) =>
+        val labelId = label.getId(state.query)
+        if (labelId == LazyLabel.UNKNOWN) {
+          Seq.empty
+        } else {
+          val scan = dataRead.nodeLabelScan(labelId)
+          Seq.fill(workers)(new Worker[NodeLabelIndexCursor](scan, state, transactionalContext, propertyKeys, memoryTracker) {
+            override protected def allocateCursor(cursors: CursorFactory): NodeLabelIndexCursor =
+              cursors.allocateNodeLabelIndexCursor(cursorTracer)
+
+            override protected def node(cursor: NodeLabelIndexCursor, nodeCursor: NodeCursor): NodeCursor = {
+              dataRead.singleNode(cursor.nodeReference(), nodeCursor)
+              if (nodeCursor.next()) nodeCursor else null
+            }
+          })
+        }
+    }
+  }
+
+  /**
+   * Aggregates the batches of `scan` that it reserves into groups of its own.
+   *
+   * The columns of a worker only read the variables of its row, see `over`. A worker evaluates them with a query state of its own,
+   * which only shares the parameters with the query, and has neither its query context nor its cursors, which are not thread safe.
+   */
+  private abstract class Worker[C <: Cursor](scan: Scan[C],
+                                             state: QueryState,
+                                             transactionalContext: QueryTransactionalContext,
+                                             propertyKeys: Array[Int],
+                                             memoryTracker: MemoryTracker)
+    extends Callable[HeapTrackingOrderedAppendMap[AnyValue, Array[AggregationFunction]]] {
+
+    val cursorTracer = new DefaultPageCursorTracer(PageCacheTracer.NULL, PARALLEL_SCAN_TAG)
+    private val workerState = new QueryState(null, null, state.params, null, Array.empty, new Array[AnyValue](state.expressionVariables.length),
+      QuerySubscriber.DO_NOTHING_SUBSCRIBER, NoMemoryTracker)
+
+    protected def allocateCursor(cursors: CursorFactory): C
+
+    /**
+     * @return a node cursor at the node that `cursor` is at, or `null` if the node has been deleted
+     */
+    protected def node(cursor: C, nodeCursor: NodeCursor): NodeCursor
+
+    override def call(): HeapTrackingOrderedAppendMap[AnyValue, Array[AggregationFunction]] = {
+      val cursors = transactionalContext.workerCursors
+      val cursor = allocateCursor(cursors)
+      val nodeCursor = cursors.allocateNodeCursor(cursorTracer)
+      val propertyCursor = cursors.allocatePropertyCursor(cursorTracer, memoryTracker)
+      val groups = HeapTrackingOrderedAppendMap.createOrderedMap[AnyValue, Array[AggregationFunction]](memoryTracker)
+      val row = CypherRow.empty
+      try {
+        while (scan.reserveBatch(cursor, BATCH_SIZE)) {
+          transactionalContext.transaction.assertOpen()
+          while (cursor.next()) {
+            if (propertyKeys.nonEmpty) {
+              readProperties(node(cursor, nodeCursor), propertyCursor, row)
+            }
+            val aggregationFunctions = groups.getIfAbsentPutWithMemoryTracker2(groupingFunction(row, workerState), newAggregators)
+            var i = 0
+            while (i < aggregationFunctions.length) {
+              aggregationFunctions(i)(row, workerState)
+              i += 1
+            }
+          }
+        }
+        groups
+      } catch {
+        case t: Throwable =>
+          groups.close()
+          throw t
+      } finally {
+        cursor.close()
+        nodeCursor.close()
+        propertyCursor.close()
+      }
+    }
+
+    private def readProperties(node: NodeCursor, propertyCursor: PropertyCursor, row: CypherRow): Unit = {
+      var i = 0
+      while (i < variables.length) {
+        row.set(variables(i), Values.NO_VALUE)
+        i += 1
+      }
+      if (node != null) {
+        node.properties(propertyCursor)
+        while (propertyCursor.next()) {
+          val i = propertyKeys.indexOf(propertyCursor.propertyKey())
+          if (i >= 0) {
+            row.set(variables(i), propertyCursor.propertyValue())
+          }
+        }
+      }
+    }
+  }
+}
+
+object ParallelScanAggregationPipe {
+
+  /**
+   * The number of nodes a worker asks the scan for at a time.
+   */
+  final val BATCH_SIZE = 1024
+
+  final val PARALLEL_SCAN_TAG = "parallelScanAggregation"
+
+  sealed trait NodeScan
+  case object AllNodes extends NodeScan
+  case class NodesWithLabel(label: LazyLabel) extends NodeScan
+
+  def propertyVariable(i: Int): String = s"  PARALLEL_SCAN_PROPERTY$i"
+
+  /**
+   * Creates a parallel version of `serial`, an aggregation over `source`, if `source` is a node scan in no particular order
+   * and all columns are supported. These are grouping by properties of the scanned nodes, `count(*)`, and
+   * `count`, `sum`, `min`, `max`, `avg` or `collect` of properties of the scanned nodes.
+   */
+  def over(serial: Pipe,
+           source: Pipe,
+           groupingColumns: Array[GroupingCol],
+           aggregations: Array[AggregatingCol],
+           workers: Int)
+          (id: Id): Option[ParallelScanAggregationPipe] = {
+    val scanned = source match {
+      case AllNodesScanPipe(ident) => Some((ident, AllNodes))
+      case NodeByLabelScanPipe(ident, label, IndexOrderNone) => Some((ident, NodesWithLabel(label)))
+      case _ => None
+    }
+    scanned.flatMap {
+      case (node, nodeScan) =>
+        val properties = mutable.ArrayBuffer.empty[KeyToken]
+
+        def variableOf(expression: Expression): Option[Variable] = expression match {
+          case Property(Variable(`node`), key) =>
+            val i = properties.indexWhere(_.name == key.name)
+            if (i >= 0) {
+              Some(Variable(propertyVariable(i)))
+            } else {
+              properties += key
+              Some(Variable(propertyVariable(properties.size - 1)))
+            }
+          case _ => None
+        }
+
+        val parallelGroupingColumns = groupingColumns.map(col => variableOf(col.expression).map(v => col.copy(expression = v)))
+        val parallelAggregations = aggregations.map(col => col.expression match {
+          case CountStar() => Some(col)
+          case Count(inner) => variableOf(inner).map(v => col.copy(expression = Count(v)))
+          case Sum(inner) => variableOf(inner).map(v => col.copy(expression = Sum(v)))
+          case Min(inner) => variableOf(inner).map(v => col.copy(expression = Min(v)))
+          case Max(inner) => variableOf(inner).map(v => col.copy(expression = Max(v)))
+          case Avg(inner) => variableOf(inner).map(v => col.copy(expression = Avg(v)))
+          case Collect(inner) => variableOf(inner).map(v => col.copy(expression = Collect(v)))
+          case _ => None
+        })
+
+        if (parallelGroupingColumns.forall(_.isDefined) && parallelAggregations.forall(_.isDefined)) {
+          Some(ParallelScanAggregationPipe(serial, nodeScan, properties.toArray, parallelGroupingColumns.map(_.get),
+            parallelAggregations.map(_.get), workers)(id = id))
+        } else {
+          None
+        }
+    }
+  }
+
+  /**
+   * The memory tracker of an operator, shared by its workers. Their allocations are tracked one at a time, since neither the operator
+   * nor the transaction memory tracker is thread safe. The thread executing the query does not use them while the workers run.
+   */
+  class WorkerMemoryTracker(operatorMemoryTracker: MemoryTracker) extends MemoryTracker {
+
+    override def usedNativeMemory(): Long = operatorMemoryTracker.synchronized(operatorMemoryTracker.usedNativeMemory())
+
+    override def estimatedHeapMemory(): Long = operatorMemoryTracker.synchronized(operatorMemoryTracker.estimatedHeapMemory())
+
+    override def allocateNative(bytes: Long): Unit = operatorMemoryTracker.synchronized(operatorMemoryTracker.allocateNative(bytes))
+
+    override def releaseNative(bytes: Long): Unit = operatorMemoryTracker.synchronized(operatorMemoryTracker.releaseNative(bytes))
+
+    override def allocateHeap(bytes: Long): Unit = operatorMemoryTracker.synchronized(operatorMemoryTracker.allocateHeap(bytes))
+
+    override def releaseHeap(bytes: Long): Unit = operatorMemoryTracker.synchronized(operatorMemoryTracker.releaseHeap(bytes))
+
+    override def heapHighWaterMark(): Long = operatorMemoryTracker.synchronized(operatorMemoryTracker.heapHighWaterMark())
+
+    override def reset(): Unit = operatorMemoryTracker.synchronized(operatorMemoryTracker.reset())
+
+    override def getScopedMemoryTracker: MemoryTracker = new ScopedMemoryTracker(this)
+  }
+}
@@ -32,11 +32,11 @@ case class ProjectionPipe(source: Pipe, projection: CommandProjection)
     if (projection.isEmpty)
       input
     else {
-      input.map {
+      RowBatches.project(input, projection, state).getOrElse(input.map {
         ctx =>
           projection.project(ctx, state)
           ctx
-      }
+      })
     }
   }
 }
@@ -23,11 +23,13 @@ import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.ExpressionCursors
 import org.neo4j.cypher.internal.runtime.InputDataStream
 import org.neo4j.cypher.internal.runtime.MapCypherRow
+import org.neo4j.cypher.internal.runtime.NO_SPILLING
 import org.neo4j.cypher.internal.runtime.NoInput
 import org.neo4j.cypher.internal.runtime.QueryContext
 import org.neo4j.cypher.internal.runtime.QueryMemoryTracker
 import org.neo4j.cypher.internal.runtime.QueryStatistics
 import org.neo4j.cypher.internal.runtime.ReadableRow
+import org.neo4j.cypher.internal.runtime.Spilling
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.PathValueBuilder
 import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.InCheckContainer
 import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.SingleThreadedLRUCache
@@ -48,7 +50,10 @@ class QueryState(val query: QueryContext,
                  val cachedIn: SingleThreadedLRUCache[Any, InCheckContainer] = new SingleThreadedLRUCache(maxSize = 16),
                  val lenientCreateRelationship: Boolean = false,
                  val prePopulateResults: Boolean = false,
-                 val input: InputDataStream = NoInput) extends AutoCloseable {
+                 val input: InputDataStream = NoInput,
+                 val spilling: Spilling = NO_SPILLING,
+                 val spillTracker: SpillTracker = new SpillTracker,
+                 val batchSize: Int = 0) extends AutoCloseable {
 
   private var _pathValueBuilder: PathValueBuilder = _
   private var _exFactory: ExecutionContextFactory = _
@@ -71,11 +76,11 @@ class QueryState(val query: QueryContext,
 
   def withDecorator(decorator: PipeDecorator) =
     new QueryState(query, resources, params, cursors, queryIndexes, expressionVariables, subscriber, memoryTracker, decorator, initialContext,
-      cachedIn, lenientCreateRelationship, prePopulateResults, input)
+      cachedIn, lenientCreateRelationship, prePopulateResults, input, spilling, spillTracker, batchSize)
 
   def withInitialContext(initialContext: CypherRow) =
     new QueryState(query, resources, params, cursors, queryIndexes, expressionVariables, subscriber, memoryTracker, decorator, Some(initialContext),
-      cachedIn, lenientCreateRelationship, prePopulateResults, input)
+      cachedIn, lenientCreateRelationship, prePopulateResults, input, spilling, spillTracker, batchSize)
 
   /**
    * When running on the RHS of an Apply, this method will fill an execution context with argument data
@@ -87,7 +92,7 @@ class QueryState(val query: QueryContext,
 
   def withQueryContext(query: QueryContext) =
     new QueryState(query, resources, params, cursors, queryIndexes, expressionVariables, subscriber, memoryTracker, decorator, initialContext,
-      cachedIn, lenientCreateRelationship, prePopulateResults, input)
+      cachedIn, lenientCreateRelationship, prePopulateResults, input, spilling, spillTracker, batchSize)
 
   def setExecutionContextFactory(exFactory: ExecutionContextFactory): Unit = {
     _exFactory = exFactory
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.util
+
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.interpreted.CommandProjection
+import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.InterpretedCommandProjection
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Variable
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Values
+
+import scala.util.control.NonFatal
+
+/**
+ * Filters and projections that evaluate their expressions over a batch of rows at a time, when [[QueryState.batchSize]] is set.
+ *
+ * A batch is read from the source, and each [[BatchedExpression]] is then evaluated over the whole batch before the rows are passed on.
+ * If evaluating a batch fails, that batch is evaluated again one row at a time as its rows are pulled, so that a failure surfaces at the
+ * same row as without batches, and not at all if that row is never pulled, for instance because of a LIMIT above.
+ */
+object RowBatches {
+
+  /**
+   * @return the number of rows to evaluate at a time in a pipe, or zero to evaluate one row at a time. Profiled queries count rows
+   *         and database hits as rows are pulled, so they are not batched.
+   */
+  def batchSize(state: QueryState): Int = if (state.decorator eq NullPipeDecorator) state.batchSize else 0
+
+  /**
+   * @return the rows of `input` for which `predicate` is true, evaluated a batch at a time, if the predicate can be batched
+   */
+  def filter(input: Iterator[CypherRow], predicate: Expression, state: QueryState): Option[Iterator[CypherRow]] = {
+    val batchSize = RowBatches.batchSize(state)
+    if (batchSize <= 0) {
+      None
+    } else {
+      BatchedExpression(predicate, batchSize).map(batchedPredicate => new BatchIterator(input, batchSize) {
+        private val values = new Array[AnyValue](batchSize)
+
+        override protected def evaluateBatch(rows: Array[CypherRow], size: Int, selection: Array[Int]): Int = {
+          batchedPredicate.evaluate(rows, allRows, size, state, values)
+          var selected = 0
+          var i = 0
+          while (i < size) {
+            if (values(i) eq Values.TRUE) {
+              selection(selected) = i
+              selected += 1
+            }
+            i += 1
+          }
+          util.Arrays.fill(values, 0, size, null)
+          selected
+        }
+
+        override protected def evaluateRow(row: CypherRow): Boolean = predicate(row, state) eq Values.TRUE
+      })
+    }
+  }
+
+  /**
+   * @return the rows of `input` with `projection` set, evaluated a batch at a time, if every projected expression can be batched
+   *         and none of them reads a variable that the projection sets
+   */
+  def project(input: Iterator[CypherRow], projection: CommandProjection, state: QueryState): Option[Iterator[CypherRow]] = {
+    val batchSize = RowBatches.batchSize(state)
+    projection match {
+      case InterpretedCommandProjection(expressions) if batchSize > 0 && !readsProjected(expressions) =>
+        val names = expressions.keys.toArray
+        val batched = names.map(name => BatchedExpression(expressions(name), batchSize))
+        if (batched.forall(_.isDefined)) {
+          val batchedExpressions = batched.map(_.get)
+          Some(new BatchIterator(input, batchSize) {
+            private val columns = Array.fill(names.length)(new Array[AnyValue](batchSize))
+
+            override protected def evaluateBatch(rows: Array[CypherRow], size: Int, selection: Array[Int]): Int = {
+              // evaluate every column before setting any, so that a failed batch leaves its rows as they were
+              var c = 0
+              while (c < names.length) {
+                batchedExpressions(c).evaluate(rows, allRows, size, state, columns(c))
+                c += 1
+              }
+              var i = 0
+              while (i < size) {
+                c = 0
+                while (c < names.length) {
+                  rows(i).set(names(c), columns(c)(i))
+                  columns(c)(i) = null
+                  c += 1
+                }
+                selection(i) = i
+                i += 1
+              }
+              size
+            }
+
+            override protected def evaluateRow(row: CypherRow): Boolean = {
+              projection.project(row, state)
+              true
+            }
+          })
+        } else {
+          None
+        }
+      case _ =>
+        None
+    }
+  }
+
+  private def readsProjected(expressions: Map[String, Expression]): Boolean =
+    expressions.values.exists(_.exists {
+      case Variable(name) => expressions.contains(name)
+      case _ => false
+    })
+
+  /**
+   * Reads up to `batchSize` rows of the input at a time, and passes on the rows that the evaluation of the batch selects.
+   */
+  abstract class BatchIterator(input: Iterator[CypherRow], batchSize: Int) extends Iterator[CypherRow] {
+    protected val allRows: Array[Int] = Array.range(0, batchSize)
+    private val rows = new Array[CypherRow](batchSize)
+    private val selection = new Array[Int](batchSize)
+    private var size = 0
+    // the number of rows to pass on, from the selection, or from the rows themselves when the batch is evaluated one row at a time
+    private var limit = 0
+    private var position = 0
+    private var rowAtATime = false
+    private var nextRow: CypherRow = _
+
+    /**
+     * Evaluates the first `size` rows, and writes the indexes of the rows to pass on into `selection`, in order.
+     *
+     * @return the number of rows to pass on
+     */
+    protected def evaluateBatch(rows: Array[CypherRow], size: Int, selection: Array[Int]): Int
+
+    /**
+     * Evaluates a single row, the way the pipe would without batches.
+     *
+     * @return whether to pass the row on
+     */
+    protected def evaluateRow(row: CypherRow): Boolean
+
+    override def hasNext: Boolean = {
+      while (nextRow == null && (position < limit || input.hasNext)) {
+        if (position < limit) {
+          if (rowAtATime) {
+            val row = rows(position)
+            if (evaluateRow(row)) {
+              nextRow = row
+            }
+          } else {
+            nextRow = rows(selection(position))
+          }
+          position += 1
+        } else {
+          readBatch()
+        }
+      }
+      nextRow != null
+    }
+
+    override def next(): CypherRow = {
+      if (!hasNext) {
+        Iterator.empty.next()
+      }
+      val row = nextRow
+      nextRow = null
+      row
+    }
+
+    private def readBatch(): Unit = {
+      util.Arrays.fill(rows, 0, size, null)
+      size = 0
+      while (size < batchSize && input.hasNext) {
+        rows(size) = input.next()
+        size += 1
+      }
+      position = 0
+      try {
+        limit = evaluateBatch(rows, size, selection)
+        rowAtATime = false
+      } catch {
+        case NonFatal(_) =>
+          limit = size
+          rowAtATime = true
+      }
+    }
+  }
+}
@@ -24,8 +24,11 @@ import java.util.Comparator
 import org.neo4j.collection.trackable.HeapTrackingArrayList
 import org.neo4j.cypher.internal.runtime.AutoClosingIterator
 import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.NO_SPILLING
 import org.neo4j.cypher.internal.runtime.ReadableRow
+import org.neo4j.cypher.internal.runtime.SPILL_TO_DISK
 import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.memory.MemoryTracker
 
 import scala.collection.JavaConverters.asScalaIteratorConverter
 
@@ -35,6 +38,13 @@ case class SortPipe(source: Pipe, comparator: Comparator[ReadableRow])
 
   protected def internalCreateResults(input: Iterator[CypherRow], state: QueryState): Iterator[CypherRow] = {
     val scopedMemoryTracker = state.memoryTracker.memoryTrackerForOperator(id.x).getScopedMemoryTracker
+    state.spilling match {
+      case spilling: SPILL_TO_DISK => sortWithSpilling(input, state, spilling, scopedMemoryTracker)
+      case NO_SPILLING => sortInMemory(input, scopedMemoryTracker)
+    }
+  }
+
+  private def sortInMemory(input: Iterator[CypherRow], scopedMemoryTracker: MemoryTracker): Iterator[CypherRow] = {
     var arrayList: HeapTrackingArrayList[CypherRow] = HeapTrackingArrayList.newArrayList(256, scopedMemoryTracker)
     while (input.hasNext) {
       val row = input.next()
@@ -49,4 +59,24 @@ case class SortPipe(source: Pipe, comparator: Comparator[ReadableRow])
       }
     }
   }
+
+  private def sortWithSpilling(input: Iterator[CypherRow],
+                               state: QueryState,
+                               spilling: SPILL_TO_DISK,
+                               scopedMemoryTracker: MemoryTracker): Iterator[CypherRow] = {
+    val sorter = new ExternalSorter(comparator, spilling, state, id, scopedMemoryTracker)
+    try {
+      input.foreach(sorter.add)
+    } catch {
+      case e: Throwable =>
+        sorter.close()
+        throw e
+    }
+    new AutoClosingIterator[CypherRow](sorter.sorted()) {
+      override def close(): Unit = {
+        sorter.close()
+        scopedMemoryTracker.close()
+      }
+    }
+  }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.cypher.result.OperatorProfile
+
+import scala.collection.mutable
+
+/**
+ * Counts the bytes each operator of a query has written to spill files.
+ */
+class SpillTracker {
+  private val spilledBytes = new mutable.LongMap[Long]()
+
+  def spilled(operatorId: Id, bytes: Long): Unit =
+    spilledBytes(operatorId.x) = spilledBytes.getOrElse(operatorId.x, 0L) + bytes
+
+  /**
+   * The bytes spilled by the operator, or [[OperatorProfile.NO_DATA]] if it never spilled.
+   */
+  def spilledBytesOfOperator(operatorId: Int): Long = spilledBytes.getOrElse(operatorId, OperatorProfile.NO_DATA)
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+
+import org.neo4j.cypher.internal.expressions.ASTCachedProperty
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.MapCypherRow
+import org.neo4j.cypher.internal.runtime.ResourceLinenumber
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.exceptions.CypherExecutionException
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Value
+
+import scala.collection.mutable
+import scala.collection.mutable.ArrayBuffer
+
+object SpilledRows {
+  private final val BUFFER_SIZE = 64 * 1024
+
+  /**
+   * Only rows of the interpreted runtime can be spilled.
+   */
+  def canSpill(row: CypherRow): Boolean = row.isInstanceOf[MapCypherRow]
+
+  def spillFailed(e: IOException): Nothing = throw new CypherExecutionException("Failed to spill rows to disk: " + e.getMessage, e)
+}
+
+/**
+ * The spill files of an operator. Variable names and cached properties of the spilled rows are kept in memory and only their ids
+ * are written, which means that rows can only be read back through the same instance. Closing it deletes all its files.
+ *
+ * The size of every finished file is reported to the [[SpillTracker]] of the query, for PROFILE.
+ */
+class SpilledRows(directory: Path, state: QueryState, operatorId: Id) extends AutoCloseable {
+  import SpilledRows.BUFFER_SIZE
+  import SpilledRows.spillFailed
+
+  private val keys = new ArrayBuffer[String]
+  private val keyIds = new mutable.HashMap[String, Int]
+  private val cachedProperties = new ArrayBuffer[ASTCachedProperty]
+  private val cachedPropertyIds = new mutable.HashMap[ASTCachedProperty, Int]
+  private val files = new ArrayBuffer[Path]
+  private val readers = new ArrayBuffer[SpillFileReader]
+
+  /**
+   * Create a new spill file and return a writer for it. The file can be read once the writer is closed.
+   */
+  def newFile(): SpillFileWriter = try {
+    Files.createDirectories(directory)
+    val file = Files.createTempFile(directory, "rows", ".spill")
+    files += file
+    new SpillFileWriter(file)
+  } catch {
+    case e: IOException => spillFailed(e)
+  }
+
+  override def close(): Unit = {
+    readers.foreach(_.close())
+    readers.clear()
+    try {
+      files.foreach(Files.deleteIfExists)
+    } catch {
+      case e: IOException => spillFailed(e)
+    } finally {
+      files.clear()
+    }
+  }
+
+  class SpillFileWriter(file: Path) extends AutoCloseable {
+    private val out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))
+    private val valueWriter = new SpilledValueWriter(out)
+    private var _count = 0L
+    private var finished = false
+
+    /**
+     * The number of rows written so far.
+     */
+    def count: Long = _count
+
+    def write(row: CypherRow): Unit = try {
+      writeRow(row)
+      _count += 1
+    } catch {
+      case e: IOException => spillFailed(e)
+    }
+
+    /**
+     * Write a row together with the key it was grouped or joined by. The file must then be read with [[SpillFile.keyedReader]].
+     */
+    def write(key: AnyValue, row: CypherRow): Unit = try {
+      key.writeTo(valueWriter)
+      writeRow(row)
+      _count += 1
+    } catch {
+      case e: IOException => spillFailed(e)
+    }
+
+    /**
+     * Write a row together with its key and its number in the input. The file must then be read with [[SpillFile.sequencedReader]].
+     */
+    def write(rowNumber: Long, key: AnyValue, row: CypherRow): Unit = try {
+      out.writeLong(rowNumber)
+      key.writeTo(valueWriter)
+      writeRow(row)
+      _count += 1
+    } catch {
+      case e: IOException => spillFailed(e)
+    }
+
+    private def writeRow(row: CypherRow): Unit = {
+      val mapRow = row.asInstanceOf[MapCypherRow]
+      out.writeInt(mapRow.numberOfColumns)
+      mapRow.foreachEntry((key, value) => {
+        out.writeInt(keyIds.getOrElseUpdate(key, { keys += key; keys.size - 1 }))
+        value.writeTo(valueWriter)
+      })
+      val cached = new ArrayBuffer[(ASTCachedProperty, Value)]
+      mapRow.foreachCachedProperty((property, value) => cached += ((property, value)))
+      out.writeInt(cached.size)
+      cached.foreach {
+        case (property, value) =>
+          out.writeInt(cachedPropertyIds.getOrElseUpdate(property, { cachedProperties += property; cachedProperties.size - 1 }))
+          out.writeBoolean(value != null)
+          if (value != null) value.writeTo(valueWriter)
+      }
+      row.getLinenumber match {
+        case Some(ResourceLinenumber(filename, linenumber, last)) =>
+          out.writeBoolean(true)
+          SpilledValues.writeString(out, filename)
+          out.writeLong(linenumber)
+          out.writeBoolean(last)
+        case None =>
+          out.writeBoolean(false)
+      }
+    }
+
+    /**
+     * Close the file for writing, and return it for reading.
+     */
+    def finish(): SpillFile = {
+      close()
+      try {
+        state.spillTracker.spilled(operatorId, Files.size(file))
+      } catch {
+        case e: IOException => spillFailed(e)
+      }
+      SpillFile(file, _count)
+    }
+
+    override def close(): Unit = try {
+      if (!finished) {
+        finished = true
+        out.close()
+      }
+    } catch {
+      case e: IOException => spillFailed(e)
+    }
+  }
+
+  case class SpillFile(file: Path, count: Long) {
+    /**
+     * Close the readers of this file and delete it, once it is no longer needed.
+     */
+    def delete(): Unit = {
+      val fileReaders = readers.filter(_.file == file)
+      fileReaders.foreach(_.close())
+      readers --= fileReaders
+      files -= file
+      try {
+        Files.deleteIfExists(file)
+      } catch {
+        case e: IOException => spillFailed(e)
+      }
+    }
+
+    /**
+     * Read the rows of this file in the order they were written. The reader is closed at the latest when the spill files are.
+     */
+    def reader(): SpillFileReader = try {
+      val reader = new SpillFileReader(file, count)
+      readers += reader
+      reader
+    } catch {
+      case e: IOException => spillFailed(e)
+    }
+
+    /**
+     * Read the keys and rows of a file written with keys, in the order they were written.
+     */
+    def keyedReader(): Iterator[(AnyValue, CypherRow)] = {
+      val reader = this.reader()
+      new Iterator[(AnyValue, CypherRow)] {
+        override def hasNext: Boolean = reader.hasNext
+
+        override def next(): (AnyValue, CypherRow) = reader.nextKeyed()
+      }
+    }
+
+    /**
+     * Read the row numbers, keys and rows of a file written with row numbers, in the order they were written.
+     */
+    def sequencedReader(): Iterator[(Long, AnyValue, CypherRow)] = {
+      val reader = this.reader()
+      new Iterator[(Long, AnyValue, CypherRow)] {
+        override def hasNext: Boolean = reader.hasNext
+
+        override def next(): (Long, AnyValue, CypherRow) = reader.nextSequenced()
+      }
+    }
+  }
+
+  class SpillFileReader(val file: Path, count: Long) extends Iterator[CypherRow] with AutoCloseable {
+    private val in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))
+    private val valueReader = new SpilledValueReader(in, state.query)
+    private var remaining = count
+
+    override def hasNext: Boolean = remaining > 0
+
+    override def next(): CypherRow = try {
+      val row = readRow()
+      rowRead()
+      row
+    } catch {
+      case e: IOException => spillFailed(e)
+    }
+
+    def nextKeyed(): (AnyValue, CypherRow) = try {
+      val key = valueReader.read()
+      val row = readRow()
+      rowRead()
+      (key, row)
+    } catch {
+      case e: IOException => spillFailed(e)
+    }
+
+    def nextSequenced(): (Long, AnyValue, CypherRow) = try {
+      val rowNumber = in.readLong()
+      val key = valueReader.read()
+      val row = readRow()
+      rowRead()
+      (rowNumber, key, row)
+    } catch {
+      case e: IOException => spillFailed(e)
+    }
+
+    private def readRow(): CypherRow = {
+      if (remaining <= 0) {
+        Iterator.empty.next()
+      }
+      val row = CypherRow.empty
+      var columns = in.readInt()
+      while (columns > 0) {
+        row.set(keys(in.readInt()), valueReader.read())
+        columns -= 1
+      }
+      var cached = in.readInt()
+      while (cached > 0) {
+        val property = cachedProperties(in.readInt())
+        row.setCachedProperty(property, if (in.readBoolean()) valueReader.read().asInstanceOf[Value] else null)
+        cached -= 1
+      }
+      if (in.readBoolean()) {
+        row.setLinenumber(SpilledValues.readString(in), in.readLong(), in.readBoolean())
+      }
+      row
+    }
+
+    private def rowRead(): Unit = {
+      remaining -= 1
+      if (remaining == 0) {
+        close()
+      }
+    }
+
+    override def close(): Unit = try {
+      in.close()
+    } catch {
+      case e: IOException => spillFailed(e)
+    }
+  }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.io.DataInput
+import java.io.DataOutput
+import java.io.IOException
+import java.nio.charset.StandardCharsets.UTF_8
+import java.time.Instant
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.OffsetTime
+import java.time.ZoneId
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.exceptions.InternalException
+import org.neo4j.values.AnyValue
+import org.neo4j.values.AnyValueWriter
+import org.neo4j.values.AnyValueWriter.EntityMode
+import org.neo4j.values.storable.ArrayValue
+import org.neo4j.values.storable.BooleanValue
+import org.neo4j.values.storable.CharValue
+import org.neo4j.values.storable.CoordinateReferenceSystem
+import org.neo4j.values.storable.DateTimeValue
+import org.neo4j.values.storable.DateValue
+import org.neo4j.values.storable.DurationValue
+import org.neo4j.values.storable.LocalDateTimeValue
+import org.neo4j.values.storable.LocalTimeValue
+import org.neo4j.values.storable.NumberValue
+import org.neo4j.values.storable.PointValue
+import org.neo4j.values.storable.TextArray
+import org.neo4j.values.storable.TextValue
+import org.neo4j.values.storable.TimeValue
+import org.neo4j.values.storable.Value
+import org.neo4j.values.storable.ValueWriter.ArrayType
+import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.MapValue
+import org.neo4j.values.virtual.NodeValue
+import org.neo4j.values.virtual.RelationshipValue
+import org.neo4j.values.virtual.VirtualValues
+
+object SpilledValues {
+  final val NULL: Byte = 0
+  final val TRUE: Byte = 1
+  final val FALSE: Byte = 2
+  final val BYTE: Byte = 3
+  final val SHORT: Byte = 4
+  final val INT: Byte = 5
+  final val LONG: Byte = 6
+  final val FLOAT: Byte = 7
+  final val DOUBLE: Byte = 8
+  final val STRING: Byte = 9
+  final val CHAR: Byte = 10
+  final val ARRAY: Byte = 11
+  final val BYTE_ARRAY: Byte = 12
+  final val POINT: Byte = 13
+  final val DURATION: Byte = 14
+  final val DATE: Byte = 15
+  final val LOCAL_TIME: Byte = 16
+  final val TIME: Byte = 17
+  final val LOCAL_DATE_TIME: Byte = 18
+  final val DATE_TIME: Byte = 19
+  final val LIST: Byte = 20
+  final val MAP: Byte = 21
+  final val NODE: Byte = 22
+  final val RELATIONSHIP: Byte = 23
+  final val PATH: Byte = 24
+
+  def writeString(out: DataOutput, value: String): Unit = {
+    val bytes = value.getBytes(UTF_8)
+    out.writeInt(bytes.length)
+    out.write(bytes)
+  }
+
+  def readString(in: DataInput): String = {
+    val bytes = new Array[Byte](in.readInt())
+    in.readFully(bytes)
+    new String(bytes, UTF_8)
+  }
+}
+
+/**
+ * Writes values to a spill file, to be read back by [[SpilledValueReader]]. Nodes and relationships are written as references, and looked up
+ * again when read back.
+ */
+class SpilledValueWriter(out: DataOutput) extends AnyValueWriter[IOException] {
+  import SpilledValues._
+
+  override def entityMode(): EntityMode = EntityMode.REFERENCE
+
+  override def writeNodeReference(nodeId: Long): Unit = {
+    out.writeByte(NODE)
+    out.writeLong(nodeId)
+  }
+
+  override def writeNode(nodeId: Long, labels: TextArray, properties: MapValue): Unit = writeNodeReference(nodeId)
+
+  override def writeRelationshipReference(relId: Long): Unit = {
+    out.writeByte(RELATIONSHIP)
+    out.writeLong(relId)
+  }
+
+  override def writeRelationship(relId: Long, startNodeId: Long, endNodeId: Long, `type`: TextValue, properties: MapValue): Unit =
+    writeRelationshipReference(relId)
+
+  override def beginMap(size: Int): Unit = {
+    out.writeByte(MAP)
+    out.writeInt(size)
+  }
+
+  override def endMap(): Unit = {}
+
+  override def beginList(size: Int): Unit = {
+    out.writeByte(LIST)
+    out.writeInt(size)
+  }
+
+  override def endList(): Unit = {}
+
+  override def writePath(nodes: Array[NodeValue], relationships: Array[RelationshipValue]): Unit = {
+    out.writeByte(PATH)
+    out.writeInt(nodes.length)
+    nodes.foreach(node => out.writeLong(node.id()))
+    out.writeInt(relationships.length)
+    relationships.foreach(relationship => out.writeLong(relationship.id()))
+  }
+
+  override def writeNull(): Unit = out.writeByte(NULL)
+
+  override def writeBoolean(value: Boolean): Unit = out.writeByte(if (value) TRUE else FALSE)
+
+  override def writeInteger(value: Byte): Unit = {
+    out.writeByte(BYTE)
+    out.writeByte(value)
+  }
+
+  override def writeInteger(value: Short): Unit = {
+    out.writeByte(SHORT)
+    out.writeShort(value)
+  }
+
+  override def writeInteger(value: Int): Unit = {
+    out.writeByte(INT)
+    out.writeInt(value)
+  }
+
+  override def writeInteger(value: Long): Unit = {
+    out.writeByte(LONG)
+    out.writeLong(value)
+  }
+
+  override def writeFloatingPoint(value: Float): Unit = {
+    out.writeByte(FLOAT)
+    out.writeFloat(value)
+  }
+
+  override def writeFloatingPoint(value: Double): Unit = {
+    out.writeByte(DOUBLE)
+    out.writeDouble(value)
+  }
+
+  override def writeString(value: String): Unit = {
+    out.writeByte(STRING)
+    SpilledValues.writeString(out, value)
+  }
+
+  override def writeString(value: Char): Unit = {
+    out.writeByte(CHAR)
+    out.writeChar(value)
+  }
+
+  override def beginArray(size: Int, arrayType: ArrayType): Unit = {
+    out.writeByte(ARRAY)
+    out.writeByte(arrayType.ordinal())
+    out.writeInt(size)
+  }
+
+  override def endArray(): Unit = {}
+
+  override def writeByteArray(value: Array[Byte]): Unit = {
+    out.writeByte(BYTE_ARRAY)
+    out.writeInt(value.length)
+    out.write(value)
+  }
+
+  override def writePoint(crs: CoordinateReferenceSystem, coordinate: Array[Double]): Unit = {
+    out.writeByte(POINT)
+    out.writeInt(crs.getCode)
+    out.writeInt(coordinate.length)
+    coordinate.foreach(out.writeDouble(_))
+  }
+
+  override def writeDuration(months: Long, days: Long, seconds: Long, nanos: Int): Unit = {
+    out.writeByte(DURATION)
+    out.writeLong(months)
+    out.writeLong(days)
+    out.writeLong(seconds)
+    out.writeInt(nanos)
+  }
+
+  override def writeDate(localDate: LocalDate): Unit = {
+    out.writeByte(DATE)
+    out.writeLong(localDate.toEpochDay)
+  }
+
+  override def writeLocalTime(localTime: LocalTime): Unit = {
+    out.writeByte(LOCAL_TIME)
+    out.writeLong(localTime.toNanoOfDay)
+  }
+
+  override def writeTime(offsetTime: OffsetTime): Unit = {
+    out.writeByte(TIME)
+    out.writeLong(offsetTime.toLocalTime.toNanoOfDay)
+    out.writeInt(offsetTime.getOffset.getTotalSeconds)
+  }
+
+  override def writeLocalDateTime(localDateTime: LocalDateTime): Unit = {
+    out.writeByte(LOCAL_DATE_TIME)
+    out.writeLong(localDateTime.toEpochSecond(ZoneOffset.UTC))
+    out.writeInt(localDateTime.getNano)
+  }
+
+  override def writeDateTime(zonedDateTime: ZonedDateTime): Unit = {
+    out.writeByte(DATE_TIME)
+    out.writeLong(zonedDateTime.toEpochSecond)
+    out.writeInt(zonedDateTime.getNano)
+    SpilledValues.writeString(out, zonedDateTime.getZone.getId)
+  }
+}
+
+/**
+ * Reads values written by [[SpilledValueWriter]].
+ */
+class SpilledValueReader(in: DataInput, query: QueryContext) {
+  import SpilledValues._
+
+  def read(): AnyValue = in.readByte() match {
+    case NULL => Values.NO_VALUE
+    case TRUE => Values.TRUE
+    case FALSE => Values.FALSE
+    case BYTE => Values.byteValue(in.readByte())
+    case SHORT => Values.shortValue(in.readShort())
+    case INT => Values.intValue(in.readInt())
+    case LONG => Values.longValue(in.readLong())
+    case FLOAT => Values.floatValue(in.readFloat())
+    case DOUBLE => Values.doubleValue(in.readDouble())
+    case STRING => Values.stringValue(readString(in))
+    case CHAR => Values.charValue(in.readChar())
+    case ARRAY =>
+      val arrayType = ArrayType.values()(in.readByte())
+      readArray(arrayType, Array.fill(in.readInt())(read().asInstanceOf[Value]))
+    case BYTE_ARRAY =>
+      val bytes = new Array[Byte](in.readInt())
+      in.readFully(bytes)
+      Values.byteArray(bytes)
+    case POINT =>
+      val crs = CoordinateReferenceSystem.get(in.readInt())
+      Values.pointValue(crs, Array.fill(in.readInt())(in.readDouble()): _*)
+    case DURATION => DurationValue.duration(in.readLong(), in.readLong(), in.readLong(), in.readInt())
+    case DATE => DateValue.date(LocalDate.ofEpochDay(in.readLong()))
+    case LOCAL_TIME => LocalTimeValue.localTime(in.readLong())
+    case TIME => TimeValue.time(OffsetTime.of(LocalTime.ofNanoOfDay(in.readLong()), ZoneOffset.ofTotalSeconds(in.readInt())))
+    case LOCAL_DATE_TIME => LocalDateTimeValue.localDateTime(in.readLong(), in.readInt())
+    case DATE_TIME =>
+      val instant = Instant.ofEpochSecond(in.readLong(), in.readInt())
+      DateTimeValue.datetime(ZonedDateTime.ofInstant(instant, ZoneId.of(readString(in))))
+    case LIST => VirtualValues.list(Array.fill(in.readInt())(read()): _*)
+    case MAP =>
+      val size = in.readInt()
+      val keys = new Array[String](size)
+      val values = new Array[AnyValue](size)
+      var i = 0
+      while (i < size) {
+        keys(i) = read().asInstanceOf[TextValue].stringValue()
+        values(i) = read()
+        i += 1
+      }
+      VirtualValues.map(keys, values)
+    case NODE => query.nodeById(in.readLong())
+    case RELATIONSHIP => query.relationshipById(in.readLong())
+    case PATH =>
+      val nodes = Array.fill(in.readInt())(query.nodeById(in.readLong()))
+      val relationships = Array.fill(in.readInt())(query.relationshipById(in.readLong()))
+      VirtualValues.path(nodes, relationships)
+    case tag => throw new InternalException(s"Unknown value type $tag in spill file")
+  }
+
+  private def readArray(arrayType: ArrayType, elements: Array[Value]): ArrayValue = arrayType match {
+    case ArrayType.BYTE => Values.byteArray(elements.map(_.asInstanceOf[NumberValue].longValue().toByte))
+    case ArrayType.SHORT => Values.shortArray(elements.map(_.asInstanceOf[NumberValue].longValue().toShort))
+    case ArrayType.INT => Values.intArray(elements.map(_.asInstanceOf[NumberValue].longValue().toInt))
+    case ArrayType.LONG => Values.longArray(elements.map(_.asInstanceOf[NumberValue].longValue()))
+    case ArrayType.FLOAT => Values.floatArray(elements.map(_.asInstanceOf[NumberValue].doubleValue().toFloat))
+    case ArrayType.DOUBLE => Values.doubleArray(elements.map(_.asInstanceOf[NumberValue].doubleValue()))
+    case ArrayType.BOOLEAN => Values.booleanArray(elements.map(_.asInstanceOf[BooleanValue].booleanValue()))
+    case ArrayType.STRING => Values.stringArray(elements.map(_.asInstanceOf[TextValue].stringValue()): _*)
+    case ArrayType.CHAR => Values.charArray(elements.map(_.asInstanceOf[CharValue].value()))
+    case ArrayType.POINT => Values.pointArray(elements.map(_.asInstanceOf[PointValue]))
+    case ArrayType.ZONED_DATE_TIME => Values.dateTimeArray(elements.map(_.asObjectCopy().asInstanceOf[ZonedDateTime]))
+    case ArrayType.LOCAL_DATE_TIME => Values.localDateTimeArray(elements.map(_.asObjectCopy().asInstanceOf[LocalDateTime]))
+    case ArrayType.DATE => Values.dateArray(elements.map(_.asObjectCopy().asInstanceOf[LocalDate]))
+    case ArrayType.ZONED_TIME => Values.timeArray(elements.map(_.asObjectCopy().asInstanceOf[OffsetTime]))
+    case ArrayType.LOCAL_TIME => Values.localTimeArray(elements.map(_.asObjectCopy().asInstanceOf[LocalTime]))
+    case ArrayType.DURATION => Values.durationArray(elements.map(_.asInstanceOf[DurationValue]))
+  }
+}
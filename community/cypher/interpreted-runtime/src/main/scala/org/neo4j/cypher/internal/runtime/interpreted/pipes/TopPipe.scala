@@ -22,12 +22,16 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 import java.util.Comparator
 
 import org.neo4j.cypher.internal.collection.DefaultComparatorTopTable
+import org.neo4j.cypher.internal.runtime.AutoClosingIterator
 import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.NO_SPILLING
 import org.neo4j.cypher.internal.runtime.ReadableRow
+import org.neo4j.cypher.internal.runtime.SPILL_TO_DISK
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.NumericHelper
 import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.exceptions.InvalidArgumentException
+import org.neo4j.memory.MemoryTracker
 import org.neo4j.values.storable.FloatingPointValue
 
 import scala.collection.Iterator.empty
@@ -56,15 +60,30 @@ case class TopNPipe(source: Pipe, countExpression: Expression, comparator: Compa
 
     val scopedMemoryTracker = state.memoryTracker.memoryTrackerForOperator(id.x).getScopedMemoryTracker
     val topTable = new DefaultComparatorTopTable[CypherRow](comparator, limit, scopedMemoryTracker)
+    val spilling = state.spilling match {
+      case spillToDisk: SPILL_TO_DISK => Some(spillToDisk)
+      case NO_SPILLING => None
+    }
+    var topTableHeapUsage = 0L
 
     var i = 1L
     while (input.hasNext) {
       val row = input.next()
       val evictedRow = topTable.addAndGetEvicted(row)
       if (row ne evictedRow) {
-        scopedMemoryTracker.allocateHeap(row.estimatedHeapUsage())
-        if (evictedRow != null)
-          scopedMemoryTracker.releaseHeap(evictedRow.estimatedHeapUsage())
+        val rowHeapUsage = row.estimatedHeapUsage()
+        scopedMemoryTracker.allocateHeap(rowHeapUsage)
+        topTableHeapUsage += rowHeapUsage
+        if (evictedRow != null) {
+          val evictedRowHeapUsage = evictedRow.estimatedHeapUsage()
+          scopedMemoryTracker.releaseHeap(evictedRowHeapUsage)
+          topTableHeapUsage -= evictedRowHeapUsage
+        }
+        if (spilling.exists(topTableHeapUsage > _.threshold) && SpilledRows.canSpill(row)) {
+          // The limit is too large to keep the top rows on heap, continue as a sort that keeps at most limit rows of each spilled run
+          scopedMemoryTracker.releaseHeap(topTableHeapUsage)
+          return sortWithSpilling(topTable, input, limit, spilling.get, state, scopedMemoryTracker)
+        }
       }
       i += 1
     }
@@ -73,6 +92,30 @@ case class TopNPipe(source: Pipe, countExpression: Expression, comparator: Compa
 
     topTable.autoClosingIterator(scopedMemoryTracker).asScala
   }
+
+  private def sortWithSpilling(topTable: DefaultComparatorTopTable[CypherRow],
+                               input: Iterator[CypherRow],
+                               limit: Long,
+                               spilling: SPILL_TO_DISK,
+                               state: QueryState,
+                               scopedMemoryTracker: MemoryTracker): Iterator[CypherRow] = {
+    val sorter = new ExternalSorter(comparator, spilling, state, id, scopedMemoryTracker, limit)
+    try {
+      topTable.unorderedIterator().asScala.foreach(sorter.add)
+      topTable.close()
+      input.foreach(sorter.add)
+    } catch {
+      case e: Throwable =>
+        sorter.close()
+        throw e
+    }
+    new AutoClosingIterator[CypherRow](sorter.sorted()) {
+      override def close(): Unit = {
+        sorter.close()
+        scopedMemoryTracker.close()
+      }
+    }
+  }
 }
 
 /*
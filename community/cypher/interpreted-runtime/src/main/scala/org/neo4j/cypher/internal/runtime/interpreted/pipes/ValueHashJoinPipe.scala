@@ -21,6 +21,8 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.Iterators
+import org.neo4j.cypher.internal.runtime.NO_SPILLING
+import org.neo4j.cypher.internal.runtime.SPILL_TO_DISK
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
 import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.kernel.impl.util.collection
@@ -43,6 +45,13 @@ case class ValueHashJoinPipe(lhsExpression: Expression, rhsExpression: Expressio
     if (rhsIterator.isEmpty)
       return Iterator.empty
 
+    state.spilling match {
+      case spilling: SPILL_TO_DISK => joinWithSpilling(input, rhsIterator, spilling, state)
+      case NO_SPILLING => joinInMemory(input, rhsIterator, state)
+    }
+  }
+
+  private def joinInMemory(input: Iterator[CypherRow], rhsIterator: Iterator[CypherRow], state: QueryState): Iterator[CypherRow] = {
     val table = buildProbeTable(input, state)
 
     if (table.isEmpty) {
@@ -64,6 +73,42 @@ case class ValueHashJoinPipe(lhsExpression: Expression, rhsExpression: Expressio
     Iterators.resourceClosingIterator(result.flatten, table)
   }
 
+  private def joinWithSpilling(input: Iterator[CypherRow],
+                               rhsIterator: Iterator[CypherRow],
+                               spilling: SPILL_TO_DISK,
+                               state: QueryState): Iterator[CypherRow] = {
+    val join = new HybridHashJoin[AnyValue](spilling, state, id, state.memoryTracker.memoryTrackerForOperator(id.x), merge(_, _, state))
+    try {
+      for (context <- input;
+           joinKey = lhsExpression(context, state) if joinKey != null) {
+        join.build(joinKey, context)
+      }
+    } catch {
+      case e: Throwable =>
+        join.close()
+        throw e
+    }
+
+    if (join.isEmpty) {
+      join.close()
+      return Iterator.empty
+    }
+
+    val result = for {rhsRow <- rhsIterator
+                      joinKey = rhsExpression(rhsRow, state) if !(joinKey eq Values.NO_VALUE)
+                      output <- join.probe(joinKey, rhsRow)}
+      yield output
+
+    // `++` only evaluates this once all rhs rows have been probed, which is when the spilled partitions are complete
+    Iterators.resourceClosingIterator(result ++ join.spilledMatches(), join)
+  }
+
+  private def merge(lhsRow: CypherRow, rhsRow: CypherRow, state: QueryState): CypherRow = {
+    val outputRow = lhsRow.createClone()
+    outputRow.mergeWith(rhsRow, state.query)
+    outputRow
+  }
+
   private def buildProbeTable(input: Iterator[CypherRow], state: QueryState): collection.ProbeTable[AnyValue, CypherRow] = {
     val table = collection.ProbeTable.createProbeTable[AnyValue, CypherRow](state.memoryTracker.memoryTrackerForOperator(id.x))
 
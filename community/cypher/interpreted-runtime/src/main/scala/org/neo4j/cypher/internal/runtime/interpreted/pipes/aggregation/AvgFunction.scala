@@ -26,10 +26,14 @@ import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expres
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.exceptions.InternalException
 import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.DoubleArray
 import org.neo4j.values.storable.DurationValue
+import org.neo4j.values.storable.NumberValue
 import org.neo4j.values.storable.Value
 import org.neo4j.values.storable.Values
 import org.neo4j.values.utils.ValueMath.overflowSafeAdd
+import org.neo4j.values.virtual.ListValue
+import org.neo4j.values.virtual.VirtualValues
 
 /**
  * AVG computation is calculated using cumulative moving average approach:
@@ -39,7 +43,8 @@ import org.neo4j.values.utils.ValueMath.overflowSafeAdd
  */
 class AvgFunction(val value: Expression)
   extends AggregationFunction
-  with NumericOrDurationAggregationExpression {
+  with NumericOrDurationAggregationExpression
+  with SpillableAggregationFunction {
 
   def name = "AVG"
 
@@ -85,4 +90,38 @@ class AvgFunction(val value: Expression)
   }
 
   def aggregatedRowCount: Long = count
+
+  /**
+   * The count together with the running average, which is either a number or the four running averages of the duration units.
+   */
+  override def partialResult: AnyValue = aggregatingType match {
+    case None =>
+      Values.NO_VALUE
+    case Some(AggregatingNumbers) =>
+      VirtualValues.list(Values.longValue(count), sumNumber)
+    case Some(AggregatingDurations) =>
+      VirtualValues.list(Values.longValue(count), Values.doubleArray(Array(monthsRunningAvg, daysRunningAvg, secondsRunningAvg, nanosRunningAvg)))
+    case _ => throw new InternalException(s"invalid aggregation type $aggregatingType")
+  }
+
+  override def mergePartialResult(partial: AnyValue, state: QueryState): Unit = partial match {
+    case list: ListValue =>
+      val otherCount = list.value(0).asInstanceOf[NumberValue].longValue()
+      val total = count + otherCount
+      // weigh the difference of the averages by the share of the other count
+      val weight = otherCount.toDouble / total
+      list.value(1) match {
+        case otherAvg: NumberValue =>
+          aggregating(AggregatingNumbers)
+          sumNumber = overflowSafeAdd(sumNumber, otherAvg.minus(sumNumber).times(weight))
+        case otherAvgs: DoubleArray =>
+          aggregating(AggregatingDurations)
+          monthsRunningAvg += (otherAvgs.doubleValue(0) - monthsRunningAvg) * weight
+          daysRunningAvg += (otherAvgs.doubleValue(1) - daysRunningAvg) * weight
+          secondsRunningAvg += (otherAvgs.doubleValue(2) - secondsRunningAvg) * weight
+          nanosRunningAvg += (otherAvgs.doubleValue(3) - nanosRunningAvg) * weight
+      }
+      count = total
+    case _ =>
+  }
 }
@@ -24,9 +24,10 @@ import org.neo4j.cypher.internal.runtime.ReadableRow
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.NumberValue
 import org.neo4j.values.storable.Values
 
-class CountFunction(value: Expression) extends AggregationFunction {
+class CountFunction(value: Expression) extends AggregationFunction with SpillableAggregationFunction {
   var count: Long = 0
 
   override def apply(data: ReadableRow, state: QueryState) {
@@ -37,4 +38,8 @@ class CountFunction(value: Expression) extends AggregationFunction {
   }
 
   override def result(state: QueryState): AnyValue = Values.longValue(count)
+
+  override def partialResult: AnyValue = Values.longValue(count)
+
+  override def mergePartialResult(partial: AnyValue, state: QueryState): Unit = count += partial.asInstanceOf[NumberValue].longValue()
 }
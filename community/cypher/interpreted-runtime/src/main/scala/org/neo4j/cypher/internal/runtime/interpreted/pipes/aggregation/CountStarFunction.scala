@@ -22,9 +22,10 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
 import org.neo4j.cypher.internal.runtime.ReadableRow
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.NumberValue
 import org.neo4j.values.storable.Values
 
-class CountStarFunction extends AggregationFunction {
+class CountStarFunction extends AggregationFunction with SpillableAggregationFunction {
   var count:Long = 0
 
   override def apply(data: ReadableRow, state: QueryState) {
@@ -32,5 +33,9 @@ class CountStarFunction extends AggregationFunction {
   }
 
   override def result(state: QueryState): AnyValue = Values.longValue(count)
+
+  override def partialResult: AnyValue = Values.longValue(count)
+
+  override def mergePartialResult(partial: AnyValue, state: QueryState): Unit = count += partial.asInstanceOf[NumberValue].longValue()
 }
 
@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
 
 import org.eclipse.collections.api.block.function.Function2
 import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.SPILL_TO_DISK
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregatingCol
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregationTable
@@ -31,6 +32,7 @@ import org.neo4j.cypher.internal.runtime.interpreted.pipes.ExecutionContextFacto
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.kernel.impl.util.collection.HeapTrackingOrderedAppendMap
+import org.neo4j.memory.EmptyMemoryTracker
 import org.neo4j.memory.MemoryTracker
 import org.neo4j.values.AnyValue
 
@@ -101,7 +103,15 @@ object GroupingAggTable {
                      groupingFunction: (CypherRow, QueryState) => AnyValue,
                      aggregations: Array[AggregatingCol]) extends AggregationTableFactory {
     override def table(state: QueryState, executionContextFactory: ExecutionContextFactory, operatorId: Id): AggregationTable =
-      new GroupingAggTable(groupingColumns, groupingFunction, aggregations, state, executionContextFactory, operatorId)
+      state.spilling match {
+        case spilling: SPILL_TO_DISK if spillable =>
+          new SpillingGroupingAggTable(groupingColumns, groupingFunction, aggregations, spilling, state, executionContextFactory, operatorId)
+        case _ =>
+          new GroupingAggTable(groupingColumns, groupingFunction, aggregations, state, executionContextFactory, operatorId)
+      }
+
+    private lazy val spillable =
+      aggregations.forall(_.expression.createAggregationFunction(EmptyMemoryTracker.INSTANCE).isInstanceOf[SpillableAggregationFunction])
   }
 
 }
@@ -27,7 +27,7 @@ import org.neo4j.values.AnyValue
 import org.neo4j.values.AnyValues
 import org.neo4j.values.storable.Values
 
-trait MinMax extends AggregationFunction {
+trait MinMax extends AggregationFunction with SpillableAggregationFunction {
   def value: Expression
   def keep(comparisonResult: Int): Boolean
   def name: String
@@ -43,6 +43,13 @@ trait MinMax extends AggregationFunction {
     }
   }
 
+  override def partialResult: AnyValue = biggestSeen
+
+  override def mergePartialResult(partial: AnyValue, state: QueryState): Unit = partial match {
+    case IsNoValue() =>
+    case x: AnyValue => checkIfLargest(x)
+  }
+
   private def checkIfLargest(value: AnyValue) {
     if (biggestSeen eq Values.NO_VALUE) {
       biggestSeen = value
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
+
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.values.AnyValue
+
+/**
+ * An aggregation function whose intermediate state can be taken out as a value and merged into another function of the same kind.
+ * This is what allows a grouping aggregation to write groups to disk and continue aggregating them later.
+ */
+trait SpillableAggregationFunction extends AggregationFunction {
+  /**
+   * The intermediate state of this function.
+   */
+  def partialResult: AnyValue
+
+  /**
+   * Adds the intermediate state of another function of the same kind to this one.
+   */
+  def mergePartialResult(partial: AnyValue, state: QueryState): Unit
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
+
+import org.eclipse.collections.api.block.function.Function2
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.Iterators
+import org.neo4j.cypher.internal.runtime.SPILL_TO_DISK
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregatingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregationTable
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.computeNewAggregatorsFunction
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe.GroupingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ExecutionContextFactory
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.SpilledRows
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.internal.kernel.api.AutoCloseablePlus
+import org.neo4j.internal.kernel.api.DefaultCloseListenable
+import org.neo4j.kernel.impl.util.collection.HeapTrackingOrderedAppendMap
+import org.neo4j.memory.MemoryTracker
+import org.neo4j.memory.ScopedMemoryTracker
+import org.neo4j.values.AnyValue
+
+/**
+ * The [[GroupingAggTable]] to use when spilling is enabled and all aggregation functions are [[SpillableAggregationFunction]]s.
+ *
+ * Groups are aggregated on heap until they use more heap than the spill threshold. Then the partial results of all groups are written
+ * to one of [[SpillingGroupingAggTable.PARTITIONS]] spill files, picked by the hash of their grouping key, and aggregation continues
+ * with no groups on heap. The result merges the partial results of one partition at a time, so only the groups of that partition are
+ * on heap at once. A partition is always merged on heap, even if its groups are larger than the threshold themselves.
+ *
+ * The table is traced by the resources of the query, so that its spill files are deleted when the query is closed before all groups
+ * have been pulled.
+ *
+ * @param groupingColumns  all grouping columns
+ * @param groupingFunction a precomputed function to calculate the grouping key of a row
+ * @param aggregations     all aggregation columns
+ */
+class SpillingGroupingAggTable(groupingColumns: Array[GroupingCol],
+                               groupingFunction: (CypherRow, QueryState) => AnyValue,
+                               aggregations: Array[AggregatingCol],
+                               spilling: SPILL_TO_DISK,
+                               state: QueryState,
+                               executionContextFactory: ExecutionContextFactory,
+                               operatorId: Id) extends DefaultCloseListenable with AggregationTable with AutoCloseablePlus {
+  import SpillingGroupingAggTable.PARTITIONS
+
+  private[this] var resultMap: HeapTrackingOrderedAppendMap[AnyValue, Array[AggregationFunction]] = _
+  private[this] val addKeys: (CypherRow, AnyValue) => Unit = AggregationPipe.computeAddKeysToResultRowFunction(groupingColumns)
+  // Tracks the heap of the groups even when memory tracking is disabled, since that is what decides when to spill
+  private[this] val memoryTracker = new ScopedMemoryTracker(state.memoryTracker.memoryTrackerForOperator(operatorId.x))
+  private[this] val newAggregators: Function2[AnyValue, MemoryTracker, Array[AggregationFunction]] =
+    computeNewAggregatorsFunction(aggregations.map(_.expression))
+  private[this] val spilledRows = new SpilledRows(spilling.directory, state, operatorId)
+  private[this] var partitions: Array[spilledRows.SpillFileWriter] = _
+  private[this] var emptyHeapUsage = 0L
+  private[this] var closed = false
+  state.query.resources.trace(this)
+
+  override def clear(): Unit = {
+    if (resultMap != null) {
+      resultMap.close()
+    }
+    if (partitions != null) {
+      partitions.foreach(_.close())
+      partitions = null
+    }
+    spilledRows.close()
+    newResultMap()
+  }
+
+  override def processRow(row: CypherRow): Unit = {
+    val groupingValue: AnyValue = groupingFunction(row, state)
+    val aggregationFunctions = resultMap.getIfAbsentPutWithMemoryTracker2(groupingValue, newAggregators)
+    var i = 0
+    while (i < aggregationFunctions.length) {
+      aggregationFunctions(i)(row, state)
+      i += 1
+    }
+    if (memoryTracker.estimatedHeapMemory() - emptyHeapUsage > spilling.threshold) {
+      spill()
+    }
+  }
+
+  override def result(): Iterator[CypherRow] = {
+    if (partitions == null) {
+      return resultIterator(resultMap)
+    }
+    spill()
+    resultMap.close()
+    resultMap = null
+    val files = partitions.map(_.finish())
+    partitions = null
+    Iterators.resourceClosingIterator(files.iterator.flatMap(mergePartition), spilledRows)
+  }
+
+  override def close(): Unit = {
+    closeInternal()
+    val listener = closeListener
+    if (listener != null) {
+      listener.onClosed(this)
+    }
+  }
+
+  override def closeInternal(): Unit = {
+    if (!closed) {
+      closed = true
+      if (resultMap != null) {
+        resultMap.close()
+        resultMap = null
+      }
+      if (partitions != null) {
+        partitions.foreach(_.close())
+        partitions = null
+      }
+      spilledRows.close()
+    }
+  }
+
+  override def isClosed: Boolean = closed
+
+  private def spill(): Unit = {
+    if (partitions == null) {
+      partitions = Array.fill(PARTITIONS)(spilledRows.newFile())
+    }
+    val entries = resultMap.autoClosingEntryIterator()
+    while (entries.hasNext) {
+      val entry = entries.next()
+      val aggregationFunctions = entry.getValue
+      val partialResults = CypherRow.empty
+      var i = 0
+      while (i < aggregationFunctions.length) {
+        partialResults.set(aggregations(i).key, aggregationFunctions(i).asInstanceOf[SpillableAggregationFunction].partialResult)
+        i += 1
+      }
+      partitions(partition(entry.getKey)).write(entry.getKey, partialResults)
+    }
+    newResultMap()
+  }
+
+  private def newResultMap(): Unit = {
+    resultMap = HeapTrackingOrderedAppendMap.createOrderedMap[AnyValue, Array[AggregationFunction]](memoryTracker)
+    // the threshold is for the groups, not for the map itself
+    emptyHeapUsage = memoryTracker.estimatedHeapMemory()
+  }
+
+  private def mergePartition(file: spilledRows.SpillFile): Iterator[CypherRow] = {
+    val partitionMap = HeapTrackingOrderedAppendMap.createOrderedMap[AnyValue, Array[AggregationFunction]](memoryTracker)
+    file.keyedReader().foreach {
+      case (groupingValue, partialResults) =>
+        val aggregationFunctions = partitionMap.getIfAbsentPutWithMemoryTracker2(groupingValue, newAggregators)
+        var i = 0
+        while (i < aggregationFunctions.length) {
+          aggregationFunctions(i).asInstanceOf[SpillableAggregationFunction]
+            .mergePartialResult(partialResults.getByName(aggregations(i).key), state)
+          i += 1
+        }
+    }
+    resultIterator(partitionMap)
+  }
+
+  private def resultIterator(map: HeapTrackingOrderedAppendMap[AnyValue, Array[AggregationFunction]]): Iterator[CypherRow] = {
+    val innerIterator = map.autoClosingEntryIterator()
+    new Iterator[CypherRow] {
+      override def hasNext: Boolean = innerIterator.hasNext
+
+      override def next(): CypherRow = {
+        val entry = innerIterator.next() // NOTE: This entry is transient and only valid until we call next() again
+        val aggregateFunctions = entry.getValue
+        val row = state.newExecutionContext(executionContextFactory)
+        addKeys(row, entry.getKey)
+        var i = 0
+        while (i < aggregateFunctions.length) {
+          row.set(aggregations(i).key, aggregateFunctions(i).result(state))
+          i += 1
+        }
+        row
+      }
+    }
+  }
+
+  private def partition(groupingValue: AnyValue): Int = (groupingValue.hashCode() & Int.MaxValue) % PARTITIONS
+}
+
+object SpillingGroupingAggTable {
+  final val PARTITIONS = 16
+}
@@ -24,11 +24,13 @@ import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expres
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.exceptions.InternalException
 import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Values
 import org.neo4j.values.utils.ValueMath.overflowSafeAdd
 
 class SumFunction(val value: Expression)
   extends AggregationFunction
-  with NumericOrDurationAggregationExpression {
+  with NumericOrDurationAggregationExpression
+  with SpillableAggregationFunction {
 
   def name = "SUM"
 
@@ -44,7 +46,19 @@ class SumFunction(val value: Expression)
   }
 
   override def apply(data: ReadableRow, state: QueryState) {
-    val vl = value(data, state)
+    add(value(data, state))
+  }
+
+  override def partialResult: AnyValue = aggregatingType match {
+    case None => Values.NO_VALUE
+    case Some(AggregatingNumbers) => sumNumber
+    case Some(AggregatingDurations) => sumDuration
+    case _ => throw new InternalException(s"invalid aggregation type $aggregatingType")
+  }
+
+  override def mergePartialResult(partial: AnyValue, state: QueryState): Unit = add(partial)
+
+  private def add(vl: AnyValue): Unit = {
     actOnNumberOrDuration(vl,
       number => {
         sumNumber = overflowSafeAdd(sumNumber, number)
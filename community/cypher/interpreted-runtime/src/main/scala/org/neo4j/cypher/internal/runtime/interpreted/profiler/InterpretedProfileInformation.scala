@@ -23,6 +23,7 @@ import java.util
 
 import org.neo4j.cypher.internal.runtime.NoMemoryTracker
 import org.neo4j.cypher.internal.runtime.QueryMemoryTracker
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.SpillTracker
 import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.cypher.result.OperatorProfile
 import org.neo4j.cypher.result.QueryProfile
@@ -35,12 +36,13 @@ class InterpretedProfileInformation extends QueryProfile {
                           rows: Long,
                           pageCacheHits: Long,
                           pageCacheMisses: Long,
-                          maxAllocatedMemory: Long) extends OperatorProfile {
+                          maxAllocatedMemory: Long,
+                          spilledBytes: Long) extends OperatorProfile {
 
     override def time: Long = OperatorProfile.NO_DATA
 
     override def hashCode: Int = util.Arrays.hashCode(
-      Array(this.time(), this.dbHits, this.rows, this.pageCacheHits, this.pageCacheMisses, this.maxAllocatedMemory))
+      Array(this.time(), this.dbHits, this.rows, this.pageCacheHits, this.pageCacheMisses, this.maxAllocatedMemory, this.spilledBytes))
 
     override def equals(o: Any): Boolean = o match {
       case that: OperatorProfile =>
@@ -49,11 +51,12 @@ class InterpretedProfileInformation extends QueryProfile {
           this.rows == that.rows &&
           this.pageCacheHits == that.pageCacheHits &&
           this.pageCacheMisses == that.pageCacheMisses &&
-          this.maxAllocatedMemory == that.maxAllocatedMemory()
+          this.maxAllocatedMemory == that.maxAllocatedMemory() &&
+          this.spilledBytes == that.spilledBytes()
       case _ => false
     }
 
-    override def toString: String = s"Operator Profile { time: ${this.time}, dbHits: ${this.dbHits}, rows: ${this.rows}, page cache hits: ${this.pageCacheHits}, page cache misses: ${this.pageCacheMisses}, max allocated: ${this.maxAllocatedMemory} }"
+    override def toString: String = s"Operator Profile { time: ${this.time}, dbHits: ${this.dbHits}, rows: ${this.rows}, page cache hits: ${this.pageCacheHits}, page cache misses: ${this.pageCacheMisses}, max allocated: ${this.maxAllocatedMemory}, spilled: ${this.spilledBytes} }"
   }
 
   val pageCacheMap: mutable.Map[Id, PageCacheStats] = mutable.Map.empty.withDefault(_ => PageCacheStats(0,0))
@@ -65,6 +68,11 @@ class InterpretedProfileInformation extends QueryProfile {
 
   def setMemoryTracker(memoryTracker: QueryMemoryTracker): Unit = this.memoryTracker = memoryTracker
 
+  // Intended to be overridden by `setSpillTracker`
+  private var spillTracker: SpillTracker = new SpillTracker
+
+  def setSpillTracker(spillTracker: SpillTracker): Unit = this.spillTracker = spillTracker
+
   def operatorProfile(operatorId: Int): OperatorProfile = {
     val id = Id(operatorId)
     val rows = rowMap.get(id).map(_.count).getOrElse(0L)
@@ -72,7 +80,9 @@ class InterpretedProfileInformation extends QueryProfile {
     val pageCacheStats = pageCacheMap(id)
     val maxMemoryAllocated = QueryMemoryTracker.memoryAsProfileData(memoryTracker.maxMemoryOfOperator(operatorId))
 
-    OperatorData(dbHits, rows, pageCacheStats.hits, pageCacheStats.misses, maxMemoryAllocated)
+    val spilledBytes = spillTracker.spilledBytesOfOperator(operatorId)
+
+    OperatorData(dbHits, rows, pageCacheStats.hits, pageCacheStats.misses, maxMemoryAllocated, spilledBytes)
   }
 
   override def maxAllocatedMemory(): Long = QueryMemoryTracker.memoryAsProfileData(memoryTracker.totalAllocatedMemory)
@@ -101,6 +101,7 @@ class Profiler(dbmsInfo: DbmsInfo,
 
   def decorate(planId: Id, state: QueryState): QueryState = {
     stats.setMemoryTracker(state.memoryTracker)
+    stats.setSpillTracker(state.spillTracker)
     val decoratedContext = stats.dbHitsMap.getOrElseUpdate(planId, state.query match {
       case p: ProfilingPipeQueryContext => new ProfilingPipeQueryContext(p.inner)
       case _ => new ProfilingPipeQueryContext(state.query)
@@ -24,9 +24,12 @@ import org.mockito.Mockito
 import org.mockito.invocation.InvocationOnMock
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.ExpressionCursors
+import org.neo4j.cypher.internal.runtime.NO_SPILLING
 import org.neo4j.cypher.internal.runtime.NoMemoryTracker
 import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.QueryMemoryTracker
 import org.neo4j.cypher.internal.runtime.ResourceManager
+import org.neo4j.cypher.internal.runtime.Spilling
 import org.neo4j.cypher.internal.runtime.interpreted.TransactionBoundQueryContext.IndexSearchMonitor
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.ExternalCSVResource
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.NullPipeDecorator
@@ -62,10 +65,13 @@ object QueryStateHelper extends MockitoSugar {
                 expressionVariables: Array[AnyValue] = Array.empty,
                 subscriber: QuerySubscriber = QuerySubscriber.DO_NOTHING_SUBSCRIBER,
                 decorator: PipeDecorator = NullPipeDecorator,
-                initialContext: Option[CypherRow] = None
+                initialContext: Option[CypherRow] = None,
+                spilling: Spilling = NO_SPILLING,
+                memoryTracker: QueryMemoryTracker = NoMemoryTracker,
+                batchSize: Int = 0
                ):QueryState =
-    new QueryState(query, resources, params, expressionCursors, queryIndexes, expressionVariables, subscriber, NoMemoryTracker,
-      decorator, initialContext = initialContext)
+    new QueryState(query, resources, params, expressionCursors, queryIndexes, expressionVariables, subscriber, memoryTracker,
+      decorator, initialContext = initialContext, spilling = spilling, batchSize = batchSize)
 
   def queryStateFrom(db: GraphDatabaseQueryService,
                      tx: InternalTransaction,
@@ -99,6 +105,12 @@ object QueryStateHelper extends MockitoSugar {
 
   def emptyWithValueSerialization: QueryState = emptyWith(query = context)
 
+  def emptyWithSpilling(spilling: Spilling, resources: ResourceManager = new ResourceManager): QueryState = {
+    val query = mock[QueryContext]
+    Mockito.when(query.resources).thenReturn(resources)
+    emptyWith(query = query, spilling = spilling)
+  }
+
   private val context = mock[QueryContext]
   Mockito.when(context.asObject(ArgumentMatchers.any())).thenAnswer((invocationOnMock: InvocationOnMock) => toObject(invocationOnMock.getArgument(0)))
 
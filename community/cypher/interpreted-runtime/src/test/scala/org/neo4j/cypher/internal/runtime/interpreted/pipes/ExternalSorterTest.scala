@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.nio.file.Files
+
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.ResourceManager
+import org.neo4j.cypher.internal.runtime.SPILL_TO_DISK
+import org.neo4j.cypher.internal.runtime.interpreted.Ascending
+import org.neo4j.cypher.internal.runtime.interpreted.InterpretedExecutionContextOrdering
+import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.memory.EmptyMemoryTracker
+import org.neo4j.values.storable.Values.intValue
+
+class ExternalSorterTest extends CypherFunSuite {
+
+  private val comparator = InterpretedExecutionContextOrdering.asComparator(List(Ascending("k")))
+
+  test("should merge runs in several passes when there are more runs than the merge fan-in") {
+    val spillDirectory = Files.createTempDirectory("spill")
+    val state = QueryStateHelper.emptyWithSpilling(SPILL_TO_DISK(0, spillDirectory))
+    val sorter = new ExternalSorter(comparator, SPILL_TO_DISK(0, spillDirectory), state, Id(0), EmptyMemoryTracker.INSTANCE, maxMergeFanIn = 4)
+
+    // every row is spilled as a run of its own
+    (0 until 100).foreach(i => sorter.add(CypherRow.from("k" -> intValue((i * 7) % 10), "i" -> intValue(i))))
+    spillDirectory.toFile.list() should have size 100
+    val result = sorter.sorted()
+    spillDirectory.toFile.list().length should be < 4
+
+    val expected = (0 until 100).sortBy(i => (i * 7) % 10)
+    result.map(_.getByName("i")).toList should equal(expected.map(intValue))
+    sorter.close()
+    spillDirectory.toFile.list() shouldBe empty
+    Files.delete(spillDirectory)
+  }
+
+  test("should only keep the first rows of merged runs when limited") {
+    val spillDirectory = Files.createTempDirectory("spill")
+    val state = QueryStateHelper.emptyWithSpilling(SPILL_TO_DISK(0, spillDirectory))
+    val sorter = new ExternalSorter(comparator, SPILL_TO_DISK(0, spillDirectory), state, Id(0), EmptyMemoryTracker.INSTANCE, limit = 15, maxMergeFanIn = 4)
+
+    (0 until 100).foreach(i => sorter.add(CypherRow.from("k" -> intValue(99 - i), "i" -> intValue(i))))
+    val result = sorter.sorted().map(_.getByName("k")).toList
+
+    result should equal((0 until 15).map(intValue))
+    sorter.close()
+    spillDirectory.toFile.list() shouldBe empty
+    Files.delete(spillDirectory)
+  }
+
+  test("should be closed with the query") {
+    val spillDirectory = Files.createTempDirectory("spill")
+    val resources = new ResourceManager
+    val state = QueryStateHelper.emptyWithSpilling(SPILL_TO_DISK(0, spillDirectory), resources)
+    val sorter = new ExternalSorter(comparator, SPILL_TO_DISK(0, spillDirectory), state, Id(0), EmptyMemoryTracker.INSTANCE)
+
+    (0 until 10).foreach(i => sorter.add(CypherRow.from("k" -> intValue(i))))
+    resources.allResources.toList should equal(List(sorter))
+
+    resources.close()
+    sorter.isClosed shouldBe true
+    spillDirectory.toFile.list() shouldBe empty
+    Files.delete(spillDirectory)
+  }
+}
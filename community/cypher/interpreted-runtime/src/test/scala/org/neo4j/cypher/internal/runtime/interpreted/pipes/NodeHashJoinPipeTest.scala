@@ -19,17 +19,27 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import java.nio.file.Files
+
 import org.mockito.ArgumentMatchers.any
+import org.mockito.ArgumentMatchers.anyLong
 import org.mockito.Mockito.never
 import org.mockito.Mockito.verify
 import org.mockito.Mockito.when
+import org.mockito.invocation.InvocationOnMock
 import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.SPILL_TO_DISK
 import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
 import org.neo4j.cypher.internal.runtime.ImplicitValueConversion.toNodeValue
 import org.neo4j.cypher.internal.runtime.interpreted.TestableIterator
 import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
 import org.neo4j.graphdb.Node
 import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.IntValue
+import org.neo4j.values.storable.Values.intValue
+import org.neo4j.values.storable.Values.stringArray
+import org.neo4j.values.virtual.NodeValue
+import org.neo4j.values.virtual.VirtualValues
 
 class NodeHashJoinPipeTest extends CypherFunSuite {
 
@@ -91,8 +101,35 @@ class NodeHashJoinPipeTest extends CypherFunSuite {
     lhsIterator.fetched should equal(0)
   }
 
+  test("should join rows spilled to disk and keep the order of the rhs") {
+    // given
+    val spillDirectory = Files.createTempDirectory("spill")
+    val queryState = QueryStateHelper.emptyWithSpilling(SPILL_TO_DISK(1000, spillDirectory))
+    when(queryState.query.nodeById(anyLong())).thenAnswer((invocation: InvocationOnMock) => nodeValue(invocation.getArgument[Long](0)))
+
+    val left = mock[Pipe]
+    when(left.createResults(queryState)).thenReturn((1 to 200).map(i => row("a" -> nodeValue(i % 50), "a2" -> intValue(i))).iterator)
+
+    val right = mock[Pipe]
+    val rhsOrder = (0 until 100).map(i => (i * 37) % 100)
+    when(right.createResults(queryState)).thenReturn(rhsOrder.map(i => row("a" -> nodeValue(i % 50), "b2" -> intValue(i))).iterator)
+
+    // when
+    val pipe = NodeHashJoinPipe(Set("a"), left, right)()
+    val result = pipe.createResults(queryState).toList
+
+    // then
+    result.map(_.getByName("b2")) should equal(rhsOrder.flatMap(i => Seq.fill(4)(intValue(i))))
+    result.foreach(output => output.getByName("a") should equal(nodeValue(output.getByName("a2").asInstanceOf[IntValue].value() % 50)))
+    queryState.spillTracker.spilledBytesOfOperator(pipe.id.x) should be > 0L
+    spillDirectory.toFile.list() shouldBe empty
+    Files.delete(spillDirectory)
+  }
+
   private def row(values: (String, AnyValue)*) = CypherRow.from(values: _*)
 
+  private def nodeValue(id: Long): NodeValue = VirtualValues.nodeValue(id, stringArray(), VirtualValues.EMPTY_MAP)
+
   private def newMockedNode(id: Int) = {
     val node = mock[Node]
     when(node.getId).thenReturn(id)
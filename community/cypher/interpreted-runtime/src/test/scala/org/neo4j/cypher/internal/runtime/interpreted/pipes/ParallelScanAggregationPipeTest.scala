@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.mockito.ArgumentMatchers.any
+import org.mockito.ArgumentMatchers.anyInt
+import org.mockito.Mockito.when
+import org.mockito.invocation.InvocationOnMock
+import org.neo4j.cypher.internal.logical.plans.IndexOrderAscending
+import org.neo4j.cypher.internal.logical.plans.IndexOrderNone
+import org.neo4j.cypher.internal.runtime.BoundedMemoryTracker
+import org.neo4j.cypher.internal.runtime.NoMemoryTracker
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.QueryMemoryTracker
+import org.neo4j.cypher.internal.runtime.QueryTransactionalContext
+import org.neo4j.cypher.internal.runtime.ReadableRow
+import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
+import org.neo4j.cypher.internal.runtime.interpreted.commands.AstNode
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Count
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.CountStar
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Property
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Sum
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Variable
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.KeyToken
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.TokenType
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregatingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe.GroupingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ParallelScanAggregationPipe.AllNodes
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ParallelScanAggregationPipe.NodesWithLabel
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ParallelScanAggregationPipe.propertyVariable
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.internal.kernel.api.CursorFactory
+import org.neo4j.internal.kernel.api.NodeCursor
+import org.neo4j.internal.kernel.api.PropertyCursor
+import org.neo4j.internal.kernel.api.Read
+import org.neo4j.internal.kernel.api.Scan
+import org.neo4j.io.pagecache.tracing.PageCacheTracer
+import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer
+import org.neo4j.kernel.api.KernelTransaction
+import org.neo4j.memory.LocalMemoryTracker
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Values.intValue
+import org.scalatest.BeforeAndAfterAll
+
+import scala.collection.JavaConverters.asScalaSetConverter
+
+class ParallelScanAggregationPipeTest extends CypherFunSuite with BeforeAndAfterAll {
+
+  private val serial = ArgumentPipe()()
+  private val executor = Executors.newFixedThreadPool(2)
+
+  override protected def afterAll(): Unit = {
+    executor.shutdown()
+    super.afterAll()
+  }
+
+  test("should read each property of the scanned nodes once") {
+    val pipe = ParallelScanAggregationPipe.over(serial, AllNodesScanPipe("n")(),
+      Array(GroupingCol("country", property("n", "country"))),
+      Array(AggregatingCol("c", CountStar()), AggregatingCol("s", Sum(property("n", "age"))), AggregatingCol("a", Count(property("n", "country")))),
+      workers = 4)(Id(1)).get
+
+    pipe.nodeScan should equal(AllNodes)
+    pipe.properties.map(_.name) should equal(Array("country", "age"))
+    pipe.groupingColumns.map(_.expression) should equal(Array(Variable(propertyVariable(0))))
+    pipe.aggregations.map(_.expression) should equal(Array(CountStar(), Sum(Variable(propertyVariable(1))), Count(Variable(propertyVariable(0)))))
+    pipe.id should equal(Id(1))
+  }
+
+  test("should scan nodes with a label in no particular order") {
+    val label = LazyLabel("Person")
+
+    ParallelScanAggregationPipe.over(serial, NodeByLabelScanPipe("n", label, IndexOrderNone)(), Array.empty,
+      Array(AggregatingCol("c", CountStar())), workers = 4)(Id(1)).map(_.nodeScan) should equal(Some(NodesWithLabel(label)))
+    ParallelScanAggregationPipe.over(serial, NodeByLabelScanPipe("n", label, IndexOrderAscending)(), Array.empty,
+      Array(AggregatingCol("c", CountStar())), workers = 4)(Id(1)) should be(None)
+  }
+
+  test("should not support columns that read more than properties of the scanned nodes") {
+    def over(groupingExpression: Expression, aggregatingExpression: Expression): Option[ParallelScanAggregationPipe] =
+      ParallelScanAggregationPipe.over(serial, AllNodesScanPipe("n")(),
+        Array(GroupingCol("g", groupingExpression)), Array(AggregatingCol("a", Count(aggregatingExpression))), workers = 4)(Id(1))
+
+    over(property("n", "country"), property("n", "age")) should not be None
+    over(Variable("n"), property("n", "age")) should be(None)
+    over(property("m", "country"), property("n", "age")) should be(None)
+    over(property("n", "country"), Variable("n")) should be(None)
+    ParallelScanAggregationPipe.over(serial, ArgumentPipe()(), Array.empty, Array(AggregatingCol("c", CountStar())), workers = 4)(Id(1)) should be(None)
+  }
+
+  test("should evaluate the columns of each worker with a query state of its own") {
+    val states = ConcurrentHashMap.newKeySet[QueryState]()
+    val recordingGrouping = new Expression {
+      override def apply(row: ReadableRow, state: QueryState): AnyValue = {
+        states.add(state)
+        intValue(1)
+      }
+
+      override def rewrite(f: Expression => Expression): Expression = f(this)
+
+      override def arguments: Seq[Expression] = Seq.empty
+
+      override def children: Seq[AstNode[_]] = Seq.empty
+    }
+    val pipe = ParallelScanAggregationPipe(serial, AllNodes, Array.empty, Array(GroupingCol("g", recordingGrouping)),
+      Array(AggregatingCol("c", CountStar())), workers = 2)(Id(1))
+    val state = parallelState(NoMemoryTracker, new DefaultPageCursorTracer(PageCacheTracer.NULL, "test"))
+
+    pipe.createResults(state).map(_.getByName("c")).toList should equal(List(intValue(2)))
+
+    states should not be empty
+    states should not contain state
+    states.asScala.foreach(_.query should be(null))
+  }
+
+  test("should add the page accesses of the workers to the tracer of the transaction") {
+    val pipe = ParallelScanAggregationPipe.over(serial, AllNodesScanPipe("n")(), Array.empty, Array(AggregatingCol("c", CountStar())), workers = 2)(Id(1)).get
+    val cursorTracer = new DefaultPageCursorTracer(PageCacheTracer.NULL, "test")
+
+    pipe.createResults(parallelState(NoMemoryTracker, cursorTracer)).map(_.getByName("c")).toList should equal(List(intValue(2)))
+
+    // every worker pins a page when it allocates its scan cursor and its node cursor
+    cursorTracer.pins() should equal(4)
+  }
+
+  test("should track the groups of the workers in the memory tracker of the operator") {
+    val workerThreads = ConcurrentHashMap.newKeySet[Thread]()
+    val transactionMemoryTracker = new LocalMemoryTracker() {
+      override def allocateHeap(bytes: Long): Unit = {
+        workerThreads.add(Thread.currentThread())
+        super.allocateHeap(bytes)
+      }
+    }
+    val memoryTracker = BoundedMemoryTracker(transactionMemoryTracker)
+    val pipe = ParallelScanAggregationPipe.over(serial, AllNodesScanPipe("n")(), Array.empty,
+      Array(AggregatingCol("c", CountStar())), workers = 2)(Id(1)).get
+
+    pipe.createResults(parallelState(memoryTracker, new DefaultPageCursorTracer(PageCacheTracer.NULL, "test"))).toList
+
+    workerThreads.asScala.exists(_ ne Thread.currentThread()) should be(true)
+    memoryTracker.maxMemoryOfOperator(1) should be > 0L
+    transactionMemoryTracker.estimatedHeapMemory() should equal(0L)
+  }
+
+  /**
+   * A query state for scanning two nodes, in batches of one node each, on the threads of a worker executor.
+   */
+  private def parallelState(memoryTracker: QueryMemoryTracker, cursorTracer: PageCursorTracer): QueryState = {
+    val batches = new AtomicInteger(2)
+    val scan = mock[Scan[NodeCursor]]
+    when(scan.reserveBatch(any(), anyInt())).thenAnswer((_: InvocationOnMock) => Boolean.box(batches.getAndDecrement() > 0))
+    val dataRead = mock[Read]
+    when(dataRead.allNodesScan()).thenReturn(scan)
+    val cursors = mock[CursorFactory]
+    when(cursors.allocateNodeCursor(any())).thenAnswer((invocation: InvocationOnMock) => {
+      invocation.getArgument[PageCursorTracer](0).beginPin(false, 0, null).done()
+      val cursor = mock[NodeCursor]
+      when(cursor.next()).thenReturn(true, false, true, false)
+      cursor
+    })
+    when(cursors.allocatePropertyCursor(any(), any())).thenReturn(mock[PropertyCursor])
+    val transaction = mock[KernelTransaction]
+    when(transaction.pageCursorTracer()).thenReturn(cursorTracer)
+    val transactionalContext = mock[QueryTransactionalContext]
+    when(transactionalContext.hasTxStateWithChanges).thenReturn(false)
+    when(transactionalContext.dataRead).thenReturn(dataRead)
+    when(transactionalContext.workerCursors).thenReturn(cursors)
+    when(transactionalContext.workerExecutor).thenReturn(executor)
+    when(transactionalContext.transaction).thenReturn(transaction)
+    val query = mock[QueryContext]
+    when(query.transactionalContext).thenReturn(transactionalContext)
+    QueryStateHelper.emptyWith(query = query, memoryTracker = memoryTracker)
+  }
+
+  private def property(variable: String, key: String): Expression =
+    Property(Variable(variable), KeyToken.Unresolved(key, TokenType.PropertyKey))
+}
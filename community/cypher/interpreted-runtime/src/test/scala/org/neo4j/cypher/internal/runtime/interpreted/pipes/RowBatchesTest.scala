@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.util.Collections.singletonMap
+
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
+import org.neo4j.cypher.internal.runtime.interpreted.commands.LiteralHelper.literal
+import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.InterpretedCommandProjection
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Divide
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Property
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Variable
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.Ands
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.Equals
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.GreaterThan
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.IsNull
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.LessThan
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.Not
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.Ors
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.TokenType.PropertyKey
+import org.neo4j.cypher.internal.util.NonEmptyList
+import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.exceptions.CypherTypeException
+import org.neo4j.values.AnyValue
+
+class RowBatchesTest extends CypherFunSuite {
+
+  private val batched = QueryStateHelper.emptyWith(batchSize = 3)
+  private val rowAtATime = QueryStateHelper.emptyWith()
+
+  private val rows: Seq[Map[String, Any]] =
+    Seq(1, null, 5, 2, 7, null, 4, 9, 3, 8).map(x => Map("x" -> x, "m" -> singletonMap("p", x)))
+
+  private val predicates = Seq(
+    GreaterThan(Variable("x"), literal(3)),
+    Equals(Property(Variable("m"), PropertyKey("p")), literal(5)),
+    Not(LessThan(Variable("x"), literal(4))),
+    IsNull(Variable("x")),
+    Ands(NonEmptyList(GreaterThan(Variable("x"), literal(1)), LessThan(Variable("x"), literal(8)))),
+    Ors(NonEmptyList(LessThan(Variable("x"), literal(2)), IsNull(Variable("x")), Equals(Variable("x"), literal(9)))),
+    Not(Ands(NonEmptyList(Not(IsNull(Variable("x"))), Ors(NonEmptyList(LessThan(Variable("x"), literal(3)), GreaterThan(Variable("x"), literal(7)))))))
+  )
+
+  predicates.foreach { predicate =>
+    test(s"filter on $predicate should keep the same rows with and without batches") {
+      RowBatches.filter(Iterator.empty, predicate, batched) should not be empty
+
+      xs(FilterPipe(new FakePipe(rows), predicate)().createResults(batched)) should equal(
+        xs(FilterPipe(new FakePipe(rows), predicate)().createResults(rowAtATime)))
+    }
+  }
+
+  test("projection should set the same values with and without batches") {
+    val expressions = Map[String, Expression](
+      "y" -> Property(Variable("m"), PropertyKey("p")),
+      "gt" -> GreaterThan(Variable("x"), literal(3)),
+      "either" -> Ors(NonEmptyList(IsNull(Variable("x")), Equals(Variable("x"), literal(2)))))
+    RowBatches.project(Iterator.empty, InterpretedCommandProjection(expressions), batched) should not be empty
+
+    def project(state: QueryState): Seq[Seq[AnyValue]] =
+      ProjectionPipe(new FakePipe(rows), expressions).createResults(state).map(row => Seq("y", "gt", "either").map(row.getByName)).toList
+
+    project(batched) should equal(project(rowAtATime))
+  }
+
+  test("should evaluate one row at a time when a projection reads a variable it sets") {
+    val projection = InterpretedCommandProjection(Map("x" -> literal(1), "y" -> Variable("x")))
+
+    RowBatches.project(Iterator.empty, projection, batched) shouldBe empty
+  }
+
+  test("should evaluate one row at a time when an expression cannot be batched") {
+    RowBatches.filter(Iterator.empty, GreaterThan(Divide(Variable("x"), literal(2)), literal(1)), batched) shouldBe empty
+  }
+
+  test("should evaluate one row at a time when profiled") {
+    val profiled = QueryStateHelper.emptyWith(batchSize = 3, decorator = mock[PipeDecorator])
+
+    RowBatches.filter(Iterator.empty, GreaterThan(Variable("x"), literal(3)), profiled) shouldBe empty
+  }
+
+  test("should not fail for a row of a failed batch that is never pulled") {
+    val input = Seq[Map[String, Any]](Map("m" -> singletonMap("p", 1)), Map("m" -> singletonMap("p", 2)), Map("m" -> 3))
+    val predicate = GreaterThan(Property(Variable("m"), PropertyKey("p")), literal(0))
+
+    val result = FilterPipe(new FakePipe(input), predicate)().createResults(batched)
+
+    result.take(2).map(_.getByName("m")).toList should have size 2
+  }
+
+  test("should fail at the row that fails when it is pulled") {
+    val input = Seq[Map[String, Any]](Map("m" -> singletonMap("p", 1)), Map("m" -> 3), Map("m" -> singletonMap("p", 2)))
+    val predicate = GreaterThan(Property(Variable("m"), PropertyKey("p")), literal(0))
+
+    val result = FilterPipe(new FakePipe(input), predicate)().createResults(batched)
+
+    result.next().getByName("m") should not be null
+    a[CypherTypeException] should be thrownBy result.next()
+  }
+
+  private def xs(rows: Iterator[CypherRow]): Seq[AnyValue] = rows.map(_.getByName("x")).toList
+}
@@ -19,7 +19,11 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import java.nio.file.Files
+
 import org.junit.Assert.assertEquals
+import org.neo4j.cypher.internal.runtime.ResourceManager
+import org.neo4j.cypher.internal.runtime.SPILL_TO_DISK
 import org.neo4j.cypher.internal.runtime.interpreted.Ascending
 import org.neo4j.cypher.internal.runtime.interpreted.Descending
 import org.neo4j.cypher.internal.runtime.interpreted.InterpretedExecutionContextOrdering
@@ -77,6 +81,36 @@ class SortPipeTest extends CypherFunSuite with MockitoSugar {
       Map[String, Any]("x" -> "B", "y" -> 10)))
   }
 
+  test("should sort rows spilled to disk") {
+    val spillDirectory = Files.createTempDirectory("spill")
+    val list: Seq[mutable.Map[String, Any]] = (1 to 100).map(i => mutable.Map[String, Any]("x" -> (i * 37) % 101, "y" -> s"row $i"))
+    val source = new FakePipe(list)
+    val sortPipe = SortPipe(source, InterpretedExecutionContextOrdering.asComparator(List(Ascending("x"))))()
+
+    val result = sortPipe.createResults(QueryStateHelper.emptyWithSpilling(SPILL_TO_DISK(1000, spillDirectory))).toList
+
+    result.map(_.getByName("x")) should equal((1 to 100).map(intValue))
+    result.map(_.getByName("y")) should equal((1 to 100).map(x => Values.stringValue(s"row ${(x * 71) % 101}")))
+    spillDirectory.toFile.list() shouldBe empty
+    Files.delete(spillDirectory)
+  }
+
+  test("should delete spilled rows when the query is closed before all rows are pulled") {
+    val spillDirectory = Files.createTempDirectory("spill")
+    val resources = new ResourceManager
+    val list: Seq[mutable.Map[String, Any]] = (1 to 100).map(i => mutable.Map[String, Any]("x" -> (i * 37) % 101))
+    val sortPipe = SortPipe(new FakePipe(list), InterpretedExecutionContextOrdering.asComparator(List(Ascending("x"))))()
+
+    val result = sortPipe.createResults(QueryStateHelper.emptyWithSpilling(SPILL_TO_DISK(1000, spillDirectory), resources))
+    result.next().getByName("x") should equal(intValue(1))
+    spillDirectory.toFile.list() should not be empty
+
+    resources.close()
+    spillDirectory.toFile.list() shouldBe empty
+    resources.allResources shouldBe empty
+    Files.delete(spillDirectory)
+  }
+
   test("should handle null values") {
     val list: Seq[mutable.Map[String, Any]] = List(
       mutable.Map("y" -> 1),
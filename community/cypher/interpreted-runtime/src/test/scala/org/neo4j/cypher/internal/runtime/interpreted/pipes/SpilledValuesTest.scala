@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.OffsetTime
+import java.time.ZoneId
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+import org.mockito.ArgumentMatchers.anyLong
+import org.mockito.Mockito.when
+import org.mockito.invocation.InvocationOnMock
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.CoordinateReferenceSystem
+import org.neo4j.values.storable.DateTimeValue
+import org.neo4j.values.storable.DateValue
+import org.neo4j.values.storable.DurationValue
+import org.neo4j.values.storable.LocalDateTimeValue
+import org.neo4j.values.storable.LocalTimeValue
+import org.neo4j.values.storable.TimeValue
+import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.NodeValue
+import org.neo4j.values.virtual.RelationshipValue
+import org.neo4j.values.virtual.VirtualValues
+import org.scalatest.mockito.MockitoSugar
+
+class SpilledValuesTest extends CypherFunSuite with MockitoSugar {
+
+  private val query = mock[QueryContext]
+  when(query.nodeById(anyLong())).thenAnswer((invocation: InvocationOnMock) => node(invocation.getArgument[Long](0)))
+  when(query.relationshipById(anyLong())).thenAnswer((invocation: InvocationOnMock) => relationship(invocation.getArgument[Long](0)))
+
+  private val dateTime = ZonedDateTime.of(2020, 2, 29, 13, 14, 15, 123456789, ZoneId.of("Europe/Stockholm"))
+
+  test("should read back nodes and relationships") {
+    roundTrip(node(42)) should equal(node(42))
+    roundTrip(relationship(7)) should equal(relationship(7))
+    roundTrip(VirtualValues.list(node(1), relationship(2))) should equal(VirtualValues.list(node(1), relationship(2)))
+  }
+
+  test("should read back paths") {
+    val path = VirtualValues.path(Array(node(1), node(2), node(3)), Array(relationship(10), relationship(11)))
+
+    roundTrip(path) should equal(path)
+    roundTrip(VirtualValues.path(Array(node(1)), Array.empty)) should equal(VirtualValues.path(Array(node(1)), Array.empty))
+  }
+
+  test("should read back temporal values") {
+    val values = Seq(
+      DateValue.date(dateTime.toLocalDate),
+      LocalTimeValue.localTime(dateTime.toLocalTime),
+      TimeValue.time(OffsetTime.of(dateTime.toLocalTime, ZoneOffset.ofHoursMinutes(-3, -30))),
+      LocalDateTimeValue.localDateTime(dateTime.toLocalDateTime),
+      DateTimeValue.datetime(dateTime),
+      DateTimeValue.datetime(dateTime.withZoneSameInstant(ZoneOffset.ofHours(5))),
+      DurationValue.duration(14, 3, 3600, 500))
+
+    values.foreach(value => roundTrip(value) should equal(value))
+  }
+
+  test("should read back arrays") {
+    val values = Seq(
+      Values.byteArray(Array[Byte](1, -2, 3)),
+      Values.shortArray(Array[Short](1, -2, 3)),
+      Values.intArray(Array(1, -2, 3)),
+      Values.longArray(Array(1L, Long.MinValue, Long.MaxValue)),
+      Values.floatArray(Array(1.5f, -2.5f)),
+      Values.doubleArray(Array(1.5, -0.25)),
+      Values.booleanArray(Array(true, false)),
+      Values.stringArray("a", "", "åäö"),
+      Values.charArray(Array('a', 'ö')),
+      Values.pointArray(Array(Values.pointValue(CoordinateReferenceSystem.WGS84_3D, 12.0, 56.0, 100.0))),
+      Values.dateArray(Array(LocalDate.of(2020, 2, 29))),
+      Values.localTimeArray(Array(LocalTime.of(23, 59, 59, 999999999))),
+      Values.timeArray(Array(OffsetTime.of(LocalTime.NOON, ZoneOffset.UTC))),
+      Values.localDateTimeArray(Array(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 1))),
+      Values.dateTimeArray(Array(dateTime)),
+      Values.durationArray(Array(DurationValue.duration(1, 2, 3, 4))))
+
+    values.foreach(value => roundTrip(value) should equal(value))
+  }
+
+  test("should read back nested lists and maps") {
+    val value = VirtualValues.map(Array("a", "b"), Array(VirtualValues.list(Values.intValue(1), Values.NO_VALUE, node(3)), Values.stringValue("c")))
+
+    roundTrip(value) should equal(value)
+  }
+
+  private def roundTrip(value: AnyValue): AnyValue = {
+    val bytes = new ByteArrayOutputStream()
+    val out = new DataOutputStream(bytes)
+    value.writeTo(new SpilledValueWriter(out))
+    out.close()
+    val in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray))
+    val read = new SpilledValueReader(in, query).read()
+    in.available() should equal(0)
+    read
+  }
+
+  private def node(id: Long): NodeValue = VirtualValues.nodeValue(id, Values.stringArray("L"), VirtualValues.EMPTY_MAP)
+
+  private def relationship(id: Long): RelationshipValue =
+    VirtualValues.relationshipValue(id, node(id * 2), node(id * 2 + 1), Values.stringValue("R"), VirtualValues.EMPTY_MAP)
+}
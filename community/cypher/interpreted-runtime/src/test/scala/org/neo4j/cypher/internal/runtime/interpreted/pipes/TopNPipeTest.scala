@@ -19,6 +19,10 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import java.nio.file.Files
+
+import org.neo4j.cypher.internal.runtime.ResourceManager
+import org.neo4j.cypher.internal.runtime.SPILL_TO_DISK
 import org.neo4j.cypher.internal.runtime.interpreted.Ascending
 import org.neo4j.cypher.internal.runtime.interpreted.Descending
 import org.neo4j.cypher.internal.runtime.interpreted.InterpretedExecutionContextOrdering
@@ -93,6 +97,34 @@ class TopNPipeTest extends CypherFunSuite {
     result should equal(list(1,1))
   }
 
+  test("returning top 50 from 100 possible should return 50 with lowest value when spilling to disk") {
+    val spillDirectory = Files.createTempDirectory("spill")
+    val input = createFakePipeWith(100)
+    val pipe = TopNPipe(input, literal(50), InterpretedExecutionContextOrdering.asComparator(List(Ascending("a"))))()
+    val state = QueryStateHelper.emptyWithSpilling(SPILL_TO_DISK(1000, spillDirectory))
+    val result = pipe.createResults(state).map(ctx => ctx.getByName("a")).toList
+
+    result should equal(list(0 until 50: _*))
+    spillDirectory.toFile.list() shouldBe empty
+    Files.delete(spillDirectory)
+  }
+
+  test("should delete spilled rows when the query is closed before all rows are pulled") {
+    val spillDirectory = Files.createTempDirectory("spill")
+    val resources = new ResourceManager
+    val input = createFakePipeWith(100)
+    val pipe = TopNPipe(input, literal(50), InterpretedExecutionContextOrdering.asComparator(List(Ascending("a"))))()
+    val result = pipe.createResults(QueryStateHelper.emptyWithSpilling(SPILL_TO_DISK(1000, spillDirectory), resources))
+
+    result.next().getByName("a") should equal(ValueUtils.of(0))
+    spillDirectory.toFile.list() should not be empty
+
+    resources.close()
+    spillDirectory.toFile.list() shouldBe empty
+    resources.allResources shouldBe empty
+    Files.delete(spillDirectory)
+  }
+
   test("should handle empty input") {
     val input = new FakePipe(Iterator.empty)
 
@@ -19,12 +19,16 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import java.nio.file.Files
+
 import org.mockito.ArgumentMatchers.any
 import org.mockito.Mockito.verify
 import org.mockito.Mockito.when
 import org.mockito.Mockito.never
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.ImplicitValueConversion.toIntValue
+import org.neo4j.cypher.internal.runtime.ResourceManager
+import org.neo4j.cypher.internal.runtime.SPILL_TO_DISK
 import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContextHelper.RichExecutionContext
 import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
 import org.neo4j.cypher.internal.runtime.interpreted.TestableIterator
@@ -185,6 +189,79 @@ class ValueHashJoinPipeTest extends CypherFunSuite {
     result.toList should beEquivalentTo(List(Map("a" -> ints, "b" ->  doubles)))
   }
 
+  test("should join rows spilled to disk") {
+    // given
+    val spillDirectory = Files.createTempDirectory("spill")
+    val queryState = QueryStateHelper.emptyWithSpilling(SPILL_TO_DISK(1000, spillDirectory))
+
+    val left = mock[Pipe]
+    when(left.createResults(queryState)).thenReturn((1 to 100).map(i => row("a" -> intValue(i % 50), "a2" -> intValue(i))).iterator)
+
+    val right = mock[Pipe]
+    when(right.createResults(queryState)).thenReturn((25 to 75).map(i => row("b" -> intValue(i), "b2" -> intValue(i))).iterator)
+
+    // when
+    val pipe = ValueHashJoinPipe(Variable("a"), Variable("b"), left, right)()
+    val result = pipe.createResults(queryState)
+
+    // then
+    val expected = for {
+      a2 <- 1 to 100
+      b <- 25 to 75 if a2 % 50 == b
+    } yield Map[String, AnyValue]("a" -> intValue(b), "a2" -> intValue(a2), "b" -> intValue(b), "b2" -> intValue(b))
+    result.map(_.toMap).toSet should equal(expected.toSet)
+    queryState.spillTracker.spilledBytesOfOperator(pipe.id.x) should be > 0L
+    spillDirectory.toFile.list() shouldBe empty
+    Files.delete(spillDirectory)
+  }
+
+  test("should keep the order of the rhs when rows are spilled to disk") {
+    // given
+    val spillDirectory = Files.createTempDirectory("spill")
+    val queryState = QueryStateHelper.emptyWithSpilling(SPILL_TO_DISK(1000, spillDirectory))
+
+    val left = mock[Pipe]
+    when(left.createResults(queryState)).thenReturn((1 to 200).map(i => row("a" -> intValue(i % 50), "a2" -> intValue(i))).iterator)
+
+    val right = mock[Pipe]
+    val rhsOrder = (0 until 100).map(i => (i * 37) % 100)
+    when(right.createResults(queryState)).thenReturn(rhsOrder.map(i => row("b" -> intValue(i % 50), "b2" -> intValue(i))).iterator)
+
+    // when
+    val pipe = ValueHashJoinPipe(Variable("a"), Variable("b"), left, right)()
+    val result = pipe.createResults(queryState).toList
+
+    // then
+    result.map(_.getByName("b2")) should equal(rhsOrder.flatMap(i => Seq.fill(4)(intValue(i))))
+    queryState.spillTracker.spilledBytesOfOperator(pipe.id.x) should be > 0L
+    spillDirectory.toFile.list() shouldBe empty
+    Files.delete(spillDirectory)
+  }
+
+  test("should delete spilled rows when the query is closed before all rows are pulled") {
+    // given
+    val spillDirectory = Files.createTempDirectory("spill")
+    val resources = new ResourceManager
+    val queryState = QueryStateHelper.emptyWithSpilling(SPILL_TO_DISK(1000, spillDirectory), resources)
+
+    val left = mock[Pipe]
+    when(left.createResults(queryState)).thenReturn((1 to 100).map(i => row("a" -> intValue(i % 50), "a2" -> intValue(i))).iterator)
+
+    val right = mock[Pipe]
+    when(right.createResults(queryState)).thenReturn((0 until 50).map(i => row("b" -> intValue(i))).iterator)
+
+    // when
+    val result = ValueHashJoinPipe(Variable("a"), Variable("b"), left, right)().createResults(queryState)
+    result.next()
+    spillDirectory.toFile.list() should not be empty
+    resources.close()
+
+    // then
+    spillDirectory.toFile.list() shouldBe empty
+    resources.allResources shouldBe empty
+    Files.delete(spillDirectory)
+  }
+
 
   private def row(values: (String, AnyValue)*) = CypherRow.from(values: _*)
 
@@ -35,4 +35,19 @@ trait AggregateTest {
     values.foreach(value => func(CypherRow.from("x" -> value), state))
     func.result(state)
   }
+
+  /**
+   * Aggregates the values in two halves and merges the partial result of the second half into the first.
+   */
+  def aggregateMergedOn(values: AnyValue*): Any = {
+    val state = QueryStateHelper.empty
+
+    val (first, second) = values.splitAt(values.size / 2)
+    val func = createAggregator(Variable("x")).asInstanceOf[SpillableAggregationFunction]
+    first.foreach(value => func(CypherRow.from("x" -> value), state))
+    val other = createAggregator(Variable("x")).asInstanceOf[SpillableAggregationFunction]
+    second.foreach(value => other(CypherRow.from("x" -> value), state))
+    func.mergePartialResult(other.partialResult, state)
+    func.result(state)
+  }
 }
@@ -107,4 +107,24 @@ class AvgFunctionTest extends CypherFunSuite with AggregateTest {
 
     result should equal(NO_VALUE)
   }
+
+  test("mergesPartialAverages") {
+    val result = aggregateMergedOn(intValue(2), intValue(4), intValue(6), intValue(10))
+
+    result should equal(doubleValue(5.5))
+  }
+
+  test("mergesPartialDurationAverages") {
+    val durationValue = DurationValue.duration(0, 3, 0, 1)
+    val durationValue2 = DurationValue.duration(0, 2, 2, 1)
+    val result = aggregateMergedOn(durationValue, durationValue2)
+
+    result should equal(DurationValue.duration(0,2,12 * 3600 + 1, 1 ))
+  }
+
+  test("mergeOnEmpty") {
+    val result = aggregateMergedOn()
+
+    result should equal(NO_VALUE)
+  }
 }
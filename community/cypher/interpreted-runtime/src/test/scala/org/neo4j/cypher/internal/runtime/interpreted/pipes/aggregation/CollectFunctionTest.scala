@@ -42,4 +42,8 @@ class CollectFunctionTest extends CypherFunSuite with AggregateTest {
   test("doesnt_collect_null_values") {
     aggregateOn(NO_VALUE) should equal(EMPTY_LIST)
   }
+
+  test("merges partial results in order") {
+    aggregateMergedOn(intValue(1), NO_VALUE, intValue(2), intValue(3)) should equal(list(intValue(1), intValue(2), intValue(3)))
+  }
 }
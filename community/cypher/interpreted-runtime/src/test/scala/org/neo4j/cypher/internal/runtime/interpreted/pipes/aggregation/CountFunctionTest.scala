@@ -24,6 +24,7 @@ import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
 import org.neo4j.values.storable.LongValue
 import org.neo4j.values.storable.Values.NO_VALUE
 import org.neo4j.values.storable.Values.intValue
+import org.neo4j.values.storable.Values.longValue
 import org.neo4j.values.storable.Values.stringValue
 
 class CountFunctionTest extends CypherFunSuite with AggregateTest {
@@ -35,4 +36,10 @@ class CountFunctionTest extends CypherFunSuite with AggregateTest {
     result should equal(intValue(2))
     result shouldBe a [LongValue]
   }
+
+  test("merges partial counts") {
+    val result = aggregateMergedOn(intValue(1), NO_VALUE, stringValue("foo"), intValue(2))
+
+    result should equal(longValue(3))
+  }
 }
@@ -76,4 +76,10 @@ class MaxFunctionTest extends CypherFunSuite with AggregateTest {
 
     result should equal(stringValue("abc1"))
   }
+
+  test("merges partial results") {
+    val result = aggregateMergedOn(stringValue("abc1"), stringValue("a"), Values.NO_VALUE, stringValue("abc"))
+
+    result should equal(stringValue("abc1"))
+  }
 }
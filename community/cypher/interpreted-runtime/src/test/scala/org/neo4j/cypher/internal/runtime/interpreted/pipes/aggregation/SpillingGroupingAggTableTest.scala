@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
+
+import java.nio.file.Files
+
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.ResourceManager
+import org.neo4j.cypher.internal.runtime.SPILL_TO_DISK
+import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Collect
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.CountStar
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Max
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Stdev
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Sum
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Variable
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregatingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.CommunityExecutionContextFactory
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe.GroupingCol
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.values.storable.Values.intValue
+import org.neo4j.values.storable.Values.longValue
+import org.neo4j.values.virtual.VirtualValues.list
+
+class SpillingGroupingAggTableTest extends CypherFunSuite {
+
+  test("should aggregate groups spilled to disk") {
+    // given
+    val spillDirectory = Files.createTempDirectory("spill")
+    val state = QueryStateHelper.emptyWithSpilling(SPILL_TO_DISK(1000, spillDirectory))
+    val groupingColumns = Array(GroupingCol("k", Variable("k")))
+    val aggregations = Array(
+      AggregatingCol("count", CountStar()),
+      AggregatingCol("sum", Sum(Variable("v"))),
+      AggregatingCol("max", Max(Variable("v"))),
+      AggregatingCol("collect", Collect(Variable("v"))))
+    val factory = GroupingAggTable.Factory(groupingColumns, AggregationPipe.computeGroupingFunction(groupingColumns), aggregations)
+    val table = factory.table(state, CommunityExecutionContextFactory(), Id(0))
+    table shouldBe a[SpillingGroupingAggTable]
+
+    // when
+    table.clear()
+    (0 until 1000).foreach(i => table.processRow(CypherRow.from("k" -> intValue(i % 100), "v" -> intValue(i))))
+    val result = table.result().map(row => row.getByName("k") -> row).toMap
+
+    // then
+    result.keySet should equal((0 until 100).map(intValue).toSet)
+    (0 until 100).foreach { k =>
+      val row = result(intValue(k))
+      row.getByName("count") should equal(longValue(10))
+      row.getByName("sum") should equal(longValue(10 * k + 4500))
+      row.getByName("max") should equal(intValue(k + 900))
+      row.getByName("collect") should equal(list((0 until 10).map(i => intValue(k + 100 * i)): _*))
+    }
+    state.spillTracker.spilledBytesOfOperator(0) should be > 0L
+    spillDirectory.toFile.list() shouldBe empty
+    Files.delete(spillDirectory)
+  }
+
+  test("should delete spilled groups when the query is closed before all groups are pulled") {
+    // given
+    val spillDirectory = Files.createTempDirectory("spill")
+    val resources = new ResourceManager
+    val state = QueryStateHelper.emptyWithSpilling(SPILL_TO_DISK(1000, spillDirectory), resources)
+    val groupingColumns = Array(GroupingCol("k", Variable("k")))
+    val factory = GroupingAggTable.Factory(groupingColumns, AggregationPipe.computeGroupingFunction(groupingColumns),
+      Array(AggregatingCol("count", CountStar())))
+    val table = factory.table(state, CommunityExecutionContextFactory(), Id(0))
+    table.clear()
+    (0 until 1000).foreach(i => table.processRow(CypherRow.from("k" -> intValue(i))))
+
+    // when
+    table.result().next()
+    spillDirectory.toFile.list() should not be empty
+    resources.close()
+
+    // then
+    spillDirectory.toFile.list() shouldBe empty
+    resources.allResources shouldBe empty
+    Files.delete(spillDirectory)
+  }
+
+  test("should aggregate on heap when a function cannot be spilled") {
+    val state = QueryStateHelper.emptyWithSpilling(SPILL_TO_DISK(1000, Files.createTempDirectory("spill")))
+    val groupingColumns = Array(GroupingCol("k", Variable("k")))
+    val aggregations = Array(AggregatingCol("count", CountStar()), AggregatingCol("stdev", Stdev(Variable("v"))))
+    val factory = GroupingAggTable.Factory(groupingColumns, AggregationPipe.computeGroupingFunction(groupingColumns), aggregations)
+
+    factory.table(state, CommunityExecutionContextFactory(), Id(0)) should not be a[SpillingGroupingAggTable]
+    Files.delete(state.spilling.asInstanceOf[SPILL_TO_DISK].directory)
+  }
+}
@@ -126,4 +126,14 @@ class SumFunctionTest extends CypherFunSuite with AggregateTest {
     result should equal(longValue(expected))
     result shouldBe a [LongValue]
   }
+
+  test("merges partial results") {
+    val result = aggregateMergedOn(intValue(1), intValue(2), NO_VALUE, intValue(3))
+
+    result should equal(longValue(6))
+  }
+
+  test("cantMergeDurationAndNumber") {
+    intercept[CypherTypeException](aggregateMergedOn(intValue(1), DurationValue.duration(0, 0, 0, 1)))
+  }
 }
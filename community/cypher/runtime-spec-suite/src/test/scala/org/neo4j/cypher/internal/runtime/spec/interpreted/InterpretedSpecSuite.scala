@@ -19,6 +19,8 @@
  */
 package org.neo4j.cypher.internal.runtime.spec.interpreted
 
+import org.neo4j.configuration.GraphDatabaseInternalSettings
+import org.neo4j.configuration.GraphDatabaseSettings
 import org.neo4j.cypher.internal.CommunityRuntimeContext
 import org.neo4j.cypher.internal.InterpretedRuntime
 import org.neo4j.cypher.internal.runtime.spec.COMMUNITY
@@ -79,6 +81,7 @@ import org.neo4j.cypher.internal.runtime.spec.tests.OptionalFailureTestBase
 import org.neo4j.cypher.internal.runtime.spec.tests.OptionalTestBase
 import org.neo4j.cypher.internal.runtime.spec.tests.OrderedAggregationTestBase
 import org.neo4j.cypher.internal.runtime.spec.tests.OrderedDistinctTestBase
+import org.neo4j.cypher.internal.runtime.spec.tests.ParallelScanAggregationTestBase
 import org.neo4j.cypher.internal.runtime.spec.tests.PartialSortTestBase
 import org.neo4j.cypher.internal.runtime.spec.tests.PartialTop1TestBase
 import org.neo4j.cypher.internal.runtime.spec.tests.PartialTopNTestBase
@@ -116,6 +119,11 @@ object InterpretedSpecSuite {
 }
 
 class InterpretedAggregationTest extends AggregationTestBase(COMMUNITY.EDITION, InterpretedRuntime, SIZE_HINT)
+class InterpretedParallelAggregationTest extends AggregationTestBase(
+  COMMUNITY.EDITION.copyWith(GraphDatabaseInternalSettings.cypher_parallel_scan_workers -> Integer.valueOf(4),
+                             GraphDatabaseSettings.track_query_allocation -> java.lang.Boolean.FALSE),
+  InterpretedRuntime, SIZE_HINT)
+class InterpretedParallelScanAggregationTest extends ParallelScanAggregationTestBase(COMMUNITY.EDITION, InterpretedRuntime, 50 * SIZE_HINT)
 class InterpretedOrderedAggregationTest extends OrderedAggregationTestBase(COMMUNITY.EDITION, InterpretedRuntime, SIZE_HINT)
 class InterpretedAllNodeScanTest extends AllNodeScanTestBase(COMMUNITY.EDITION, InterpretedRuntime, SIZE_HINT)
                                  with AllNodeScanWithOtherOperatorsTestBase[CommunityRuntimeContext]
@@ -153,8 +161,12 @@ class InterpretedSortTest extends SortTestBase(COMMUNITY.EDITION, InterpretedRun
 class InterpretedPartialTopNTest extends PartialTopNTestBase(COMMUNITY.EDITION, InterpretedRuntime, SIZE_HINT)
 class InterpretedPartialTop1Test extends PartialTop1TestBase(COMMUNITY.EDITION, InterpretedRuntime, SIZE_HINT)
 class InterpretedFilterTest extends FilterTestBase(COMMUNITY.EDITION, InterpretedRuntime, SIZE_HINT)
+class InterpretedBatchedFilterTest extends FilterTestBase(
+  COMMUNITY.EDITION.copyWith(GraphDatabaseInternalSettings.cypher_interpreted_batch_size -> Integer.valueOf(4)), InterpretedRuntime, SIZE_HINT)
 class InterpretedArgumentTest extends ArgumentTestBase(COMMUNITY.EDITION, InterpretedRuntime, SIZE_HINT)
 class InterpretedProjectionTest extends ProjectionTestBase(COMMUNITY.EDITION, InterpretedRuntime, SIZE_HINT)
+class InterpretedBatchedProjectionTest extends ProjectionTestBase(
+  COMMUNITY.EDITION.copyWith(GraphDatabaseInternalSettings.cypher_interpreted_batch_size -> Integer.valueOf(4)), InterpretedRuntime, SIZE_HINT)
 class InterpretedCachePropertiesTest extends CachePropertiesTestBase(COMMUNITY.EDITION, InterpretedRuntime, SIZE_HINT)
 class InterpretedUnwindTest extends UnwindTestBase(COMMUNITY.EDITION, InterpretedRuntime, SIZE_HINT)
 class InterpretedDistinctTest extends DistinctTestBase(COMMUNITY.EDITION, InterpretedRuntime, SIZE_HINT)
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.spec.tests
+
+import java.time.Duration
+
+import org.neo4j.configuration.GraphDatabaseInternalSettings
+import org.neo4j.configuration.GraphDatabaseSettings
+import org.neo4j.cypher.internal.CypherRuntime
+import org.neo4j.cypher.internal.RuntimeContext
+import org.neo4j.cypher.internal.logical.plans.IndexOrderNone
+import org.neo4j.cypher.internal.runtime.spec.Edition
+import org.neo4j.cypher.internal.runtime.spec.LogicalQueryBuilder
+import org.neo4j.cypher.internal.runtime.spec.RuntimeTestSuite
+import org.neo4j.exceptions.CypherTypeException
+import org.neo4j.graphdb.Label
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.NumberValue
+import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.ListValue
+
+/**
+ * Aggregations over node scans that are split among several workers, checked against aggregates computed from the created graph.
+ * `sizeHint` should be large enough for the workers to reserve several batches of the scan.
+ */
+abstract class ParallelScanAggregationTestBase[CONTEXT <: RuntimeContext](
+                                                                          edition: Edition[CONTEXT],
+                                                                          runtime: CypherRuntime[CONTEXT],
+                                                                          sizeHint: Int
+                                                                        ) extends RuntimeTestSuite[CONTEXT](
+  edition.copyWith(
+    GraphDatabaseInternalSettings.cypher_parallel_scan_workers -> Integer.valueOf(4),
+    GraphDatabaseSettings.track_query_allocation -> java.lang.Boolean.FALSE),
+  runtime) {
+
+  private val aggregations = Seq(
+    "count(*) AS c",
+    "count(x.num) AS cn",
+    "sum(x.num) AS s",
+    "min(x.num) AS mn",
+    "max(x.num) AS mx",
+    "avg(x.num) AS a",
+    "collect(x.num) AS l")
+
+  test("should aggregate all nodes") {
+    val nodes = given { graph() }
+
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("c", "cn", "s", "mn", "mx", "a", "l")
+      .aggregation(Seq.empty, aggregations)
+      .allNodeScan("x")
+      .build()
+
+    assertAggregates(consume(execute(logicalQuery, runtime)).map(Values.NO_VALUE +: _), Map(Values.NO_VALUE -> nodes.map(_._2)))
+  }
+
+  test("should aggregate all nodes with grouping") {
+    val nodes = given { graph() }
+
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("g", "c", "cn", "s", "mn", "mx", "a", "l")
+      .aggregation(Seq("x.group AS g"), aggregations)
+      .allNodeScan("x")
+      .build()
+
+    assertAggregates(consume(execute(logicalQuery, runtime)), groupedNums(nodes))
+  }
+
+  test("should aggregate nodes with label") {
+    val nodes = given { graph() }
+
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("c", "cn", "s", "mn", "mx", "a", "l")
+      .aggregation(Seq.empty, aggregations)
+      .nodeByLabelScan("x", "Honey", IndexOrderNone)
+      .build()
+
+    val honey = nodes.filter(_._3)
+    assertAggregates(consume(execute(logicalQuery, runtime)).map(Values.NO_VALUE +: _), Map(Values.NO_VALUE -> honey.map(_._2)))
+  }
+
+  test("should aggregate nodes with label with grouping") {
+    val nodes = given { graph() }
+
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("g", "c", "cn", "s", "mn", "mx", "a", "l")
+      .aggregation(Seq("x.group AS g"), aggregations)
+      .nodeByLabelScan("x", "Honey", IndexOrderNone)
+      .build()
+
+    assertAggregates(consume(execute(logicalQuery, runtime)), groupedNums(nodes.filter(_._3)))
+  }
+
+  test("should aggregate nodes with a label that does not exist") {
+    given { graph() }
+
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("c", "cn", "s", "mn", "mx", "a", "l")
+      .aggregation(Seq.empty, aggregations)
+      .nodeByLabelScan("x", "NotThere", IndexOrderNone)
+      .build()
+    val groupingQuery = new LogicalQueryBuilder(this)
+      .produceResults("g", "c")
+      .aggregation(Seq("x.group AS g"), Seq("count(*) AS c"))
+      .nodeByLabelScan("x", "NotThere", IndexOrderNone)
+      .build()
+
+    assertAggregates(consume(execute(logicalQuery, runtime)).map(Values.NO_VALUE +: _), Map(Values.NO_VALUE -> Seq.empty))
+    execute(groupingQuery, runtime) should beColumns("g", "c").withNoRows()
+  }
+
+  test("should aggregate an empty scan") {
+    given { tx.createNode(Label.label("Honey")).delete() }
+
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("c", "cn", "s", "mn", "mx", "a", "l")
+      .aggregation(Seq.empty, aggregations)
+      .nodeByLabelScan("x", "Honey", IndexOrderNone)
+      .build()
+    val groupingQuery = new LogicalQueryBuilder(this)
+      .produceResults("g", "c")
+      .aggregation(Seq("x.group AS g"), Seq("count(*) AS c"))
+      .allNodeScan("x")
+      .build()
+
+    assertAggregates(consume(execute(logicalQuery, runtime)).map(Values.NO_VALUE +: _), Map(Values.NO_VALUE -> Seq.empty))
+    execute(groupingQuery, runtime) should beColumns("g", "c").withNoRows()
+  }
+
+  test("should rethrow the failure of a worker") {
+    given {
+      nodePropertyGraph(sizeHint, {
+        case i if i == sizeHint / 2 => Map("num" -> Duration.ofDays(1))
+        case i => Map("num" -> i)
+      }, "Honey")
+    }
+
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("s")
+      .aggregation(Seq.empty, Seq("sum(x.num) AS s"))
+      .allNodeScan("x")
+      .build()
+    val countQuery = new LogicalQueryBuilder(this)
+      .produceResults("c")
+      .aggregation(Seq.empty, Seq("count(x.num) AS c"))
+      .allNodeScan("x")
+      .build()
+
+    intercept[CypherTypeException] {
+      consume(execute(logicalQuery, runtime))
+    }
+    // the workers of the failed query are done, and the next query runs as usual
+    execute(countQuery, runtime) should beColumns("c").withSingleRow(sizeHint)
+  }
+
+  test("should see the changes of the transaction") {
+    val nodes = given { graph() }
+    val (deletedNode, _, _) = nodes.find(_._3).get
+    tx.getNodeById(deletedNode).delete()
+    val created = tx.createNode(Label.label("Honey"))
+    created.setProperty("num", sizeHint)
+    created.setProperty("group", s"g${sizeHint % 7}")
+
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("g", "c", "cn", "s", "mn", "mx", "a", "l")
+      .aggregation(Seq("x.group AS g"), aggregations)
+      .nodeByLabelScan("x", "Honey", IndexOrderNone)
+      .build()
+
+    val honey = nodes.filter(node => node._3 && node._1 != deletedNode) :+ ((created.getId, Some(sizeHint), true))
+    assertAggregates(consume(execute(logicalQuery, runtime)), groupedNums(honey))
+  }
+
+  /**
+   * Creates `sizeHint` nodes with the label Honey, and a tenth of that without labels. Most nodes have the properties `num` and `group`.
+   *
+   * @return the id, `num` and whether it has the label of each node
+   */
+  private def graph(): Seq[(Long, Option[Int], Boolean)] = {
+    val honey = nodePropertyGraph(sizeHint, {
+      case i if i % 10 != 0 => Map("num" -> i, "group" -> s"g${i % 7}")
+    }, "Honey")
+    val others = nodePropertyGraph(sizeHint / 10, {
+      case i if i % 10 != 0 => Map("num" -> -i, "group" -> s"g${i % 7}")
+    })
+    honey.zipWithIndex.map { case (node, i) => (node.getId, Some(i).filter(_ % 10 != 0), true) } ++
+      others.zipWithIndex.map { case (node, i) => (node.getId, Some(-i).filter(_ % 10 != 0), false) }
+  }
+
+  private def groupedNums(nodes: Seq[(Long, Option[Int], Boolean)]): Map[AnyValue, Seq[Option[Int]]] =
+    nodes.map(_._2).groupBy[AnyValue](num => num.map(i => Values.stringValue(s"g${math.abs(i) % 7}")).getOrElse(Values.NO_VALUE))
+
+  /**
+   * Asserts rows of a grouping value followed by the columns of `aggregations`, for the `num` properties of each group.
+   */
+  private def assertAggregates(rows: Seq[Array[AnyValue]], expected: Map[AnyValue, Seq[Option[Int]]]): Unit = {
+    rows.map(_.head) should contain theSameElementsAs expected.keys
+    rows.foreach { row =>
+      val nums = expected(row.head).flatten.map(_.toLong)
+      withClue(s"group ${row.head}: ") {
+        longOf(row(1)) should equal(Some(expected(row.head).size))
+        longOf(row(2)) should equal(Some(nums.size))
+        longOf(row(3)) should equal(Some(nums.sum))
+        longOf(row(4)) should equal(if (nums.isEmpty) None else Some(nums.min))
+        longOf(row(5)) should equal(if (nums.isEmpty) None else Some(nums.max))
+        if (nums.isEmpty) {
+          row(6) should equal(Values.NO_VALUE)
+        } else {
+          tolerantEquals(nums.sum.toDouble / nums.size, row(6).asInstanceOf[NumberValue].doubleValue()) should be(true)
+        }
+        row(7).asInstanceOf[ListValue].asArray().map(value => longOf(value).get).sorted should equal(nums.sorted)
+      }
+    }
+  }
+
+  private def longOf(value: AnyValue): Option[Long] = value match {
+    case number: NumberValue => Some(number.longValue())
+    case _ => None
+  }
+}
@@ -59,6 +59,14 @@ public interface OperatorProfile
      */
     long maxAllocatedMemory();
 
+    /**
+     * The number of bytes that this operator wrote to disk because its rows did not fit in memory.
+     */
+    default long spilledBytes()
+    {
+        return NO_DATA;
+    }
+
     default double pageCacheHitRatio()
     {
         return ( pageCacheHits() == NO_DATA || pageCacheMisses() == NO_DATA) ?
@@ -51,6 +51,8 @@ object Arguments {
 
   case class GlobalMemory(value: Long) extends Argument
 
+  case class SpilledBytes(value: Long) extends Argument
+
   case class Order(order: PrettyString) extends Argument
 
   case class PageCacheHits(value: Long) extends Argument
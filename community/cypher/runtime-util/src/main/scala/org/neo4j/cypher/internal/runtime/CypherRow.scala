@@ -96,6 +96,13 @@ class MapCypherRow(private val m: mutable.Map[String, AnyValue], private var cac
   override def copyFromOffset(input: ReadableRow, sourceLongOffset: Int, sourceRefOffset: Int, targetLongOffset: Int, targetRefOffset: Int): Unit = fail()
 
   def remove(name: String): Option[AnyValue] = m.remove(name)
+
+  def foreachEntry(f: (String, AnyValue) => Unit): Unit = m.foreach(entry => f(entry._1, entry._2))
+
+  def foreachCachedProperty(f: (ASTCachedProperty, Value) => Unit): Unit =
+    if (cachedProperties != null) {
+      cachedProperties.foreach(entry => f(entry._1, entry._2))
+    }
   //used for testing
   def toMap: Map[String, AnyValue] = m.toMap
 
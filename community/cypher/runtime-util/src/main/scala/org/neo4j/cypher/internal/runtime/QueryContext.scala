@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal.runtime
 
 import java.net.URL
 import java.util.Optional
+import java.util.concurrent.Executor
 
 import org.eclipse.collections.api.iterator.LongIterator
 import org.neo4j.cypher.internal.expressions.SemanticDirection
@@ -334,6 +335,21 @@ trait QueryTransactionalContext extends CloseableResource {
 
   def cursors : CursorFactory
 
+  /**
+   * Cursors that, unlike [[cursors]], may be used by other threads than the one executing the query.
+   */
+  def workerCursors: CursorFactory
+
+  /**
+   * Executes work that other threads do on behalf of the query, like scanning part of a [[org.neo4j.internal.kernel.api.Scan]].
+   */
+  def workerExecutor: Executor
+
+  /**
+   * Whether this transaction has changes that reads must see. Worker threads only read what is committed.
+   */
+  def hasTxStateWithChanges: Boolean
+
   def dataRead: Read
 
   def tokenRead: TokenRead
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime
+
+import java.nio.file.Path
+
+/**
+ * Logical description of how operators that buffer rows may spill them to disk
+ */
+sealed trait Spilling
+case object NO_SPILLING extends Spilling
+
+/**
+ * Spill rows to files in `directory` once the rows buffered by an operator use more than `threshold` bytes of heap.
+ */
+case class SPILL_TO_DISK(threshold: Long, directory: Path) extends Spilling
@@ -25,6 +25,7 @@ import java.util.function.LongSupplier;
 
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.util.FeatureToggles;
 
 import static org.neo4j.index.internal.gbptree.PageCursorUtil.checkOutOfBounds;
 import static org.neo4j.index.internal.gbptree.TreeNode.Type.INTERNAL;
@@ -138,6 +139,17 @@ import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
  * in this case. By using a linked cursor to 'scout' we create a consistent read over the node gap. If there us
  * suddenly another key when he goes there he knows that he could have missed some keys and he needs to go back until
  * he find the place where he left off, K4.
+ * <p>
+ * <strong>Pre-fetching leaves</strong>
+ * <p>
+ * Leaves are visited by following sibling pointers, and siblings are rarely adjacent in the file, so a long forward seek
+ * would otherwise fault its leaves in one at a time. When a forward seek has moved past {@link #PREFETCH_AFTER_LEAVES} leaves, it starts
+ * {@link PageCursor#prefetch(long) hinting} the leaves it is about to visit to the page cache, so they can be faulted in by a
+ * background thread while the seek is busy with the current leaf. The upcoming leaves are read from the child pointers of
+ * the parent of the leaves, and when those run out, from the children of the right sibling of that parent, and so on,
+ * staying up to {@link #PREFETCH_DISTANCE} leaves ahead of the seek and stopping at the end of the key range. The parent
+ * nodes are read through a linked cursor. Nothing read while pre-fetching affects the result of the seek, so a pre-fetch
+ * that is confused by concurrent changes to the tree only costs some wasted I/O.
  */
 class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
 {
@@ -172,6 +184,16 @@ class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
     static final Monitor NO_MONITOR = new MonitorAdaptor();
 
     static final int DEFAULT_MAX_READ_AHEAD = 20;
+
+    /**
+     * The maximum number of leaves to pre-fetch ahead of a forward seek. Zero disables pre-fetching.
+     */
+    static final int PREFETCH_DISTANCE = FeatureToggles.getInteger( SeekCursor.class, "prefetchDistance", 32 );
+
+    /**
+     * The number of leaves a seek must have moved past before it starts pre-fetching, so short seeks don't pay for it.
+     */
+    static final int PREFETCH_AFTER_LEAVES = 8;
     static final int LEAF_LEVEL = Integer.MAX_VALUE;
 
     /**
@@ -439,6 +461,40 @@ class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
      */
     private final GenerationKeeper generationKeeper = new GenerationKeeper();
 
+    // ┌── Variables for pre-fetching leaves ──┐
+    // v                                       v
+
+    /**
+     * The internal node whose children are the next leaves to pre-fetch, or {@link TreeNode#NO_NODE_FLAG} if there's nothing
+     * more to pre-fetch. Set to the parent of the leaf when traversing down the tree.
+     */
+    private long prefetchParentId = TreeNode.NO_NODE_FLAG;
+
+    /**
+     * Position in {@link #prefetchParentId} of the next child to pre-fetch.
+     */
+    private int prefetchParentPos;
+
+    /**
+     * Number of leaves that have been pre-fetched, but not yet visited.
+     */
+    private int prefetchedLeaves;
+
+    /**
+     * Number of times this seek has moved to a sibling leaf.
+     */
+    private int siblingHops;
+
+    /**
+     * Instance to read the keys of {@link #prefetchParentId} into, lazily instantiated.
+     */
+    private KEY prefetchKey;
+
+    /**
+     * The child pointers read from {@link #prefetchParentId}, lazily instantiated.
+     */
+    private long[] prefetchChildren;
+
     @SuppressWarnings( "unchecked" )
     SeekCursor( PageCursor cursor, TreeNode<KEY,VALUE> bTreeNode, KEY fromInclusive, KEY toExclusive,
             Layout<KEY,VALUE> layout, long stableGeneration, long unstableGeneration, LongSupplier generationSupplier,
@@ -558,6 +614,10 @@ class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
             completedReadLevel = currentReadLevel;
             if ( lookingForChild )
             {
+                // Remember where we came from, the last one of these will be the parent of the leaf.
+                prefetchParentId = cursor.getCurrentPageId();
+                prefetchParentPos = pos + 1;
+                prefetchedLeaves = 0;
                 monitor.internalNode( completedReadLevel, keyCount );
                 goTo( pointerId, pointerGeneration, "child", false );
                 currentReadLevel++;
@@ -1002,6 +1062,7 @@ class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
                 // TODO: Possibly by getting highest expected from IdProvider
                 TreeNode.goTo( cursor, "sibling", pointerId );
                 lastFollowedPointerGeneration = pointerGeneration;
+                prefetchAfterSiblingHop();
                 if ( first )
                 {
                     // Have not yet found first hit among leaves.
@@ -1039,6 +1100,124 @@ class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
         return false;
     }
 
+    /**
+     * Called when a forward seek has moved to its next sibling leaf. Keeps track of which leaf the seek is at in relation to
+     * the pre-fetched leaves, and pre-fetches more leaves when the seek is catching up with them.
+     *
+     * @throws IOException on {@link PageCursor} error.
+     */
+    private void prefetchAfterSiblingHop() throws IOException
+    {
+        if ( PREFETCH_DISTANCE <= 0 || exactMatch || searchLevel != LEAF_LEVEL || !TreeNode.isNode( prefetchParentId ) )
+        {
+            return;
+        }
+        if ( prefetchedLeaves > 0 )
+        {
+            prefetchedLeaves--;
+        }
+        else
+        {
+            // We got to this leaf before pre-fetching it, so it should not be pre-fetched.
+            prefetchParentPos++;
+        }
+        siblingHops++;
+        if ( siblingHops >= PREFETCH_AFTER_LEAVES && prefetchedLeaves <= PREFETCH_DISTANCE / 2 )
+        {
+            prefetchLeaves();
+        }
+    }
+
+    /**
+     * Hints the children of {@link #prefetchParentId}, from {@link #prefetchParentPos} and onwards, to the {@link PageCursor}
+     * for pre-fetching, moving on to the right sibling of the parent when it runs out of children, until {@link #PREFETCH_DISTANCE}
+     * leaves are pre-fetched or the end of the key range is reached.
+     *
+     * @throws IOException on {@link PageCursor} error.
+     */
+    private void prefetchLeaves() throws IOException
+    {
+        if ( prefetchKey == null )
+        {
+            prefetchKey = layout.newKey();
+            prefetchChildren = new long[PREFETCH_DISTANCE];
+        }
+        while ( prefetchedLeaves < PREFETCH_DISTANCE && TreeNode.isNode( prefetchParentId ) )
+        {
+            int wantedLeaves = PREFETCH_DISTANCE - prefetchedLeaves;
+            int leafCount;
+            int childCount;
+            boolean endOfRange;
+            long parentRightSibling;
+            try ( PageCursor parent = cursor.openLinkedCursor( GenerationSafePointerPair.pointer( prefetchParentId ) ) )
+            {
+                if ( !parent.next() )
+                {
+                    prefetchParentId = TreeNode.NO_NODE_FLAG;
+                    return;
+                }
+                do
+                {
+                    leafCount = 0;
+                    childCount = -1;
+                    endOfRange = false;
+                    parentRightSibling = TreeNode.NO_NODE_FLAG;
+                    if ( TreeNode.nodeType( parent ) != TreeNode.NODE_TYPE_TREE_NODE || !TreeNode.isInternal( parent ) )
+                    {
+                        continue;
+                    }
+                    int parentKeyCount = TreeNode.keyCount( parent );
+                    if ( !keyCountIsSane( parentKeyCount ) )
+                    {
+                        continue;
+                    }
+                    childCount = parentKeyCount + 1;
+                    for ( int childPos = prefetchParentPos; childPos < childCount && leafCount < wantedLeaves; childPos++ )
+                    {
+                        // All keys in the child at this position are greater than or equal to the key before it.
+                        if ( childPos > 0 && layout.compare( bTreeNode.keyAt( parent, prefetchKey, childPos - 1, INTERNAL, cursorTracer ),
+                                toExclusive ) >= 0 )
+                        {
+                            endOfRange = true;
+                            break;
+                        }
+                        prefetchChildren[leafCount++] = bTreeNode.childAt( parent, childPos, stableGeneration, unstableGeneration );
+                    }
+                    parentRightSibling = TreeNode.rightSibling( parent, stableGeneration, unstableGeneration );
+                }
+                while ( parent.shouldRetry() );
+                boolean badRead = parent.checkAndClearBoundsFlag();
+                parent.clearCursorException();
+                if ( badRead || childCount < 0 )
+                {
+                    prefetchParentId = TreeNode.NO_NODE_FLAG;
+                    return;
+                }
+            }
+
+            for ( int i = 0; i < leafCount; i++ )
+            {
+                long child = prefetchChildren[i];
+                if ( GenerationSafePointerPair.isSuccess( child ) && TreeNode.isNode( child ) )
+                {
+                    cursor.prefetch( GenerationSafePointerPair.pointer( child ) );
+                }
+            }
+            prefetchedLeaves += leafCount;
+            prefetchParentPos += leafCount;
+            if ( endOfRange )
+            {
+                prefetchParentId = TreeNode.NO_NODE_FLAG;
+            }
+            else if ( prefetchParentPos >= childCount )
+            {
+                // Continue with the children of the next parent.
+                prefetchParentPos -= childCount;
+                prefetchParentId = GenerationSafePointerPair.isSuccess( parentRightSibling ) ? parentRightSibling : TreeNode.NO_NODE_FLAG;
+            }
+        }
+    }
+
     /**
      * Reads first key on next sibling, without moving the main {@link PageCursor} to that sibling.
      * This to be able to guard for, and retry read if, concurrent writes moving keys in the "wrong" direction.
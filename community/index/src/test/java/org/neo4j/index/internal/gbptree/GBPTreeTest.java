@@ -71,6 +71,7 @@ import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.DelegatingPageCursor;
 import org.neo4j.io.pagecache.impl.FileIsNotMappedException;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PinEvent;
@@ -1681,6 +1682,41 @@ class GBPTreeTest
         }
     }
 
+    @Test
+    void forwardSeekMustPrefetchLeavesWithinItsRange() throws IOException
+    {
+        Set<Long> visitedPages = new HashSet<>();
+        Set<Long> prefetchedPages = new HashSet<>();
+        try ( PageCache pageCache = pageCacheThatRecordsPrefetching( visitedPages, prefetchedPages );
+              GBPTree<MutableLong,MutableLong> index = index( pageCache ).build() )
+        {
+            int count = 100_000;
+            try ( Writer<MutableLong,MutableLong> writer = index.writer( NULL ) )
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    writer.put( new MutableLong( i ), new MutableLong( i ) );
+                }
+            }
+
+            visitedPages.clear();
+            int toExclusive = count * 3 / 4;
+            try ( Seeker<MutableLong,MutableLong> seeker = index.seek( new MutableLong( 0 ), new MutableLong( toExclusive ), NULL ) )
+            {
+                long expected = 0;
+                while ( seeker.next() )
+                {
+                    assertEquals( expected++, seeker.key().longValue() );
+                }
+                assertEquals( toExclusive, expected );
+            }
+
+            // The seek spans several parents, and must have pre-fetched all but the first few leaves it visited, and no leaves outside its range.
+            assertThat( visitedPages ).containsAll( prefetchedPages );
+            assertThat( prefetchedPages.size() ).isGreaterThanOrEqualTo( visitedPages.size() - SeekCursor.PREFETCH_AFTER_LEAVES - 4 );
+        }
+    }
+
     private byte[] fileContent( File indexFile ) throws IOException
     {
         Set<OpenOption> options = new HashSet<>();
@@ -1841,6 +1877,40 @@ class GBPTreeTest
         };
     }
 
+    private PageCache pageCacheThatRecordsPrefetching( Set<Long> visitedPages, Set<Long> prefetchedPages )
+    {
+        return new DelegatingPageCache( createPageCache( defaultPageSize ) )
+        {
+            @Override
+            public PagedFile map( File file, int pageSize, ImmutableSet<OpenOption> openOptions ) throws IOException
+            {
+                return new DelegatingPagedFile( super.map( file, pageSize, openOptions ) )
+                {
+                    @Override
+                    public PageCursor io( long pageId, int pf_flags, PageCursorTracer tracer ) throws IOException
+                    {
+                        return new DelegatingPageCursor( super.io( pageId, pf_flags, tracer ) )
+                        {
+                            @Override
+                            public boolean next( long pageId ) throws IOException
+                            {
+                                visitedPages.add( pageId );
+                                return super.next( pageId );
+                            }
+
+                            @Override
+                            public void prefetch( long pageId )
+                            {
+                                prefetchedPages.add( pageId );
+                                super.prefetch( pageId );
+                            }
+                        };
+                    }
+                };
+            }
+        };
+    }
+
     private PageCache pageCacheThatBlockWhenToldTo( final Barrier barrier, final AtomicBoolean blockOnNextIO )
     {
         return new DelegatingPageCache( createPageCache( defaultPageSize ) )
@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.fs;
+
+import com.sun.nio.file.ExtendedOpenOption;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.OpenOption;
+import java.util.Set;
+
+import org.neo4j.io.memory.ByteBuffers;
+import org.neo4j.memory.MemoryTracker;
+
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A {@link StoreChannel} over a file opened for direct I/O, where reads and writes bypass the operating system page cache.
+ * <p>
+ * Direct I/O requires buffer addresses, file offsets and transfer sizes to be multiples of the block size of the file system.
+ * This channel accepts unaligned reads and writes and turns them into aligned ones through an aligned buffer of its own.
+ * The part of the last block that has been written is kept in memory, and written again together with the data of the next write.
+ * <p>
+ * Writes are meant for appending: the rest of the block that a write ends in is filled with zeros on disk.
+ * Like the log writers using it, this channel is not thread safe.
+ */
+public class DirectIOStoreChannel extends DelegatingStoreChannel<StoreChannel>
+{
+    private static final Set<OpenOption> DIRECT_WRITE_OPTIONS = Set.of( READ, WRITE, CREATE, ExtendedOpenOption.DIRECT );
+
+    private final int blockSize;
+    private final MemoryTracker memoryTracker;
+    private final ByteBuffer allocation;
+    private final ByteBuffer buffer;
+    private final byte[] zeros;
+    private final byte[] tail;
+    /**
+     * Number of bytes in {@link #tail}, which are the bytes of the block at {@link #position} that come before it, or {@code -1} if not loaded.
+     */
+    private int tailLength = -1;
+    private long position;
+
+    DirectIOStoreChannel( StoreChannel delegate, int blockSize, int bufferSize, MemoryTracker memoryTracker ) throws IOException
+    {
+        super( delegate );
+        this.blockSize = blockSize;
+        this.memoryTracker = memoryTracker;
+        int capacity = Math.max( blockSize, bufferSize - bufferSize % blockSize );
+        this.allocation = ByteBuffers.allocateDirect( capacity + blockSize, memoryTracker );
+        this.buffer = allocation.alignedSlice( blockSize );
+        this.buffer.limit( capacity );
+        this.zeros = new byte[blockSize];
+        this.tail = new byte[blockSize];
+        this.position = delegate.position();
+    }
+
+    /**
+     * Opens the given file for reading and writing with direct I/O, creating it if it does not exist.
+     *
+     * @param fileSystem file system to open the file in.
+     * @param file file to open.
+     * @param bufferSize size of the aligned buffer, which is the largest number of bytes written or read with one system call.
+     * @param memoryTracker tracker of the native memory of the aligned buffer.
+     * @return channel over the file opened with direct I/O.
+     * @throws IOException if the file could not be opened, for example because the file system does not support direct I/O.
+     * @throws UnsupportedOperationException if the platform does not support direct I/O.
+     */
+    public static DirectIOStoreChannel open( FileSystemAbstraction fileSystem, File file, int bufferSize, MemoryTracker memoryTracker )
+            throws IOException
+    {
+        int blockSize = toIntExact( fileSystem.getBlockSize( file ) );
+        StoreChannel channel = fileSystem.open( file, DIRECT_WRITE_OPTIONS );
+        try
+        {
+            return new DirectIOStoreChannel( channel, blockSize, bufferSize, memoryTracker );
+        }
+        catch ( Throwable t )
+        {
+            channel.close();
+            throw t;
+        }
+    }
+
+    @Override
+    public int write( ByteBuffer src ) throws IOException
+    {
+        int written = src.remaining();
+        while ( src.hasRemaining() )
+        {
+            long blockStart = alignDown( position );
+            int offsetInBlock = toIntExact( position - blockStart );
+            loadTail( blockStart, offsetInBlock );
+
+            buffer.clear();
+            buffer.put( tail, 0, offsetInBlock );
+            int chunk = min( src.remaining(), buffer.capacity() - offsetInBlock );
+            int srcLimit = src.limit();
+            src.limit( src.position() + chunk );
+            buffer.put( src );
+            src.limit( srcLimit );
+            int dataEnd = offsetInBlock + chunk;
+            int writeEnd = toIntExact( alignUp( dataEnd ) );
+            buffer.put( zeros, 0, writeEnd - dataEnd );
+            buffer.flip();
+            delegate.writeAll( buffer, blockStart );
+
+            // Remember the start of the last block, to write it again with the next write
+            int lastBlockStart = toIntExact( alignDown( dataEnd ) );
+            tailLength = dataEnd - lastBlockStart;
+            buffer.position( lastBlockStart );
+            buffer.get( tail, 0, tailLength );
+            position += chunk;
+        }
+        return written;
+    }
+
+    @Override
+    public void writeAll( ByteBuffer src ) throws IOException
+    {
+        write( src );
+    }
+
+    @Override
+    public void writeAll( ByteBuffer src, long position ) throws IOException
+    {
+        long currentPosition = this.position;
+        position( position );
+        write( src );
+        position( currentPosition );
+    }
+
+    @Override
+    public long write( ByteBuffer[] srcs, int offset, int length ) throws IOException
+    {
+        long written = 0;
+        for ( int i = offset; i < offset + length; i++ )
+        {
+            written += write( srcs[i] );
+        }
+        return written;
+    }
+
+    @Override
+    public long write( ByteBuffer[] srcs ) throws IOException
+    {
+        return write( srcs, 0, srcs.length );
+    }
+
+    @Override
+    public int read( ByteBuffer dst, long position ) throws IOException
+    {
+        if ( !dst.hasRemaining() )
+        {
+            return 0;
+        }
+        long blockStart = alignDown( position );
+        int offsetInBlock = toIntExact( position - blockStart );
+        buffer.clear();
+        buffer.limit( toIntExact( min( buffer.capacity(), alignUp( offsetInBlock + (long) dst.remaining() ) ) ) );
+        int read = delegate.read( buffer, blockStart );
+        if ( read <= offsetInBlock )
+        {
+            return -1;
+        }
+        int bytes = min( read - offsetInBlock, dst.remaining() );
+        buffer.limit( offsetInBlock + bytes );
+        buffer.position( offsetInBlock );
+        dst.put( buffer );
+        return bytes;
+    }
+
+    @Override
+    public int read( ByteBuffer dst ) throws IOException
+    {
+        int read = read( dst, position );
+        if ( read > 0 )
+        {
+            position( position + read );
+        }
+        return read;
+    }
+
+    @Override
+    public void readAll( ByteBuffer dst ) throws IOException
+    {
+        while ( dst.hasRemaining() )
+        {
+            if ( read( dst ) < 0 )
+            {
+                throw new IllegalStateException( "Channel has reached end-of-stream." );
+            }
+        }
+    }
+
+    @Override
+    public long read( ByteBuffer[] dsts, int offset, int length ) throws IOException
+    {
+        long total = 0;
+        for ( int i = offset; i < offset + length; i++ )
+        {
+            int read = read( dsts[i] );
+            if ( read < 0 )
+            {
+                return total == 0 ? -1 : total;
+            }
+            total += read;
+            if ( dsts[i].hasRemaining() )
+            {
+                break;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public long read( ByteBuffer[] dsts ) throws IOException
+    {
+        return read( dsts, 0, dsts.length );
+    }
+
+    @Override
+    public long position()
+    {
+        return position;
+    }
+
+    @Override
+    public StoreChannel position( long newPosition )
+    {
+        if ( newPosition != position )
+        {
+            position = newPosition;
+            tailLength = -1;
+        }
+        return this;
+    }
+
+    @Override
+    public StoreChannel truncate( long size ) throws IOException
+    {
+        delegate.truncate( size );
+        position = min( position, size );
+        tailLength = -1;
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            delegate.close();
+        }
+        finally
+        {
+            ByteBuffers.releaseBuffer( allocation, memoryTracker );
+        }
+    }
+
+    private void loadTail( long blockStart, int offsetInBlock ) throws IOException
+    {
+        if ( tailLength == offsetInBlock )
+        {
+            return;
+        }
+        if ( offsetInBlock > 0 )
+        {
+            buffer.clear();
+            buffer.limit( blockSize );
+            int read = Math.max( delegate.read( buffer, blockStart ), 0 );
+            buffer.flip();
+            buffer.get( tail, 0, min( read, offsetInBlock ) );
+            // Anything missing from a file that ends before the position reads as zeros
+            System.arraycopy( zeros, 0, tail, read, Math.max( offsetInBlock - read, 0 ) );
+        }
+        tailLength = offsetInBlock;
+    }
+
+    private long alignDown( long value )
+    {
+        return value - value % blockSize;
+    }
+
+    private long alignUp( long value )
+    {
+        return alignDown( value + blockSize - 1 );
+    }
+}
@@ -19,20 +19,29 @@
  */
 package org.neo4j.io.mem;
 
+import org.neo4j.internal.nativeimpl.NativeAccess;
+import org.neo4j.internal.nativeimpl.NativeAccessProvider;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.memory.MemoryTracker;
 
 import java.lang.ref.Cleaner;
 
 import static org.neo4j.io.ByteUnit.kibiBytes;
+import static org.neo4j.io.ByteUnit.mebiBytes;
+import static org.neo4j.io.mem.HugePages.HUGE_PAGE_SIZE;
 import static org.neo4j.util.FeatureToggles.getInteger;
 
 /**
  * This memory allocator is allocating memory in large segments, called "grabs", and the memory returned by the memory
  * manager is page aligned, and plays well with transparent huge pages and other operating system optimisations.
+ * <p>
+ * The grabs can also be backed by huge pages, as per {@link HugePages}. The grabs are then larger, and sized and aligned to whole huge
+ * pages.
  */
 public final class GrabAllocator implements MemoryAllocator
 {
+    static final int NO_NUMA_NODE = -1;
+
     private static final Cleaner globalCleaner = globalCleaner();
 
     private final Grabs grabs;
@@ -48,7 +57,34 @@ public final class GrabAllocator implements MemoryAllocator
      */
     GrabAllocator( long expectedMaxMemory, MemoryTracker memoryTracker )
     {
-        this.grabs = new Grabs( expectedMaxMemory, memoryTracker );
+        this( expectedMaxMemory, memoryTracker, HugePages.DISABLED, NativeAccessProvider.getNativeAccess() );
+    }
+
+    /**
+     * Create a new GrabAllocator whose grabs are backed by huge pages, as per the given mode.
+     *
+     * @param expectedMaxMemory The maximum amount of memory that this memory manager is expected to allocate.
+     * @param memoryTracker memory usage tracker
+     * @param hugePages how the grabs are backed by huge pages.
+     * @param nativeAccess the native access to map or advise huge pages through.
+     */
+    GrabAllocator( long expectedMaxMemory, MemoryTracker memoryTracker, HugePages hugePages, NativeAccess nativeAccess )
+    {
+        this( expectedMaxMemory, memoryTracker, hugePages, nativeAccess, NO_NUMA_NODE );
+    }
+
+    /**
+     * Create a new GrabAllocator whose grabs prefer physical memory on the given NUMA node.
+     *
+     * @param expectedMaxMemory The maximum amount of memory that this memory manager is expected to allocate.
+     * @param memoryTracker memory usage tracker
+     * @param hugePages how the grabs are backed by huge pages.
+     * @param nativeAccess the native access to map, advise or bind memory through.
+     * @param numaNode the NUMA node to bind the grabs to, or {@link #NO_NUMA_NODE} to leave placement to the operating system.
+     */
+    GrabAllocator( long expectedMaxMemory, MemoryTracker memoryTracker, HugePages hugePages, NativeAccess nativeAccess, int numaNode )
+    {
+        this.grabs = new Grabs( expectedMaxMemory, memoryTracker, hugePages, nativeAccess, numaNode );
         this.cleanable = globalCleaner.register( this, new GrabsDeallocator( grabs ) );
     }
 
@@ -82,6 +118,10 @@ public final class GrabAllocator implements MemoryAllocator
         private final long address;
         private final long limit;
         private final MemoryTracker memoryTracker;
+        /**
+         * The native access the memory of this grab was mapped through, or {@code null} if it was allocated by the native allocator.
+         */
+        private final NativeAccess mappedBy;
         private long nextPointer;
 
         Grab( Grab next, long size, MemoryTracker memoryTracker )
@@ -90,16 +130,55 @@ public final class GrabAllocator implements MemoryAllocator
             this.address = UnsafeUtil.allocateMemory( size, memoryTracker );
             this.limit = address + size;
             this.memoryTracker = memoryTracker;
+            this.mappedBy = null;
             nextPointer = address;
         }
 
-        Grab( Grab next, long address, long limit, long nextPointer, MemoryTracker memoryTracker )
+        Grab( Grab next, long address, long limit, long nextPointer, MemoryTracker memoryTracker, NativeAccess mappedBy )
         {
             this.next = next;
             this.address = address;
             this.limit = limit;
             this.nextPointer = nextPointer;
             this.memoryTracker = memoryTracker;
+            this.mappedBy = mappedBy;
+        }
+
+        /**
+         * Map a grab of the given size from the pool of explicit huge pages.
+         *
+         * @return the new grab, or {@code null} if no huge pages are available.
+         */
+        static Grab mapHugePages( Grab next, long size, MemoryTracker memoryTracker, NativeAccess nativeAccess )
+        {
+            long mappedSize = hugePageMultiple( size );
+            long address = nativeAccess.tryMapHugePages( mappedSize );
+            if ( address == NativeAccess.ERROR )
+            {
+                return null;
+            }
+            UnsafeUtil.trackExternalMemory( address, mappedSize, memoryTracker );
+            return new Grab( next, address, address + mappedSize, address, memoryTracker, nativeAccess );
+        }
+
+        /**
+         * Allocate a grab of the given size with the native allocator, aligned to the huge page size, and advise that it is
+         * backed by transparent huge pages.
+         */
+        static Grab allocateTransparentHugePages( Grab next, long size, MemoryTracker memoryTracker, NativeAccess nativeAccess )
+        {
+            long usableSize = hugePageMultiple( size );
+            long allocatedSize = usableSize + HUGE_PAGE_SIZE;
+            long address = UnsafeUtil.allocateMemory( allocatedSize, memoryTracker );
+            long alignedAddress = nextAligned( address, HUGE_PAGE_SIZE );
+            // This is only advice. If the operating system does not take it, then we just end up with regular pages.
+            nativeAccess.tryAdviseHugePages( alignedAddress, usableSize );
+            return new Grab( next, address, address + allocatedSize, alignedAddress, memoryTracker, null );
+        }
+
+        private static long hugePageMultiple( long size )
+        {
+            return (size + HUGE_PAGE_SIZE - 1) / HUGE_PAGE_SIZE * HUGE_PAGE_SIZE;
         }
 
         private static long nextAligned( long pointer, long alignment )
@@ -125,7 +204,15 @@ public final class GrabAllocator implements MemoryAllocator
 
         void free()
         {
-            UnsafeUtil.free( address, limit - address, memoryTracker );
+            if ( mappedBy != null )
+            {
+                UnsafeUtil.untrackExternalMemory( address, limit - address, memoryTracker );
+                mappedBy.tryUnmap( address, limit - address );
+            }
+            else
+            {
+                UnsafeUtil.free( address, limit - address, memoryTracker );
+            }
         }
 
         boolean canAllocate( long bytes, long alignment )
@@ -135,7 +222,7 @@ public final class GrabAllocator implements MemoryAllocator
 
         Grab setNext( Grab grab )
         {
-            return new Grab( grab, address, limit, nextPointer, memoryTracker );
+            return new Grab( grab, address, limit, nextPointer, memoryTracker, mappedBy );
         }
 
         @Override
@@ -154,15 +241,62 @@ public final class GrabAllocator implements MemoryAllocator
          * The amount of memory, in bytes, to grab in each Grab.
          */
         private static final long GRAB_SIZE = getInteger( GrabAllocator.class, "GRAB_SIZE", (int) kibiBytes( 512 ) );
+        /**
+         * The amount of memory, in bytes, to grab in each Grab that is backed by huge pages.
+         */
+        private static final long HUGE_PAGE_GRAB_SIZE = getInteger( GrabAllocator.class, "HUGE_PAGE_GRAB_SIZE", (int) mebiBytes( 32 ) );
 
         private final MemoryTracker memoryTracker;
+        private final HugePages hugePages;
+        private final NativeAccess nativeAccess;
+        private final int numaNode;
+        private final long grabSize;
         private long expectedMaxMemory;
         private Grab head;
 
-        Grabs( long expectedMaxMemory, MemoryTracker memoryTracker )
+        Grabs( long expectedMaxMemory, MemoryTracker memoryTracker, HugePages hugePages, NativeAccess nativeAccess, int numaNode )
         {
             this.expectedMaxMemory = expectedMaxMemory;
             this.memoryTracker = memoryTracker;
+            this.hugePages = hugePages;
+            this.nativeAccess = nativeAccess;
+            this.numaNode = numaNode;
+            this.grabSize = hugePages == HugePages.DISABLED ? GRAB_SIZE : HUGE_PAGE_GRAB_SIZE;
+        }
+
+        private Grab newGrab( Grab next, long size )
+        {
+            Grab grab = allocateGrab( next, size );
+            if ( numaNode != NO_NUMA_NODE )
+            {
+                // Binding only works on whole pages, and is only a preference, so we don't mind if it fails.
+                long pageSize = UnsafeUtil.pageSize();
+                long start = Grab.nextAligned( grab.address, pageSize );
+                long end = grab.limit - grab.limit % pageSize;
+                if ( end > start )
+                {
+                    nativeAccess.tryBindToNumaNode( start, end - start, numaNode );
+                }
+            }
+            return grab;
+        }
+
+        private Grab allocateGrab( Grab next, long size )
+        {
+            if ( hugePages == HugePages.EXPLICIT )
+            {
+                Grab grab = Grab.mapHugePages( next, size, memoryTracker, nativeAccess );
+                if ( grab != null )
+                {
+                    return grab;
+                }
+                // The pool of huge pages is exhausted, so we fall back to transparent huge pages.
+            }
+            if ( hugePages != HugePages.DISABLED )
+            {
+                return Grab.allocateTransparentHugePages( next, size, memoryTracker, nativeAccess );
+            }
+            return new Grab( next, size, memoryTracker );
         }
 
         long usedMemory()
@@ -206,19 +340,19 @@ public final class GrabAllocator implements MemoryAllocator
             {
                 throw new IllegalArgumentException( "Invalid alignment: " + alignment + ". Alignment must be positive." );
             }
-            long grabSize = Math.min( GRAB_SIZE, expectedMaxMemory );
+            long grabSize = Math.min( this.grabSize, expectedMaxMemory );
             long maxAllocationSize = bytes + alignment - 1;
-            if ( maxAllocationSize > GRAB_SIZE )
+            if ( maxAllocationSize > this.grabSize )
             {
                 // This is a huge allocation. Put it in its own grab and keep any existing grab at the head.
                 grabSize = bytes;
                 Grab nextGrab = head == null ? null : head.next;
-                Grab allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                Grab allocationGrab = newGrab( nextGrab, grabSize );
                 if ( !allocationGrab.canAllocate( bytes, alignment ) )
                 {
                     allocationGrab.free();
                     grabSize = maxAllocationSize;
-                    allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                    allocationGrab = newGrab( nextGrab, grabSize );
                 }
                 long allocation = allocationGrab.allocate( bytes, alignment );
                 head = head == null ? allocationGrab : head.setNext( allocationGrab );
@@ -231,7 +365,7 @@ public final class GrabAllocator implements MemoryAllocator
                 if ( grabSize < bytes )
                 {
                     grabSize = bytes;
-                    Grab grab = new Grab( head, grabSize, memoryTracker );
+                    Grab grab = newGrab( head, grabSize );
                     if ( grab.canAllocate( bytes, alignment ) )
                     {
                         expectedMaxMemory -= grabSize;
@@ -241,7 +375,7 @@ public final class GrabAllocator implements MemoryAllocator
                     grab.free();
                     grabSize = maxAllocationSize;
                 }
-                head = new Grab( head, grabSize, memoryTracker );
+                head = newGrab( head, grabSize );
                 expectedMaxMemory -= grabSize;
             }
             return head.allocate( bytes, alignment );
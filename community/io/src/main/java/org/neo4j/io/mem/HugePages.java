@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.mem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.neo4j.internal.nativeimpl.NativeAccess;
+import org.neo4j.internal.nativeimpl.NativeAccessProvider;
+
+import static org.neo4j.io.ByteUnit.mebiBytes;
+
+/**
+ * How the memory that is allocated by a {@link MemoryAllocator} is backed by huge pages. Huge pages reduce the number of TLB misses
+ * when large amounts of memory are accessed randomly, like the pages of a large page cache.
+ */
+public enum HugePages
+{
+    /**
+     * The memory is allocated by the native allocator, and backed by whatever pages the operating system chooses.
+     */
+    DISABLED,
+    /**
+     * The memory is allocated by the native allocator in regions that are aligned to the huge page size, and the operating system is
+     * advised to back those regions with transparent huge pages.
+     */
+    TRANSPARENT,
+    /**
+     * The memory is mapped from the pool of huge pages that has been reserved by the operating system. Memory is allocated as with
+     * {@link #TRANSPARENT} once the pool is exhausted.
+     */
+    EXPLICIT;
+
+    /**
+     * The size of the huge pages we allocate; the default huge page size on x86-64 and AArch64.
+     */
+    static final long HUGE_PAGE_SIZE = mebiBytes( 2 );
+
+    private static final Path TRANSPARENT_HUGE_PAGES_ENABLED = Path.of( "/sys/kernel/mm/transparent_hugepage/enabled" );
+
+    /**
+     * @return this mode if it is supported by the operating system, or otherwise the closest mode that is.
+     */
+    public HugePages supported()
+    {
+        return supported( NativeAccessProvider.getNativeAccess(), TRANSPARENT_HUGE_PAGES_ENABLED );
+    }
+
+    HugePages supported( NativeAccess nativeAccess, Path transparentHugePagesEnabled )
+    {
+        if ( this == DISABLED || !nativeAccess.isAvailable() )
+        {
+            return DISABLED;
+        }
+        if ( this == EXPLICIT )
+        {
+            long address = nativeAccess.tryMapHugePages( HUGE_PAGE_SIZE );
+            if ( address != NativeAccess.ERROR )
+            {
+                nativeAccess.tryUnmap( address, HUGE_PAGE_SIZE );
+                return EXPLICIT;
+            }
+        }
+        return transparentHugePagesCanBeAdvised( transparentHugePagesEnabled ) ? TRANSPARENT : DISABLED;
+    }
+
+    private static boolean transparentHugePagesCanBeAdvised( Path enabled )
+    {
+        try
+        {
+            // The file lists the possible settings with the current one in brackets, like "always [madvise] never".
+            return !Files.readString( enabled ).contains( "[never]" );
+        }
+        catch ( IOException | SecurityException e )
+        {
+            return false;
+        }
+    }
+}
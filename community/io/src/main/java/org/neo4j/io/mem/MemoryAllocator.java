@@ -19,6 +19,7 @@
  */
 package org.neo4j.io.mem;
 
+import org.neo4j.internal.nativeimpl.NativeAccessProvider;
 import org.neo4j.memory.MemoryTracker;
 
 /**
@@ -31,6 +32,29 @@ public interface MemoryAllocator
         return new GrabAllocator( expectedMemory, memoryTracker );
     }
 
+    /**
+     * Create an allocator whose memory is backed by huge pages, as per the given mode. The allocator falls back to the next best
+     * mode if huge pages cannot be allocated, so callers should check which mode is {@link HugePages#supported() supported} if they
+     * want to report on it.
+     */
+    static MemoryAllocator createAllocator( long expectedMemory, MemoryTracker memoryTracker, HugePages hugePages )
+    {
+        return new GrabAllocator( expectedMemory, memoryTracker, hugePages, NativeAccessProvider.getNativeAccess() );
+    }
+
+    /**
+     * Create an allocator that is split into one partition per given NUMA node, where each partition gets an equal share of the expected
+     * memory, and binds the memory it allocates to its node.
+     */
+    static MemoryAllocator createNumaAllocator( long expectedMemory, MemoryTracker memoryTracker, HugePages hugePages, int[] numaNodes )
+    {
+        if ( numaNodes.length < 2 )
+        {
+            return createAllocator( expectedMemory, memoryTracker, hugePages );
+        }
+        return new NumaMemoryAllocator( expectedMemory, memoryTracker, hugePages, NativeAccessProvider.getNativeAccess(), numaNodes );
+    }
+
     /**
      * @return The sum, in bytes, of all the memory currently allocating through this allocator.
      */
@@ -57,4 +81,30 @@ public interface MemoryAllocator
      * As soon as allocated resources will be cleaned any code that will try to access previously available memory will not gonna be able to do so.
      */
     void close();
+
+    /**
+     * @return the number of partitions this allocator is split into, one per NUMA node. Allocators that are not partitioned have one
+     * partition, which is the allocator itself.
+     */
+    default int partitions()
+    {
+        return 1;
+    }
+
+    /**
+     * @param partition the index of the partition, from zero to {@link #partitions()}, exclusive.
+     * @return the allocator for the given partition.
+     */
+    default MemoryAllocator partition( int partition )
+    {
+        return this;
+    }
+
+    /**
+     * @return the index of the partition that is local to the NUMA node the calling thread is currently running on.
+     */
+    default int localPartition()
+    {
+        return 0;
+    }
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.mem;
+
+import org.neo4j.internal.nativeimpl.NativeAccess;
+import org.neo4j.memory.MemoryTracker;
+
+/**
+ * A {@link MemoryAllocator} that is split into one partition per NUMA node, where each partition allocates memory that is bound to its
+ * node. Memory that is not allocated through a specific {@link #partition(int) partition}, is allocated from the partition that is
+ * local to the calling thread.
+ */
+final class NumaMemoryAllocator implements MemoryAllocator
+{
+    /**
+     * Threads rarely move between NUMA nodes, so the {@link #localPartition()} of a thread is only looked up again after this many calls,
+     * rather than with a system call on every page fault.
+     */
+    static final int LOCAL_PARTITION_REFRESH_INTERVAL = 1024;
+
+    private final int[] numaNodes;
+    private final MemoryAllocator[] partitions;
+    private final NativeAccess nativeAccess;
+    private final ThreadLocal<LocalPartition> threadLocalPartition = ThreadLocal.withInitial( LocalPartition::new );
+
+    NumaMemoryAllocator( long expectedMaxMemory, MemoryTracker memoryTracker, HugePages hugePages, NativeAccess nativeAccess, int[] numaNodes )
+    {
+        this.numaNodes = numaNodes.clone();
+        this.nativeAccess = nativeAccess;
+        this.partitions = new MemoryAllocator[numaNodes.length];
+        long memoryPerPartition = expectedMaxMemory / numaNodes.length;
+        for ( int i = 0; i < numaNodes.length; i++ )
+        {
+            partitions[i] = new GrabAllocator( memoryPerPartition, memoryTracker, hugePages, nativeAccess, numaNodes[i] );
+        }
+    }
+
+    @Override
+    public long usedMemory()
+    {
+        long sum = 0;
+        for ( MemoryAllocator partition : partitions )
+        {
+            sum += partition.usedMemory();
+        }
+        return sum;
+    }
+
+    @Override
+    public long availableMemory()
+    {
+        long sum = 0;
+        for ( MemoryAllocator partition : partitions )
+        {
+            sum += partition.availableMemory();
+        }
+        return sum;
+    }
+
+    @Override
+    public long allocateAligned( long bytes, long alignment )
+    {
+        return partitions[lookupLocalPartition()].allocateAligned( bytes, alignment );
+    }
+
+    @Override
+    public void close()
+    {
+        for ( MemoryAllocator partition : partitions )
+        {
+            partition.close();
+        }
+    }
+
+    @Override
+    public int partitions()
+    {
+        return partitions.length;
+    }
+
+    @Override
+    public MemoryAllocator partition( int partition )
+    {
+        return partitions[partition];
+    }
+
+    @Override
+    public int localPartition()
+    {
+        LocalPartition local = threadLocalPartition.get();
+        if ( local.callsUntilRefresh-- <= 0 )
+        {
+            local.partition = lookupLocalPartition();
+            local.callsUntilRefresh = LOCAL_PARTITION_REFRESH_INTERVAL - 1;
+        }
+        return local.partition;
+    }
+
+    private int lookupLocalPartition()
+    {
+        int numaNode = nativeAccess.getCurrentNumaNode();
+        for ( int i = 0; i < numaNodes.length; i++ )
+        {
+            if ( numaNodes[i] == numaNode )
+            {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static final class LocalPartition
+    {
+        private int partition;
+        private int callsUntilRefresh;
+    }
+}
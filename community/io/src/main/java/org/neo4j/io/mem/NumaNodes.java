@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.mem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.neo4j.internal.nativeimpl.NativeAccess;
+import org.neo4j.internal.nativeimpl.NativeAccessProvider;
+
+/**
+ * Discovery of the NUMA nodes that memory can be partitioned over.
+ */
+public final class NumaNodes
+{
+    private static final Path ONLINE_NODES = Path.of( "/sys/devices/system/node/online" );
+
+    private NumaNodes()
+    {
+    }
+
+    /**
+     * @return the ids of the NUMA nodes that are online, or an empty array if they cannot be determined, or if the operating system cannot
+     * tell which node a thread is running on.
+     */
+    public static int[] online()
+    {
+        return online( NativeAccessProvider.getNativeAccess(), ONLINE_NODES );
+    }
+
+    static int[] online( NativeAccess nativeAccess, Path onlineNodes )
+    {
+        if ( !nativeAccess.isAvailable() || nativeAccess.getCurrentNumaNode() == NativeAccess.ERROR )
+        {
+            return new int[0];
+        }
+        try
+        {
+            return parseNodeList( Files.readString( onlineNodes ).trim() );
+        }
+        catch ( IOException | SecurityException | IllegalArgumentException e )
+        {
+            return new int[0];
+        }
+    }
+
+    /**
+     * Parse a node list in the format the kernel uses for them in sysfs, like "0-1,4".
+     */
+    static int[] parseNodeList( String nodeList )
+    {
+        if ( nodeList.isEmpty() )
+        {
+            return new int[0];
+        }
+        return Arrays.stream( nodeList.split( "," ) ).flatMapToInt( range ->
+        {
+            int dash = range.indexOf( '-' );
+            if ( dash == -1 )
+            {
+                return IntStream.of( Integer.parseInt( range ) );
+            }
+            return IntStream.rangeClosed( Integer.parseInt( range.substring( 0, dash ) ), Integer.parseInt( range.substring( dash + 1 ) ) );
+        } ).toArray();
+    }
+}
@@ -270,6 +270,21 @@ public abstract class PageCursor implements AutoCloseable
      */
     public abstract boolean next( long pageId ) throws IOException;
 
+    /**
+     * Hint that this cursor will soon visit the page with the given pageId. Implementations that support pre-fetching
+     * can then fault the page in from a background thread, so that the I/O overlaps with the work this cursor is doing
+     * in the meantime. This is meant for cursors that know where they are going next, but don't visit their pages in
+     * page id order, where {@link PagedFile#PF_READ_AHEAD} cannot help.
+     * <p>
+     * This is only a hint. It may be ignored, and pages that are hinted but never visited only cost some wasted I/O.
+     * The default implementation ignores the hint.
+     *
+     * @param pageId the id of the page that this cursor is expected to visit.
+     */
+    public void prefetch( long pageId )
+    {
+    }
+
     /**
      * Relinquishes all resources associated with this cursor, including the
      * cursor itself, and any linked cursors opened through it. The cursor cannot be used after this call.
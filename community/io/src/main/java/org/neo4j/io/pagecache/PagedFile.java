@@ -76,8 +76,11 @@ public interface PagedFile extends AutoCloseable
     int PF_NO_FAULT = 1 << 4;
     /**
      * Do not update page access statistics.
+     * <p>
+     * Pages touched by a transient cursor will not look any more recently used to the eviction policy than they did
+     * before, which is useful for scans that inspect the page cache itself rather than the data on the pages.
      */
-    int PF_TRANSIENT = 1 << 5; // TBD
+    int PF_TRANSIENT = 1 << 5;
     /**
      * Flush pages more aggressively, after they have been dirtied by a write cursor.
      */
@@ -168,6 +171,21 @@ public interface PagedFile extends AutoCloseable
      */
     void flushAndForce( IOLimiter limiter ) throws IOException;
 
+    /**
+     * Write dirty pages back into the file channel in page id order, ahead of the next {@link #flushAndForce(IOLimiter)}, but
+     * without forcing the file channel to disk. Adjacent dirty pages are written with vectored IO.
+     * <p>
+     * Like a flush, this writes pages under a flush lock, which does not block writers. Pages that are being written to are
+     * therefore still written back, and stay dirty if they are modified while being written. Unlike a flush, this does not
+     * wait for pages that cannot be flush locked right away, because they are being evicted or flushed by someone else.
+     * Such pages are skipped, and are left for the next flush or write-back. This makes it suitable for continuously
+     * cleaning pages in the background, so that the next flush only has to write the pages that have been dirtied since.
+     *
+     * @param limiter The {@link IOLimiter} that determines if pauses or sleeps should be injected into the writing
+     * process to keep the IO rate down.
+     */
+    void writeBack( IOLimiter limiter ) throws IOException;
+
     /**
      * Get the file-page-id of the last page in the file.
      * <p>
@@ -177,6 +195,21 @@ public interface PagedFile extends AutoCloseable
      */
     long getLastPageId() throws IOException;
 
+    /**
+     * Load the given range of file pages into memory, if they are not in memory already.
+     * <p>
+     * Pages that are already in memory are left alone, and pages beyond the end of the file are ignored. Runs of
+     * consecutive pages that are not in memory are read from the file in bulk, so this is much faster than pinning each
+     * page with a cursor, when many pages need to be loaded.
+     *
+     * @param pageId The file-page-id of the first page in the range.
+     * @param count The number of pages in the range.
+     * @param tracer underlying page cursor tracer
+     * @return The number of pages that were faulted in.
+     * @throws IOException if there was an error accessing the underlying file.
+     */
+    int touch( long pageId, int count, PageCursorTracer tracer ) throws IOException;
+
     /**
      * Release a handle to a paged file.
      * <p>
@@ -203,4 +236,19 @@ public interface PagedFile extends AutoCloseable
      * @return true if file can be deleted on close, false otherwise.
      */
     boolean isDeleteOnClose();
+
+    /**
+     * Set the number of pages of this file that the page cache should keep in memory, and the number of pages of this
+     * file that the page cache should at most keep in memory.
+     * <p>
+     * The quota is enforced by page eviction, and is therefore soft: the file can go over its limit until the eviction
+     * catches up, and its reserved pages can still be evicted when the page cache finds no other pages to evict.
+     * The quota applies to the file itself, and is thus shared by all mappings of the file.
+     *
+     * @param reservedPages the number of pages that are protected from eviction, {@code 0} for none.
+     * @param maxPages the number of pages above which pages of this file are evicted regardless of how recently they
+     * were used, {@link Long#MAX_VALUE} for no limit.
+     * @throws IllegalArgumentException if {@code reservedPages} is negative, or greater than {@code maxPages}.
+     */
+    void setPageQuota( long reservedPages, long maxPages );
 }
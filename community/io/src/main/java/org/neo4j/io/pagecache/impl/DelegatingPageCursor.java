@@ -213,6 +213,12 @@ public class DelegatingPageCursor extends PageCursor
         delegate.clearCursorException();
     }
 
+    @Override
+    public void prefetch( long pageId )
+    {
+        delegate.prefetch( pageId );
+    }
+
     @Override
     public PageCursor openLinkedCursor( long pageId ) throws IOException
     {
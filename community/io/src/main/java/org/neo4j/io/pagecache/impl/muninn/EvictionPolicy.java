@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The page replacement policies that the {@link MuninnPageCache} eviction clock can run with.
+ */
+public enum EvictionPolicy
+{
+    /**
+     * The classic clock policy. Every page the clock arm passes has its usage counter decremented, and pages are
+     * evicted once their usage counter reaches zero. A large enough scan will age out the entire working set.
+     */
+    CLOCK,
+    /**
+     * A scan resistant variant of the clock policy. Newly faulted pages are considered cold, and are evicted before
+     * any hot page has its usage counter decremented. Hot pages are only aged on every few laps of the clock arm, or
+     * when a full lap found no cold pages to evict. Pages that were recently evicted while cold, and are then faulted
+     * back in, are remembered as ghost entries and start out hot.
+     */
+    SCAN_RESISTANT
+}
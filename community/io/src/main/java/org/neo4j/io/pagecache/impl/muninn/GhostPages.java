@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import static org.neo4j.internal.helpers.Numbers.ceilingPowerOfTwo;
+
+/**
+ * A lossy set of fingerprints of recently evicted file pages, used by the {@link EvictionPolicy#SCAN_RESISTANT} policy
+ * to recognise pages that are faulted back in shortly after having been evicted.
+ * <p>
+ * The set is a direct-mapped table of fingerprints, so newer entries simply overwrite older entries that hash to the
+ * same slot. Reads and writes are intentionally left benignly racy: a lost or spurious entry only affects whether a
+ * faulted page starts out hot or cold.
+ */
+final class GhostPages
+{
+    private static final int MAX_CAPACITY = 1 << 20;
+
+    private final long[] fingerprints;
+    private final int mask;
+
+    GhostPages( int pageCount )
+    {
+        int capacity = ceilingPowerOfTwo( Math.min( Math.max( pageCount, 2 ), MAX_CAPACITY ) );
+        this.fingerprints = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Remember that the given file page was just evicted.
+     */
+    void add( int swapperId, long filePageId )
+    {
+        long fingerprint = fingerprint( swapperId, filePageId );
+        fingerprints[slot( fingerprint )] = fingerprint;
+    }
+
+    /**
+     * Forget the given file page, if it was remembered as recently evicted.
+     * @return {@code true} if the file page was remembered as recently evicted.
+     */
+    boolean remove( int swapperId, long filePageId )
+    {
+        long fingerprint = fingerprint( swapperId, filePageId );
+        int slot = slot( fingerprint );
+        if ( fingerprints[slot] == fingerprint )
+        {
+            fingerprints[slot] = 0;
+            return true;
+        }
+        return false;
+    }
+
+    private int slot( long fingerprint )
+    {
+        return (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+    }
+
+    private static long fingerprint( int swapperId, long filePageId )
+    {
+        long hash = (filePageId * 0x9E3779B97F4A7C15L) ^ swapperId;
+        hash ^= hash >>> 29;
+        // Zero is reserved for empty slots.
+        return hash | 1;
+    }
+}
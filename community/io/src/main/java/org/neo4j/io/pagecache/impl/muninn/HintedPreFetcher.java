@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.scheduler.CancelListener;
+
+/**
+ * A page pre-fetcher for cursors that know which pages they are going to visit next, but don't visit them in page id order.
+ * The leaf scans of a tree are the typical example, since they follow sibling pointers that are rarely adjacent in the file.
+ * <p>
+ * The observed cursor hands the ids of the pages it expects to visit to the pre-fetcher through {@link #hint(long)}, as per
+ * {@link PageCursor#prefetch(long)}, and the pre-fetcher {@link MuninnPagedFile#touch(long, int, PageCursorTracer) touches}
+ * those pages from a background thread. Hints for consecutive pages are coalesced into a single touch.
+ * <p>
+ * The hints are passed through a single-producer single-consumer ring buffer. The scanning thread is the only producer, and it
+ * never waits for the pre-fetcher. If the pre-fetcher falls too far behind, then new hints are simply dropped.
+ */
+class HintedPreFetcher implements Runnable, CancelListener
+{
+    private static final String TRACER_PRE_FETCHER_TAG = "Hinted-pre-fetcher";
+    private static final int CAPACITY = 128;
+    private static final int MASK = CAPACITY - 1;
+    private static final long MAX_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos( 10 );
+
+    private final MuninnPagedFile pagedFile;
+    private final PageCacheTracer tracer;
+    private final long[] hints = new long[CAPACITY];
+    /**
+     * The number of hints taken by the pre-fetcher. Only written by the pre-fetcher thread.
+     */
+    private final AtomicLong taken = new AtomicLong();
+    /**
+     * The number of hints given by the observed cursor. Only written by the scanning thread.
+     */
+    private final AtomicLong given = new AtomicLong();
+    private volatile Thread preFetcherThread;
+    private volatile boolean parked;
+    private volatile boolean cancelled;
+
+    HintedPreFetcher( MuninnPagedFile pagedFile, PageCacheTracer tracer )
+    {
+        this.pagedFile = pagedFile;
+        this.tracer = tracer;
+    }
+
+    /**
+     * Called by the observed cursor.
+     *
+     * @return {@code false} if the hint was dropped because the pre-fetcher is too far behind.
+     */
+    boolean hint( long pageId )
+    {
+        long givenCount = given.get();
+        if ( givenCount - taken.get() >= CAPACITY )
+        {
+            return false;
+        }
+        hints[(int) (givenCount & MASK)] = pageId;
+        given.set( givenCount + 1 );
+        if ( parked )
+        {
+            LockSupport.unpark( preFetcherThread );
+        }
+        return true;
+    }
+
+    @Override
+    public void run()
+    {
+        preFetcherThread = Thread.currentThread();
+        try ( PageCursorTracer cursorTracer = tracer.createPageCursorTracer( TRACER_PRE_FETCHER_TAG ) )
+        {
+            long takenCount = taken.get();
+            while ( !cancelled )
+            {
+                long givenCount = given.get();
+                if ( takenCount == givenCount )
+                {
+                    awaitHints( takenCount );
+                    continue;
+                }
+
+                long startPageId = hints[(int) (takenCount & MASK)];
+                int count = 1;
+                takenCount++;
+                while ( takenCount < givenCount && hints[(int) (takenCount & MASK)] == startPageId + count )
+                {
+                    count++;
+                    takenCount++;
+                }
+                // The slots we have read can now be reused by the observed cursor.
+                taken.lazySet( takenCount );
+                pagedFile.touch( startPageId, count, cursorTracer );
+            }
+        }
+        catch ( IOException e )
+        {
+            // The file was most likely unmapped underneath us. Pre-fetching is only an optimisation, so there's nothing to do about it,
+            // and the observed cursor will run into the same problem on its own.
+        }
+        finally
+        {
+            preFetcherThread = null;
+        }
+    }
+
+    private void awaitHints( long takenCount )
+    {
+        parked = true;
+        // Re-check after announcing that we are parking, or we could miss the unpark of a hint given in the mean time.
+        if ( given.get() == takenCount && !cancelled )
+        {
+            LockSupport.parkNanos( this, MAX_PAUSE_NANOS );
+        }
+        parked = false;
+    }
+
+    @Override
+    public void cancelled()
+    {
+        cancelled = true;
+        Thread thread = preFetcherThread;
+        if ( thread != null )
+        {
+            LockSupport.unpark( thread );
+        }
+    }
+}
@@ -104,6 +104,29 @@ final class LatchMap
         return null;
     }
 
+    /**
+     * Like {@link #takeOrAwaitLatch(long)}, except this method will not wait if a latch is already installed for the
+     * given (or any colliding) identifier, and instead immediately return {@code null}.
+     * <p>
+     * This is useful for threads that want to hold more than one latch at a time, since they would otherwise risk
+     * waiting on one of their own latches.
+     */
+    Latch tryTakeLatch( long identifier )
+    {
+        int index = index( identifier );
+        if ( getLatch( index ) == null )
+        {
+            Latch latch = new Latch();
+            if ( compareAndSetLatch( index, null, latch ) )
+            {
+                latch.latchMap = this;
+                latch.index = index;
+                return latch;
+            }
+        }
+        return null;
+    }
+
     private int index( long identifier )
     {
         return (int) (mix( identifier ) & faultLockMask);
@@ -44,6 +44,7 @@ import org.neo4j.io.pagecache.PageCacheOpenOptions;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.EvictionEventOpportunity;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
@@ -59,6 +60,7 @@ import org.neo4j.time.Clocks;
 import org.neo4j.time.SystemNanoClock;
 
 import static java.lang.String.format;
+import static java.util.stream.Collectors.joining;
 import static org.neo4j.internal.helpers.Numbers.isPowerOfTwo;
 import static org.neo4j.util.FeatureToggles.flag;
 import static org.neo4j.util.FeatureToggles.getInteger;
@@ -131,15 +133,15 @@ public class MuninnPageCache implements PageCache
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
             MuninnPageCache.class, "cooperativeEvictionLiveLockThreshold", 100 );
 
+    // With the scan resistant eviction policy, hot pages only have their usage counters decremented on every this many
+    // laps of the eviction clock arm, as long as the clock arm keeps finding cold pages to evict.
+    private static final int hotPageAgingLaps = getInteger( MuninnPageCache.class, "hotPageAgingLaps", 4 );
+
     // This is a pre-allocated constant, so we can throw it without allocating any objects:
     @SuppressWarnings( "ThrowableInstanceNeverThrown" )
     private static final IOException oomException = new IOException(
             "OutOfMemoryError encountered in the page cache background eviction thread" );
 
-    // The field offset to unsafely access the freelist field.
-    private static final long freelistOffset =
-            UnsafeUtil.getFieldOffset( MuninnPageCache.class, "freelist" );
-
     // This is used as a poison-pill signal in the freelist, to inform any
     // page faulting thread that it is now no longer possible to queue up and
     // wait for more pages to be evicted, because the page cache has been shut
@@ -162,24 +164,22 @@ public class MuninnPageCache implements PageCache
     private final int pageCacheId;
     private final PageSwapperFactory swapperFactory;
     private final int cachePageSize;
+    // The number of free pages the eviction thread tries to keep in each partition.
     private final int keepFree;
     private final PageCacheTracer pageCacheTracer;
     private final VersionContextSupplier versionContextSupplier;
+    private final EvictionPolicy evictionPolicy;
+    // Recently evicted cold pages. Only used by the scan resistant eviction policy, and null otherwise.
+    private final GhostPages ghostPages;
     final PageList pages;
+    // The pages are split into one partition per NUMA node the memory is allocated on, or a single partition covering all of them.
+    private final PagePartition[] partitions;
+    private final MemoryAllocator memoryAllocator;
     // All PageCursors are initialised with their pointers pointing to the victim page. This way, we don't have to throw
     // exceptions on bounds checking failures; we can instead return the victim page pointer, and permit the page
     // accesses to take place without fear of segfaulting newly allocated cursors.
     final long victimPage;
 
-    // The freelist is a thread-safe linked-list of FreePage objects, or an AtomicInteger, or null.
-    // Initially, the field is an AtomicInteger that counts from zero to the max page count, at which point all of the
-    // pages have been put in use. Once this happens, the field is set to null to allow the background eviction thread
-    // to start its work. From that point on, the field will operate as a concurrent stack of FreePage objects. The
-    // eviction thread pushes newly freed FreePage objects onto the stack, and page faulting threads pops FreePage
-    // objects from the stack. The FreePage objects are single-use, to avoid running into the ABA-problem.
-    @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
-    private volatile Object freelist;
-
     // Linked list of mappings - guarded by synchronized(this)
     private volatile FileMapping mappedFiles;
 
@@ -203,6 +203,9 @@ public class MuninnPageCache implements PageCache
     // 'true' (the default) if we should print any exceptions we get when unmapping a file.
     private boolean printExceptionsOnClose;
 
+    // Set once any mapped file has been given a page quota, so eviction doesn't have to look up quotas until then.
+    private volatile boolean pageQuotasEnabled;
+
     /**
      * Compute the amount of memory needed for a page cache with the given number of 8 KiB pages.
      * @param pageCount The number of pages
@@ -244,7 +247,23 @@ public class MuninnPageCache implements PageCache
     public MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, PageCacheTracer pageCacheTracer,
             VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker )
     {
-        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker );
+        this( swapperFactory, memoryAllocator, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, EvictionPolicy.CLOCK );
+    }
+
+    /**
+     * Create page cache.
+     * @param swapperFactory page cache swapper factory
+     * @param memoryAllocator the source of native memory the page cache should use
+     * @param pageCacheTracer global page cache tracer
+     * @param versionContextSupplier supplier of thread local (transaction local) version context that will provide access to thread local version context
+     * @param memoryTracker underlying buffers allocation memory tracker
+     * @param evictionPolicy the page replacement policy used when picking pages to evict
+     */
+    public MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, PageCacheTracer pageCacheTracer,
+            VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
+            EvictionPolicy evictionPolicy )
+    {
+        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, evictionPolicy );
     }
 
     /**
@@ -255,6 +274,14 @@ public class MuninnPageCache implements PageCache
     @Deprecated
     public MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, int cachePageSize, PageCacheTracer pageCacheTracer,
             VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker )
+    {
+        this( swapperFactory, memoryAllocator, cachePageSize, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker,
+                EvictionPolicy.CLOCK );
+    }
+
+    private MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, int cachePageSize, PageCacheTracer pageCacheTracer,
+            VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
+            EvictionPolicy evictionPolicy )
     {
         verifyHacks();
         verifyCachePageSizeIsPowerOfTwo( cachePageSize );
@@ -266,16 +293,22 @@ public class MuninnPageCache implements PageCache
         this.pageCacheId = pageCacheIdCounter.incrementAndGet();
         this.swapperFactory = swapperFactory;
         this.cachePageSize = cachePageSize;
-        this.keepFree = Math.min( pagesToKeepFree, maxPages / 2 );
         this.pageCacheTracer = pageCacheTracer;
         this.versionContextSupplier = versionContextSupplier;
+        this.evictionPolicy = evictionPolicy;
+        this.ghostPages = evictionPolicy == EvictionPolicy.SCAN_RESISTANT ? new GhostPages( maxPages ) : null;
         this.printExceptionsOnClose = true;
         this.victimPage = VictimPageReference.getVictimPage( cachePageSize, memoryTracker );
         this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, UnsafeUtil.pageSize() );
+        this.memoryAllocator = memoryAllocator;
+        this.partitions = new PagePartition[pages.getPartitionCount()];
+        for ( int i = 0; i < partitions.length; i++ )
+        {
+            partitions[i] = new PagePartition( i, pages.partitionStart( i ), pages.partitionEnd( i ), evictionPolicy == EvictionPolicy.SCAN_RESISTANT );
+        }
+        this.keepFree = Math.min( pagesToKeepFree, maxPages / 2 ) / partitions.length;
         this.scheduler = jobScheduler;
         this.clock = clock;
-
-        setFreelistHead( new AtomicInteger() );
     }
 
     private static void verifyHacks()
@@ -404,6 +437,8 @@ public class MuninnPageCache implements PageCache
         current.next = mappedFiles;
         mappedFiles = current;
         pageCacheTracer.mappedFile( file );
+        pageCacheTracer.residentPages( file, pagedFile.quota::residentPages );
+        pageCacheTracer.latencies( file, pagedFile.faultLatencies, pagedFile.flushLatencies );
         return pagedFile;
     }
 
@@ -720,6 +755,11 @@ public class MuninnPageCache implements PageCache
         return pageCacheId;
     }
 
+    PagePartition[] getPartitions()
+    {
+        return partitions;
+    }
+
     long grabFreeAndExclusivelyLockedPage( PageFaultEvent faultEvent ) throws IOException
     {
         // Review the comment on the freelist field before making changes to
@@ -742,32 +782,55 @@ public class MuninnPageCache implements PageCache
         // to check and see if it is the shutdownSignal instance. If that's the
         // case, then the page cache has been shut down, and we should throw an
         // exception from our page fault routine.
-        Object current;
+        // With more than one partition, we prefer pages from the partition local to the NUMA node we're running on, but we'd rather take
+        // a free page from another partition than do eviction work ourselves.
+        int localPartition = partitions.length == 1 ? 0 : memoryAllocator.localPartition();
         for (;;)
         {
             assertHealthy();
-            current = getFreelistHead();
-            if ( current == null )
+            long pageRef = grabFreePage( partitions[localPartition] );
+            for ( int i = 1; pageRef == 0 && i < partitions.length; i++ )
+            {
+                pageRef = grabFreePage( partitions[(localPartition + i) % partitions.length] );
+            }
+            if ( pageRef == 0 )
             {
                 unparkEvictor();
-                long pageRef = cooperativelyEvict( faultEvent );
-                if ( pageRef != 0 )
-                {
-                    return pageRef;
-                }
+                pageRef = cooperativelyEvict( faultEvent, partitions[localPartition] );
+            }
+            if ( pageRef != 0 )
+            {
+                int partition = pages.partitionOf( pages.toId( pageRef ) );
+                partitions[partition].pageFaulted( partition == localPartition );
+                return pageRef;
+            }
+        }
+    }
+
+    /**
+     * @return a free page from the freelist of the given partition, or 0 if the freelist is empty.
+     */
+    private long grabFreePage( PagePartition partition )
+    {
+        for (;;)
+        {
+            Object current = partition.getFreelistHead();
+            if ( current == null )
+            {
+                return 0;
             }
             else if ( current instanceof AtomicInteger )
             {
-                int pageCount = pages.getPageCount();
+                int pageCount = partition.getPageCount();
                 AtomicInteger counter = (AtomicInteger) current;
                 int pageId = counter.get();
                 if ( pageId < pageCount && counter.compareAndSet( pageId, pageId + 1 ) )
                 {
-                    return pages.deref( pageId );
+                    return pages.deref( partition.startPageId + pageId );
                 }
                 if ( pageId >= pageCount )
                 {
-                    compareAndSetFreelistHead( current, null );
+                    partition.compareAndSetFreelistHead( current, null );
                 }
             }
             else if ( current instanceof FreePage )
@@ -778,7 +841,7 @@ public class MuninnPageCache implements PageCache
                     throw new IllegalStateException( "The PageCache has been shut down." );
                 }
 
-                if ( compareAndSetFreelistHead( freePage, freePage.next ) )
+                if ( partition.compareAndSetFreelistHead( freePage, freePage.next ) )
                 {
                     return freePage.pageRef;
                 }
@@ -786,42 +849,115 @@ public class MuninnPageCache implements PageCache
         }
     }
 
-    private long cooperativelyEvict( PageFaultEvent faultEvent ) throws IOException
+    private boolean hasFreePages()
+    {
+        for ( PagePartition partition : partitions )
+        {
+            if ( partition.getFreelistHead() != null )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long cooperativelyEvict( PageFaultEvent faultEvent, PagePartition localPartition ) throws IOException
     {
         int iterations = 0;
-        int pageCount = pages.getPageCount();
-        int clockArm = ThreadLocalRandom.current().nextInt( pageCount );
+        // The first lap is around the local partition only. After that, we look at all pages, so we won't live-lock on a partition
+        // where all pages happen to be busy.
+        int lapStart = localPartition.startPageId;
+        int lapEnd = localPartition.endPageId;
+        int clockArm = lapStart + ThreadLocalRandom.current().nextInt( localPartition.getPageCount() );
+        // With the scan resistant policy, we spend our first lap looking for cold pages only. Likewise, reserved pages
+        // are only protected in the first lap.
+        boolean protectHotPages = evictionPolicy == EvictionPolicy.SCAN_RESISTANT;
+        boolean protectReservedPages = true;
+        long protectedPages = 0;
         boolean evicted = false;
         long pageRef;
-        do
+        try
         {
-            assertHealthy();
-            if ( getFreelistHead() != null )
+            do
             {
-                return 0;
-            }
+                assertHealthy();
+                if ( hasFreePages() )
+                {
+                    return 0;
+                }
 
-            if ( clockArm == pageCount )
-            {
-                if ( iterations == cooperativeEvictionLiveLockThreshold )
+                if ( clockArm == lapEnd )
                 {
-                    throw cooperativeEvictionLiveLock();
+                    if ( iterations == cooperativeEvictionLiveLockThreshold )
+                    {
+                        throw cooperativeEvictionLiveLock();
+                    }
+                    iterations++;
+                    lapStart = 0;
+                    lapEnd = pages.getPageCount();
+                    clockArm = lapStart;
+                    protectHotPages = false;
+                    protectReservedPages = false;
                 }
-                iterations++;
-                clockArm = 0;
-            }
 
-            pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+                pageRef = pages.deref( clockArm );
+                if ( pages.isLoaded( pageRef ) )
+                {
+                    PageQuota quota = quotaOf( pageRef );
+                    boolean overLimit = quota != null && quota.isOverLimit();
+                    if ( !overLimit && isProtected( pageRef, quota, protectHotPages, protectReservedPages ) )
+                    {
+                        protectedPages++;
+                    }
+                    else if ( overLimit || pages.decrementUsage( pageRef ) )
+                    {
+                        evicted = tryEvict( pageRef, faultEvent );
+                    }
+                }
+                clockArm++;
+            }
+            while ( !evicted );
+        }
+        finally
+        {
+            if ( protectedPages > 0 )
             {
-                evicted = pages.tryEvict( pageRef, faultEvent );
+                pageCacheTracer.protectedPages( protectedPages );
             }
-            clockArm++;
         }
-        while ( !evicted );
         return pageRef;
     }
 
+    private boolean tryEvict( long pageRef, EvictionEventOpportunity evictionOpportunity ) throws IOException
+    {
+        if ( ghostPages == null )
+        {
+            return pages.tryEvict( pageRef, evictionOpportunity );
+        }
+        // The binding is read before we take the exclusive lock, so it might be stale. That's fine, since the ghost
+        // pages are only a heuristic.
+        int swapperId = pages.getSwapperId( pageRef );
+        long filePageId = pages.getFilePageId( pageRef );
+        if ( pages.tryEvict( pageRef, evictionOpportunity ) )
+        {
+            ghostPages.add( swapperId, filePageId );
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Called when the given page has just been faulted in, and bound to the given file page.
+     * Pages that were recently evicted as cold pages, are given an extra usage count so they start out hot.
+     */
+    void admitFaultedPage( long pageRef, int swapperId, long filePageId )
+    {
+        if ( ghostPages != null && ghostPages.remove( swapperId, filePageId ) )
+        {
+            pages.incrementUsage( pageRef );
+        }
+    }
+
     private CacheLiveLockException cooperativeEvictionLiveLock()
     {
         return new CacheLiveLockException(
@@ -854,22 +990,6 @@ public class MuninnPageCache implements PageCache
         evictorParked = false;
     }
 
-    private Object getFreelistHead()
-    {
-        return UnsafeUtil.getObjectVolatile( this, freelistOffset );
-    }
-
-    private boolean compareAndSetFreelistHead( Object expected, Object update )
-    {
-        return UnsafeUtil.compareAndSwapObject(
-                this, freelistOffset, expected, update );
-    }
-
-    private void setFreelistHead( Object newFreelistHead )
-    {
-        UnsafeUtil.putObjectVolatile( this, freelistOffset, newFreelistHead );
-    }
-
     /**
      * Scan through all the pages, one by one, and decrement their usage stamps.
      * If a usage reaches zero, we try-write-locking it, and if we get that lock,
@@ -880,46 +1000,64 @@ public class MuninnPageCache implements PageCache
     void continuouslySweepPages()
     {
         evictionThread = Thread.currentThread();
-        int clockArm = 0;
 
         while ( !closed )
         {
             int pageCountToEvict = parkUntilEvictionRequired( keepFree );
             try ( EvictionRunEvent evictionRunEvent = pageCacheTracer.beginPageEvictions( pageCountToEvict ) )
             {
-                clockArm = evictPages( pageCountToEvict, clockArm, evictionRunEvent );
+                for ( PagePartition partition : partitions )
+                {
+                    partition.clockArm = evictPages( partition, partition.pagesToEvict, partition.clockArm, evictionRunEvent );
+                }
             }
         }
 
         // The last thing we do, is signalling the shutdown of the cache via
-        // the freelist. This signal is looked out for in grabFreePage.
-        setFreelistHead( shutdownSignal );
+        // the freelists. This signal is looked out for in grabFreePage.
+        for ( PagePartition partition : partitions )
+        {
+            partition.setFreelistHead( shutdownSignal );
+        }
     }
 
     private int parkUntilEvictionRequired( int keepFree )
     {
-        // Park until we're either interrupted, or the number of free pages drops
-        // bellow keepFree.
+        // Park until we're either interrupted, or the number of free pages in any
+        // partition drops bellow keepFree. The number of pages to evict from each
+        // partition is left in its pagesToEvict field.
         long parkNanos = TimeUnit.MILLISECONDS.toNanos( 10 );
         for (;;)
         {
             parkEvictor( parkNanos );
             if ( Thread.interrupted() || closed )
             {
+                for ( PagePartition partition : partitions )
+                {
+                    partition.pagesToEvict = 0;
+                }
                 return 0;
             }
 
-            int availablePages = tryGetNumberOfAvailablePages( keepFree );
-            if ( availablePages != UNKNOWN_AVAILABLE_PAGES )
+            boolean evictionRequired = false;
+            int pageCountToEvict = 0;
+            for ( PagePartition partition : partitions )
             {
-                return availablePages;
+                int availablePages = tryGetNumberOfAvailablePages( partition, keepFree );
+                partition.pagesToEvict = availablePages == UNKNOWN_AVAILABLE_PAGES ? 0 : availablePages;
+                evictionRequired |= availablePages != UNKNOWN_AVAILABLE_PAGES;
+                pageCountToEvict += partition.pagesToEvict;
+            }
+            if ( evictionRequired )
+            {
+                return pageCountToEvict;
             }
         }
     }
 
-    private int tryGetNumberOfAvailablePages( int keepFree )
+    private int tryGetNumberOfAvailablePages( PagePartition partition, int keepFree )
     {
-        Object freelistHead = getFreelistHead();
+        Object freelistHead = partition.getFreelistHead();
 
         if ( freelistHead == null )
         {
@@ -936,7 +1074,7 @@ public class MuninnPageCache implements PageCache
         else if ( freelistHead.getClass() == AtomicInteger.class )
         {
             AtomicInteger counter = (AtomicInteger) freelistHead;
-            long count = pages.getPageCount() - counter.get();
+            long count = partition.getPageCount() - counter.get();
             if ( count < keepFree )
             {
                 return count < 0 ? keepFree : (int) (keepFree - count);
@@ -947,11 +1085,18 @@ public class MuninnPageCache implements PageCache
 
     int evictPages( int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
     {
+        return evictPages( partitions[pages.partitionOf( clockArm )], pageCountToEvict, clockArm, evictionRunEvent );
+    }
+
+    private int evictPages( PagePartition partition, int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
+    {
+        long protectedPages = 0;
         while ( pageCountToEvict > 0 && !closed )
         {
-            if ( clockArm == pages.getPageCount() )
+            if ( clockArm == partition.endPageId )
             {
-                clockArm = 0;
+                clockArm = partition.startPageId;
+                completeEvictionLap( partition );
             }
 
             if ( closed )
@@ -961,13 +1106,20 @@ public class MuninnPageCache implements PageCache
             }
 
             long pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            PageQuota quota = pages.isLoaded( pageRef ) ? quotaOf( pageRef ) : null;
+            boolean overLimit = quota != null && quota.isOverLimit();
+            if ( pages.isLoaded( pageRef ) && !overLimit && isProtected( pageRef, quota, partition.protectHotPages, partition.protectReservedPages ) )
+            {
+                protectedPages++;
+            }
+            else if ( pages.isLoaded( pageRef ) && (overLimit || pages.decrementUsage( pageRef )) )
             {
                 try
                 {
                     pageCountToEvict--;
-                    if ( pages.tryEvict( pageRef, evictionRunEvent ) )
+                    if ( tryEvict( pageRef, evictionRunEvent ) )
                     {
+                        partition.coldPagesEvictedInLap = true;
                         clearEvictorException();
                         addFreePageToFreelist( pageRef );
                     }
@@ -990,23 +1142,71 @@ public class MuninnPageCache implements PageCache
             clockArm++;
         }
 
+        if ( protectedPages > 0 )
+        {
+            pageCacheTracer.protectedPages( protectedPages );
+        }
         return clockArm;
     }
 
+    private void completeEvictionLap( PagePartition partition )
+    {
+        partition.evictionLaps++;
+        // Hot pages are protected in the next lap, unless it is time to age them, or unless the lap we just completed
+        // found no cold pages to evict, in which case all pages must be aged to make progress.
+        partition.protectHotPages = evictionPolicy == EvictionPolicy.SCAN_RESISTANT && partition.coldPagesEvictedInLap &&
+                                    partition.evictionLaps % hotPageAgingLaps != 0;
+        // Likewise, reserved pages can only be protected for as long as there are other pages to evict.
+        partition.protectReservedPages = partition.coldPagesEvictedInLap;
+        partition.coldPagesEvictedInLap = false;
+    }
+
+    /**
+     * @return the {@link PageQuota} of the file that the given page is bound to, or {@code null} if no files have page
+     * quotas, or the page is not bound to a mapped file.
+     */
+    private PageQuota quotaOf( long pageRef )
+    {
+        if ( !pageQuotasEnabled )
+        {
+            return null;
+        }
+        // The binding is read without holding any lock on the page, so it might be stale. That's fine, since a stale
+        // quota only means that the page is treated a little more or less favourably, for one pass of the clock arm.
+        int swapperId = pages.getSwapperId( pageRef );
+        if ( swapperId == 0 )
+        {
+            return null;
+        }
+        SwapperSet.SwapperMapping swapperMapping = pages.getSwappers().getAllocation( swapperId );
+        return swapperMapping == null ? null : swapperMapping.quota;
+    }
+
+    private boolean isProtected( long pageRef, PageQuota quota, boolean protectHotPages, boolean protectReservedPages )
+    {
+        return (protectHotPages && pages.isHot( pageRef )) || (protectReservedPages && quota != null && quota.isWithinReservation());
+    }
+
+    void enablePageQuotas()
+    {
+        pageQuotasEnabled = true;
+    }
+
     void addFreePageToFreelist( long pageRef )
     {
+        PagePartition partition = partitions[pages.partitionOf( pages.toId( pageRef ) )];
         Object current;
         FreePage freePage = new FreePage( pageRef );
         do
         {
-            current = getFreelistHead();
-            if ( current instanceof AtomicInteger && ((AtomicInteger) current).get() > pages.getPageCount() )
+            current = partition.getFreelistHead();
+            if ( current instanceof AtomicInteger && ((AtomicInteger) current).get() > partition.getPageCount() )
             {
                 current = null;
             }
             freePage.setNext( current );
         }
-        while ( !compareAndSetFreelistHead( current, freePage ) );
+        while ( !partition.compareAndSetFreelistHead( current, freePage ) );
     }
 
     void clearEvictorException()
@@ -1020,14 +1220,20 @@ public class MuninnPageCache implements PageCache
     @Override
     public String toString()
     {
-        int availablePages = tryGetNumberOfAvailablePages( keepFree );
-        return format( "%s[pageCacheId:%d, pageSize:%d, pages:%d, availablePages:%s]", getClass().getSimpleName(),
-                pageCacheId, cachePageSize, pages.getPageCount(), availablePages != UNKNOWN_AVAILABLE_PAGES ? String.valueOf( availablePages ) : "N/A" );
+        String availablePages = Arrays.stream( partitions ).map( partition ->
+        {
+            int available = tryGetNumberOfAvailablePages( partition, keepFree );
+            return available != UNKNOWN_AVAILABLE_PAGES ? String.valueOf( available ) : "N/A";
+        } ).collect( joining( "," ) );
+        String description = format( "%s[pageCacheId:%d, pageSize:%d, pages:%d, availablePages:%s", getClass().getSimpleName(),
+                pageCacheId, cachePageSize, pages.getPageCount(), availablePages );
+        return partitions.length == 1 ? description + "]" : description + ", partitions:" + Arrays.toString( partitions ) + "]";
     }
 
     void vacuum( SwapperSet swappers )
     {
-        if ( getFreelistHead() instanceof AtomicInteger && swappers.countAvailableIds() > 200 )
+        if ( Arrays.stream( partitions ).anyMatch( partition -> partition.getFreelistHead() instanceof AtomicInteger ) &&
+             swappers.countAvailableIds() > 200 )
         {
             return; // We probably still have plenty of free pages left. Don't bother vacuuming just yet.
         }
@@ -1062,6 +1268,13 @@ public class MuninnPageCache implements PageCache
         cursor.preFetcher = scheduler.schedule( Group.PAGE_CACHE_PRE_FETCHER, preFetcher );
     }
 
+    HintedPreFetcher startHintedPreFetching( MuninnPagedFile pagedFile )
+    {
+        HintedPreFetcher preFetcher = new HintedPreFetcher( pagedFile, pageCacheTracer );
+        scheduler.schedule( Group.PAGE_CACHE_PRE_FETCHER, preFetcher );
+        return preFetcher;
+    }
+
     void allocateFileAsync( PageSwapper swapper, long newFileSize )
     {
         scheduler.schedule( Group.FILE_IO_HELPER, new AllocateFileTask( swapper, newFileSize ) );
@@ -74,11 +74,13 @@ public abstract class MuninnPageCursor extends PageCursor
     protected boolean eagerFlush;
     protected boolean noFault;
     protected boolean noGrow;
+    protected boolean transientAccess;
     @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
     private long currentPageId;
     protected long nextPageId;
     protected MuninnPageCursor linkedCursor;
     protected JobHandle<?> preFetcher;
+    private HintedPreFetcher hintedPreFetcher;
     private long pointer;
     private int pageSize;
     private int filePageSize;
@@ -110,6 +112,7 @@ public abstract class MuninnPageCursor extends PageCursor
         this.eagerFlush = isFlagRaised( pf_flags, PF_EAGER_FLUSH );
         this.noFault = isFlagRaised( pf_flags, PF_NO_FAULT );
         this.noGrow = noFault || isFlagRaised( pf_flags, PagedFile.PF_NO_GROW );
+        this.transientAccess = isFlagRaised( pf_flags, PagedFile.PF_TRANSIENT );
     }
 
     private boolean isFlagRaised( int flagSet, int flag )
@@ -160,6 +163,23 @@ public abstract class MuninnPageCursor extends PageCursor
         return next();
     }
 
+    @Override
+    public void prefetch( long pageId )
+    {
+        MuninnPagedFile pf = pagedFile;
+        if ( pf == null || noFault || preFetcher != null )
+        {
+            // Closed, not allowed to fault, or already pre-fetching sequentially.
+            return;
+        }
+        if ( hintedPreFetcher == null )
+        {
+            // Only start the pre-fetcher when the first hint arrives, so cursors that never give any hints don't pay for it.
+            hintedPreFetcher = pf.pageCache.startHintedPreFetching( pf );
+        }
+        hintedPreFetcher.hint( pageId );
+    }
+
     void verifyContext()
     {
         VersionContext versionContext = versionContextSupplier.getVersionContext();
@@ -215,6 +235,11 @@ public abstract class MuninnPageCursor extends PageCursor
                 preFetcher.cancel();
                 preFetcher = null;
             }
+            if ( cursor.hintedPreFetcher != null )
+            {
+                cursor.hintedPreFetcher.cancelled();
+                cursor.hintedPreFetcher = null;
+            }
             cursor = cursor.linkedCursor;
         }
     }
@@ -390,6 +415,7 @@ public abstract class MuninnPageCursor extends PageCursor
         // If we manage to get a free page to fault into, then we will also be taking a write lock on that page, to
         // protect it against concurrent eviction as we assigning a binding to the page. If anything goes wrong, then
         // we must make sure to release that write lock as well.
+        long startNanos = System.nanoTime();
         PageFaultEvent faultEvent = pinEvent.beginPageFault();
         long pageRef;
         try
@@ -418,6 +444,7 @@ public abstract class MuninnPageCursor extends PageCursor
             assertPagedFileStillMappedAndGetIdOfLastPage();
             pagedFile.initBuffer( pageRef );
             pagedFile.fault( pageRef, swapper, pagedFile.swapperId, filePageId, faultEvent );
+            pagedFile.admitFaultedPage( pageRef, filePageId );
         }
         catch ( Throwable throwable )
         {
@@ -435,6 +462,8 @@ public abstract class MuninnPageCursor extends PageCursor
         convertPageFaultLock( pageRef );
         latch.release();
         faultEvent.done();
+        // The latency includes the time it took to find a free page, since that can involve evicting and flushing a page.
+        pagedFile.faultLatencies.record( System.nanoTime() - startNanos );
         return pageRef;
     }
 
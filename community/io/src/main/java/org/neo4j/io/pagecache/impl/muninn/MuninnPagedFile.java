@@ -33,11 +33,13 @@ import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.impl.FileIsNotMappedException;
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
 import org.neo4j.io.pagecache.tracing.FlushEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.io.pagecache.tracing.PinEvent;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 
@@ -49,6 +51,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     static final int UNMAPPED_TTE = -1;
     private static final boolean mergePagesOnFlush = flag( MuninnPagedFile.class, "mergePagesOnFlush", true );
     private static final int maxChunkGrowth = getInteger( MuninnPagedFile.class, "maxChunkGrowth", 16 ); // One chunk is 32 MiB, by default.
+    private static final int maxTouchBatchSize = getInteger( MuninnPagedFile.class, "maxTouchBatchSize", 64 ); // Pages per vectored read in touch.
     private static final int translationTableChunkSizePower = getInteger( MuninnPagedFile.class, "translationTableChunkSizePower", 12 );
     private static final int translationTableChunkSize = 1 << translationTableChunkSizePower;
     private static final long translationTableChunkSizeMask = translationTableChunkSize - 1;
@@ -66,6 +69,9 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     final int filePageSize;
     private final PageCacheTracer pageCacheTracer;
     final LatchMap pageFaultLatches;
+    final PageQuota quota = new PageQuota();
+    final LatencyHistogram faultLatencies = new LatencyHistogram();
+    final LatencyHistogram flushLatencies = new LatencyHistogram();
 
     // This is the table where we translate file-page-ids to cache-page-ids. Only one thread can perform a resize at
     // a time, and we ensure this mutual exclusion using the monitor lock on this MuninnPagedFile object.
@@ -159,7 +165,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         translationTable = tt;
 
         initialiseLastPageId( lastPageId );
-        this.swapperId = getSwappers().allocate( swapper );
+        this.swapperId = getSwappers().allocate( swapper, quota, flushLatencies );
     }
 
     @Override
@@ -290,6 +296,28 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         pageCache.clearEvictorException();
     }
 
+    @Override
+    public void writeBack( IOLimiter limiter ) throws IOException
+    {
+        if ( limiter == null )
+        {
+            throw new IllegalArgumentException( "IOPSLimiter cannot be null" );
+        }
+        try ( MajorFlushEvent flushEvent = pageCacheTracer.beginFileFlush( swapper ) )
+        {
+            flushDirtyPages( flushEvent.flushEventOpportunity(), false, true, limiter );
+        }
+        catch ( ClosedChannelException e )
+        {
+            // A write-back can race with unmapping, which flushes the file anyway.
+            if ( getRefCount() > 0 )
+            {
+                e.addSuppressed( closeStackTrace );
+                throw e;
+            }
+        }
+    }
+
     void flushAndForceForClose() throws IOException
     {
         if ( deleteOnClose )
@@ -359,7 +387,8 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     {
         try
         {
-            doFlushAndForceInternal( flushes, forClosing, limiter );
+            flushDirtyPages( flushes, forClosing, false, limiter );
+            swapper.force();
         }
         catch ( ClosedChannelException e )
         {
@@ -377,7 +406,15 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         }
     }
 
-    private void doFlushAndForceInternal( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter )
+    /**
+     * Write the dirty pages of this file in page id order, merging adjacent pages into vectored writes.
+     *
+     * @param forClosing {@code true} if the file is being closed, in which case the pages are exclusively locked rather than
+     * flush locked, and are left clean.
+     * @param skipLockedPages {@code true} if pages that cannot be locked right away should be skipped, rather than waited for.
+     * Write locked pages can still be flush locked, so they are not skipped.
+     */
+    private void flushDirtyPages( FlushEventOpportunity flushes, boolean forClosing, boolean skipLockedPages, IOLimiter limiter )
             throws IOException
     {
         // TODO it'd be awesome if, on Linux, we'd call sync_file_range(2) instead of fsync
@@ -422,6 +459,10 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                         long flushStamp = 0;
                         if ( !(forClosing ? tryExclusiveLock( pageRef ) : ((flushStamp = tryFlushLock( pageRef )) != 0)) )
                         {
+                            if ( skipLockedPages )
+                            {
+                                break;
+                            }
                             continue;
                         }
                         if ( isBoundTo( pageRef, swapperId, filePageId ) && isModified( pageRef ) )
@@ -481,8 +522,6 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                 limiterStamp = limiter.maybeLimitIO( limiterStamp, numberOfBuffers, this );
             }
         }
-
-        swapper.force();
     }
 
     private void vectoredFlush(
@@ -497,7 +536,9 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             long firstPageRef = pages[0];
             long startFilePageId = getFilePageId( firstPageRef );
             flush = flushOpportunity.beginFlush( startFilePageId, toId( firstPageRef ), swapper, pagesGrabbed, pagesMerged );
+            long startNanos = System.nanoTime();
             long bytesWritten = swapper.write( startFilePageId, bufferAddresses, bufferLengths, numberOfBuffers, pagesGrabbed );
+            flushLatencies.record( System.nanoTime() - startNanos );
 
             // Update the flush event
             flush.addBytesWritten( bytesWritten );
@@ -550,7 +591,9 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             long address = getAddress( pageRef );
             try
             {
+                long startNanos = System.nanoTime();
                 long bytesWritten = swapper.write( filePageId, address );
+                flushLatencies.record( System.nanoTime() - startNanos );
                 flush.addBytesWritten( bytesWritten );
                 flush.addPagesFlushed( 1 );
                 flush.done();
@@ -581,6 +624,195 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         return state & headerStateLastPageIdMask;
     }
 
+    @Override
+    public int touch( long pageId, int count, PageCursorTracer tracer ) throws IOException
+    {
+        long endPageId = Math.min( pageId + count, getLastPageId() + 1 );
+        if ( endPageId <= pageId )
+        {
+            return 0;
+        }
+        // Don't hold on to too many exclusively locked pages at a time, or we might starve other page faults.
+        int batchCapacity = (int) Math.min( endPageId - pageId, Math.max( 1, Math.min( maxTouchBatchSize, pageCache.maxCachedPages() / 8 ) ) );
+        TouchBatch batch = new TouchBatch( batchCapacity );
+        int faulted = 0;
+        try
+        {
+            for ( long filePageId = pageId; filePageId < endPageId; filePageId++ )
+            {
+                if ( batch.size == batchCapacity || (batch.size > 0 && batch.startPageId + batch.size != filePageId) )
+                {
+                    faulted += batch.fault();
+                }
+                int chunkId = computeChunkId( filePageId );
+                int[][] tt = translationTable;
+                if ( tt.length <= chunkId )
+                {
+                    tt = expandCapacity( chunkId );
+                }
+                int[] chunk = tt[chunkId];
+                long chunkOffset = computeChunkOffset( filePageId );
+                LatchMap.Latch latch = null;
+                while ( latch == null && UnsafeUtil.getIntVolatile( chunk, chunkOffset ) == UNMAPPED_TTE )
+                {
+                    latch = pageFaultLatches.tryTakeLatch( filePageId );
+                    if ( latch == null )
+                    {
+                        // Someone else is faulting this page, or the latch collides with one we already hold. Fault in what
+                        // we have, so we are not holding any latches, and then wait our turn.
+                        faulted += batch.fault();
+                        latch = pageFaultLatches.takeOrAwaitLatch( filePageId );
+                    }
+                }
+                if ( latch == null )
+                {
+                    continue; // Already in memory.
+                }
+                if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+                {
+                    latch.release();
+                    continue;
+                }
+                batch.add( filePageId, chunk, chunkOffset, latch, tracer );
+            }
+            faulted += batch.fault();
+        }
+        catch ( Throwable throwable )
+        {
+            batch.abort( throwable );
+            throw throwable;
+        }
+        return faulted;
+    }
+
+    /**
+     * A run of consecutive file pages that are latched, and have free pages reserved for them, but have not yet been
+     * read in from the file.
+     */
+    private final class TouchBatch
+    {
+        private final long[] pageRefs;
+        private final int[][] chunks;
+        private final long[] chunkOffsets;
+        private final LatchMap.Latch[] latches;
+        private final PinEvent[] pinEvents;
+        private final PageFaultEvent[] faultEvents;
+        private final long[] bufferAddresses;
+        private final int[] bufferLengths;
+        private long startPageId;
+        private long startNanos;
+        private int size;
+
+        TouchBatch( int capacity )
+        {
+            pageRefs = new long[capacity];
+            chunks = new int[capacity][];
+            chunkOffsets = new long[capacity];
+            latches = new LatchMap.Latch[capacity];
+            pinEvents = new PinEvent[capacity];
+            faultEvents = new PageFaultEvent[capacity];
+            bufferAddresses = new long[capacity];
+            bufferLengths = new int[capacity];
+        }
+
+        void add( long filePageId, int[] chunk, long chunkOffset, LatchMap.Latch latch, PageCursorTracer tracer ) throws IOException
+        {
+            PinEvent pinEvent = tracer.beginPin( false, filePageId, swapper );
+            PageFaultEvent faultEvent = pinEvent.beginPageFault();
+            long pageRef;
+            try
+            {
+                pageRef = grabFreeAndExclusivelyLockedPage( faultEvent );
+            }
+            catch ( Throwable throwable )
+            {
+                latch.release();
+                faultEvent.done( throwable );
+                pinEvent.done();
+                throw throwable;
+            }
+            if ( size == 0 )
+            {
+                startPageId = filePageId;
+                startNanos = System.nanoTime();
+            }
+            pageRefs[size] = pageRef;
+            chunks[size] = chunk;
+            chunkOffsets[size] = chunkOffset;
+            latches[size] = latch;
+            pinEvents[size] = pinEvent;
+            faultEvents[size] = faultEvent;
+            size++;
+        }
+
+        int fault() throws IOException
+        {
+            if ( size == 0 )
+            {
+                return 0;
+            }
+            // Check if we're racing with unmapping, before the fault would otherwise reopen the file channel.
+            getLastPageId();
+            for ( int i = 0; i < size; i++ )
+            {
+                initBuffer( pageRefs[i] );
+            }
+            long bytesRead = MuninnPagedFile.this.fault( pageRefs, size, swapper, swapperId, startPageId, filePageSize, bufferAddresses, bufferLengths );
+            // Every page in the batch had to wait for the whole batch to be read.
+            long faultNanos = System.nanoTime() - startNanos;
+            for ( int i = 0; i < size; i++ )
+            {
+                long pageRef = pageRefs[i];
+                admitFaultedPage( pageRef, startPageId + i );
+                // Publish the page in the translation table before we release the exclusive lock, just like a cursor page fault.
+                UnsafeUtil.putIntVolatile( chunks[i], chunkOffsets[i], toId( pageRef ) );
+                unlockExclusive( pageRef );
+                latches[i].release();
+                long pageBytesRead = Math.min( bytesRead, filePageSize );
+                bytesRead -= pageBytesRead;
+                faultEvents[i].addBytesRead( pageBytesRead );
+                faultEvents[i].setCachePageId( toId( pageRef ) );
+                faultEvents[i].done();
+                faultLatencies.record( faultNanos );
+                pinEvents[i].done();
+            }
+            int faulted = size;
+            clear();
+            return faulted;
+        }
+
+        void abort( Throwable throwable )
+        {
+            for ( int i = 0; i < size; i++ )
+            {
+                long pageRef = pageRefs[i];
+                if ( isLoaded( pageRef ) )
+                {
+                    // Let the eviction thread pick up our trash.
+                    unlockExclusive( pageRef );
+                }
+                else
+                {
+                    // Pages on the free-list are exclusively locked.
+                    pageCache.addFreePageToFreelist( pageRef );
+                }
+                latches[i].release();
+                faultEvents[i].done( throwable );
+                pinEvents[i].done();
+            }
+            clear();
+        }
+
+        private void clear()
+        {
+            Arrays.fill( chunks, 0, size, null );
+            Arrays.fill( latches, 0, size, null );
+            Arrays.fill( pinEvents, 0, size, null );
+            Arrays.fill( faultEvents, 0, size, null );
+            size = 0;
+        }
+    }
+
     private FileIsNotMappedException fileIsNotMappedException()
     {
         FileIsNotMappedException exception = new FileIsNotMappedException( file() );
@@ -700,6 +932,13 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         return deleteOnClose;
     }
 
+    @Override
+    public void setPageQuota( long reservedPages, long maxPages )
+    {
+        quota.setLimits( reservedPages, maxPages );
+        pageCache.enablePageQuotas();
+    }
+
     /**
      * Grab a free page for the purpose of page faulting. Possibly blocking if
      * none are immediately available.
@@ -710,6 +949,15 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         return pageCache.grabFreeAndExclusivelyLockedPage( faultEvent );
     }
 
+    /**
+     * Let the page cache know that the given page has just been faulted in, and bound to the given file page.
+     */
+    void admitFaultedPage( long pageRef, long filePageId )
+    {
+        quota.pageLoaded();
+        pageCache.admitFaultedPage( pageRef, swapperId, filePageId );
+    }
+
     /**
      * Remove the mapping of the given filePageId from the translation table, and return the evicted page object.
      * @param filePageId The id of the file page to evict.
@@ -724,6 +972,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         long pageRef = deref( mappedPageId );
         setHighestEvictedTransactionId( getAndResetLastModifiedTransactionId( pageRef ) );
         UnsafeUtil.putIntVolatile( chunk, chunkOffset, UNMAPPED_TTE );
+        quota.pageEvicted();
     }
 
     private void setHighestEvictedTransactionId( long modifiedTransactionId )
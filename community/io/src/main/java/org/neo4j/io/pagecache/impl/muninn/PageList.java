@@ -25,6 +25,7 @@ import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
 import org.neo4j.io.pagecache.tracing.EvictionEvent;
 import org.neo4j.io.pagecache.tracing.EvictionEventOpportunity;
 import org.neo4j.io.pagecache.tracing.FlushEvent;
@@ -77,6 +78,8 @@ class PageList
     // And the last 3 low bits are the usage counter.
     private static final int OFFSET_PAGE_BINDING = 24; // 8 bytes.
 
+    private static final int MIN_PARTITION_PAGES = 1024;
+
     private final int pageCount;
     private final int cachePageSize;
     private final MemoryAllocator memoryAllocator;
@@ -84,6 +87,11 @@ class PageList
     private final long victimPageAddress;
     private final long baseAddress;
     private final long bufferAlignment;
+    // The pages are split into contiguous partitions, one per partition of the memory allocator, where the buffers of the pages in each
+    // partition are allocated from the corresponding memory allocator partition. All partitions have the same number of pages, except the
+    // last one, which also gets the remainder.
+    private final int partitionPageCount;
+    private final MemoryAllocator[] bufferAllocators;
 
     PageList( int pageCount, int cachePageSize, MemoryAllocator memoryAllocator, SwapperSet swappers,
               long victimPageAddress, long bufferAlignment )
@@ -96,6 +104,18 @@ class PageList
         long bytes = ((long) pageCount) * META_DATA_BYTES_PER_PAGE;
         this.baseAddress = memoryAllocator.allocateAligned( bytes, Long.BYTES );
         this.bufferAlignment = bufferAlignment;
+        int partitions = memoryAllocator.partitions();
+        if ( pageCount / partitions < MIN_PARTITION_PAGES )
+        {
+            // Too few pages to be worth partitioning.
+            partitions = 1;
+        }
+        this.partitionPageCount = pageCount / partitions;
+        this.bufferAllocators = new MemoryAllocator[partitions];
+        for ( int i = 0; i < partitions; i++ )
+        {
+            bufferAllocators[i] = partitions == 1 ? memoryAllocator : memoryAllocator.partition( i );
+        }
         clearMemory( baseAddress, pageCount );
     }
 
@@ -116,6 +136,8 @@ class PageList
         this.victimPageAddress = pageList.victimPageAddress;
         this.baseAddress = pageList.baseAddress;
         this.bufferAlignment = pageList.bufferAlignment;
+        this.partitionPageCount = pageList.partitionPageCount;
+        this.bufferAllocators = pageList.bufferAllocators;
     }
 
     private void clearMemory( long baseAddress, long pageCount )
@@ -191,6 +213,38 @@ class PageList
         return baseAddress + (id * META_DATA_BYTES_PER_PAGE);
     }
 
+    /**
+     * @return the number of partitions the pages are split into.
+     */
+    int getPartitionCount()
+    {
+        return bufferAllocators.length;
+    }
+
+    /**
+     * @return the partition the page with the given id belongs to.
+     */
+    int partitionOf( int pageId )
+    {
+        return Math.min( pageId / partitionPageCount, bufferAllocators.length - 1 );
+    }
+
+    /**
+     * @return the id of the first page in the given partition.
+     */
+    int partitionStart( int partition )
+    {
+        return partition * partitionPageCount;
+    }
+
+    /**
+     * @return the id one past the last page in the given partition.
+     */
+    int partitionEnd( int partition )
+    {
+        return partition == bufferAllocators.length - 1 ? pageCount : (partition + 1) * partitionPageCount;
+    }
+
     int toId( long pageRef )
     {
         // >> 5 is equivalent to dividing by 32, META_DATA_BYTES_PER_PAGE.
@@ -296,7 +350,7 @@ class PageList
     {
         if ( getAddress( pageRef ) == 0L )
         {
-            long addr = memoryAllocator.allocateAligned( getCachePageSize(), bufferAlignment );
+            long addr = bufferAllocators[partitionOf( toId( pageRef ) )].allocateAligned( getCachePageSize(), bufferAlignment );
             UnsafeUtil.putLong( offAddress( pageRef ), addr );
         }
     }
@@ -327,6 +381,15 @@ class PageList
         }
     }
 
+    /**
+     * A page is hot if it has been used more than once since it was faulted in, or since the eviction clock last
+     * passed it by.
+     **/
+    boolean isHot( long pageRef )
+    {
+        return getUsageCounter( pageRef ) > 1;
+    }
+
     /**
      * Decrement the usage stamp. Returns true if it reaches 0.
      **/
@@ -437,6 +500,43 @@ class PageList
         setSwapperId( pageRef, swapperId ); // Page now considered isBoundTo( swapper, filePageId )
     }
 
+    /**
+     * Fault in a run of consecutive file pages, starting from the given {@code startFilePageId}, using a single vectored
+     * read. All of the given pages must be exclusively locked and unbound, just like for
+     * {@link #fault(long, PageSwapper, int, long, PageFaultEvent)}.
+     *
+     * @return the number of bytes read.
+     */
+    long fault( long[] pageRefs, int length, PageSwapper swapper, int swapperId, long startFilePageId, int filePageSize,
+            long[] bufferAddresses, int[] bufferLengths ) throws IOException
+    {
+        if ( swapper == null )
+        {
+            throw swapperCannotBeNull();
+        }
+        for ( int i = 0; i < length; i++ )
+        {
+            long pageRef = pageRefs[i];
+            long filePageId = startFilePageId + i;
+            int currentSwapper = getSwapperId( pageRef );
+            long currentFilePageId = getFilePageId( pageRef );
+            if ( !isExclusivelyLocked( pageRef ) || currentSwapper != 0 || currentFilePageId != PageCursor.UNBOUND_PAGE_ID )
+            {
+                throw cannotFaultException( pageRef, swapper, swapperId, filePageId, currentSwapper, currentFilePageId );
+            }
+            // See the single page fault method for why the file page id is assigned before the swapping.
+            setFilePageId( pageRef, filePageId );
+            bufferAddresses[i] = getAddress( pageRef );
+            bufferLengths[i] = filePageSize;
+        }
+        long bytesRead = swapper.read( startFilePageId, bufferAddresses, bufferLengths, length );
+        for ( int i = 0; i < length; i++ )
+        {
+            setSwapperId( pageRefs[i], swapperId );
+        }
+        return bytesRead;
+    }
+
     private static IllegalArgumentException swapperCannotBeNull()
     {
         return new IllegalArgumentException( "swapper cannot be null" );
@@ -490,7 +590,7 @@ class PageList
 
                 if ( isModified( pageRef ) )
                 {
-                    flushModifiedPage( pageRef, evictionEvent, filePageId, swapper );
+                    flushModifiedPage( pageRef, evictionEvent, filePageId, swapper, swapperMapping.flushLatencies );
                 }
                 swapper.evicted( filePageId );
             }
@@ -498,14 +598,19 @@ class PageList
         clearBinding( pageRef );
     }
 
-    private void flushModifiedPage( long pageRef, EvictionEvent evictionEvent, long filePageId, PageSwapper swapper )
-            throws IOException
+    private void flushModifiedPage( long pageRef, EvictionEvent evictionEvent, long filePageId, PageSwapper swapper,
+            LatencyHistogram flushLatencies ) throws IOException
     {
         FlushEvent flushEvent = evictionEvent.flushEventOpportunity().beginFlush( filePageId, pageRef, swapper, 1, 0 );
         try
         {
             long address = getAddress( pageRef );
+            long startNanos = System.nanoTime();
             long bytesWritten = swapper.write( filePageId, address );
+            if ( flushLatencies != null )
+            {
+                flushLatencies.record( System.nanoTime() - startNanos );
+            }
             explicitlyMarkPageUnmodifiedUnderExclusiveLock( pageRef );
             flushEvent.addBytesWritten( bytesWritten );
             flushEvent.addPagesFlushed( 1 );
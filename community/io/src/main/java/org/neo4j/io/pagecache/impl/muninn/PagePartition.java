@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+
+/**
+ * A contiguous range of the pages in the {@link MuninnPageCache}, with its own free-list. When the page cache memory is split over NUMA
+ * nodes, there is one partition per node, and the buffers of its pages are allocated on that node. Otherwise, there is a single partition
+ * that covers all pages.
+ */
+final class PagePartition
+{
+    // The field offset to unsafely access the freelist field.
+    private static final long freelistOffset = UnsafeUtil.getFieldOffset( PagePartition.class, "freelist" );
+
+    final int index;
+    final int startPageId;
+    final int endPageId;
+
+    // The freelist is a thread-safe linked-list of FreePage objects, or an AtomicInteger, or null.
+    // Initially, the field is an AtomicInteger that counts from zero to the partition page count, at which point all of the
+    // pages have been put in use. Once this happens, the field is set to null to allow the background eviction thread
+    // to start its work. From that point on, the field will operate as a concurrent stack of FreePage objects. The
+    // eviction thread pushes newly freed FreePage objects onto the stack, and page faulting threads pops FreePage
+    // objects from the stack. The FreePage objects are single-use, to avoid running into the ABA-problem.
+    @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
+    private volatile Object freelist;
+
+    // Pages of this partition that were given to page faulting threads running on the NUMA node of this partition, and on other nodes.
+    private final LongAdder localFaults = new LongAdder();
+    private final LongAdder remoteFaults = new LongAdder();
+
+    // Only used by the background eviction thread: the position of the clock arm, the number of pages to evict in the current eviction
+    // run, the number of laps the clock arm has completed, whether the clock arm has found any cold pages to evict in its current lap,
+    // and whether hot pages are protected from aging, and reserved pages are protected from eviction, in the current lap.
+    int clockArm;
+    int pagesToEvict;
+    long evictionLaps;
+    boolean coldPagesEvictedInLap;
+    boolean protectHotPages;
+    boolean protectReservedPages;
+
+    PagePartition( int index, int startPageId, int endPageId, boolean protectHotPages )
+    {
+        this.index = index;
+        this.startPageId = startPageId;
+        this.endPageId = endPageId;
+        this.clockArm = startPageId;
+        this.coldPagesEvictedInLap = true;
+        this.protectHotPages = protectHotPages;
+        this.protectReservedPages = true;
+        setFreelistHead( new AtomicInteger() );
+    }
+
+    int getPageCount()
+    {
+        return endPageId - startPageId;
+    }
+
+    Object getFreelistHead()
+    {
+        return UnsafeUtil.getObjectVolatile( this, freelistOffset );
+    }
+
+    boolean compareAndSetFreelistHead( Object expected, Object update )
+    {
+        return UnsafeUtil.compareAndSwapObject( this, freelistOffset, expected, update );
+    }
+
+    void setFreelistHead( Object newFreelistHead )
+    {
+        UnsafeUtil.putObjectVolatile( this, freelistOffset, newFreelistHead );
+    }
+
+    void pageFaulted( boolean local )
+    {
+        (local ? localFaults : remoteFaults).increment();
+    }
+
+    long localFaults()
+    {
+        return localFaults.sum();
+    }
+
+    long remoteFaults()
+    {
+        return remoteFaults.sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Partition[" + index + ", pages:" + startPageId + "-" + endPageId + ", localFaults:" + localFaults() + ", remoteFaults:" +
+               remoteFaults() + "]";
+    }
+}
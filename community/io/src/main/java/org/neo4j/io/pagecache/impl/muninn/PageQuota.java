@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of how many pages of a {@link MuninnPagedFile} are in memory, and how many pages the file has reserved,
+ * or is at most allowed to have, in memory.
+ * <p>
+ * The quota is enforced by the eviction logic, and is therefore soft: a file can go over its limit, until the eviction
+ * gets around to evicting its excess pages, and the reserved pages of a file can still be evicted if the page cache
+ * would otherwise be unable to find any pages to evict.
+ */
+final class PageQuota
+{
+    private final AtomicLong residentPages = new AtomicLong();
+    private volatile long reservedPages;
+    private volatile long maxPages = Long.MAX_VALUE;
+
+    void setLimits( long reservedPages, long maxPages )
+    {
+        if ( reservedPages < 0 || maxPages < reservedPages )
+        {
+            throw new IllegalArgumentException(
+                    "Invalid page quota: reserved pages (" + reservedPages + ") must be between 0 and max pages (" + maxPages + ")." );
+        }
+        this.reservedPages = reservedPages;
+        this.maxPages = maxPages;
+    }
+
+    void pageLoaded()
+    {
+        residentPages.incrementAndGet();
+    }
+
+    void pageEvicted()
+    {
+        residentPages.decrementAndGet();
+    }
+
+    long residentPages()
+    {
+        return residentPages.get();
+    }
+
+    /**
+     * @return {@code true} if the file does not have more pages in memory than it has reserved.
+     */
+    boolean isWithinReservation()
+    {
+        return residentPages.get() <= reservedPages;
+    }
+
+    /**
+     * @return {@code true} if the file has more pages in memory than it is allowed to.
+     */
+    boolean isOverLimit()
+    {
+        return residentPages.get() > maxPages;
+    }
+}
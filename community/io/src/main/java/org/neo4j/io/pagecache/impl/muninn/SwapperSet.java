@@ -28,6 +28,7 @@ import java.util.Arrays;
 import java.util.function.Consumer;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
 
 /**
  * The SwapperSet maintains the set of allocated {@link PageSwapper}s, and their mapping to swapper ids.
@@ -40,10 +41,10 @@ import org.neo4j.io.pagecache.PageSwapper;
 final class SwapperSet
 {
     // The sentinel is used to reserve swapper id 0 as a special value.
-    private static final SwapperMapping SENTINEL = new SwapperMapping( 0, null );
+    private static final SwapperMapping SENTINEL = new SwapperMapping( 0, null, null, null );
     // The tombstone is used as a marker to reserve allocation entries that have been freed, but not yet vacuumed.
     // An allocation cannot be reused until it has been vacuumed.
-    private static final SwapperMapping TOMBSTONE = new SwapperMapping( 0, null );
+    private static final SwapperMapping TOMBSTONE = new SwapperMapping( 0, null, null, null );
     private static final int MAX_SWAPPER_ID = (1 << 21) - 1;
     private volatile SwapperMapping[] swapperMappings = new SwapperMapping[] { SENTINEL };
     private final MutableIntSet free = new IntHashSet();
@@ -51,17 +52,22 @@ final class SwapperSet
     private int freeCounter; // Used in `free`; Guarded by `this`
 
     /**
-     * The mapping entry between a {@link PageSwapper} and its swapper id.
+     * The mapping entry between a {@link PageSwapper} and its swapper id, and the {@link PageQuota} of the file, and
+     * the {@link LatencyHistogram} that flushes of its pages are recorded into, if any.
      */
     static final class SwapperMapping
     {
         public final int id;
         public final PageSwapper swapper;
+        public final PageQuota quota;
+        public final LatencyHistogram flushLatencies;
 
-        private SwapperMapping( int id, PageSwapper swapper )
+        private SwapperMapping( int id, PageSwapper swapper, PageQuota quota, LatencyHistogram flushLatencies )
         {
             this.id = id;
             this.swapper = swapper;
+            this.quota = quota;
+            this.flushLatencies = flushLatencies;
         }
     }
 
@@ -90,7 +96,16 @@ final class SwapperSet
     /**
      * Allocate a new swapper id for the given {@link PageSwapper}.
      */
-    synchronized int allocate( PageSwapper swapper )
+    int allocate( PageSwapper swapper )
+    {
+        return allocate( swapper, null, null );
+    }
+
+    /**
+     * Allocate a new swapper id for the given {@link PageSwapper}, whose file is subject to the given {@link PageQuota},
+     * and whose flushes are recorded into the given {@link LatencyHistogram}.
+     */
+    synchronized int allocate( PageSwapper swapper, PageQuota quota, LatencyHistogram flushLatencies )
     {
         SwapperMapping[] swapperMappings = this.swapperMappings;
 
@@ -101,7 +116,7 @@ final class SwapperSet
             {
                 int id = free.intIterator().next();
                 free.remove( id );
-                swapperMappings[id] = new SwapperMapping( id, swapper );
+                swapperMappings[id] = new SwapperMapping( id, swapper, quota, flushLatencies );
                 this.swapperMappings = swapperMappings; // Volatile store synchronizes-with loads in getters.
                 return id;
             }
@@ -114,7 +129,7 @@ final class SwapperSet
             throw new IllegalStateException( "All swapper ids are allocated: " + MAX_SWAPPER_ID );
         }
         swapperMappings = Arrays.copyOf( swapperMappings, id + 1 );
-        swapperMappings[id] = new SwapperMapping( id, swapper );
+        swapperMappings[id] = new SwapperMapping( id, swapper, quota, flushLatencies );
         this.swapperMappings = swapperMappings; // Volatile store synchronizes-with loads in getters.
         return id;
     }
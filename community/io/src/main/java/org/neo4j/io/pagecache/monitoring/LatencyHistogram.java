@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.monitoring;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of latencies in nanoseconds, that is cheap enough to record every page fault and flush into.
+ * <p>
+ * The buckets are laid out like in an HDR histogram: every power of two range of values is split into
+ * 16 equally sized sub-buckets, so the values reported for the percentiles are within about 6% of
+ * the recorded values, regardless of their magnitude. Values below 16 nanoseconds are counted exactly,
+ * and values above {@link #MAX_TRACKABLE_NANOS} (about 18 minutes) are counted as that value.
+ * <p>
+ * Recording is lock-free, and readers see a weakly consistent view of the histogram while it is being recorded into.
+ */
+public final class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 40;
+    public static final long MAX_TRACKABLE_NANOS = (1L << MAX_MAGNITUDE) - 1;
+    private static final int BUCKETS = bucketIndex( MAX_TRACKABLE_NANOS ) + 1;
+
+    /**
+     * A histogram that stays empty, because recording into it does nothing, for tracers that do not record latencies.
+     */
+    public static final LatencyHistogram EMPTY = new LatencyHistogram( false );
+
+    private final AtomicLongArray buckets = new AtomicLongArray( BUCKETS );
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final boolean recording;
+
+    public LatencyHistogram()
+    {
+        this( true );
+    }
+
+    private LatencyHistogram( boolean recording )
+    {
+        this.recording = recording;
+    }
+
+    /**
+     * Record a single latency.
+     *
+     * @param nanos the latency in nanoseconds. Negative values are counted as zero.
+     */
+    public void record( long nanos )
+    {
+        if ( !recording )
+        {
+            return;
+        }
+        long value = Math.min( Math.max( nanos, 0 ), MAX_TRACKABLE_NANOS );
+        buckets.incrementAndGet( bucketIndex( value ) );
+        totalNanos.add( value );
+        long max = maxNanos.get();
+        while ( value > max && !maxNanos.compareAndSet( max, value ) )
+        {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * @return the number of latencies recorded thus far.
+     */
+    public long count()
+    {
+        long count = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            count += buckets.get( i );
+        }
+        return count;
+    }
+
+    /**
+     * @return the sum of all latencies recorded thus far, in nanoseconds.
+     */
+    public long totalNanos()
+    {
+        return totalNanos.sum();
+    }
+
+    /**
+     * @return the highest latency recorded thus far, in nanoseconds.
+     */
+    public long maxNanos()
+    {
+        return maxNanos.get();
+    }
+
+    /**
+     * @param percentile the percentile to compute, between {@code 0} and {@code 100}.
+     * @return the latency, in nanoseconds, that the given percentage of the recorded latencies are less than or equal to,
+     * or {@code 0} if nothing has been recorded.
+     */
+    public long percentileNanos( double percentile )
+    {
+        if ( percentile < 0 || percentile > 100 )
+        {
+            throw new IllegalArgumentException( "Percentile must be between 0 and 100, but was " + percentile );
+        }
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            counts[i] = buckets.get( i );
+            count += counts[i];
+        }
+        if ( count == 0 )
+        {
+            return 0;
+        }
+        long rank = Math.max( 1, (long) Math.ceil( percentile / 100 * count ) );
+        long seen = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            seen += counts[i];
+            if ( seen >= rank )
+            {
+                // No value is reported as higher than what has actually been recorded.
+                return Math.min( highestValueInBucket( i ), maxNanos() );
+            }
+        }
+        return maxNanos();
+    }
+
+    private static int bucketIndex( long value )
+    {
+        if ( value < SUB_BUCKETS )
+        {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros( value ); // At least SUB_BUCKET_BITS.
+        int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValueInBucket( int index )
+    {
+        if ( index < SUB_BUCKETS )
+        {
+            return index;
+        }
+        int magnitude = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
@@ -19,6 +19,8 @@
  */
 package org.neo4j.io.pagecache.monitoring;
 
+import java.io.File;
+
 /**
  * The PageCacheCounters exposes internal counters from the page cache.
  * The data for these counters is sourced through the PageCacheTracer API.
@@ -85,6 +87,32 @@ public interface PageCacheCounters
      */
     long evictionExceptions();
 
+    /**
+     * @return The number of times the eviction clock has passed by a hot page without aging it, because colder pages,
+     * such as pages brought in by a scan, could be evicted instead, or has passed by a page that is reserved by the
+     * page quota of its file.
+     */
+    long protectedPages();
+
+    /**
+     * @param file a file that is mapped by the page cache.
+     * @return The number of pages of the given file that are currently in the page cache, or {@code 0} if the file is
+     * not mapped.
+     */
+    long residentPages( File file );
+
+    /**
+     * @param file a file that is mapped by the page cache.
+     * @return The latencies of the page faults into the given file thus far, or {@code null} if the file is not mapped.
+     */
+    LatencyHistogram faultLatencies( File file );
+
+    /**
+     * @param file a file that is mapped by the page cache.
+     * @return The latencies of the page flushes of the given file thus far, or {@code null} if the file is not mapped.
+     */
+    LatencyHistogram flushLatencies( File file );
+
     /**
      * @return The cache hit ratio observed thus far.
      */
@@ -21,11 +21,15 @@ package org.neo4j.io.pagecache.tracing;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 
 import org.neo4j.internal.helpers.MathUtil;
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
@@ -46,7 +50,11 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder filesMapped = new LongAdder();
     protected final LongAdder filesUnmapped = new LongAdder();
     protected final LongAdder evictionExceptions = new LongAdder();
+    protected final LongAdder protectedPages = new LongAdder();
     protected final AtomicLong maxPages = new AtomicLong();
+    private final Map<File,LongSupplier> residentPages = new ConcurrentHashMap<>();
+    private final Map<File,LatencyHistogram> faultLatencies = new ConcurrentHashMap<>();
+    private final Map<File,LatencyHistogram> flushLatencies = new ConcurrentHashMap<>();
 
     private final FlushEvent flushEvent = new FlushEvent()
     {
@@ -162,6 +170,22 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     public void unmappedFile( File file )
     {
         filesUnmapped.increment();
+        residentPages.remove( file );
+        faultLatencies.remove( file );
+        flushLatencies.remove( file );
+    }
+
+    @Override
+    public void residentPages( File file, LongSupplier residentPages )
+    {
+        this.residentPages.put( file, residentPages );
+    }
+
+    @Override
+    public void latencies( File file, LatencyHistogram faultLatencies, LatencyHistogram flushLatencies )
+    {
+        this.faultLatencies.put( file, faultLatencies );
+        this.flushLatencies.put( file, flushLatencies );
     }
 
     @Override
@@ -254,6 +278,31 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return evictionExceptions.sum();
     }
 
+    @Override
+    public long protectedPages()
+    {
+        return protectedPages.sum();
+    }
+
+    @Override
+    public long residentPages( File file )
+    {
+        LongSupplier supplier = residentPages.get( file );
+        return supplier == null ? 0 : supplier.getAsLong();
+    }
+
+    @Override
+    public LatencyHistogram faultLatencies( File file )
+    {
+        return faultLatencies.get( file );
+    }
+
+    @Override
+    public LatencyHistogram flushLatencies( File file )
+    {
+        return flushLatencies.get( file );
+    }
+
     @Override
     public double hitRatio()
     {
@@ -313,6 +362,12 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         this.evictionExceptions.add( evictionExceptions );
     }
 
+    @Override
+    public void protectedPages( long protectedPages )
+    {
+        this.protectedPages.add( protectedPages );
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -20,8 +20,10 @@
 package org.neo4j.io.pagecache.tracing;
 
 import java.io.File;
+import java.util.function.LongSupplier;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
@@ -53,6 +55,16 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void residentPages( File file, LongSupplier residentPages )
+        {
+        }
+
+        @Override
+        public void latencies( File file, LatencyHistogram faultLatencies, LatencyHistogram flushLatencies )
+        {
+        }
+
         @Override
         public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
         {
@@ -143,6 +155,30 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0;
         }
 
+        @Override
+        public long protectedPages()
+        {
+            return 0;
+        }
+
+        @Override
+        public long residentPages( File file )
+        {
+            return 0;
+        }
+
+        @Override
+        public LatencyHistogram faultLatencies( File file )
+        {
+            return null;
+        }
+
+        @Override
+        public LatencyHistogram flushLatencies( File file )
+        {
+            return null;
+        }
+
         @Override
         public double hitRatio()
         {
@@ -190,6 +226,11 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void protectedPages( long protectedPages )
+        {
+        }
+
         @Override
         public void bytesWritten( long bytesWritten )
         {
@@ -234,6 +275,18 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void unmappedFile( File file );
 
+    /**
+     * Register the source of the number of pages of the given newly mapped file, that are currently in the page cache.
+     * The source is valid until the file is {@link #unmappedFile(File) unmapped}.
+     */
+    void residentPages( File file, LongSupplier residentPages );
+
+    /**
+     * Register the histograms that the page fault and flush latencies of the given newly mapped file are recorded into.
+     * The histograms are valid until the file is {@link #unmappedFile(File) unmapped}.
+     */
+    void latencies( File file, LatencyHistogram faultLatencies, LatencyHistogram flushLatencies );
+
     /**
      * A background eviction has begun. Called from the background eviction thread.
      *
@@ -295,6 +348,12 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void evictionExceptions( long evictionExceptions );
 
+    /**
+     * Report number of hot or reserved pages that the eviction clock passed by without aging them
+     * @param protectedPages number of protected pages
+     */
+    void protectedPages( long protectedPages );
+
     /**
      * Report number of bytes written
      * @param bytesWritten number of written bytes
@@ -105,6 +105,21 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         reset();
     }
 
+    @Override
+    public void merge( PageCursorCounters counters )
+    {
+        pins += counters.pins();
+        unpins += counters.unpins();
+        hits += counters.hits();
+        faults += counters.faults();
+        bytesRead += counters.bytesRead();
+        bytesWritten += counters.bytesWritten();
+        evictions += counters.evictions();
+        evictionExceptions += counters.evictionExceptions();
+        flushes += counters.flushes();
+        merges += counters.merges();
+    }
+
     private void reset()
     {
         pins = 0;
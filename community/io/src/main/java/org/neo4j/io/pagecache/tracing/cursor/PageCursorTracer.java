@@ -138,6 +138,16 @@ public interface PageCursorTracer extends PageCursorCounters, Closeable
      */
     String getTag();
 
+    /**
+     * Adds the counters of another cursor tracer to the counters of this tracer, which then reports them with its own events.
+     * This is for work done on other threads on behalf of the owner of this tracer, with tracers of their own that are never reported.
+     *
+     * @param counters the counters to add
+     */
+    default void merge( PageCursorCounters counters )
+    {
+    }
+
     @Override
     default void close()
     {
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.fs;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+class DirectIOStoreChannelTest
+{
+    private static final int BLOCK_SIZE = 512;
+
+    @TempDir
+    Path directory;
+
+    private final DefaultFileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+
+    @AfterEach
+    void tearDown() throws IOException
+    {
+        fs.close();
+    }
+
+    @Test
+    void unalignedWritesMustBeWrittenInSequence() throws IOException
+    {
+        File file = directory.resolve( "file" ).toFile();
+        byte[] expected = bytes( 3000 );
+        try ( DirectIOStoreChannel channel = new DirectIOStoreChannel( fs.write( file ), BLOCK_SIZE, 4 * BLOCK_SIZE, INSTANCE ) )
+        {
+            int offset = 0;
+            for ( int size : new int[]{1, 7, 504, 513, 1, 1974} )
+            {
+                channel.writeAll( ByteBuffer.wrap( expected, offset, size ) );
+                offset += size;
+                assertThat( channel.position() ).isEqualTo( offset );
+            }
+        }
+
+        byte[] written = Files.readAllBytes( file.toPath() );
+        assertThat( written.length ).isEqualTo( 3072 );
+        assertThat( Arrays.copyOf( written, expected.length ) ).isEqualTo( expected );
+        assertThat( Arrays.copyOfRange( written, expected.length, written.length ) ).containsOnly( 0 );
+    }
+
+    @Test
+    void mustReadBackWrittenData() throws IOException
+    {
+        File file = directory.resolve( "file" ).toFile();
+        byte[] expected = bytes( 1000 );
+        try ( DirectIOStoreChannel channel = new DirectIOStoreChannel( fs.write( file ), BLOCK_SIZE, BLOCK_SIZE, INSTANCE ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( expected ) );
+
+            channel.position( 3 );
+            ByteBuffer buffer = ByteBuffer.allocate( 997 );
+            channel.readAll( buffer );
+            assertThat( buffer.array() ).isEqualTo( Arrays.copyOfRange( expected, 3, 1000 ) );
+            assertThat( channel.position() ).isEqualTo( 1000 );
+
+            assertThat( channel.read( ByteBuffer.allocate( 10 ), 1024 ) ).isEqualTo( -1 );
+            assertThatThrownBy( () -> channel.readAll( ByteBuffer.allocate( 100 ) ) ).isInstanceOf( IllegalStateException.class );
+        }
+    }
+
+    @Test
+    void mustAppendToExistingFile() throws IOException
+    {
+        File file = directory.resolve( "file" ).toFile();
+        byte[] expected = bytes( 800 );
+        Files.write( file.toPath(), Arrays.copyOf( expected, 300 ) );
+        try ( DirectIOStoreChannel channel = new DirectIOStoreChannel( fs.write( file ), BLOCK_SIZE, BLOCK_SIZE, INSTANCE ) )
+        {
+            channel.position( 300 );
+            channel.writeAll( ByteBuffer.wrap( expected, 300, 500 ) );
+            channel.truncate( channel.position() );
+        }
+
+        assertThat( Files.readAllBytes( file.toPath() ) ).isEqualTo( expected );
+    }
+
+    @Test
+    void mustWriteThroughDirectIO() throws IOException
+    {
+        File file = directory.resolve( "file" ).toFile();
+        byte[] expected = bytes( 10_000 );
+        DirectIOStoreChannel channel;
+        try
+        {
+            channel = DirectIOStoreChannel.open( fs, file, 8192, INSTANCE );
+        }
+        catch ( IOException | UnsupportedOperationException e )
+        {
+            assumeTrue( false, "Direct I/O is not supported here: " + e );
+            return;
+        }
+        try ( channel )
+        {
+            channel.writeAll( ByteBuffer.wrap( expected, 0, 4321 ) );
+            channel.writeAll( ByteBuffer.wrap( expected, 4321, expected.length - 4321 ) );
+            channel.force( false );
+            channel.truncate( channel.position() );
+        }
+
+        assertThat( Files.readAllBytes( file.toPath() ) ).isEqualTo( expected );
+    }
+
+    private static byte[] bytes( int size )
+    {
+        byte[] bytes = new byte[size];
+        for ( int i = 0; i < size; i++ )
+        {
+            bytes[i] = (byte) (i % 251 + 1);
+        }
+        return bytes;
+    }
+}
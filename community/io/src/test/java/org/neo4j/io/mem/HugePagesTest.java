@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.mem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.neo4j.internal.nativeimpl.NativeAccess;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.io.mem.HugePages.DISABLED;
+import static org.neo4j.io.mem.HugePages.EXPLICIT;
+import static org.neo4j.io.mem.HugePages.HUGE_PAGE_SIZE;
+import static org.neo4j.io.mem.HugePages.TRANSPARENT;
+
+class HugePagesTest
+{
+    private static final long ADDRESS = 1L << 30;
+
+    @TempDir
+    Path directory;
+
+    private final NativeAccess nativeAccess = mock( NativeAccess.class );
+
+    @Test
+    void explicitHugePagesMustBeSupportedWhenTheyCanBeMapped() throws IOException
+    {
+        when( nativeAccess.isAvailable() ).thenReturn( true );
+        when( nativeAccess.tryMapHugePages( HUGE_PAGE_SIZE ) ).thenReturn( ADDRESS );
+
+        assertThat( EXPLICIT.supported( nativeAccess, transparentHugePages( "always madvise [never]" ) ) ).isEqualTo( EXPLICIT );
+        verify( nativeAccess ).tryUnmap( ADDRESS, HUGE_PAGE_SIZE );
+    }
+
+    @Test
+    void explicitHugePagesMustFallBackToTransparentHugePages() throws IOException
+    {
+        when( nativeAccess.isAvailable() ).thenReturn( true );
+        when( nativeAccess.tryMapHugePages( anyLong() ) ).thenReturn( (long) NativeAccess.ERROR );
+
+        assertThat( EXPLICIT.supported( nativeAccess, transparentHugePages( "always [madvise] never" ) ) ).isEqualTo( TRANSPARENT );
+        assertThat( EXPLICIT.supported( nativeAccess, transparentHugePages( "always madvise [never]" ) ) ).isEqualTo( DISABLED );
+        assertThat( EXPLICIT.supported( nativeAccess, directory.resolve( "missing" ) ) ).isEqualTo( DISABLED );
+    }
+
+    @Test
+    void transparentHugePagesMustNotTryExplicitHugePages() throws IOException
+    {
+        when( nativeAccess.isAvailable() ).thenReturn( true );
+
+        assertThat( TRANSPARENT.supported( nativeAccess, transparentHugePages( "[always] madvise never" ) ) ).isEqualTo( TRANSPARENT );
+        verify( nativeAccess, never() ).tryMapHugePages( anyLong() );
+    }
+
+    @Test
+    void hugePagesMustNotBeSupportedWithoutNativeAccess() throws IOException
+    {
+        when( nativeAccess.isAvailable() ).thenReturn( false );
+
+        Path transparentHugePages = transparentHugePages( "always [madvise] never" );
+        assertThat( EXPLICIT.supported( nativeAccess, transparentHugePages ) ).isEqualTo( DISABLED );
+        assertThat( TRANSPARENT.supported( nativeAccess, transparentHugePages ) ).isEqualTo( DISABLED );
+        assertThat( DISABLED.supported( nativeAccess, transparentHugePages ) ).isEqualTo( DISABLED );
+    }
+
+    private Path transparentHugePages( String setting ) throws IOException
+    {
+        return Files.writeString( directory.resolve( "enabled" ), setting + "\n" );
+    }
+}
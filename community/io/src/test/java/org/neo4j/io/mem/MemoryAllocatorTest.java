@@ -22,6 +22,8 @@ package org.neo4j.io.mem;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import org.neo4j.internal.nativeimpl.NativeAccess;
+import org.neo4j.internal.nativeimpl.NativeAccessProvider;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.pagecache.PageCache;
@@ -30,6 +32,11 @@ import org.neo4j.memory.LocalMemoryTracker;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.neo4j.io.ByteUnit.MebiByte;
 
 class MemoryAllocatorTest
@@ -203,6 +210,48 @@ class MemoryAllocatorTest
         }
     }
 
+    @Test
+    void grabsBackedByTransparentHugePagesMustBeAlignedToHugePages()
+    {
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        allocator = new GrabAllocator( MebiByte.toBytes( 4 ), memoryTracker, HugePages.TRANSPARENT, NativeAccessProvider.getNativeAccess() );
+
+        long address = allocator.allocateAligned( PageCache.PAGE_SIZE, 1 );
+        assertThat( address % HugePages.HUGE_PAGE_SIZE ).isEqualTo( 0L );
+        UnsafeUtil.getLong( address + HugePages.HUGE_PAGE_SIZE - Long.BYTES );
+
+        closeAllocator();
+        assertEquals( 0, memoryTracker.usedNativeMemory() );
+    }
+
+    @Test
+    void explicitHugePagesMustFallBackToTransparentHugePagesWhenNoneAreAvailable()
+    {
+        NativeAccess nativeAccess = mock( NativeAccess.class );
+        when( nativeAccess.tryMapHugePages( anyLong() ) ).thenReturn( (long) NativeAccess.ERROR );
+        allocator = new GrabAllocator( MebiByte.toBytes( 4 ), new LocalMemoryTracker(), HugePages.EXPLICIT, nativeAccess );
+
+        long address = allocator.allocateAligned( PageCache.PAGE_SIZE, 1 );
+
+        assertThat( address % HugePages.HUGE_PAGE_SIZE ).isEqualTo( 0L );
+        verify( nativeAccess ).tryAdviseHugePages( address, HugePages.HUGE_PAGE_SIZE * 2 );
+    }
+
+    @Test
+    void grabsBackedByExplicitHugePagesMustBeUnmappedOnClose()
+    {
+        assumeTrue( HugePages.EXPLICIT.supported() == HugePages.EXPLICIT, "No huge pages have been reserved by the operating system." );
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        allocator = new GrabAllocator( MebiByte.toBytes( 2 ), memoryTracker, HugePages.EXPLICIT, NativeAccessProvider.getNativeAccess() );
+
+        long address = allocator.allocateAligned( PageCache.PAGE_SIZE, 1 );
+        assertThat( address % HugePages.HUGE_PAGE_SIZE ).isEqualTo( 0L );
+        assertEquals( HugePages.HUGE_PAGE_SIZE, memoryTracker.usedNativeMemory() );
+
+        closeAllocator();
+        assertEquals( 0, memoryTracker.usedNativeMemory() );
+    }
+
     private void closeAllocator()
     {
         if ( allocator != null )
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.mem;
+
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.internal.nativeimpl.NativeAccess;
+import org.neo4j.internal.nativeimpl.NativeCallResult;
+import org.neo4j.memory.EmptyMemoryTracker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.io.ByteUnit.kibiBytes;
+import static org.neo4j.io.ByteUnit.mebiBytes;
+
+class NumaMemoryAllocatorTest
+{
+    private final NativeAccess nativeAccess = mock( NativeAccess.class );
+
+    @Test
+    void mustSplitMemoryEvenlyOverPartitions()
+    {
+        when( nativeAccess.tryBindToNumaNode( anyLong(), anyLong(), eq( 0 ) ) ).thenReturn( NativeCallResult.SUCCESS );
+        when( nativeAccess.tryBindToNumaNode( anyLong(), anyLong(), eq( 2 ) ) ).thenReturn( NativeCallResult.SUCCESS );
+        NumaMemoryAllocator allocator = new NumaMemoryAllocator( mebiBytes( 2 ), EmptyMemoryTracker.INSTANCE, HugePages.DISABLED, nativeAccess,
+                new int[]{0, 2} );
+        try
+        {
+            assertThat( allocator.partitions() ).isEqualTo( 2 );
+            assertThat( allocator.partition( 0 ).availableMemory() ).isEqualTo( mebiBytes( 1 ) );
+            assertThat( allocator.partition( 1 ).availableMemory() ).isEqualTo( mebiBytes( 1 ) );
+            assertThat( allocator.availableMemory() ).isEqualTo( mebiBytes( 2 ) );
+
+            allocator.partition( 1 ).allocateAligned( kibiBytes( 8 ), 8 );
+            assertThat( allocator.partition( 0 ).usedMemory() ).isZero();
+            assertThat( allocator.partition( 1 ).usedMemory() ).isEqualTo( kibiBytes( 8 ) );
+            verify( nativeAccess, atLeastOnce() ).tryBindToNumaNode( anyLong(), anyLong(), eq( 2 ) );
+        }
+        finally
+        {
+            allocator.close();
+        }
+    }
+
+    @Test
+    void mustAllocateFromPartitionLocalToCurrentNode()
+    {
+        when( nativeAccess.tryBindToNumaNode( anyLong(), anyLong(), eq( 0 ) ) ).thenReturn( NativeCallResult.SUCCESS );
+        when( nativeAccess.tryBindToNumaNode( anyLong(), anyLong(), eq( 1 ) ) ).thenReturn( NativeCallResult.SUCCESS );
+        NumaMemoryAllocator allocator = new NumaMemoryAllocator( mebiBytes( 2 ), EmptyMemoryTracker.INSTANCE, HugePages.DISABLED, nativeAccess,
+                new int[]{0, 1} );
+        try
+        {
+            when( nativeAccess.getCurrentNumaNode() ).thenReturn( 1 );
+            assertThat( allocator.localPartition() ).isEqualTo( 1 );
+            allocator.allocateAligned( kibiBytes( 8 ), 8 );
+            assertThat( allocator.partition( 1 ).usedMemory() ).isEqualTo( kibiBytes( 8 ) );
+
+            when( nativeAccess.getCurrentNumaNode() ).thenReturn( NativeAccess.ERROR );
+            allocator.allocateAligned( kibiBytes( 8 ), 8 );
+            assertThat( allocator.partition( 0 ).usedMemory() ).isEqualTo( kibiBytes( 8 ) );
+        }
+        finally
+        {
+            allocator.close();
+        }
+    }
+
+    @Test
+    void mustOnlyLookUpLocalPartitionOncePerRefreshInterval()
+    {
+        when( nativeAccess.tryBindToNumaNode( anyLong(), anyLong(), anyInt() ) ).thenReturn( NativeCallResult.SUCCESS );
+        when( nativeAccess.getCurrentNumaNode() ).thenReturn( 1 );
+        NumaMemoryAllocator allocator = new NumaMemoryAllocator( mebiBytes( 2 ), EmptyMemoryTracker.INSTANCE, HugePages.DISABLED, nativeAccess,
+                new int[]{0, 1} );
+        try
+        {
+            for ( int i = 0; i < NumaMemoryAllocator.LOCAL_PARTITION_REFRESH_INTERVAL; i++ )
+            {
+                assertThat( allocator.localPartition() ).isEqualTo( 1 );
+            }
+            verify( nativeAccess, times( 1 ) ).getCurrentNumaNode();
+
+            when( nativeAccess.getCurrentNumaNode() ).thenReturn( NativeAccess.ERROR );
+            assertThat( allocator.localPartition() ).isZero();
+            verify( nativeAccess, times( 2 ) ).getCurrentNumaNode();
+        }
+        finally
+        {
+            allocator.close();
+        }
+    }
+
+    @Test
+    void mustNotPartitionForSingleNode()
+    {
+        MemoryAllocator allocator = MemoryAllocator.createNumaAllocator( mebiBytes( 1 ), EmptyMemoryTracker.INSTANCE, HugePages.DISABLED, new int[]{0} );
+        try
+        {
+            assertThat( allocator.partitions() ).isEqualTo( 1 );
+            assertThat( allocator.partition( 0 ) ).isSameAs( allocator );
+        }
+        finally
+        {
+            allocator.close();
+        }
+    }
+}
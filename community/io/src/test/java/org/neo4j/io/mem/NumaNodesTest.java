@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.mem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.neo4j.internal.nativeimpl.NativeAccess;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NumaNodesTest
+{
+    @TempDir
+    Path directory;
+
+    private final NativeAccess nativeAccess = mock( NativeAccess.class );
+
+    @Test
+    void parseNodeLists()
+    {
+        assertThat( NumaNodes.parseNodeList( "" ) ).isEmpty();
+        assertThat( NumaNodes.parseNodeList( "0" ) ).containsExactly( 0 );
+        assertThat( NumaNodes.parseNodeList( "0-3" ) ).containsExactly( 0, 1, 2, 3 );
+        assertThat( NumaNodes.parseNodeList( "0-1,4,6-7" ) ).containsExactly( 0, 1, 4, 6, 7 );
+    }
+
+    @Test
+    void onlineNodesMustBeReadFromNodeList() throws IOException
+    {
+        when( nativeAccess.isAvailable() ).thenReturn( true );
+        when( nativeAccess.getCurrentNumaNode() ).thenReturn( 1 );
+
+        assertThat( NumaNodes.online( nativeAccess, nodeList( "0-1\n" ) ) ).containsExactly( 0, 1 );
+        assertThat( NumaNodes.online( nativeAccess, nodeList( "garbage\n" ) ) ).isEmpty();
+        assertThat( NumaNodes.online( nativeAccess, directory.resolve( "missing" ) ) ).isEmpty();
+    }
+
+    @Test
+    void noNodesAreOnlineWhenCurrentNodeIsUnknown() throws IOException
+    {
+        when( nativeAccess.isAvailable() ).thenReturn( true );
+        when( nativeAccess.getCurrentNumaNode() ).thenReturn( NativeAccess.ERROR );
+
+        assertThat( NumaNodes.online( nativeAccess, nodeList( "0-1\n" ) ) ).isEmpty();
+    }
+
+    private Path nodeList( String content ) throws IOException
+    {
+        Path file = Files.createTempFile( directory, "online", "" );
+        Files.writeString( file, content );
+        return file;
+    }
+}
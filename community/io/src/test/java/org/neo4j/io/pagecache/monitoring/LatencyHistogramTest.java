@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LatencyHistogramTest
+{
+    @Test
+    void emptyHistogramMustReportZero()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat( histogram.count() ).isZero();
+        assertThat( histogram.totalNanos() ).isZero();
+        assertThat( histogram.maxNanos() ).isZero();
+        assertThat( histogram.percentileNanos( 99 ) ).isZero();
+    }
+
+    @Test
+    void emptyHistogramMustIgnoreRecordings()
+    {
+        LatencyHistogram.EMPTY.record( 42 );
+
+        assertThat( LatencyHistogram.EMPTY.count() ).isZero();
+        assertThat( LatencyHistogram.EMPTY.maxNanos() ).isZero();
+    }
+
+    @Test
+    void smallValuesMustBeCountedExactly()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for ( int i = 1; i <= 10; i++ )
+        {
+            histogram.record( i );
+        }
+
+        assertThat( histogram.count() ).isEqualTo( 10 );
+        assertThat( histogram.totalNanos() ).isEqualTo( 55 );
+        assertThat( histogram.percentileNanos( 50 ) ).isEqualTo( 5 );
+        assertThat( histogram.percentileNanos( 90 ) ).isEqualTo( 9 );
+        assertThat( histogram.percentileNanos( 100 ) ).isEqualTo( 10 );
+    }
+
+    @Test
+    void percentilesMustBeWithinBucketPrecisionOfRecordedValues()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for ( long value = 1_000; value <= 100_000; value += 1_000 )
+        {
+            histogram.record( value );
+        }
+
+        assertThat( histogram.count() ).isEqualTo( 100 );
+        assertThat( histogram.maxNanos() ).isEqualTo( 100_000 );
+        assertThat( histogram.percentileNanos( 50 ) ).isCloseTo( 50_000, within( 50_000 / 16L ) );
+        assertThat( histogram.percentileNanos( 99 ) ).isCloseTo( 99_000, within( 99_000 / 16L ) );
+        assertThat( histogram.percentileNanos( 100 ) ).isEqualTo( 100_000 );
+    }
+
+    @Test
+    void outOfRangeValuesMustBeClamped()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record( -1 );
+        histogram.record( Long.MAX_VALUE );
+
+        assertThat( histogram.count() ).isEqualTo( 2 );
+        assertThat( histogram.percentileNanos( 0 ) ).isZero();
+        assertThat( histogram.maxNanos() ).isEqualTo( LatencyHistogram.MAX_TRACKABLE_NANOS );
+        assertThat( histogram.percentileNanos( 100 ) ).isEqualTo( LatencyHistogram.MAX_TRACKABLE_NANOS );
+    }
+
+    @Test
+    void mustRejectInvalidPercentiles()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThrows( IllegalArgumentException.class, () -> histogram.percentileNanos( -1 ) );
+        assertThrows( IllegalArgumentException.class, () -> histogram.percentileNanos( 101 ) );
+    }
+}
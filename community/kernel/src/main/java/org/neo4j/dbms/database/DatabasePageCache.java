@@ -36,6 +36,7 @@ import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
+import org.neo4j.kernel.impl.pagecache.PagedFileQuotas;
 
 import static java.util.Objects.requireNonNull;
 
@@ -50,20 +51,29 @@ public class DatabasePageCache implements PageCache
     private final PageCache globalPageCache;
     private final CopyOnWriteArrayList<PagedFile> databasePagedFiles = new CopyOnWriteArrayList<>();
     private final VersionContextSupplier versionContextSupplier;
+    private final PagedFileQuotas quotas;
     private boolean closed;
 
     public DatabasePageCache( PageCache globalPageCache, VersionContextSupplier versionContextSupplier )
+    {
+        this( globalPageCache, versionContextSupplier, PagedFileQuotas.NONE );
+    }
+
+    public DatabasePageCache( PageCache globalPageCache, VersionContextSupplier versionContextSupplier, PagedFileQuotas quotas )
     {
         requireNonNull( globalPageCache );
         requireNonNull( versionContextSupplier );
+        requireNonNull( quotas );
         this.globalPageCache = globalPageCache;
         this.versionContextSupplier = versionContextSupplier;
+        this.quotas = quotas;
     }
 
     @Override
     public PagedFile map( File file, VersionContextSupplier versionContextSupplier, int pageSize, ImmutableSet<OpenOption> openOptions ) throws IOException
     {
         PagedFile pagedFile = globalPageCache.map( file, versionContextSupplier, pageSize, openOptions );
+        quotas.apply( pagedFile );
         DatabasePageFile databasePageFile = new DatabasePageFile( pagedFile, databasePagedFiles );
         databasePagedFiles.add( databasePageFile );
         return databasePageFile;
@@ -181,12 +191,30 @@ public class DatabasePageCache implements PageCache
             delegate.flushAndForce( limiter );
         }
 
+        @Override
+        public void writeBack( IOLimiter limiter ) throws IOException
+        {
+            delegate.writeBack( limiter );
+        }
+
         @Override
         public long getLastPageId() throws IOException
         {
             return delegate.getLastPageId();
         }
 
+        @Override
+        public int touch( long pageId, int count, PageCursorTracer tracer ) throws IOException
+        {
+            return delegate.touch( pageId, count, tracer );
+        }
+
+        @Override
+        public void setPageQuota( long reservedPages, long maxPages )
+        {
+            delegate.setPageQuota( reservedPages, maxPages );
+        }
+
         @Override
         public void close()
         {
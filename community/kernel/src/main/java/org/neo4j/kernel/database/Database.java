@@ -98,6 +98,9 @@ import org.neo4j.kernel.impl.factory.KernelTransactionFactory;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.StatementLocksFactory;
 import org.neo4j.kernel.impl.pagecache.PageCacheLifecycle;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmer;
+import org.neo4j.kernel.impl.pagecache.PageCacheWriteBack;
+import org.neo4j.kernel.impl.pagecache.PagedFileQuotas;
 import org.neo4j.kernel.impl.query.QueryEngineProvider;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.impl.store.stats.DatabaseEntityCounters;
@@ -109,6 +112,7 @@ import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.AdaptiveIOLimiter;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointScheduler;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointThreshold;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointerImpl;
@@ -132,6 +136,7 @@ import org.neo4j.kernel.impl.transaction.state.DefaultIndexProviderMap;
 import org.neo4j.kernel.impl.transaction.state.storeview.DynamicIndexStoreView;
 import org.neo4j.kernel.impl.transaction.state.storeview.NeoStoreIndexStoreView;
 import org.neo4j.kernel.impl.transaction.stats.DatabaseTransactionStats;
+import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
 import org.neo4j.kernel.internal.event.DatabaseTransactionEventListeners;
 import org.neo4j.kernel.internal.event.GlobalTransactionEventListeners;
@@ -169,6 +174,7 @@ import org.neo4j.util.VisibleForTesting;
 
 import static java.lang.String.format;
 import static org.neo4j.configuration.GraphDatabaseInternalSettings.fail_on_corrupted_log_files;
+import static org.neo4j.configuration.GraphDatabaseSettings.check_point_latency_target;
 import static org.neo4j.configuration.GraphDatabaseSettings.read_only;
 import static org.neo4j.function.Predicates.alwaysTrue;
 import static org.neo4j.function.ThrowingAction.executeAll;
@@ -277,7 +283,6 @@ public class Database extends LifecycleAdapter
         this.constraintSemantics = context.getConstraintSemantics();
         this.parentMonitors = context.getMonitors();
         this.globalProcedures = context.getGlobalProcedures();
-        this.ioLimiter = context.getIoLimiter();
         this.clock = context.getClock();
         this.eventListeners = context.getDatabaseEventListeners();
         this.accessCapabilityFactory = context.getAccessCapabilityFactory();
@@ -299,7 +304,9 @@ public class Database extends LifecycleAdapter
         this.databaseAvailabilityGuard = context.getDatabaseAvailabilityGuardFactory().apply( availabilityGuardTimeout );
         this.databaseFacade = new GraphDatabaseFacade( this, databaseConfig, dbmsInfo, databaseAvailabilityGuard );
         this.kernelTransactionFactory = new FacadeKernelTransactionFactory( databaseConfig, databaseFacade );
-        this.tracers = new DatabaseTracers( context.getTracers() );
+        this.tracers = new DatabaseTracers( context.getTracers(), databaseConfig, internalLogProvider.getLog( DatabaseTracer.class ) );
+        this.ioLimiter = databaseConfig.get( check_point_latency_target ).isZero() ? context.getIoLimiter()
+                : new AdaptiveIOLimiter( databaseConfig, tracers, globalPageCache, internalLogProvider.getLog( CheckPointerImpl.class ) );
         this.fileLockerService = context.getFileLockerService();
         this.leaseService = context.getLeaseService();
         this.startupController = context.getStartupController();
@@ -319,7 +326,7 @@ public class Database extends LifecycleAdapter
         try
         {
             databaseDependencies = new Dependencies( globalDependencies );
-            databasePageCache = new DatabasePageCache( globalPageCache, versionContextSupplier );
+            databasePageCache = new DatabasePageCache( globalPageCache, versionContextSupplier, PagedFileQuotas.fromConfig( databaseConfig ) );
             databaseMonitors = new Monitors( parentMonitors );
 
             life = new LifeSupport();
@@ -507,6 +514,10 @@ public class Database extends LifecycleAdapter
 
             this.checkpointerLifecycle = new CheckpointerLifecycle( transactionLogModule.checkPointer(), databaseHealth );
 
+            life.add( new PageCacheWarmer( fs, databasePageCache, scheduler, databaseLayout.databaseDirectory(), databaseConfig,
+                    internalLogProvider.getLog( PageCacheWarmer.class ), pageCacheTracer ) );
+            life.add( new PageCacheWriteBack( databasePageCache, scheduler, ioLimiter, databaseConfig,
+                    internalLogProvider.getLog( PageCacheWriteBack.class ) ) );
             life.add( databaseHealth );
             life.add( databaseAvailabilityGuard );
             life.add( databaseAvailability );
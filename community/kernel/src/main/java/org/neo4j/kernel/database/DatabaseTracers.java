@@ -19,10 +19,12 @@
  */
 package org.neo4j.kernel.database;
 
+import org.neo4j.configuration.Config;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.kernel.monitoring.tracing.Tracers;
 import org.neo4j.lock.LockTracer;
+import org.neo4j.logging.Log;
 
 public class DatabaseTracers
 {
@@ -37,6 +39,11 @@ public class DatabaseTracers
         this( tracers.getDatabaseTracer(), tracers.getLockTracer(), tracers.getPageCacheTracer() );
     }
 
+    public DatabaseTracers( Tracers tracers, Config config, Log log )
+    {
+        this( tracers.getDatabaseTracer( config, log ), tracers.getLockTracer(), tracers.getPageCacheTracer() );
+    }
+
     public DatabaseTracers( DatabaseTracer databaseTracer, LockTracer lockTracer, PageCacheTracer pageCacheTracer )
     {
         this.databaseTracer = databaseTracer;
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
+import org.neo4j.storageengine.api.IndexUpdatesTracer;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+import org.neo4j.util.concurrent.Work;
+import org.neo4j.util.concurrent.WorkSync;
+
+import static org.neo4j.kernel.api.exceptions.Status.Transaction.TransactionCommitFailed;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.INTERNAL;
+
+/**
+ * A {@link TransactionRepresentationCommitProcess} where transactions committed concurrently are applied to the store as one batch.
+ * <p>
+ * Committers that arrive at store application together, typically because their log appends were forced together, have their
+ * transactions linked into one chain of {@link TransactionToApply} that one of them applies on behalf of all. This sets up the
+ * appliers, page cursors, index updaters and counts updates once per group instead of once per transaction, at the cost of
+ * applying the group on a single thread.
+ * <p>
+ * Only {@link TransactionApplicationMode#INTERNAL} transactions are grouped, other modes are applied as by the superclass.
+ */
+public class GroupApplyingTransactionCommitProcess extends TransactionRepresentationCommitProcess
+{
+    private final WorkSync<StorageEngine,GroupApplyWork> applySync;
+
+    public GroupApplyingTransactionCommitProcess( TransactionAppender appender, StorageEngine storageEngine )
+    {
+        super( appender, storageEngine );
+        this.applySync = new WorkSync<>( storageEngine );
+    }
+
+    @Override
+    protected void applyToStore( TransactionToApply batch, CommitEvent commitEvent, TransactionApplicationMode mode )
+            throws TransactionFailureException
+    {
+        if ( mode != INTERNAL )
+        {
+            super.applyToStore( batch, commitEvent, mode );
+            return;
+        }
+
+        GroupApplyWork work;
+        try ( StoreApplyEvent storeApplyEvent = commitEvent.beginStoreApply() )
+        {
+            work = new GroupApplyWork( batch, storeApplyEvent );
+            applySync.apply( work );
+        }
+        catch ( ExecutionException e )
+        {
+            throw applyFailure( e.getCause() );
+        }
+        // The thread that applied the group sees the failure through the work sync, the others through their own work
+        if ( work.failure != null )
+        {
+            throw applyFailure( work.failure );
+        }
+    }
+
+    private static TransactionFailureException applyFailure( Throwable cause )
+    {
+        return new TransactionFailureException( TransactionCommitFailed, cause, "Could not apply the transaction to the store after written to log" );
+    }
+
+    /**
+     * The transactions of one or more committers, applied as one chain.
+     * <p>
+     * The storage engine applies the index updates of the whole chain at once, and reports the time it took to the
+     * {@link IndexUpdatesTracer} of the first batch only. That time is passed on to the tracer of every committer in the group,
+     * since the index updates of each of their batches took that long to apply.
+     */
+    private static class GroupApplyWork implements Work<StorageEngine,GroupApplyWork>
+    {
+        private final TransactionToApply head;
+        private final TransactionToApply tail;
+        private final IndexUpdatesTracer indexUpdatesTracer;
+        private final List<GroupApplyWork> group = new ArrayList<>();
+        private volatile Throwable failure;
+
+        GroupApplyWork( TransactionToApply batch, IndexUpdatesTracer indexUpdatesTracer )
+        {
+            this.head = batch;
+            this.indexUpdatesTracer = indexUpdatesTracer;
+            TransactionToApply last = batch;
+            while ( last.next() != null )
+            {
+                last = last.next();
+            }
+            this.tail = last;
+            this.group.add( this );
+        }
+
+        @Override
+        public GroupApplyWork combine( GroupApplyWork work )
+        {
+            group.addAll( work.group );
+            return this;
+        }
+
+        @Override
+        public void apply( StorageEngine storageEngine ) throws Exception
+        {
+            for ( int i = 1; i < group.size(); i++ )
+            {
+                group.get( i - 1 ).tail.next( group.get( i ).head );
+            }
+            head.indexUpdatesTracer( this::indexUpdatesApplied );
+            try
+            {
+                storageEngine.apply( head, INTERNAL );
+            }
+            catch ( Throwable t )
+            {
+                for ( GroupApplyWork work : group )
+                {
+                    work.failure = t;
+                }
+                throw t;
+            }
+            finally
+            {
+                // Each committer closes its own transactions, so the chains are taken apart again
+                for ( GroupApplyWork work : group )
+                {
+                    work.tail.next( null );
+                }
+            }
+        }
+
+        private void indexUpdatesApplied( long nanos )
+        {
+            for ( GroupApplyWork work : group )
+            {
+                work.indexUpdatesTracer.indexUpdatesApplied( nanos );
+            }
+        }
+    }
+}
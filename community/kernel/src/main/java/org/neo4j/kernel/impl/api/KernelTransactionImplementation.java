@@ -94,7 +94,9 @@ import org.neo4j.kernel.impl.newapi.KernelToken;
 import org.neo4j.kernel.impl.newapi.Operations;
 import org.neo4j.kernel.impl.transaction.TransactionMonitor;
 import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.tracing.CommandCreationEvent;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.CommitLocksEvent;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionEvent;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionTracer;
 import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
@@ -718,23 +720,31 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             {
                 forceThawLocks();
 
-                // grab all optimistic locks now, locks can't be deferred any further
-                statementLocks.prepareForCommit( currentStatement.lockTracer() );
+                try ( CommitLocksEvent commitLocksEvent = commitEvent.beginCommitLocks() )
+                {
+                    // read before taking the deferred locks, whose waiting the event already times
+                    commitLocksEvent.lockWaitTime( statistics.getWaitingTimeNanos( clocks.systemClock().nanos() ) );
+                    // grab all optimistic locks now, locks can't be deferred any further
+                    statementLocks.prepareForCommit( currentStatement.lockTracer() );
+                }
                 // use pessimistic locks for the rest of the commit process, locks can't be deferred any further
                 Locks.Client commitLocks = statementLocks.pessimistic();
 
                 // Gather up commands from the various sources
                 HeapTrackingArrayList<StorageCommand> extractedCommands = HeapTrackingCollections.newArrayList( memoryTracker );
-                storageEngine.createCommands(
-                        extractedCommands,
-                        txState,
-                        storageReader,
-                        commandCreationContext,
-                        commitLocks,
-                        lastTransactionIdWhenStarted,
-                        this::enforceConstraints,
-                        pageCursorTracer,
-                        memoryTracker );
+                try ( CommandCreationEvent commandCreationEvent = commitEvent.beginCommandCreation() )
+                {
+                    storageEngine.createCommands(
+                            extractedCommands,
+                            txState,
+                            storageReader,
+                            commandCreationContext,
+                            commitLocks,
+                            lastTransactionIdWhenStarted,
+                            this::enforceConstraints,
+                            pageCursorTracer,
+                            memoryTracker );
+                }
 
                 /* Here's the deal: we track a quick-to-access hasChanges in transaction state which is true
                  * if there are any changes imposed by this transaction. Some changes made inside a transaction undo
@@ -74,6 +74,7 @@ public class TransactionRepresentationCommitProcess implements TransactionCommit
     {
         try ( StoreApplyEvent storeApplyEvent = commitEvent.beginStoreApply() )
         {
+            batch.indexUpdatesTracer( storeApplyEvent );
             storageEngine.apply( batch, mode );
         }
         catch ( Throwable cause )
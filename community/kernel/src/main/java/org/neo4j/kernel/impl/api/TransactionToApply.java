@@ -33,6 +33,7 @@ import org.neo4j.kernel.impl.transaction.log.Commitment;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
 import org.neo4j.storageengine.api.CommandsToApply;
+import org.neo4j.storageengine.api.IndexUpdatesTracer;
 import org.neo4j.storageengine.api.StorageCommand;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
 
@@ -76,6 +77,7 @@ public class TransactionToApply implements CommandsToApply, AutoCloseable
     private Commitment commitment;
     private LongConsumer closedCallback;
     private LogPosition logPosition;
+    private IndexUpdatesTracer indexUpdatesTracer = IndexUpdatesTracer.NULL;
 
     /**
      * Used when committing a transaction that hasn't already gotten a transaction id assigned.
@@ -138,6 +140,17 @@ public class TransactionToApply implements CommandsToApply, AutoCloseable
         return cursorTracer;
     }
 
+    @Override
+    public IndexUpdatesTracer indexUpdatesTracer()
+    {
+        return indexUpdatesTracer;
+    }
+
+    public void indexUpdatesTracer( IndexUpdatesTracer indexUpdatesTracer )
+    {
+        this.indexUpdatesTracer = indexUpdatesTracer;
+    }
+
     @Override
     public boolean accept( Visitor<StorageCommand,IOException> visitor ) throws IOException
     {
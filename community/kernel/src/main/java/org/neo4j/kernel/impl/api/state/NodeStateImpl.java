@@ -178,7 +178,7 @@ class NodeStateImpl extends EntityStateImpl implements NodeState
     {
         if ( !hasAddedRelationships() )
         {
-            relationshipsAdded = createRelationshipChangesForNode( DiffStrategy.ADD, memoryTracker );
+            relationshipsAdded = createRelationshipChangesForNode( DiffStrategy.ADD, collectionsFactory, memoryTracker );
         }
         relationshipsAdded.addRelationship( relId, typeId, direction );
     }
@@ -196,7 +196,7 @@ class NodeStateImpl extends EntityStateImpl implements NodeState
         }
         if ( !hasRemovedRelationships() )
         {
-            relationshipsRemoved = createRelationshipChangesForNode( DiffStrategy.REMOVE, memoryTracker );
+            relationshipsRemoved = createRelationshipChangesForNode( DiffStrategy.REMOVE, collectionsFactory, memoryTracker );
         }
         relationshipsRemoved.addRelationship( relId, typeId, direction );
     }
@@ -31,7 +31,9 @@ import org.eclipse.collections.impl.iterator.ImmutableEmptyLongIterator;
 import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 
 import org.neo4j.collection.trackable.HeapTrackingCollections;
+import org.neo4j.collection.trackable.HeapTrackingLongHashSet;
 import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
 import org.neo4j.memory.HeapEstimator;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.storageengine.api.RelationshipDirection;
@@ -46,10 +48,20 @@ import static org.neo4j.internal.helpers.collection.Iterators.iterator;
  * <p/>
  * This class is not a trustworthy source of information unless you are careful - it does not, for instance, remove
  * rels if they are added and then removed in the same tx. It trusts wrapping data structures for that filtering.
+ * <p/>
+ * The relationship ids of each type and direction are kept in a small on-heap set. Once there are more than
+ * {@link #MAX_ON_HEAP_RELATIONSHIPS} of them, they are moved to a set created by the transaction's {@link CollectionsFactory},
+ * which lives off-heap when the transaction state does. Nodes with few changed relationships, which are most of them, then do
+ * not reserve a whole off-heap set each. Only the ids of large sets move off-heap: the set objects, the per-type maps and this
+ * object stay on heap, so heap usage still grows with the number of changed nodes and relationship types.
  */
 public class RelationshipChangesForNode
 {
     private static final long SHALLOW_SIZE = HeapEstimator.shallowSizeOfInstance( RelationshipChangesForNode.class );
+    /**
+     * An off-heap set reserves room for 32 ids up front, so smaller sets are cheaper on heap.
+     */
+    static final int MAX_ON_HEAP_RELATIONSHIPS = 32;
 
     /**
      * Allows this data structure to work both for tracking removals and additions.
@@ -78,21 +90,24 @@ public class RelationshipChangesForNode
     }
 
     private final DiffStrategy diffStrategy;
+    private final CollectionsFactory collectionsFactory;
     private final MemoryTracker memoryTracker;
 
     private MutableIntObjectMap<MutableLongSet> outgoing;
     private MutableIntObjectMap<MutableLongSet> incoming;
     private MutableIntObjectMap<MutableLongSet> loops;
 
-    static RelationshipChangesForNode createRelationshipChangesForNode( DiffStrategy diffStrategy, MemoryTracker memoryTracker )
+    static RelationshipChangesForNode createRelationshipChangesForNode( DiffStrategy diffStrategy, CollectionsFactory collectionsFactory,
+            MemoryTracker memoryTracker )
     {
         memoryTracker.allocateHeap( SHALLOW_SIZE );
-        return new RelationshipChangesForNode( diffStrategy, memoryTracker );
+        return new RelationshipChangesForNode( diffStrategy, collectionsFactory, memoryTracker );
     }
 
-    private RelationshipChangesForNode( DiffStrategy diffStrategy, MemoryTracker memoryTracker )
+    private RelationshipChangesForNode( DiffStrategy diffStrategy, CollectionsFactory collectionsFactory, MemoryTracker memoryTracker )
     {
         this.diffStrategy = diffStrategy;
+        this.collectionsFactory = collectionsFactory;
         this.memoryTracker = memoryTracker;
     }
 
@@ -101,7 +116,13 @@ public class RelationshipChangesForNode
         final MutableIntObjectMap<MutableLongSet> relTypeToRelsMap = getTypeToRelMapForDirection( direction );
         final MutableLongSet rels = relTypeToRelsMap.getIfAbsentPut( typeId, () -> HeapTrackingCollections.newLongSet( memoryTracker ) );
 
-        rels.add( relId );
+        if ( rels.add( relId ) && rels.size() == MAX_ON_HEAP_RELATIONSHIPS + 1 && rels instanceof HeapTrackingLongHashSet )
+        {
+            final MutableLongSet movedRels = collectionsFactory.newLongSet( memoryTracker );
+            movedRels.addAll( rels );
+            relTypeToRelsMap.put( typeId, movedRels );
+            ((HeapTrackingLongHashSet) rels).close();
+        }
     }
 
     public boolean removeRelationship( long relId, int typeId, RelationshipDirection direction )
@@ -157,6 +178,10 @@ public class RelationshipChangesForNode
         {
             incoming.clear();
         }
+        if ( loops != null )
+        {
+            loops.clear();
+        }
     }
 
     private MutableIntObjectMap<MutableLongSet> outgoing()
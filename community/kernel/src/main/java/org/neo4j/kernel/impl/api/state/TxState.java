@@ -87,6 +87,10 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     private final CollectionsFactory collectionsFactory;
 
     private MutableLongObjectMap<MutableLongDiffSets> labelStatesMap;
+    /**
+     * The entity states and these maps are objects, which the {@link CollectionsFactory} cannot keep off-heap, so they are heap tracked
+     * and grow with the number of changed entities. Only the ids and property values they refer to come from the factory.
+     */
     private MutableLongObjectMap<NodeStateImpl> nodeStatesMap;
     private MutableLongObjectMap<MutableLongDiffSets> relationshipTypeStatesMap;
     private MutableLongObjectMap<RelationshipStateImpl> relationshipStatesMap;
@@ -19,11 +19,16 @@
  */
 package org.neo4j.kernel.impl.api.tracer;
 
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.stats.CommitPhase;
+import org.neo4j.kernel.impl.transaction.tracing.CommandCreationEvent;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.CommitLocksEvent;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogCheckPointEvent;
@@ -34,26 +39,59 @@ import org.neo4j.kernel.impl.transaction.tracing.LogRotateEvent;
 import org.neo4j.kernel.impl.transaction.tracing.SerializeTransactionEvent;
 import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionEvent;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.NullLog;
 
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FORMAT_LOG_HEADER_SIZE;
+import static org.neo4j.kernel.impl.transaction.stats.CommitPhase.COMMAND_CREATION;
+import static org.neo4j.kernel.impl.transaction.stats.CommitPhase.INDEX_UPDATES;
+import static org.neo4j.kernel.impl.transaction.stats.CommitPhase.LOCKS;
+import static org.neo4j.kernel.impl.transaction.stats.CommitPhase.LOG_APPEND;
+import static org.neo4j.kernel.impl.transaction.stats.CommitPhase.LOG_FORCE;
+import static org.neo4j.kernel.impl.transaction.stats.CommitPhase.STORE_APPLY;
+import static org.neo4j.kernel.impl.transaction.stats.CommitPhase.TOTAL;
 
 /**
  * Tracer used to trace database scoped events, like transaction logs rotations, checkpoints, transactions etc
  */
 public class DefaultTracer implements DatabaseTracer
 {
+    private static final CommitPhase[] PHASES = CommitPhase.values();
+
     private final AtomicLong appendedBytes = new AtomicLong();
+    private final LatencyHistogram logForceLatencies = new LatencyHistogram();
 
     private final CountingLogRotateEvent countingLogRotateEvent = new CountingLogRotateEvent();
     private final LogFileCreateEvent logFileCreateEvent = () -> appendedBytes.addAndGet( CURRENT_FORMAT_LOG_HEADER_SIZE );
     private final CountingLogCheckPointEvent logCheckPointEvent = new CountingLogCheckPointEvent( this::appendLogBytes );
-    private final LogAppendEvent logAppendEvent = new DefaultLogAppendEvent();
-    private final CommitEvent commitEvent = new DefaultCommitEvent();
     private final TransactionEvent transactionEvent = new DefaultTransactionEvent();
+    private final LatencyHistogram[] commitLatencies = new LatencyHistogram[PHASES.length];
+    private final ThreadLocal<DefaultCommitEvent> commitEvents = ThreadLocal.withInitial( DefaultCommitEvent::new );
+    private final long slowCommitThresholdNanos;
+    private final int sampleInterval;
+    private final Log log;
 
     public DefaultTracer()
     {
-        //empty
+        this( 0, 1, NullLog.getInstance() );
+    }
+
+    /**
+     * @param slowCommitThresholdNanos commits that take longer than this are logged with the time spent in each {@link CommitPhase},
+     * or {@code 0} to not log any commits.
+     * @param sampleInterval the latencies of every this many commits of a thread are recorded in the {@link #commitLatencies(CommitPhase)}
+     * histograms, {@code 1} records every commit. Slow commits are logged whether they are sampled or not.
+     * @param log log to log slow commits to.
+     */
+    public DefaultTracer( long slowCommitThresholdNanos, int sampleInterval, Log log )
+    {
+        this.slowCommitThresholdNanos = slowCommitThresholdNanos;
+        this.sampleInterval = sampleInterval;
+        this.log = log;
+        for ( int i = 0; i < commitLatencies.length; i++ )
+        {
+            commitLatencies[i] = new LatencyHistogram();
+        }
     }
 
     @Override
@@ -86,6 +124,18 @@ public class DefaultTracer implements DatabaseTracer
         return countingLogRotateEvent.lastLogRotationTimeMillis();
     }
 
+    @Override
+    public LatencyHistogram logForceLatencies()
+    {
+        return logForceLatencies;
+    }
+
+    @Override
+    public LatencyHistogram commitLatencies( CommitPhase phase )
+    {
+        return commitLatencies[phase.ordinal()];
+    }
+
     @Override
     public long numberOfCheckPoints()
     {
@@ -141,7 +191,13 @@ public class DefaultTracer implements DatabaseTracer
         @Override
         public CommitEvent beginCommitEvent()
         {
-            return commitEvent;
+            DefaultCommitEvent commitEvent = commitEvents.get();
+            if ( commitEvent.inUse )
+            {
+                // Another transaction commits on this thread in the middle of its commit, so its event cannot be reused
+                commitEvent = new DefaultCommitEvent();
+            }
+            return commitEvent.begin();
         }
 
         @Override
@@ -160,28 +216,158 @@ public class DefaultTracer implements DatabaseTracer
         }
     }
 
+    /**
+     * The commit event of a thread, which is reused for every commit of that thread so that tracing a commit does not
+     * allocate. The phase timers are only touched by the committing thread, except for the index updates, which are
+     * recorded directly in their histogram by whichever thread applied them.
+     */
     private class DefaultCommitEvent implements CommitEvent
     {
+        private final long[] phaseNanos = new long[PHASES.length];
+        private final PhaseTimer locksTimer = new PhaseTimer( LOCKS );
+        private final PhaseTimer commandCreationTimer = new PhaseTimer( COMMAND_CREATION );
+        private final PhaseTimer storeApplyTimer = new PhaseTimer( STORE_APPLY );
+        private final DefaultLogAppendEvent logAppendEvent = new DefaultLogAppendEvent( this );
+        private long startNanos;
+        private long commits;
+        private boolean appended;
+        private boolean inUse;
+
+        DefaultCommitEvent begin()
+        {
+            inUse = true;
+            appended = false;
+            Arrays.fill( phaseNanos, 0 );
+            startNanos = System.nanoTime();
+            return this;
+        }
+
         @Override
         public void close()
         {
+            inUse = false;
+            if ( !appended )
+            {
+                // Nothing was committed, so there is nothing to break down
+                return;
+            }
+            long totalNanos = System.nanoTime() - startNanos;
+            phaseNanos[TOTAL.ordinal()] = totalNanos;
+            if ( commits++ % sampleInterval == 0 )
+            {
+                for ( CommitPhase phase : PHASES )
+                {
+                    if ( phase != INDEX_UPDATES )
+                    {
+                        commitLatencies[phase.ordinal()].record( phaseNanos[phase.ordinal()] );
+                    }
+                }
+            }
+            if ( slowCommitThresholdNanos > 0 && totalNanos > slowCommitThresholdNanos )
+            {
+                log.info( describeSlowCommit() );
+            }
+        }
+
+        @Override
+        public CommitLocksEvent beginCommitLocks()
+        {
+            return locksTimer.begin();
+        }
+
+        @Override
+        public CommandCreationEvent beginCommandCreation()
+        {
+            return commandCreationTimer.begin();
         }
 
         @Override
         public LogAppendEvent beginLogAppend()
         {
-            return logAppendEvent;
+            return logAppendEvent.begin();
         }
 
         @Override
         public StoreApplyEvent beginStoreApply()
         {
-            return StoreApplyEvent.NULL;
+            return storeApplyTimer.begin();
+        }
+
+        private String describeSlowCommit()
+        {
+            StringBuilder description = new StringBuilder( "Commit took " ).append( millis( phaseNanos[TOTAL.ordinal()] ) ).append( " ms:" );
+            for ( CommitPhase phase : PHASES )
+            {
+                if ( phase != TOTAL && phase != INDEX_UPDATES )
+                {
+                    description.append( phase == LOCKS ? " " : ", " ).append( phase.name().toLowerCase() ).append( '=' )
+                            .append( millis( phaseNanos[phase.ordinal()] ) ).append( " ms" );
+                }
+            }
+            return description.toString();
+        }
+
+        private String millis( long nanos )
+        {
+            return String.format( "%.3f", nanos / 1_000_000d );
+        }
+
+        private class PhaseTimer implements CommitLocksEvent, CommandCreationEvent, StoreApplyEvent
+        {
+            private final int phase;
+            private long phaseStartNanos;
+
+            PhaseTimer( CommitPhase phase )
+            {
+                this.phase = phase.ordinal();
+            }
+
+            PhaseTimer begin()
+            {
+                phaseStartNanos = System.nanoTime();
+                return this;
+            }
+
+            @Override
+            public void close()
+            {
+                phaseNanos[phase] += System.nanoTime() - phaseStartNanos;
+            }
+
+            @Override
+            public void lockWaitTime( long nanos )
+            {
+                phaseNanos[phase] += nanos;
+            }
+
+            @Override
+            public void indexUpdatesApplied( long nanos )
+            {
+                commitLatencies[INDEX_UPDATES.ordinal()].record( nanos );
+            }
         }
     }
 
     private class DefaultLogAppendEvent implements LogAppendEvent
     {
+        private final DefaultCommitEvent commitEvent;
+        private final ForceWaitTimer forceWaitTimer = new ForceWaitTimer();
+        private final ForceTimer forceTimer = new ForceTimer();
+        private long startNanos;
+        private long forceWaitNanos;
+
+        DefaultLogAppendEvent( DefaultCommitEvent commitEvent )
+        {
+            this.commitEvent = commitEvent;
+        }
+
+        DefaultLogAppendEvent begin()
+        {
+            forceWaitNanos = 0;
+            startNanos = System.nanoTime();
+            return this;
+        }
+
         @Override
         public void appendToLogFile( LogPosition logPositionBeforeAppend, LogPosition logPositionAfterAppend )
         {
@@ -191,6 +377,9 @@ public class DefaultTracer implements DatabaseTracer
         @Override
         public void close()
         {
+            commitEvent.appended = true;
+            commitEvent.phaseNanos[LOG_APPEND.ordinal()] += System.nanoTime() - startNanos - forceWaitNanos;
+            commitEvent.phaseNanos[LOG_FORCE.ordinal()] += forceWaitNanos;
         }
 
         @Override
@@ -214,13 +403,47 @@ public class DefaultTracer implements DatabaseTracer
         @Override
         public LogForceWaitEvent beginLogForceWait()
         {
-            return LogForceWaitEvent.NULL;
+            return forceWaitTimer.begin();
         }
 
         @Override
         public LogForceEvent beginLogForce()
         {
-            return LogForceEvent.NULL;
+            return forceTimer.begin();
+        }
+
+        private class ForceWaitTimer implements LogForceWaitEvent
+        {
+            private long waitStartNanos;
+
+            ForceWaitTimer begin()
+            {
+                waitStartNanos = System.nanoTime();
+                return this;
+            }
+
+            @Override
+            public void close()
+            {
+                forceWaitNanos += System.nanoTime() - waitStartNanos;
+            }
+        }
+
+        private class ForceTimer implements LogForceEvent
+        {
+            private long forceStartNanos;
+
+            ForceTimer begin()
+            {
+                forceStartNanos = System.nanoTime();
+                return this;
+            }
+
+            @Override
+            public void close()
+            {
+                logForceLatencies.record( System.nanoTime() - forceStartNanos );
+            }
         }
     }
 }
@@ -20,8 +20,10 @@
 package org.neo4j.kernel.impl.factory;
 
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.kernel.impl.api.CommitProcessFactory;
+import org.neo4j.kernel.impl.api.GroupApplyingTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.ReadOnlyTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionRepresentationCommitProcess;
@@ -37,6 +39,10 @@ public class CommunityCommitProcessFactory implements CommitProcessFactory
         {
             return new ReadOnlyTransactionCommitProcess();
         }
+        if ( config.get( GraphDatabaseInternalSettings.group_apply_transactions ) )
+        {
+            return new GroupApplyingTransactionCommitProcess( appender, storageEngine );
+        }
         return new TransactionRepresentationCommitProcess( appender, storageEngine );
     }
 }
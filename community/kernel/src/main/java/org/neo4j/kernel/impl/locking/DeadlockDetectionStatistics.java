@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
+
+/**
+ * Counters for the deadlock detection done by a lock manager: how long each check of the wait-for graph took, and
+ * how many of them found a cycle. Recording is lock-free, so detectors that run concurrently do not serialize on it.
+ */
+public final class DeadlockDetectionStatistics
+{
+    /**
+     * Statistics that stay empty, for lock managers that do not detect deadlocks.
+     */
+    public static final DeadlockDetectionStatistics NONE = new DeadlockDetectionStatistics( LatencyHistogram.EMPTY );
+
+    private final LatencyHistogram detectionTimes;
+    private final LongAdder detectedCycles = new LongAdder();
+
+    public DeadlockDetectionStatistics()
+    {
+        this( new LatencyHistogram() );
+    }
+
+    private DeadlockDetectionStatistics( LatencyHistogram detectionTimes )
+    {
+        this.detectionTimes = detectionTimes;
+    }
+
+    /**
+     * Record the outcome of a single check of the wait-for graph.
+     *
+     * @param nanos how long the check took.
+     * @param cycleDetected whether the check found a deadlock.
+     */
+    public void detectionCompleted( long nanos, boolean cycleDetected )
+    {
+        if ( this == NONE )
+        {
+            return;
+        }
+        detectionTimes.record( nanos );
+        if ( cycleDetected )
+        {
+            detectedCycles.increment();
+        }
+    }
+
+    /**
+     * @return the time taken by every check of the wait-for graph, in nanoseconds.
+     */
+    public LatencyHistogram detectionTimes()
+    {
+        return detectionTimes;
+    }
+
+    /**
+     * @return the number of checks of the wait-for graph done thus far.
+     */
+    public long detections()
+    {
+        return detectionTimes.count();
+    }
+
+    /**
+     * @return the number of deadlocks found thus far.
+     */
+    public long detectedCycles()
+    {
+        return detectedCycles.sum();
+    }
+}
@@ -148,5 +148,13 @@ public interface Locks
     /** Visit all held locks. */
     void accept( Visitor visitor );
 
+    /**
+     * @return statistics of the deadlock detection done by this lock manager, empty if it does not detect deadlocks itself.
+     */
+    default DeadlockDetectionStatistics deadlockDetectionStatistics()
+    {
+        return DeadlockDetectionStatistics.NONE;
+    }
+
     void close();
 }
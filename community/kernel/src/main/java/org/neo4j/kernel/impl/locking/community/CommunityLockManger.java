@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.locking.community;
 
 import org.neo4j.configuration.Config;
+import org.neo4j.kernel.impl.locking.DeadlockDetectionStatistics;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.lock.LockType;
 import org.neo4j.time.SystemNanoClock;
@@ -27,11 +28,12 @@ import org.neo4j.time.SystemNanoClock;
 public class CommunityLockManger implements Locks
 {
     private final LockManagerImpl manager;
+    private final DeadlockDetectionStatistics deadlockDetectionStatistics = new DeadlockDetectionStatistics();
     private volatile boolean closed;
 
     public CommunityLockManger( Config config, SystemNanoClock clock )
     {
-        manager = new LockManagerImpl( new RagManager(), config, clock );
+        manager = new LockManagerImpl( new RagManager( deadlockDetectionStatistics ), config, clock );
     }
 
     @Override
@@ -62,6 +64,12 @@ public class CommunityLockManger implements Locks
         } );
     }
 
+    @Override
+    public DeadlockDetectionStatistics deadlockDetectionStatistics()
+    {
+        return deadlockDetectionStatistics;
+    }
+
     @Override
     public void close()
     {
@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.locking.community;
 
 import org.neo4j.annotations.service.ServiceProvider;
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.LocksFactory;
 import org.neo4j.lock.ResourceType;
@@ -32,6 +33,10 @@ public class CommunityLocksFactory implements LocksFactory
     @Override
     public Locks newInstance( Config config, SystemNanoClock clock, ResourceType[] resourceTypes )
     {
+        if ( config.get( GraphDatabaseInternalSettings.community_striped_locks ) )
+        {
+            return new StripedLockManager( config, clock );
+        }
         return new CommunityLockManger( config, clock );
     }
 
@@ -21,13 +21,13 @@ package org.neo4j.kernel.impl.locking.community;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.locking.DeadlockDetectionStatistics;
 
 /**
  * The Resource Allocation Graph manager is used for deadlock detection. It
@@ -50,6 +50,12 @@ import org.neo4j.kernel.DeadlockDetectedException;
  * traverse the graph starting on the resource and see if we can get back
  * to the tx ( T1 wants to wait on R1 and R1->T2->R2->T3->R8->T1 <==>
  * deadlock!).
+ * <p/>
+ * The graph is kept in concurrent maps and is traversed without any global lock, so waiting transactions do not
+ * serialize behind each other's deadlock detection. Each {@link RWLock} only updates the relationships of its own
+ * resource, while holding its own monitor. To not miss a cycle that is closed by two transactions starting to wait
+ * at the same time, a transaction adds its waiting relationship before it traverses the graph, and removes it again
+ * if that finds a deadlock. Then at least one of the two sees the relationship of the other one.
  */
 public class RagManager
 {
@@ -67,44 +73,51 @@ public class RagManager
     // o When the transaction wakes up from waiting on a resource the
     // stopWaitOn( resource ) method must be invoked
 
-    private final Map<Object,List<Object>> resourceMap = new HashMap<>();
-    private final Map<Object, Object> waitingTxMap = new HashMap<>();
+    private final ConcurrentMap<Object,Set<Object>> resourceMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object,Object> waitingTxMap = new ConcurrentHashMap<>();
+    private final DeadlockDetectionStatistics statistics;
 
-    synchronized void lockAcquired( Object resource, Object tx )
+    public RagManager()
     {
-        List<Object> lockingTxList = resourceMap.get( resource );
-        if ( lockingTxList != null )
-        {
-            assert !lockingTxList.contains( tx );
-            lockingTxList.add( tx );
-        }
-        else
-        {
-            lockingTxList = new LinkedList<>();
-            lockingTxList.add( tx );
-            resourceMap.put( resource, lockingTxList );
-        }
+        this( new DeadlockDetectionStatistics() );
     }
 
-    synchronized void lockReleased( Object resource, Object tx )
+    RagManager( DeadlockDetectionStatistics statistics )
     {
-        List<Object> lockingTxList = resourceMap.get( resource );
-        if ( lockingTxList == null )
-        {
-            throw new LockException( resource + " not found in resource map" );
-        }
+        this.statistics = statistics;
+    }
 
-        if ( !lockingTxList.remove( tx ) )
+    void lockAcquired( Object resource, Object tx )
+    {
+        resourceMap.compute( resource, ( key, lockingTxs ) ->
         {
-            throw new LockException( tx + "not found in locking tx list" );
-        }
-        if ( lockingTxList.isEmpty() )
+            if ( lockingTxs == null )
+            {
+                lockingTxs = ConcurrentHashMap.newKeySet();
+            }
+            boolean added = lockingTxs.add( tx );
+            assert added;
+            return lockingTxs;
+        } );
+    }
+
+    void lockReleased( Object resource, Object tx )
+    {
+        resourceMap.compute( resource, ( key, lockingTxs ) ->
         {
-            resourceMap.remove( resource );
-        }
+            if ( lockingTxs == null )
+            {
+                throw new LockException( resource + " not found in resource map" );
+            }
+            if ( !lockingTxs.remove( tx ) )
+            {
+                throw new LockException( tx + "not found in locking tx list" );
+            }
+            return lockingTxs.isEmpty() ? null : lockingTxs;
+        } );
     }
 
-    synchronized void stopWaitOn( Object resource, Object tx )
+    void stopWaitOn( Object resource, Object tx )
     {
         if ( waitingTxMap.remove( tx ) == null )
         {
@@ -113,64 +126,74 @@ public class RagManager
     }
 
     // after invoke the transaction must wait on the resource
-    synchronized void checkWaitOn( Object resource, Object tx )
+    void checkWaitOn( Object resource, Object tx )
             throws DeadlockDetectedException
     {
-        List<Object> lockingTxList = resourceMap.get( resource );
-        if ( lockingTxList == null )
+        Set<Object> lockingTxs = resourceMap.get( resource );
+        if ( lockingTxs == null )
         {
             throw new LockException( "Illegal resource[" + resource
                                      + "], not found in map" );
         }
 
-        if ( waitingTxMap.get( tx ) != null )
+        if ( waitingTxMap.putIfAbsent( tx, resource ) != null )
         {
             throw new LockException( tx + " already waiting for resource" );
         }
 
-        Iterator<Object> itr = lockingTxList.iterator();
-        List<Object> checkedTransactions = new LinkedList<>();
-        final Deque<Object> graphStack = new ArrayDeque<>();
-        // has resource,transaction interleaved
-        graphStack.push( resource );
-        while ( itr.hasNext() )
+        long startNanos = System.nanoTime();
+        boolean deadlock = true;
+        try
+        {
+            Set<Object> checkedTransactions = new HashSet<>();
+            final Deque<Object> graphStack = new ArrayDeque<>();
+            // has resource,transaction interleaved
+            graphStack.push( resource );
+            for ( Object lockingTx : lockingTxs )
+            {
+                // the if statement bellow is valid because:
+                // t1 -> r1 -> t1 (can happened with RW locks) is ok but,
+                // t1 -> r1 -> t1&t2 where t2 -> r1 is a deadlock
+                // think like this, we have two transactions and one resource
+                // o t1 takes read lock on r1
+                // o t2 takes read lock on r1
+                // o t1 wanna take write lock on r1 but has to wait for t2
+                // to release the read lock ( t1->r1->(t1&t2), ok not deadlock yet
+                // o t2 wanna take write lock on r1 but has to wait for t1
+                // to release read lock....
+                // DEADLOCK t1->r1->(t1&t2) and t2->r1->(t1&t2) ===>
+                // t1->r1->t2->r1->t1, t2->r1->t1->r1->t2 etc...
+                // to allow the first three steps above we check if lockingTx ==
+                // waitingTx on first level.
+                // because of this special case we have to keep track on the
+                // already "checked" tx since it is (now) legal for one type of
+                // circular reference to exist (t1->r1->t1) otherwise we may
+                // traverse t1->r1->t2->r1->t2->r1->t2... until SOE
+                // ... KISS to you too
+                if ( lockingTx.equals( tx ) )
+                {
+                    continue;
+                }
+                graphStack.push( lockingTx );
+                checkWaitOnRecursive( lockingTx, tx, checkedTransactions, graphStack );
+                graphStack.pop();
+            }
+            // ok no deadlock, we can wait on resource
+            deadlock = false;
+        }
+        finally
         {
-            Object lockingTx = itr.next();
-            // the if statement bellow is valid because:
-            // t1 -> r1 -> t1 (can happened with RW locks) is ok but,
-            // t1 -> r1 -> t1&t2 where t2 -> r1 is a deadlock
-            // think like this, we have two transactions and one resource
-            // o t1 takes read lock on r1
-            // o t2 takes read lock on r1
-            // o t1 wanna take write lock on r1 but has to wait for t2
-            // to release the read lock ( t1->r1->(t1&t2), ok not deadlock yet
-            // o t2 wanna take write lock on r1 but has to wait for t1
-            // to release read lock....
-            // DEADLOCK t1->r1->(t1&t2) and t2->r1->(t1&t2) ===>
-            // t1->r1->t2->r1->t1, t2->r1->t1->r1->t2 etc...
-            // to allow the first three steps above we check if lockingTx ==
-            // waitingTx on first level.
-            // because of this special case we have to keep track on the
-            // already "checked" tx since it is (now) legal for one type of
-            // circular reference to exist (t1->r1->t1) otherwise we may
-            // traverse t1->r1->t2->r1->t2->r1->t2... until SOE
-            // ... KISS to you too
-            if ( lockingTx.equals( tx ) )
+            if ( deadlock )
             {
-                continue;
+                waitingTxMap.remove( tx );
             }
-            graphStack.push( lockingTx );
-            checkWaitOnRecursive( lockingTx, tx, checkedTransactions, graphStack );
-            graphStack.pop();
+            statistics.detectionCompleted( System.nanoTime() - startNanos, deadlock );
         }
-
-        // ok no deadlock, we can wait on resource
-        waitingTxMap.put( tx, resource );
     }
 
-    private synchronized void checkWaitOnRecursive( Object lockingTx,
-                                                    Object waitingTx, List<Object> checkedTransactions,
-                                                    Deque<Object> graphStack ) throws DeadlockDetectedException
+    private void checkWaitOnRecursive( Object lockingTx,
+                                       Object waitingTx, Set<Object> checkedTransactions,
+                                       Deque<Object> graphStack ) throws DeadlockDetectedException
     {
         if ( lockingTx.equals( waitingTx ) )
         {
@@ -207,14 +230,14 @@ public class RagManager
             // other tx that will release the locks on the resource and
             // remove it from the map
             // this is ok since current tx or any other tx will wake
-            // in the synchronized block and will be forced to do the deadlock
-            // check once more if lock cannot be acquired
-            List<Object> lockingTxList = resourceMap.get( resource );
-            if ( lockingTxList != null )
+            // in the synchronized block of its RWLock and will be forced to do
+            // the deadlock check once more if lock cannot be acquired
+            Set<Object> lockingTxs = resourceMap.get( resource );
+            if ( lockingTxs != null )
             {
-                for ( Object aLockingTxList : lockingTxList )
+                for ( Object aLockingTx : lockingTxs )
                 {
-                    lockingTx = aLockingTxList;
+                    lockingTx = aLockingTx;
                     // so we don't
                     if ( !checkedTransactions.contains( lockingTx ) )
                     {
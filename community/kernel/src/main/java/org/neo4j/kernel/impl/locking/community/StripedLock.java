@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.community;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.neo4j.lock.LockType;
+
+/**
+ * A read/write lock on a single resource, as used by {@link StripedLockManager}.
+ * <p/>
+ * The whole lock state lives in a single word, so that acquiring and releasing locks that are not contended is a matter
+ * of a single compare-and-set. The low bits hold the number of shared holders, one bit marks that the lock is held
+ * exclusively, and the sign bit marks the lock as dead. A lock is marked dead by the last client releasing it, after
+ * which it can never be acquired again and must be removed from its {@link StripedLockManager.Stripe stripe}.
+ * Clients that find a dead lock in the stripe just create a new one.
+ * <p/>
+ * The holders of the lock are additionally tracked next to the lock word. They are only used for deadlock detection
+ * and for listing locks, both of which can tolerate observing them slightly out of date.
+ */
+final class StripedLock
+{
+    private static final long DEAD = Long.MIN_VALUE;
+    private static final long EXCLUSIVE = 1L << 62;
+    private static final long SHARED_MASK = EXCLUSIVE - 1;
+
+    private final LockResource resource;
+    private final StripedLockManager.Stripe stripe;
+    private final AtomicLong state;
+    private final Set<StripedLockClient> sharedHolders = ConcurrentHashMap.newKeySet();
+    private volatile StripedLockClient exclusiveHolder;
+
+    private StripedLock( LockResource resource, StripedLockManager.Stripe stripe, StripedLockClient holder, boolean exclusive )
+    {
+        this.resource = resource;
+        this.stripe = stripe;
+        if ( exclusive )
+        {
+            exclusiveHolder = holder;
+            state = new AtomicLong( EXCLUSIVE );
+        }
+        else
+        {
+            sharedHolders.add( holder );
+            state = new AtomicLong( 1 );
+        }
+    }
+
+    static StripedLock sharedLock( LockResource resource, StripedLockManager.Stripe stripe, StripedLockClient holder )
+    {
+        return new StripedLock( resource, stripe, holder, false );
+    }
+
+    static StripedLock exclusiveLock( LockResource resource, StripedLockManager.Stripe stripe, StripedLockClient holder )
+    {
+        return new StripedLock( resource, stripe, holder, true );
+    }
+
+    LockResource resource()
+    {
+        return resource;
+    }
+
+    StripedLockManager.Stripe stripe()
+    {
+        return stripe;
+    }
+
+    /**
+     * @param holder the client acquiring the lock.
+     * @param holdsExclusive whether the client already holds this lock exclusively, in which case it can always take it shared as well.
+     * @return {@code true} if the shared lock was acquired, otherwise the lock is either held exclusively by another client or dead.
+     */
+    boolean tryAcquireShared( StripedLockClient holder, boolean holdsExclusive )
+    {
+        long current;
+        do
+        {
+            current = state.get();
+            if ( current < 0 || (!holdsExclusive && (current & EXCLUSIVE) != 0) )
+            {
+                return false;
+            }
+        }
+        while ( !state.compareAndSet( current, Math.incrementExact( current ) ) );
+        sharedHolders.add( holder );
+        return true;
+    }
+
+    /**
+     * @param holder the client acquiring the lock.
+     * @param holdsShared whether the client already holds this lock shared, in which case its own shared lock is not in the way.
+     * @return {@code true} if the exclusive lock was acquired, otherwise the lock is either held by other clients or dead.
+     */
+    boolean tryAcquireExclusive( StripedLockClient holder, boolean holdsShared )
+    {
+        long expected = holdsShared ? 1 : 0;
+        if ( state.compareAndSet( expected, expected | EXCLUSIVE ) )
+        {
+            exclusiveHolder = holder;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return {@code true} if this was the last lock on the resource, in which case the lock is now dead.
+     */
+    boolean releaseShared( StripedLockClient holder )
+    {
+        sharedHolders.remove( holder );
+        long current;
+        long next;
+        do
+        {
+            current = state.get();
+            if ( (current & SHARED_MASK) == 0 )
+            {
+                throw new LockNotFoundException( holder + " don't have shared lock on " + resource );
+            }
+            next = current - 1;
+            if ( next == 0 )
+            {
+                next = DEAD;
+            }
+        }
+        while ( !state.compareAndSet( current, next ) );
+        return next == DEAD;
+    }
+
+    /**
+     * @return {@code true} if this was the last lock on the resource, in which case the lock is now dead.
+     */
+    boolean releaseExclusive( StripedLockClient holder )
+    {
+        if ( exclusiveHolder != holder )
+        {
+            throw new LockNotFoundException( holder + " don't have exclusive lock on " + resource );
+        }
+        exclusiveHolder = null;
+        long current;
+        long next;
+        do
+        {
+            current = state.get();
+            next = current & ~EXCLUSIVE;
+            if ( next == 0 )
+            {
+                next = DEAD;
+            }
+        }
+        while ( !state.compareAndSet( current, next ) );
+        return next == DEAD;
+    }
+
+    boolean isHeldBy( StripedLockClient client, LockType lockType )
+    {
+        return lockType == LockType.EXCLUSIVE ? exclusiveHolder == client : sharedHolders.contains( client );
+    }
+
+    boolean isDead()
+    {
+        return state.get() < 0;
+    }
+
+    StripedLockClient exclusiveHolder()
+    {
+        return exclusiveHolder;
+    }
+
+    void forEachSharedHolder( Consumer<StripedLockClient> consumer )
+    {
+        sharedHolders.forEach( consumer );
+    }
+
+    /**
+     * Visit all clients currently holding this lock, in either mode.
+     */
+    void forEachHolder( Consumer<StripedLockClient> consumer )
+    {
+        StripedLockClient exclusive = exclusiveHolder;
+        if ( exclusive != null )
+        {
+            consumer.accept( exclusive );
+        }
+        sharedHolders.forEach( holder ->
+        {
+            if ( holder != exclusive )
+            {
+                consumer.accept( holder );
+            }
+        } );
+    }
+
+    String describe()
+    {
+        long current = state.get();
+        StringBuilder sb = new StringBuilder( toString() );
+        if ( current < 0 )
+        {
+            return sb.append( " dead" ).toString();
+        }
+        sb.append( " sharedCount=" ).append( current & SHARED_MASK );
+        StripedLockClient exclusive = exclusiveHolder;
+        if ( exclusive != null )
+        {
+            sb.append( " exclusivelyHeldBy=" ).append( exclusive );
+        }
+        sb.append( " sharedHolders=" ).append( sharedHolders );
+        return sb.toString();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "StripedLock[" + resource + "]";
+    }
+}
@@ -0,0 +1,650 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.community;
+
+import org.eclipse.collections.api.block.procedure.primitive.IntObjectProcedure;
+import org.eclipse.collections.api.map.primitive.LongObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.neo4j.internal.helpers.MathUtil;
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.api.LeaseClient;
+import org.neo4j.kernel.impl.locking.ActiveLock;
+import org.neo4j.kernel.impl.locking.DeadlockDetectionStatistics;
+import org.neo4j.kernel.impl.locking.LockAcquisitionTimeoutException;
+import org.neo4j.kernel.impl.locking.LockClientStateHolder;
+import org.neo4j.kernel.impl.locking.LockClientStoppedException;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.LockType;
+import org.neo4j.lock.LockWaitEvent;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.lock.ResourceTypes;
+import org.neo4j.time.SystemNanoClock;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.neo4j.lock.LockType.EXCLUSIVE;
+import static org.neo4j.lock.LockType.SHARED;
+
+/**
+ * Client of the {@link StripedLockManager}. Re-entrant locks are counted locally, so only the first acquisition and the
+ * last release of every lock reaches the shared lock table.
+ */
+public class StripedLockClient implements Locks.Client
+{
+    /**
+     * Upper bound on how long a waiting client sleeps before it checks for deadlocks, timeouts and termination again.
+     */
+    private static final long MAX_WAIT_MILLIS = 20;
+
+    private final StripedLockManager manager;
+    private final SystemNanoClock clock;
+    private final long lockAcquisitionTimeoutNano;
+    private final DeadlockDetectionStatistics deadlockDetectionStatistics;
+    private final LockTransaction lockTransaction = new LockTransaction();
+
+    private final MutableIntObjectMap<MutableLongObjectMap<HeldLock>> sharedLocks = new IntObjectHashMap<>();
+    private final MutableIntObjectMap<MutableLongObjectMap<HeldLock>> exclusiveLocks = new IntObjectHashMap<>();
+    private final LockClientStateHolder stateHolder = new LockClientStateHolder();
+
+    // What this client is waiting for, if anything. Read by other clients when they look for deadlocks.
+    // The lock type is written before the lock and cleared after it, so a reader seeing a lock also sees its type.
+    private volatile LockType waitingForType;
+    private volatile StripedLock waitingFor;
+
+    StripedLockClient( StripedLockManager manager, SystemNanoClock clock, long lockAcquisitionTimeoutNano,
+            DeadlockDetectionStatistics deadlockDetectionStatistics )
+    {
+        this.manager = manager;
+        this.clock = clock;
+        this.lockAcquisitionTimeoutNano = lockAcquisitionTimeoutNano;
+        this.deadlockDetectionStatistics = deadlockDetectionStatistics;
+    }
+
+    @Override
+    public void initialize( LeaseClient leaseClient, long transactionId )
+    {
+        lockTransaction.setTransactionId( transactionId );
+    }
+
+    @Override
+    public void acquireShared( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<HeldLock> localLocks = localShared( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                HeldLock held = localLocks.get( resourceId );
+                if ( held != null )
+                {
+                    held.acquireReference();
+                }
+                else
+                {
+                    boolean holdsExclusive = localExclusive( resourceType ).containsKey( resourceId );
+                    localLocks.put( resourceId, new HeldLock( acquire( tracer, resourceType, resourceId, SHARED, holdsExclusive ) ) );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void acquireExclusive( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<HeldLock> localLocks = localExclusive( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                HeldLock held = localLocks.get( resourceId );
+                if ( held != null )
+                {
+                    held.acquireReference();
+                }
+                else
+                {
+                    boolean holdsShared = localShared( resourceType ).containsKey( resourceId );
+                    localLocks.put( resourceId, new HeldLock( acquire( tracer, resourceType, resourceId, EXCLUSIVE, holdsShared ) ) );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean tryExclusiveLock( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<HeldLock> localLocks = localExclusive( resourceType );
+            HeldLock held = localLocks.get( resourceId );
+            if ( held != null )
+            {
+                held.acquireReference();
+                return true;
+            }
+            StripedLock lock = tryAcquire( resourceType, resourceId, EXCLUSIVE, localShared( resourceType ).containsKey( resourceId ) );
+            if ( lock.isHeldBy( this, EXCLUSIVE ) )
+            {
+                localLocks.put( resourceId, new HeldLock( lock ) );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean trySharedLock( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<HeldLock> localLocks = localShared( resourceType );
+            HeldLock held = localLocks.get( resourceId );
+            if ( held != null )
+            {
+                held.acquireReference();
+                return true;
+            }
+            StripedLock lock = tryAcquire( resourceType, resourceId, SHARED, localExclusive( resourceType ).containsKey( resourceId ) );
+            if ( lock.isHeldBy( this, SHARED ) )
+            {
+                localLocks.put( resourceId, new HeldLock( lock ) );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean reEnterShared( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            return reEnter( localShared( resourceType ), resourceId );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean reEnterExclusive( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            return reEnter( localExclusive( resourceType ), resourceId );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    private static boolean reEnter( LongObjectMap<HeldLock> localLocks, long resourceId )
+    {
+        HeldLock held = localLocks.get( resourceId );
+        if ( held != null )
+        {
+            held.acquireReference();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void releaseShared( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<HeldLock> localLocks = localShared( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                HeldLock held = localLocks.get( resourceId );
+                if ( held.releaseReference() == 0 )
+                {
+                    localLocks.remove( resourceId );
+                    releaseShared( held.lock );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void releaseExclusive( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<HeldLock> localLocks = localExclusive( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                HeldLock held = localLocks.get( resourceId );
+                if ( held.releaseReference() == 0 )
+                {
+                    localLocks.remove( resourceId );
+                    releaseExclusive( held.lock );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void prepare()
+    {
+        stateHolder.prepare( this );
+    }
+
+    @Override
+    public void stop()
+    {
+        // closing client to prevent any new client to come
+        if ( stateHolder.stopClient() )
+        {
+            // wake up and terminate waiters
+            wakeAndWaitForClientsToLeave();
+            releaseLocks();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        stateHolder.closeClient();
+        wakeAndWaitForClientsToLeave();
+        releaseLocks();
+        lockTransaction.setTransactionId( INVALID_TRANSACTION_ID );
+    }
+
+    private void wakeAndWaitForClientsToLeave()
+    {
+        wakeWaitingThread();
+        while ( stateHolder.hasActiveClients() )
+        {
+            wakeWaitingThread();
+            LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 20 ) );
+        }
+    }
+
+    private void wakeWaitingThread()
+    {
+        StripedLock lock = waitingFor;
+        if ( lock != null )
+        {
+            lock.stripe().wakeWaiters();
+        }
+    }
+
+    private synchronized void releaseLocks()
+    {
+        exclusiveLocks.forEachValue( locks -> locks.forEachValue( held -> releaseExclusive( held.lock ) ) );
+        sharedLocks.forEachValue( locks -> locks.forEachValue( held -> releaseShared( held.lock ) ) );
+        exclusiveLocks.clear();
+        sharedLocks.clear();
+    }
+
+    @Override
+    public int getLockSessionId()
+    {
+        return lockTransaction.getId();
+    }
+
+    long transactionId()
+    {
+        return lockTransaction.getTransactionId();
+    }
+
+    @Override
+    public Stream<ActiveLock> activeLocks()
+    {
+        List<ActiveLock> locks = new ArrayList<>();
+        exclusiveLocks.forEachKeyValue( collectActiveLocks( locks, EXCLUSIVE, lockTransaction.getTransactionId() ) );
+        sharedLocks.forEachKeyValue( collectActiveLocks( locks, SHARED, lockTransaction.getTransactionId() ) );
+        return locks.stream();
+    }
+
+    @Override
+    public long activeLockCount()
+    {
+        long count = 0;
+        for ( LongObjectMap<HeldLock> locks : exclusiveLocks.values() )
+        {
+            count += locks.size();
+        }
+        for ( LongObjectMap<HeldLock> locks : sharedLocks.values() )
+        {
+            count += locks.size();
+        }
+        return count;
+    }
+
+    private static IntObjectProcedure<LongObjectMap<HeldLock>> collectActiveLocks( List<ActiveLock> locks, LockType lockType, long userTransactionId )
+    {
+        return ( typeId, typeLocks ) ->
+        {
+            ResourceType resourceType = ResourceTypes.fromId( typeId );
+            typeLocks.forEachKey( resourceId -> locks.add( new ActiveLock( resourceType, lockType, userTransactionId, resourceId ) ) );
+        };
+    }
+
+    /**
+     * Acquire a lock in the shared lock table, waiting for as long as it is held by other clients.
+     *
+     * @param holdsOther whether this client already holds the lock in the other mode.
+     * @return the acquired lock.
+     */
+    private StripedLock acquire( LockTracer tracer, ResourceType resourceType, long resourceId, LockType lockType, boolean holdsOther )
+    {
+        StripedLock lock = tryAcquire( resourceType, resourceId, lockType, holdsOther );
+        if ( lock.isHeldBy( this, lockType ) )
+        {
+            return lock;
+        }
+
+        StripedLockManager.Stripe stripe = lock.stripe();
+        long waitStartNano = clock.nanos();
+        boolean interrupted = false;
+        try ( LockWaitEvent ignored = tracer.waitForLock( lockType, resourceType, lockTransaction.getTransactionId(), resourceId ) )
+        {
+            synchronized ( stripe )
+            {
+                // Count ourselves as a waiter before trying again, so that a release happening after our attempt will notify us.
+                stripe.waiters++;
+                try
+                {
+                    while ( true )
+                    {
+                        lock = tryAcquire( resourceType, resourceId, lockType, holdsOther );
+                        if ( lock.isHeldBy( this, lockType ) )
+                        {
+                            return lock;
+                        }
+                        if ( stateHolder.isStopped() )
+                        {
+                            throw new LockClientStoppedException( this );
+                        }
+                        assertNotExpired( resourceType, resourceId, waitStartNano );
+                        waitingForType = lockType;
+                        waitingFor = lock;
+                        assertNoDeadlock( lock, lockType );
+                        interrupted |= waitForRelease( stripe, waitStartNano );
+                    }
+                }
+                finally
+                {
+                    waitingFor = null;
+                    waitingForType = null;
+                    stripe.waiters--;
+                }
+            }
+        }
+        finally
+        {
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return the lock of the resource, either acquired by this client or held by other clients in a conflicting mode,
+     * see {@link StripedLock#isHeldBy(StripedLockClient, LockType)}.
+     */
+    private StripedLock tryAcquire( ResourceType resourceType, long resourceId, LockType lockType, boolean holdsOther )
+    {
+        StripedLockManager.Stripe stripe = manager.stripe( resourceType, resourceId );
+        LockResource resource = new LockResource( resourceType, resourceId );
+        while ( true )
+        {
+            StripedLock lock = stripe.locks.get( resource );
+            if ( lock == null )
+            {
+                StripedLock created = lockType == EXCLUSIVE ? StripedLock.exclusiveLock( resource, stripe, this )
+                                                            : StripedLock.sharedLock( resource, stripe, this );
+                lock = stripe.locks.putIfAbsent( resource, created );
+                if ( lock == null )
+                {
+                    return created;
+                }
+            }
+            boolean success = lockType == EXCLUSIVE ? lock.tryAcquireExclusive( this, holdsOther ) : lock.tryAcquireShared( this, holdsOther );
+            if ( success || !lock.isDead() )
+            {
+                return lock;
+            }
+            // The lock was released by its last holder while we looked at it, help removing it and start over.
+            stripe.locks.remove( resource, lock );
+        }
+    }
+
+    private void releaseShared( StripedLock lock )
+    {
+        if ( lock.releaseShared( this ) )
+        {
+            lock.stripe().locks.remove( lock.resource(), lock );
+        }
+        lock.stripe().wakeWaiters();
+    }
+
+    private void releaseExclusive( StripedLock lock )
+    {
+        if ( lock.releaseExclusive( this ) )
+        {
+            lock.stripe().locks.remove( lock.resource(), lock );
+        }
+        lock.stripe().wakeWaiters();
+    }
+
+    /**
+     * Wait on the stripe monitor, which the caller holds, until some lock in the stripe is released or it is time to check on the
+     * deadlock, timeout and termination conditions again.
+     *
+     * @return {@code true} if the thread was interrupted while waiting.
+     */
+    private boolean waitForRelease( StripedLockManager.Stripe stripe, long waitStartNano )
+    {
+        long waitMillis = MAX_WAIT_MILLIS;
+        if ( lockAcquisitionTimeoutNano > 0 )
+        {
+            long remainingMillis = NANOSECONDS.toMillis( lockAcquisitionTimeoutNano - (clock.nanos() - waitStartNano) );
+            waitMillis = Math.max( 1, Math.min( waitMillis, remainingMillis ) );
+        }
+        try
+        {
+            stripe.wait( waitMillis );
+            return false;
+        }
+        catch ( InterruptedException e )
+        {
+            return true;
+        }
+    }
+
+    private void assertNotExpired( ResourceType resourceType, long resourceId, long waitStartNano )
+    {
+        if ( lockAcquisitionTimeoutNano > 0 && (clock.nanos() - waitStartNano) >= lockAcquisitionTimeoutNano )
+        {
+            throw new LockAcquisitionTimeoutException( resourceType, resourceId, lockAcquisitionTimeoutNano );
+        }
+    }
+
+    /**
+     * Look for a cycle in the wait-for graph that would be closed by this client waiting for the given lock. The graph is read
+     * without any locking while other clients keep acquiring, waiting and releasing, so a cycle involving clients that are just
+     * being granted their locks may go unnoticed here; it will then be found on a later check by one of the waiters.
+     */
+    private void assertNoDeadlock( StripedLock lock, LockType lockType )
+    {
+        long startNanos = System.nanoTime();
+        StripedLockClient cycleClosedBy = findWaitForCycle( lock, lockType );
+        deadlockDetectionStatistics.detectionCompleted( System.nanoTime() - startNanos, cycleClosedBy != null );
+        if ( cycleClosedBy != null )
+        {
+            throw new DeadlockDetectedException( format( "%s can't wait on resource %s since => %s waits for a lock held by %s", this, lock.resource(),
+                    cycleClosedBy, this ) );
+        }
+    }
+
+    /**
+     * @return the client whose wait for a lock held by this client would close a cycle, or {@code null} if there is no such cycle.
+     */
+    private StripedLockClient findWaitForCycle( StripedLock lock, LockType lockType )
+    {
+        Deque<StripedLockClient> toVisit = new ArrayDeque<>();
+        addBlockers( lock, lockType, this, toVisit );
+        Set<StripedLockClient> visited = new HashSet<>();
+        while ( !toVisit.isEmpty() )
+        {
+            StripedLockClient client = toVisit.poll();
+            if ( !visited.add( client ) )
+            {
+                continue;
+            }
+            StripedLock waitedOn = client.waitingFor;
+            LockType waitedOnType = client.waitingForType;
+            if ( waitedOn == null || waitedOnType == null )
+            {
+                continue;
+            }
+            if ( blocks( this, waitedOn, waitedOnType, client ) )
+            {
+                return client;
+            }
+            addBlockers( waitedOn, waitedOnType, client, toVisit );
+        }
+        return null;
+    }
+
+    /**
+     * Add the clients that stop the given waiter from getting the lock in the given mode.
+     */
+    private static void addBlockers( StripedLock lock, LockType lockType, StripedLockClient waiter, Deque<StripedLockClient> blockers )
+    {
+        if ( lockType == SHARED )
+        {
+            StripedLockClient exclusiveHolder = lock.exclusiveHolder();
+            if ( exclusiveHolder != null && exclusiveHolder != waiter )
+            {
+                blockers.add( exclusiveHolder );
+            }
+        }
+        else
+        {
+            lock.forEachHolder( holder ->
+            {
+                if ( holder != waiter )
+                {
+                    blockers.add( holder );
+                }
+            } );
+        }
+    }
+
+    private static boolean blocks( StripedLockClient candidate, StripedLock lock, LockType lockType, StripedLockClient waiter )
+    {
+        Deque<StripedLockClient> blockers = new ArrayDeque<>();
+        addBlockers( lock, lockType, waiter, blockers );
+        return blockers.contains( candidate );
+    }
+
+    private MutableLongObjectMap<HeldLock> localShared( ResourceType resourceType )
+    {
+        return sharedLocks.getIfAbsentPut( resourceType.typeId(), LongObjectHashMap::new );
+    }
+
+    private MutableLongObjectMap<HeldLock> localExclusive( ResourceType resourceType )
+    {
+        return exclusiveLocks.getIfAbsentPut( resourceType.typeId(), LongObjectHashMap::new );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "%s[%d]", getClass().getSimpleName(), getLockSessionId() );
+    }
+
+    /** A lock held by this client, with a local count of how many times it has been acquired. */
+    private static final class HeldLock
+    {
+        private final StripedLock lock;
+        private int references = 1;
+
+        HeldLock( StripedLock lock )
+        {
+            this.lock = lock;
+        }
+
+        void acquireReference()
+        {
+            references = Math.incrementExact( references );
+        }
+
+        int releaseReference()
+        {
+            return references = MathUtil.decrementExactNotPastZero( references );
+        }
+    }
+}
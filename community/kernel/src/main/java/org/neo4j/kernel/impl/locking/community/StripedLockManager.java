@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.community;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.kernel.impl.locking.DeadlockDetectionStatistics;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.LockType;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.time.SystemNanoClock;
+
+import static org.neo4j.internal.helpers.Numbers.ceilingPowerOfTwo;
+
+/**
+ * A community {@link Locks} implementation that avoids the global monitors of {@link LockManagerImpl} and {@link RagManager}.
+ * <p/>
+ * Locks are kept in a fixed number of stripes, each one a concurrent table from resource to {@link StripedLock}.
+ * Acquiring or releasing a lock that nobody else is contending for never blocks: it is a table lookup and a
+ * compare-and-set on the lock word. Only clients that actually have to wait synchronize, and they do so on the
+ * monitor of the stripe the resource maps to, so waiters for unrelated resources mostly use different monitors.
+ * Releasing a lock only touches the stripe monitor if somebody waits in that stripe.
+ * <p/>
+ * Waiting clients publish what they wait for, and deadlocks are detected by the waiting client itself, walking the
+ * wait-for graph without any global lock. Lock acquisition is not fair; a steady stream of shared lockers can keep an
+ * exclusive locker waiting, same as with {@link RWLock}.
+ */
+public class StripedLockManager implements Locks
+{
+    private static final int MIN_STRIPES = 64;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final SystemNanoClock clock;
+    /**
+     * Time within which any particular lock should be acquired.
+     * @see GraphDatabaseSettings#lock_acquisition_timeout
+     */
+    private final long lockAcquisitionTimeoutNano;
+    private final DeadlockDetectionStatistics deadlockDetectionStatistics = new DeadlockDetectionStatistics();
+    private volatile boolean closed;
+
+    public StripedLockManager( Config config, SystemNanoClock clock )
+    {
+        this( config, clock, Math.max( MIN_STRIPES, Runtime.getRuntime().availableProcessors() * 8 ) );
+    }
+
+    StripedLockManager( Config config, SystemNanoClock clock, int stripeCount )
+    {
+        this.clock = clock;
+        this.lockAcquisitionTimeoutNano = config.get( GraphDatabaseSettings.lock_acquisition_timeout ).toNanos();
+        this.stripes = new Stripe[ceilingPowerOfTwo( stripeCount )];
+        this.stripeMask = stripes.length - 1;
+        for ( int i = 0; i < stripes.length; i++ )
+        {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public Client newClient()
+    {
+        // We check this volatile closed flag here, which may seem like a contention overhead, but as the time
+        // of writing we apply pooling of transactions and in extension pooling of lock clients,
+        // so this method is called very rarely.
+        if ( closed )
+        {
+            throw new IllegalStateException( this + " already closed" );
+        }
+        return new StripedLockClient( this, clock, lockAcquisitionTimeoutNano, deadlockDetectionStatistics );
+    }
+
+    @Override
+    public void accept( Visitor visitor )
+    {
+        for ( Stripe stripe : stripes )
+        {
+            for ( StripedLock lock : stripe.locks.values() )
+            {
+                LockResource resource = lock.resource();
+                StripedLockClient exclusiveHolder = lock.exclusiveHolder();
+                String description = lock.describe();
+                long lockIdentityHashCode = System.identityHashCode( lock );
+                if ( exclusiveHolder != null )
+                {
+                    visitor.visit( LockType.EXCLUSIVE, resource.resourceType(), exclusiveHolder.transactionId(), resource.resourceId(), description, 0,
+                            lockIdentityHashCode );
+                }
+                lock.forEachSharedHolder( holder ->
+                {
+                    if ( holder != exclusiveHolder )
+                    {
+                        visitor.visit( LockType.SHARED, resource.resourceType(), holder.transactionId(), resource.resourceId(), description, 0,
+                                lockIdentityHashCode );
+                    }
+                } );
+            }
+        }
+    }
+
+    @Override
+    public DeadlockDetectionStatistics deadlockDetectionStatistics()
+    {
+        return deadlockDetectionStatistics;
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+    }
+
+    int stripeCount()
+    {
+        return stripes.length;
+    }
+
+    Stripe stripe( ResourceType resourceType, long resourceId )
+    {
+        long hash = (resourceId ^ ((long) resourceType.typeId() << 56)) * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (hash >>> 32) & stripeMask];
+    }
+
+    /**
+     * A part of the lock table. The monitor of a stripe is what clients wait on when a lock in the stripe is contended.
+     */
+    static final class Stripe
+    {
+        final ConcurrentHashMap<LockResource,StripedLock> locks = new ConcurrentHashMap<>();
+        /** Number of clients waiting on this stripe. Only changed while holding the stripe monitor. */
+        volatile int waiters;
+
+        /**
+         * Called after a lock in this stripe has been released, or a waiter has been stopped.
+         */
+        void wakeWaiters()
+        {
+            if ( waiters > 0 )
+            {
+                synchronized ( this )
+                {
+                    notifyAll();
+                }
+            }
+        }
+    }
+}
@@ -19,14 +19,19 @@
  */
 package org.neo4j.kernel.impl.pagecache;
 
+import java.util.Arrays;
+
 import org.neo4j.configuration.Config;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.HugePages;
 import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.mem.NumaNodes;
 import org.neo4j.io.os.OsBeanUtil;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.EvictionPolicy;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
@@ -36,9 +41,13 @@ import org.neo4j.memory.MemoryTracker;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.time.SystemNanoClock;
 
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_eviction_policy;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_huge_pages;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_numa_partitioning;
 import static org.neo4j.configuration.SettingValueParsers.BYTES;
 import static org.neo4j.io.mem.MemoryAllocator.createAllocator;
+import static org.neo4j.io.mem.MemoryAllocator.createNumaAllocator;
 import static org.neo4j.memory.MemoryGroup.PAGE_CACHE;
 
 public class ConfiguringPageCacheFactory
@@ -53,6 +62,8 @@ public class ConfiguringPageCacheFactory
     private final JobScheduler scheduler;
     private final SystemNanoClock clock;
     private final MemoryPools memoryPools;
+    private HugePages hugePages;
+    private int[] numaNodes = new int[0];
 
     /**
      * Construct configuring page cache factory
@@ -93,12 +104,33 @@ public class ConfiguringPageCacheFactory
         var memoryPool = memoryPools.pool( PAGE_CACHE, pageCacheMaxMemory, false, null );
         var memoryTracker = memoryPool.getPoolMemoryTracker();
         MemoryAllocator memoryAllocator = buildMemoryAllocator( pageCacheMaxMemory, memoryTracker );
-        return new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, versionContextSupplier, scheduler, clock, memoryTracker );
+        EvictionPolicy evictionPolicy = EvictionPolicy.valueOf( config.get( pagecache_eviction_policy ).name() );
+        return new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, versionContextSupplier, scheduler, clock, memoryTracker,
+                evictionPolicy );
     }
 
     private MemoryAllocator buildMemoryAllocator( long pageCacheMaxMemory, MemoryTracker memoryTracker )
     {
-        return createAllocator( pageCacheMaxMemory, memoryTracker );
+        HugePages requested = HugePages.valueOf( config.get( pagecache_huge_pages ).name() );
+        hugePages = requested.supported();
+        if ( hugePages != requested )
+        {
+            log.warn( "The " + pagecache_huge_pages.name() + " setting asks for " + describe( requested ) + ", but they are not " +
+                      "available on this system. The page cache memory will be backed by " + describe( hugePages ) + " instead." );
+        }
+        if ( config.get( pagecache_numa_partitioning ) )
+        {
+            int[] onlineNodes = NumaNodes.online();
+            if ( onlineNodes.length > 1 )
+            {
+                numaNodes = onlineNodes;
+                return createNumaAllocator( pageCacheMaxMemory, memoryTracker, hugePages, numaNodes );
+            }
+            log.info( "The " + pagecache_numa_partitioning.name() + " setting is enabled, but " +
+                      (onlineNodes.length == 0 ? "the NUMA nodes of this system cannot be determined" : "this system has a single NUMA node") +
+                      ". The page cache will not be partitioned." );
+        }
+        return createAllocator( pageCacheMaxMemory, memoryTracker, hugePages );
     }
 
     private long getPageCacheMaxMemory( Config config )
@@ -171,11 +203,27 @@ public class ConfiguringPageCacheFactory
         long maxVmUsageMb = ByteUnit.Byte.toMebiBytes( Runtime.getRuntime().maxMemory() );
         String msg = "Physical mem: " + totalPhysicalMemMb + " MiB," +
                      " Heap size: " + maxVmUsageMb + " MiB," +
-                     " Page cache: " + pageCacheMemory + ".";
+                     " Page cache: " + pageCacheMemory + "," +
+                     " Page cache eviction policy: " + config.get( pagecache_eviction_policy ) + "," +
+                     " Page cache memory backed by: " + (hugePages == null ? "?" : describe( hugePages )) + "." +
+                     (numaNodes.length > 1 ? " Page cache partitioned over NUMA nodes: " + Arrays.toString( numaNodes ) + "." : "");
 
         log.info( msg );
     }
 
+    private static String describe( HugePages hugePages )
+    {
+        switch ( hugePages )
+        {
+        case EXPLICIT:
+            return "explicit huge pages";
+        case TRANSPARENT:
+            return "transparent huge pages";
+        default:
+            return "regular pages";
+        }
+    }
+
     private static PageSwapperFactory createAndConfigureSwapperFactory( FileSystemAbstraction fs )
     {
         return new SingleFilePageSwapperFactory( fs );
@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_enabled;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch_whitelist;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_profiling_interval;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_TRANSIENT;
+
+/**
+ * Keeps a profile of which pages of the database files are in memory, and loads those pages back into the page cache
+ * when the database starts, so the database does not have to warm up one page fault at a time.
+ * <p>
+ * A profile is a gzipped bitmap with one bit per file page, stored in the {@value #PROFILES_DIRECTORY} directory
+ * of the database, under the same relative path as the file it profiles. Profiles are written to a temporary file
+ * first, and then atomically moved into place, so a crash never leaves a torn profile behind.
+ * <p>
+ * The warmup happens as part of starting the database, before it becomes available. Profiling happens periodically
+ * in the background after that, and once more when the database is stopped.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    static final String PROFILES_DIRECTORY = "profiles";
+    static final String PROFILE_SUFFIX = ".cacheprof";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String WARMER_TAG = "pageCacheWarmer";
+    private static final String PROFILER_TAG = "pageCacheProfiler";
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final Path databaseDirectory;
+    private final Path profilesDirectory;
+    private final Config config;
+    private final Log log;
+    private final PageCacheTracer pageCacheTracer;
+    private JobHandle<?> profilingJob;
+    private boolean stopped;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, Path databaseDirectory, Config config, Log log,
+            PageCacheTracer pageCacheTracer )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.databaseDirectory = databaseDirectory;
+        this.profilesDirectory = databaseDirectory.resolve( PROFILES_DIRECTORY );
+        this.config = config;
+        this.log = log;
+        this.pageCacheTracer = pageCacheTracer;
+    }
+
+    @Override
+    public synchronized void start()
+    {
+        if ( !config.get( pagecache_warmup_enabled ) )
+        {
+            return;
+        }
+        stopped = false;
+        try
+        {
+            if ( config.get( pagecache_warmup_prefetch ) )
+            {
+                // Preloading whole files takes the place of warming up by profile.
+                long pagesLoaded = preload();
+                log.info( "Page cache warmup preloaded %d pages.", pagesLoaded );
+                return;
+            }
+            long pagesLoaded = reheat();
+            if ( pagesLoaded > 0 )
+            {
+                log.info( "Page cache warmup loaded %d pages from profiles.", pagesLoaded );
+            }
+        }
+        catch ( Exception e )
+        {
+            // Warmup is only an optimisation, so we don't want it to prevent the database from starting.
+            log.warn( "Page cache warmup failed.", e );
+        }
+        long interval = config.get( pagecache_warmup_profiling_interval ).toMillis();
+        profilingJob = scheduler.scheduleRecurring( Group.PAGE_CACHE_PROFILER, this::profileInBackground, interval, interval, TimeUnit.MILLISECONDS );
+    }
+
+    @Override
+    public synchronized void stop()
+    {
+        if ( profilingJob != null )
+        {
+            profilingJob.cancel();
+            profilingJob = null;
+            // Take a last profile, so the next start can warm up from the most recent state of the page cache.
+            profileInBackground();
+        }
+        stopped = true;
+    }
+
+    /**
+     * Load the pages that are marked in the profiles, into the page cache.
+     *
+     * @return the number of pages that were loaded.
+     */
+    long reheat() throws IOException
+    {
+        return forEachMappedFileInParallel( this::reheat );
+    }
+
+    /**
+     * Load all pages of the files matched by the preload whitelist, into the page cache.
+     *
+     * @return the number of pages that were loaded.
+     */
+    long preload() throws IOException
+    {
+        Pattern whitelist = Pattern.compile( config.get( pagecache_warmup_prefetch_whitelist ) );
+        return forEachMappedFileInParallel( file -> whitelist.matcher( file.file().getName() ).find() ? preload( file ) : 0 );
+    }
+
+    /**
+     * Write a profile of which pages are currently in memory, for every file mapped by the page cache.
+     */
+    synchronized void profile() throws IOException
+    {
+        if ( stopped )
+        {
+            return;
+        }
+        for ( PagedFile file : pageCache.listExistingMappings() )
+        {
+            Path relativePath = relativePath( file );
+            if ( relativePath != null )
+            {
+                profile( file, relativePath );
+            }
+        }
+    }
+
+    private void profileInBackground()
+    {
+        try
+        {
+            profile();
+        }
+        catch ( Exception e )
+        {
+            log.warn( "Page cache profiling failed.", e );
+        }
+    }
+
+    private long forEachMappedFileInParallel( PagedFileWarmup warmup ) throws IOException
+    {
+        List<PagedFile> files = pageCache.listExistingMappings();
+        List<JobHandle<Long>> jobs = new ArrayList<>( files.size() );
+        for ( PagedFile file : files )
+        {
+            jobs.add( scheduler.schedule( Group.FILE_IO_HELPER, () ->
+            {
+                try
+                {
+                    return warmup.warmup( file );
+                }
+                catch ( IOException e )
+                {
+                    throw new UncheckedIOException( e );
+                }
+            } ) );
+        }
+
+        long pagesLoaded = 0;
+        for ( JobHandle<Long> job : jobs )
+        {
+            try
+            {
+                pagesLoaded += job.get();
+            }
+            catch ( InterruptedException | ExecutionException e )
+            {
+                throw new IOException( e );
+            }
+        }
+        return pagesLoaded;
+    }
+
+    private long reheat( PagedFile file ) throws IOException
+    {
+        Path relativePath = relativePath( file );
+        if ( relativePath == null )
+        {
+            return 0;
+        }
+        File profileFile = profileFile( relativePath );
+        if ( !fs.fileExists( profileFile ) )
+        {
+            return 0;
+        }
+        long pagesLoaded = 0;
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( WARMER_TAG );
+              InputStream input = new GZIPInputStream( new BufferedInputStream( fs.openAsInputStream( profileFile ) ) ) )
+        {
+            // Collect runs of consecutive pages, so they can be read from the file in as few reads as possible.
+            long pageId = 0;
+            long runStart = -1;
+            int b;
+            while ( (b = input.read()) != -1 )
+            {
+                for ( int bit = 0; bit < Byte.SIZE; bit++, pageId++ )
+                {
+                    boolean inProfile = (b & (1 << bit)) != 0;
+                    if ( inProfile && runStart == -1 )
+                    {
+                        runStart = pageId;
+                    }
+                    else if ( !inProfile && runStart != -1 )
+                    {
+                        pagesLoaded += touch( file, runStart, pageId - runStart, cursorTracer );
+                        runStart = -1;
+                    }
+                }
+            }
+            if ( runStart != -1 )
+            {
+                pagesLoaded += touch( file, runStart, pageId - runStart, cursorTracer );
+            }
+        }
+        return pagesLoaded;
+    }
+
+    private long preload( PagedFile file ) throws IOException
+    {
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( WARMER_TAG ) )
+        {
+            return touch( file, 0, file.getLastPageId() + 1, cursorTracer );
+        }
+    }
+
+    private static long touch( PagedFile file, long startPageId, long count, PageCursorTracer cursorTracer ) throws IOException
+    {
+        long pagesLoaded = 0;
+        while ( count > 0 )
+        {
+            int chunk = (int) Math.min( count, Integer.MAX_VALUE );
+            pagesLoaded += file.touch( startPageId, chunk, cursorTracer );
+            startPageId += chunk;
+            count -= chunk;
+        }
+        return pagesLoaded;
+    }
+
+    private void profile( PagedFile file, Path relativePath ) throws IOException
+    {
+        File profileFile = profileFile( relativePath );
+        File tempFile = new File( profileFile.getPath() + TEMP_SUFFIX );
+        fs.mkdirs( profileFile.getParentFile() );
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( PROFILER_TAG );
+              PageCursor cursor = file.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT | PF_TRANSIENT, cursorTracer );
+              OutputStream output = new GZIPOutputStream( new BufferedOutputStream( fs.openAsOutputStream( tempFile, false ) ) ) )
+        {
+            int b = 0;
+            int bit = 0;
+            while ( cursor.next() )
+            {
+                if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                {
+                    b |= 1 << bit;
+                }
+                if ( ++bit == Byte.SIZE )
+                {
+                    output.write( b );
+                    b = 0;
+                    bit = 0;
+                }
+            }
+            if ( bit > 0 )
+            {
+                output.write( b );
+            }
+        }
+        fs.renameFile( tempFile, profileFile, ATOMIC_MOVE, REPLACE_EXISTING );
+    }
+
+    private File profileFile( Path relativePath )
+    {
+        return profilesDirectory.resolve( relativePath + PROFILE_SUFFIX ).toFile();
+    }
+
+    /**
+     * @return the path of the given file relative to the database directory, or {@code null} if the file is not part of this database.
+     */
+    private Path relativePath( PagedFile file )
+    {
+        Path databasePath = databaseDirectory.toAbsolutePath().normalize();
+        Path filePath = file.file().toPath().toAbsolutePath().normalize();
+        return filePath.startsWith( databasePath ) ? databasePath.relativize( filePath ) : null;
+    }
+
+    @FunctionalInterface
+    private interface PagedFileWarmup
+    {
+        long warmup( PagedFile file ) throws IOException;
+    }
+}
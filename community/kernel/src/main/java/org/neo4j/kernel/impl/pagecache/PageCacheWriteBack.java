@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_writeback_interval;
+
+/**
+ * Periodically writes the dirty pages of the database files back to storage, ahead of check-points.
+ * <p>
+ * Without write-back, every page that is modified between two check-points is written by the check-point itself, in one
+ * burst that competes with the commits for the disk. With write-back, the pages are written continuously in the background,
+ * in file order and with adjacent pages merged into vectored writes, at the rate allowed by the same {@link IOLimiter}
+ * as the check-points. The check-point then only has to flush and force the pages that were modified since the last write-back.
+ * <p>
+ * Write-back does not force the files, and does not wait for pages that are locked, so it never holds up the check-point
+ * or the transactions that are modifying the pages.
+ */
+public class PageCacheWriteBack extends LifecycleAdapter
+{
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final IOLimiter ioLimiter;
+    private final Config config;
+    private final Log log;
+    private JobHandle<?> writeBackJob;
+    private volatile boolean stopped;
+
+    public PageCacheWriteBack( PageCache pageCache, JobScheduler scheduler, IOLimiter ioLimiter, Config config, Log log )
+    {
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.ioLimiter = ioLimiter;
+        this.config = config;
+        this.log = log;
+    }
+
+    @Override
+    public void start()
+    {
+        long interval = config.get( pagecache_writeback_interval ).toMillis();
+        if ( interval <= 0 )
+        {
+            return;
+        }
+        stopped = false;
+        writeBackJob = scheduler.scheduleRecurring( Group.PAGE_CACHE_WRITE_BACK, this::writeBackInBackground, interval, interval, TimeUnit.MILLISECONDS );
+    }
+
+    @Override
+    public void stop()
+    {
+        if ( writeBackJob == null )
+        {
+            return;
+        }
+        stopped = true;
+        writeBackJob.cancel();
+        writeBackJob = null;
+        // Let an ongoing write-back finish at full speed, rather than have it hold up the shutdown.
+        ioLimiter.disableLimit();
+        try
+        {
+            awaitOngoingWriteBack();
+        }
+        finally
+        {
+            ioLimiter.enableLimit();
+        }
+    }
+
+    private synchronized void awaitOngoingWriteBack()
+    {
+        // Write-backs hold the monitor, so there is nothing more to do once we have it.
+    }
+
+    /**
+     * Write the dirty pages of every file mapped by the page cache back to storage.
+     */
+    synchronized void writeBack() throws IOException
+    {
+        for ( PagedFile file : pageCache.listExistingMappings() )
+        {
+            if ( stopped )
+            {
+                return;
+            }
+            file.writeBack( ioLimiter );
+        }
+    }
+
+    private void writeBackInBackground()
+    {
+        try
+        {
+            writeBack();
+        }
+        catch ( Exception e )
+        {
+            // The next check-point will flush the pages that we failed to write, and will report the problem if it persists.
+            log.warn( "Page cache write-back failed.", e );
+        }
+    }
+}
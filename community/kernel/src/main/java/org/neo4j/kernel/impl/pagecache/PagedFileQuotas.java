@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.graphdb.config.Setting;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.pagecache.PagedFile;
+
+import static java.util.Collections.emptyList;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_file_limits;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_file_reservations;
+
+/**
+ * The page cache memory that files are reserved, or limited to, by file name, as configured by
+ * {@link org.neo4j.configuration.GraphDatabaseSettings#pagecache_file_reservations} and
+ * {@link org.neo4j.configuration.GraphDatabaseSettings#pagecache_file_limits}.
+ */
+public final class PagedFileQuotas
+{
+    public static final PagedFileQuotas NONE = new PagedFileQuotas( emptyList(), emptyList() );
+
+    /**
+     * An entry is a regex, which may itself contain commas and equals signs, followed by '=', a size that starts with a digit,
+     * and the comma that ends the entry, if it is not the last one.
+     */
+    private static final Pattern ENTRY = Pattern.compile( "(.+?)=(\\s*[0-9][^=,]*)(?:,\\s*|$)" );
+
+    private final List<Quota> reservations;
+    private final List<Quota> limits;
+
+    private PagedFileQuotas( List<Quota> reservations, List<Quota> limits )
+    {
+        this.reservations = reservations;
+        this.limits = limits;
+    }
+
+    public static PagedFileQuotas fromConfig( Config config )
+    {
+        List<Quota> reservations = parse( config, pagecache_file_reservations );
+        List<Quota> limits = parse( config, pagecache_file_limits );
+        return reservations.isEmpty() && limits.isEmpty() ? NONE : new PagedFileQuotas( reservations, limits );
+    }
+
+    /**
+     * Set the page quota of the given file, if its name matches any of the configured reservations or limits.
+     */
+    public void apply( PagedFile pagedFile )
+    {
+        if ( this == NONE )
+        {
+            return;
+        }
+        String fileName = pagedFile.file().getName();
+        long reservedBytes = bytesFor( reservations, fileName, 0 );
+        long maxBytes = bytesFor( limits, fileName, Long.MAX_VALUE );
+        if ( reservedBytes == 0 && maxBytes == Long.MAX_VALUE )
+        {
+            return;
+        }
+        int pageSize = pagedFile.pageSize();
+        long maxPages = maxBytes == Long.MAX_VALUE ? Long.MAX_VALUE : maxBytes / pageSize;
+        long reservedPages = Math.min( (reservedBytes + pageSize - 1) / pageSize, maxPages );
+        pagedFile.setPageQuota( reservedPages, maxPages );
+    }
+
+    private static long bytesFor( List<Quota> quotas, String fileName, long defaultBytes )
+    {
+        for ( Quota quota : quotas )
+        {
+            if ( quota.pattern.matcher( fileName ).matches() )
+            {
+                return quota.bytes;
+            }
+        }
+        return defaultBytes;
+    }
+
+    private static List<Quota> parse( Config config, Setting<String> setting )
+    {
+        List<Quota> quotas = new ArrayList<>();
+        String value = config.get( setting ).trim();
+        Matcher entry = ENTRY.matcher( value );
+        int start = 0;
+        while ( start < value.length() )
+        {
+            if ( !entry.find( start ) || entry.start() != start )
+            {
+                throw invalidEntry( setting, value.substring( start ), null );
+            }
+            try
+            {
+                Pattern pattern = Pattern.compile( entry.group( 1 ).trim() );
+                long bytes = ByteUnit.parse( entry.group( 2 ).trim() );
+                quotas.add( new Quota( pattern, bytes ) );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                throw invalidEntry( setting, entry.group(), e );
+            }
+            start = entry.end();
+        }
+        return quotas;
+    }
+
+    private static IllegalArgumentException invalidEntry( Setting<String> setting, String entry, Exception cause )
+    {
+        return new IllegalArgumentException(
+                "Invalid entry '" + entry + "' in setting " + setting.name() + ", expected '<file name regex>=<size>'.", cause );
+    }
+
+    private static final class Quota
+    {
+        private final Pattern pattern;
+        private final long bytes;
+
+        Quota( Pattern pattern, long bytes )
+        {
+            this.pattern = pattern;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -33,6 +33,7 @@ import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.files.TransactionLogOffsetIndex;
 import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogCheckPointEvent;
@@ -56,6 +57,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     private final AtomicReference<ThreadLink> threadLinkHead = new AtomicReference<>( ThreadLink.END );
     private final TransactionMetadataCache transactionMetadataCache;
     private final LogFile logFile;
+    private final TransactionLogOffsetIndex offsetIndex;
     private final LogRotation logRotation;
     private final TransactionIdStore transactionIdStore;
     private final LogPositionMarker positionMarker = new LogPositionMarker();
@@ -70,6 +72,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             TransactionIdStore transactionIdStore, Health databaseHealth )
     {
         this.logFile = logFiles.getLogFile();
+        this.offsetIndex = logFiles.getOffsetIndex();
         this.logRotation = logRotation;
         this.transactionIdStore = transactionIdStore;
         this.databaseHealth = databaseHealth;
@@ -82,6 +85,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             TransactionIdStore transactionIdStore, Health databaseHealth, int previousChecksum )
     {
         this.logFile = logFiles.getLogFile();
+        this.offsetIndex = logFiles.getOffsetIndex();
         this.logRotation = logRotation;
         this.transactionIdStore = transactionIdStore;
         this.databaseHealth = databaseHealth;
@@ -145,6 +149,9 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         // Mark all transactions as committed
         publishAsCommitted( batch );
 
+        // The offsets of the appended transactions were only buffered while holding the log
+        offsetIndex.flushIfNeeded();
+
         return lastTransactionId;
     }
 
@@ -217,6 +224,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             logAppendEvent.appendToLogFile( logPositionBeforeCommit, logPositionAfterCommit );
 
             transactionMetadataCache.cacheTransactionMetadata( transactionId, logPositionBeforeCommit, checksum, transaction.getTimeCommitted() );
+            offsetIndex.transactionAppended( transactionId, logPositionBeforeCommit );
 
             return new TransactionCommitment( transactionId, checksum, transaction.getTimeCommitted(), logPositionAfterCommit,
                     transactionIdStore );
@@ -30,6 +30,7 @@ import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.LogHeaderVisitor;
+import org.neo4j.kernel.impl.transaction.log.files.TransactionLogOffsetIndex;
 import org.neo4j.kernel.impl.transaction.log.reverse.ReversedMultiFileTransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.reverse.ReversedTransactionCursorMonitor;
 import org.neo4j.monitoring.Monitors;
@@ -92,9 +93,22 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             LogVersionLocator headerVisitor = new LogVersionLocator( transactionIdToStartFrom );
             logFiles.accept( headerVisitor );
 
+            // ask the offset index where in that version to start looking
+            LogPosition headerPosition = headerVisitor.getLogPosition();
+            LogPosition indexedPosition = indexedPosition( headerPosition, transactionIdToStartFrom );
+            if ( indexedPosition != null )
+            {
+                TransactionPositionLocator transactionPositionLocator = new TransactionPositionLocator( transactionIdToStartFrom, logEntryReader );
+                if ( locate( transactionPositionLocator, indexedPosition ) )
+                {
+                    LogPosition position = transactionPositionLocator.getAndCacheFoundLogPosition( transactionMetadataCache );
+                    return new PhysicalTransactionCursor( logFile.getReader( position ), logEntryReader );
+                }
+            }
+
             // ask LogFile
             TransactionPositionLocator transactionPositionLocator = new TransactionPositionLocator( transactionIdToStartFrom, logEntryReader );
-            logFile.accept( transactionPositionLocator, headerVisitor.getLogPosition() );
+            logFile.accept( transactionPositionLocator, headerPosition );
             LogPosition position = transactionPositionLocator.getAndCacheFoundLogPosition( transactionMetadataCache );
             return new PhysicalTransactionCursor( logFile.getReader( position ), logEntryReader );
         }
@@ -108,6 +122,41 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
         }
     }
 
+    private LogPosition indexedPosition( LogPosition headerPosition, long transactionId )
+    {
+        TransactionLogOffsetIndex offsetIndex = logFiles.getOffsetIndex();
+        long version = headerPosition.getLogVersion();
+        try
+        {
+            LogPosition position = offsetIndex.lookup( version, transactionId );
+            if ( position == null && version < logFiles.getHighestLogVersion() )
+            {
+                offsetIndex.rebuild( version );
+                position = offsetIndex.lookup( version, transactionId );
+            }
+            return position;
+        }
+        catch ( IOException e )
+        {
+            // The index is only a hint, reading the log file from the start will tell if there's something wrong with it
+            return null;
+        }
+    }
+
+    private boolean locate( TransactionPositionLocator transactionPositionLocator, LogPosition position )
+    {
+        try
+        {
+            logFile.accept( transactionPositionLocator, position );
+            return transactionPositionLocator.found();
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            // A stale index may point somewhere that isn't the start of a transaction
+            return false;
+        }
+    }
+
     public static class TransactionPositionLocator implements LogFile.LogFileVisitor
     {
         private final long startTransactionId;
@@ -151,6 +200,11 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             return true;
         }
 
+        boolean found()
+        {
+            return startEntryForFoundTransaction != null;
+        }
+
         LogPosition getAndCacheFoundLogPosition( TransactionMetadataCache transactionMetadataCache ) throws NoSuchTransactionException
         {
             if ( startEntryForFoundTransaction == null )
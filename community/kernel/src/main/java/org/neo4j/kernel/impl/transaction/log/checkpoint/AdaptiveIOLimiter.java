@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.database.DatabaseTracers;
+import org.neo4j.logging.Log;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.neo4j.configuration.GraphDatabaseSettings.check_point_iops_limit;
+import static org.neo4j.configuration.GraphDatabaseSettings.check_point_latency_target;
+
+/**
+ * An {@link IOLimiter} that adapts the rate of check-point IO to keep the latency that transactions observe close to
+ * {@link org.neo4j.configuration.GraphDatabaseSettings#check_point_latency_target}.
+ * <p>
+ * Once per {@link #ADJUSTMENT_INTERVAL_NANOS adjustment interval} of limited IO, the mean latency of the transaction log forces,
+ * and of the page faults, that completed in the interval is compared to the target. The limit is halved if either of them is above
+ * the target, and raised by a quarter if both are below half of it. Every change of the limit is logged, so the decisions show up
+ * next to the check-point messages in the log. Changing {@link org.neo4j.configuration.GraphDatabaseSettings#check_point_iops_limit}
+ * at runtime resets the limit to the new value, from which it adapts again.
+ * <p>
+ * The IO is limited in quanta of {@link #QUANTUM_MILLIS}. Once the IOs allowed in a quantum are used up, the flushing thread pauses
+ * until the end of the quantum. The stamps passed between calls to {@link #maybeLimitIO(long, int, Flushable)} keep the start of the
+ * current quantum in milliseconds in the low 32 bits, and the number of IOs done in the quantum in the high 32 bits.
+ */
+public class AdaptiveIOLimiter implements IOLimiter
+{
+    static final int MIN_IOPS = 100;
+    static final int MAX_IOPS = 1 << 20;
+    private static final long QUANTUM_MILLIS = 100;
+    private static final int QUANTUMS_PER_SECOND = (int) (SECONDS.toMillis( 1 ) / QUANTUM_MILLIS);
+    private static final long ADJUSTMENT_INTERVAL_NANOS = SECONDS.toNanos( 1 );
+    private static final int TIME_BITS = 32;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+
+    private final long targetNanos;
+    private final MeanLatency logForces;
+    private final MeanLatency pageFaults;
+    private final Log log;
+    private final LongSupplier nanoClock;
+    private final LongConsumer pauser;
+    private final AtomicInteger disabledCounter = new AtomicInteger();
+
+    private volatile int iops;
+    private volatile long nextAdjustmentNanos;
+    private long lastSampleNanos;
+    private boolean sampled;
+
+    public AdaptiveIOLimiter( Config config, DatabaseTracers tracers, PageCache pageCache, Log log )
+    {
+        this( config.get( check_point_latency_target ).toNanos(), config.get( check_point_iops_limit ),
+                () -> singletonList( tracers.getDatabaseTracer().logForceLatencies() ),
+                () -> faultLatencies( pageCache, tracers.getPageCacheTracer() ),
+                log, System::nanoTime, LockSupport::parkNanos );
+        config.addListener( check_point_iops_limit, ( before, after ) -> updateIopsLimit( after ) );
+    }
+
+    AdaptiveIOLimiter( long targetNanos, int initialIops, Supplier<List<LatencyHistogram>> logForceLatencies,
+            Supplier<List<LatencyHistogram>> pageFaultLatencies, Log log, LongSupplier nanoClock, LongConsumer pauser )
+    {
+        if ( targetNanos <= 0 )
+        {
+            throw new IllegalArgumentException( "Latency target must be positive, but was " + targetNanos + " ns." );
+        }
+        this.targetNanos = targetNanos;
+        this.iops = boundedIops( initialIops );
+        this.logForces = new MeanLatency( logForceLatencies );
+        this.pageFaults = new MeanLatency( pageFaultLatencies );
+        this.log = log;
+        this.nanoClock = nanoClock;
+        this.pauser = pauser;
+    }
+
+    @Override
+    public long maybeLimitIO( long previousStamp, int recentlyCompletedIOs, Flushable flushable )
+    {
+        if ( disabledCounter.get() > 0 )
+        {
+            return INITIAL_STAMP;
+        }
+        long now = nanoClock.getAsLong();
+        if ( now - nextAdjustmentNanos >= 0 )
+        {
+            adjust( now );
+        }
+
+        long nowMillis = NANOSECONDS.toMillis( now ) & TIME_MASK;
+        long quantumStart = previousStamp & TIME_MASK;
+        long elapsedMillis = (nowMillis - quantumStart) & TIME_MASK;
+        if ( previousStamp == INITIAL_STAMP || elapsedMillis >= QUANTUM_MILLIS )
+        {
+            return nowMillis | ((long) recentlyCompletedIOs << TIME_BITS);
+        }
+        long ios = (previousStamp >>> TIME_BITS) + recentlyCompletedIOs;
+        if ( ios >= Math.max( 1, iops / QUANTUMS_PER_SECOND ) )
+        {
+            pauser.accept( MILLISECONDS.toNanos( QUANTUM_MILLIS - elapsedMillis ) );
+            return NANOSECONDS.toMillis( nanoClock.getAsLong() ) & TIME_MASK;
+        }
+        return quantumStart | (ios << TIME_BITS);
+    }
+
+    private synchronized void adjust( long now )
+    {
+        if ( now - nextAdjustmentNanos < 0 )
+        {
+            return; // Another flushing thread beat us to it.
+        }
+        nextAdjustmentNanos = now + ADJUSTMENT_INTERVAL_NANOS;
+        long logForceNanos = logForces.sample();
+        long pageFaultNanos = pageFaults.sample();
+        boolean stale = !sampled || now - lastSampleNanos > 2 * ADJUSTMENT_INTERVAL_NANOS;
+        sampled = true;
+        lastSampleNanos = now;
+        if ( stale )
+        {
+            // The latencies since the previous sample were not observed while IO was limited, so they say nothing about our limit.
+            return;
+        }
+
+        long observedNanos = Math.max( logForceNanos, pageFaultNanos );
+        int current = iops;
+        int next;
+        if ( observedNanos > targetNanos )
+        {
+            next = Math.max( MIN_IOPS, current / 2 );
+        }
+        else if ( observedNanos >= 0 && observedNanos < targetNanos / 2 )
+        {
+            next = Math.min( MAX_IOPS, current + current / 4 );
+        }
+        else
+        {
+            return;
+        }
+        if ( next != current )
+        {
+            iops = next;
+            log.info( "Checkpoint IO limit %s from %d to %d IOPS. Mean log force latency %s, mean page fault latency %s, target %s.",
+                    next < current ? "lowered" : "raised", current, next,
+                    formatLatency( logForceNanos ), formatLatency( pageFaultNanos ), formatLatency( targetNanos ) );
+        }
+    }
+
+    /**
+     * Reset the limit to a newly configured number of IOs per second.
+     */
+    synchronized void updateIopsLimit( int configuredIops )
+    {
+        int current = iops;
+        iops = boundedIops( configuredIops );
+        log.info( "Checkpoint IO limit reconfigured from %d to %d IOPS.", current, iops );
+    }
+
+    private static int boundedIops( int configuredIops )
+    {
+        return configuredIops <= 0 ? MAX_IOPS : Math.min( Math.max( configuredIops, MIN_IOPS ), MAX_IOPS );
+    }
+
+    /**
+     * @return the number of IOs per second that is currently allowed while the limit is enabled.
+     */
+    public int currentIopsLimit()
+    {
+        return iops;
+    }
+
+    @Override
+    public void disableLimit()
+    {
+        disabledCounter.incrementAndGet();
+    }
+
+    @Override
+    public void enableLimit()
+    {
+        disabledCounter.decrementAndGet();
+    }
+
+    @Override
+    public boolean isLimited()
+    {
+        return disabledCounter.get() == 0;
+    }
+
+    private static String formatLatency( long nanos )
+    {
+        return nanos < 0 ? "n/a" : String.format( "%.3f ms", nanos / 1_000_000d );
+    }
+
+    private static List<LatencyHistogram> faultLatencies( PageCache pageCache, PageCacheTracer pageCacheTracer )
+    {
+        try
+        {
+            List<LatencyHistogram> histograms = new ArrayList<>();
+            for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+            {
+                LatencyHistogram histogram = pageCacheTracer.faultLatencies( pagedFile.file() );
+                if ( histogram != null )
+                {
+                    histograms.add( histogram );
+                }
+            }
+            return histograms;
+        }
+        catch ( IOException e )
+        {
+            return emptyList();
+        }
+    }
+
+    /**
+     * The mean of the latencies that were recorded into a set of histograms, since the previous sample.
+     */
+    private static class MeanLatency
+    {
+        private final Supplier<List<LatencyHistogram>> histograms;
+        private long count;
+        private long totalNanos;
+
+        MeanLatency( Supplier<List<LatencyHistogram>> histograms )
+        {
+            this.histograms = histograms;
+        }
+
+        /**
+         * @return the mean latency in nanoseconds, or -1 if nothing was recorded since the previous sample.
+         */
+        long sample()
+        {
+            long newCount = 0;
+            long newTotalNanos = 0;
+            for ( LatencyHistogram histogram : histograms.get() )
+            {
+                newCount += histogram.count();
+                newTotalNanos += histogram.totalNanos();
+            }
+            long deltaCount = newCount - count;
+            long deltaNanos = newTotalNanos - totalNanos;
+            count = newCount;
+            totalNanos = newTotalNanos;
+            // The deltas can be negative if files were unmapped since the previous sample.
+            return deltaCount > 0 && deltaNanos >= 0 ? deltaNanos / deltaCount : -1;
+        }
+    }
+}
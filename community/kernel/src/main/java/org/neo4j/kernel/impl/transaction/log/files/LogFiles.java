@@ -58,12 +58,22 @@ public interface LogFiles extends Lifecycle
 
     boolean hasAnyEntries( long version );
 
+    /**
+     * Keep the log file of a pruned version, zeroed, for reuse as a new log file, if configured to do so.
+     *
+     * @param version version of the pruned log file.
+     * @return {@code true} if the log file was taken for reuse, otherwise {@code false} and the log file should be deleted.
+     */
+    boolean recycleLogFile( long version );
+
     void accept( LogVersionVisitor visitor );
 
     void accept( LogHeaderVisitor visitor ) throws IOException;
 
     LogFile getLogFile();
 
+    TransactionLogOffsetIndex getOffsetIndex();
+
     TransactionLogFileInformation getLogFileInformation();
 
     LogFileChannelNativeAccessor getChannelNativeAccessor();
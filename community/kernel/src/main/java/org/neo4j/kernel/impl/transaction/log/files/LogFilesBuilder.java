@@ -49,6 +49,8 @@ import org.neo4j.storageengine.api.StoreIdProvider;
 import org.neo4j.storageengine.api.TransactionIdStore;
 
 import static java.util.Objects.requireNonNull;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.transaction_log_direct_io;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.transaction_log_recycled_files;
 import static org.neo4j.configuration.GraphDatabaseSettings.logical_log_rotation_threshold;
 import static org.neo4j.configuration.GraphDatabaseSettings.preallocate_logical_logs;
 
@@ -278,10 +280,12 @@ public class LogFilesBuilder
         AtomicLong rotationThreshold = getRotationThresholdAndRegisterForUpdates();
         AtomicBoolean tryPreallocateTransactionLogs = getTryToPreallocateTransactionLogs();
         var nativeAccess = getNativeAccess();
+        boolean directIO = !readOnly && config.get( transaction_log_direct_io );
+        int maxRecycledFiles = readOnly ? 0 : config.get( transaction_log_recycled_files );
 
         return new TransactionLogFilesContext( rotationThreshold, tryPreallocateTransactionLogs, logEntryReader, lastCommittedIdSupplier,
                 committingTransactionIdSupplier, lastClosedTransactionPositionSupplier, logVersionRepositorySupplier, fileSystem,
-                logProvider, databaseTracers, storeIdSupplier, nativeAccess, memoryTracker );
+                logProvider, databaseTracers, storeIdSupplier, nativeAccess, memoryTracker, directIO, maxRecycledFiles );
     }
 
     private NativeAccess getNativeAccess()
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.internal.nativeimpl.NativeCallResult;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.memory.HeapScopedBuffer;
+import org.neo4j.logging.Log;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+
+/**
+ * Keeps pruned transaction log files around, zeroed, to be reused as new log files on rotation.
+ * <p>
+ * Reusing a file that is already allocated and written means new log files don't have to be created and extended by the file system
+ * while transactions are committing, which makes the time it takes to force the log more predictable.
+ * Files are zeroed before they are handed out because the end of the log is found by reading up to the first zero entry.
+ * Zeroing happens while pruning, on the check point path, so the file system is asked to zero the file without writing it where
+ * possible, and zeros are only written through the operating system page cache when it cannot.
+ * <p>
+ * A file is renamed to {@code recycled.<log file name>} once zeroed, and back to a log file name when reused.
+ * Files that were being zeroed when the database stopped are deleted on start.
+ */
+class RecycledLogFiles
+{
+    static final String RECYCLED_PREFIX = "recycled.";
+    static final String ZEROING_SUFFIX = ".zeroing";
+    private static final int ZEROING_CHUNK_SIZE = (int) ByteUnit.mebiBytes( 1 );
+
+    private final File logsDirectory;
+    private final TransactionLogFilesContext context;
+    private final FileSystemAbstraction fileSystem;
+    private final int maxRecycledFiles;
+    private final Log log;
+
+    RecycledLogFiles( File logsDirectory, TransactionLogFilesContext context )
+    {
+        this.logsDirectory = logsDirectory;
+        this.context = context;
+        this.fileSystem = context.getFileSystem();
+        this.maxRecycledFiles = context.getMaxRecycledFiles();
+        this.log = context.getLogProvider().getLog( getClass() );
+    }
+
+    synchronized void init()
+    {
+        for ( File file : listRecycledFiles() )
+        {
+            if ( file.getName().endsWith( ZEROING_SUFFIX ) || maxRecycledFiles == 0 )
+            {
+                fileSystem.deleteFile( file );
+            }
+        }
+    }
+
+    /**
+     * Zero the given pruned log file and keep it for reuse, if there is room for more recycled files.
+     *
+     * @param logFile pruned log file.
+     * @return {@code true} if the log file was recycled, otherwise {@code false} and the log file is either left as is, or already
+     * deleted if it could not be zeroed.
+     */
+    synchronized boolean recycle( File logFile )
+    {
+        if ( maxRecycledFiles == 0 || listRecycledFiles().length >= maxRecycledFiles )
+        {
+            return false;
+        }
+        File zeroingFile = new File( logsDirectory, RECYCLED_PREFIX + logFile.getName() + ZEROING_SUFFIX );
+        try
+        {
+            fileSystem.renameFile( logFile, zeroingFile, ATOMIC_MOVE );
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Unable to recycle transaction log file " + logFile + ", it will be deleted instead.", e );
+            return false;
+        }
+
+        try
+        {
+            zero( zeroingFile );
+            fileSystem.renameFile( zeroingFile, new File( logsDirectory, RECYCLED_PREFIX + logFile.getName() ), ATOMIC_MOVE );
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Unable to zero recycled transaction log file " + logFile + ", it will be deleted instead.", e );
+            fileSystem.deleteFile( zeroingFile );
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reuse a recycled file, if there is one, as the given new log file.
+     *
+     * @param newLogFile log file that is about to be created.
+     * @return {@code true} if a recycled file now is the new log file, otherwise {@code false}.
+     */
+    synchronized boolean reuse( File newLogFile )
+    {
+        for ( File file : listRecycledFiles() )
+        {
+            if ( !file.getName().endsWith( ZEROING_SUFFIX ) )
+            {
+                try
+                {
+                    fileSystem.renameFile( file, newLogFile, ATOMIC_MOVE );
+                    return true;
+                }
+                catch ( IOException e )
+                {
+                    log.warn( "Unable to reuse recycled transaction log file " + file + ", it will be deleted.", e );
+                    fileSystem.deleteFile( file );
+                }
+            }
+        }
+        return false;
+    }
+
+    private void zero( File file ) throws IOException
+    {
+        long size = max( fileSystem.getFileSize( file ), context.getRotationThreshold().get() );
+        try ( StoreChannel channel = fileSystem.write( file ) )
+        {
+            NativeCallResult result = context.getNativeAccess().tryZeroRange( fileSystem.getFileDescriptor( channel ), 0, size );
+            if ( result.isError() )
+            {
+                writeZeros( channel, size );
+            }
+            channel.force( false );
+        }
+    }
+
+    private void writeZeros( StoreChannel channel, long size ) throws IOException
+    {
+        try ( var scopedBuffer = new HeapScopedBuffer( ZEROING_CHUNK_SIZE, context.getMemoryTracker() ) )
+        {
+            ByteBuffer zeros = scopedBuffer.getBuffer();
+            for ( long position = 0; position < size; position += zeros.limit() )
+            {
+                zeros.clear().limit( (int) min( ZEROING_CHUNK_SIZE, size - position ) );
+                channel.writeAll( zeros, position );
+            }
+        }
+    }
+
+    private File[] listRecycledFiles()
+    {
+        File[] files = fileSystem.listFiles( logsDirectory, ( dir, name ) -> name.startsWith( RECYCLED_PREFIX ) );
+        return files == null ? new File[0] : files;
+    }
+}
@@ -24,6 +24,8 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.function.LongSupplier;
 
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.DirectIOStoreChannel;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.io.memory.HeapScopedBuffer;
@@ -33,6 +35,7 @@ import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeaderWriter;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.kernel.impl.transaction.tracing.LogFileCreateEvent;
+import org.neo4j.logging.Log;
 
 import static java.lang.String.format;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
@@ -41,15 +44,19 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_LO
 
 class TransactionLogChannelAllocator
 {
+    private static final int DIRECT_IO_BUFFER_SIZE = (int) ByteUnit.mebiBytes( 1 );
+
     private final TransactionLogFilesContext logFilesContext;
     private final FileSystemAbstraction fileSystem;
     private final TransactionLogFilesHelper fileHelper;
     private final LogHeaderCache logHeaderCache;
     private final LogFileChannelNativeAccessor nativeChannelAccessor;
     private final DatabaseTracer databaseTracer;
+    private final RecycledLogFiles recycledLogFiles;
+    private final Log log;
 
     TransactionLogChannelAllocator( TransactionLogFilesContext logFilesContext, TransactionLogFilesHelper fileHelper, LogHeaderCache logHeaderCache,
-            LogFileChannelNativeAccessor nativeChannelAccessor )
+            LogFileChannelNativeAccessor nativeChannelAccessor, RecycledLogFiles recycledLogFiles )
     {
         this.logFilesContext = logFilesContext;
         this.fileSystem = logFilesContext.getFileSystem();
@@ -57,6 +64,8 @@ class TransactionLogChannelAllocator
         this.fileHelper = fileHelper;
         this.logHeaderCache = logHeaderCache;
         this.nativeChannelAccessor = nativeChannelAccessor;
+        this.recycledLogFiles = recycledLogFiles;
+        this.log = logFilesContext.getLogProvider().getLog( getClass() );
     }
 
     PhysicalLogVersionedStoreChannel createLogChannel( long version, LongSupplier lastCommittedTransactionId ) throws IOException
@@ -139,8 +148,8 @@ class TransactionLogChannelAllocator
     private AllocatedFile allocateFile( long version ) throws IOException
     {
         File file = fileHelper.getLogFileForVersion( version );
-        boolean fileExist = fileSystem.fileExists( file );
-        StoreChannel storeChannel = fileSystem.write( file );
+        boolean fileExist = fileSystem.fileExists( file ) || recycledLogFiles.reuse( file );
+        StoreChannel storeChannel = openForWriting( file );
         if ( fileExist )
         {
             nativeChannelAccessor.adviseSequentialAccessAndKeepInCache( storeChannel, version );
@@ -152,6 +161,22 @@ class TransactionLogChannelAllocator
         return new AllocatedFile( file, storeChannel );
     }
 
+    private StoreChannel openForWriting( File file ) throws IOException
+    {
+        if ( logFilesContext.isDirectIO() )
+        {
+            try
+            {
+                return DirectIOStoreChannel.open( fileSystem, file, DIRECT_IO_BUFFER_SIZE, logFilesContext.getMemoryTracker() );
+            }
+            catch ( IOException | UnsupportedOperationException e )
+            {
+                log.warn( "Unable to open transaction log file " + file + " for direct I/O, it will be written through the page cache instead.", e );
+            }
+        }
+        return fileSystem.write( file );
+    }
+
     private static class AllocatedFile
     {
         private final File file;
@@ -53,6 +53,8 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
     private final File logsDirectory;
     private final TransactionLogChannelAllocator channelAllocator;
     private final LogFileChannelNativeAccessor nativeChannelAccessor;
+    private final RecycledLogFiles recycledLogFiles;
+    private final TransactionLogOffsetIndex offsetIndex;
 
     TransactionLogFiles( File logsDirectory, String name, TransactionLogFilesContext context )
     {
@@ -64,12 +66,15 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
         this.logFileInformation = new TransactionLogFileInformation( this, logHeaderCache, context );
         this.nativeChannelAccessor = new LogFileChannelNativeAccessor( fileSystem, context );
         this.logFile = new TransactionLogFile( this, context );
-        this.channelAllocator = new TransactionLogChannelAllocator( logFilesContext, fileHelper, logHeaderCache, nativeChannelAccessor );
+        this.recycledLogFiles = new RecycledLogFiles( logsDirectory, context );
+        this.offsetIndex = new TransactionLogOffsetIndex( logsDirectory, this, context );
+        this.channelAllocator = new TransactionLogChannelAllocator( logFilesContext, fileHelper, logHeaderCache, nativeChannelAccessor, recycledLogFiles );
     }
 
     @Override
     public void init() throws IOException
     {
+        recycledLogFiles.init();
         logFile.init();
     }
 
@@ -83,6 +88,7 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
     public void shutdown() throws IOException
     {
         logFile.shutdown();
+        offsetIndex.close();
     }
 
     @Override
@@ -127,6 +133,12 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
         return fileSystem.fileExists( getLogFileForVersion( version ) );
     }
 
+    @Override
+    public boolean recycleLogFile( long version )
+    {
+        return recycledLogFiles.recycle( getLogFileForVersion( version ) );
+    }
+
     @Override
     public LogHeader extractHeader( long version ) throws IOException
     {
@@ -259,6 +271,12 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
         return logFile;
     }
 
+    @Override
+    public TransactionLogOffsetIndex getOffsetIndex()
+    {
+        return offsetIndex;
+    }
+
     @Override
     public TransactionLogFileInformation getLogFileInformation()
     {
@@ -49,11 +49,24 @@ class TransactionLogFilesContext
     private final Supplier<StoreId> storeId;
     private final NativeAccess nativeAccess;
     private final MemoryTracker memoryTracker;
+    private final boolean directIO;
+    private final int maxRecycledFiles;
 
     TransactionLogFilesContext( AtomicLong rotationThreshold, AtomicBoolean tryPreallocateTransactionLogs, LogEntryReader logEntryReader,
             LongSupplier lastCommittedTransactionIdSupplier, LongSupplier committingTransactionIdSupplier, Supplier<LogPosition> lastClosedPositionSupplier,
             Supplier<LogVersionRepository> logVersionRepositorySupplier, FileSystemAbstraction fileSystem,
             LogProvider logProvider, DatabaseTracers databaseTracers, Supplier<StoreId> storeId, NativeAccess nativeAccess, MemoryTracker memoryTracker )
+    {
+        this( rotationThreshold, tryPreallocateTransactionLogs, logEntryReader, lastCommittedTransactionIdSupplier, committingTransactionIdSupplier,
+                lastClosedPositionSupplier, logVersionRepositorySupplier, fileSystem, logProvider, databaseTracers, storeId, nativeAccess, memoryTracker,
+                false, 0 );
+    }
+
+    TransactionLogFilesContext( AtomicLong rotationThreshold, AtomicBoolean tryPreallocateTransactionLogs, LogEntryReader logEntryReader,
+            LongSupplier lastCommittedTransactionIdSupplier, LongSupplier committingTransactionIdSupplier, Supplier<LogPosition> lastClosedPositionSupplier,
+            Supplier<LogVersionRepository> logVersionRepositorySupplier, FileSystemAbstraction fileSystem,
+            LogProvider logProvider, DatabaseTracers databaseTracers, Supplier<StoreId> storeId, NativeAccess nativeAccess, MemoryTracker memoryTracker,
+            boolean directIO, int maxRecycledFiles )
     {
         this.rotationThreshold = rotationThreshold;
         this.tryPreallocateTransactionLogs = tryPreallocateTransactionLogs;
@@ -68,6 +81,8 @@ class TransactionLogFilesContext
         this.storeId = storeId;
         this.nativeAccess = nativeAccess;
         this.memoryTracker = memoryTracker;
+        this.directIO = directIO;
+        this.maxRecycledFiles = maxRecycledFiles;
     }
 
     AtomicLong getRotationThreshold()
@@ -134,4 +149,14 @@ class TransactionLogFilesContext
     {
         return memoryTracker;
     }
+
+    boolean isDirectIO()
+    {
+        return directIO;
+    }
+
+    int getMaxRecycledFiles()
+    {
+        return maxRecycledFiles;
+    }
 }
@@ -0,0 +1,439 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
+import org.neo4j.logging.Log;
+
+import static java.lang.Math.toIntExact;
+import static org.neo4j.kernel.impl.transaction.log.LogVersionBridge.NO_MORE_CHANNELS;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.TX_COMMIT;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.TX_START;
+
+/**
+ * Index of where transactions start in each transaction log file, for finding a transaction by id without reading its log file from the start.
+ * <p>
+ * Every log version gets its own index file, {@code offsets.<log file name>}. It starts with the id of the first transaction in the log file,
+ * followed by the start offset of every {@link #STRIDE}th transaction in it, where the position of an offset in the index file follows from
+ * the transaction id. So looking a transaction up is a single read in the index followed by reading at most {@link #STRIDE} transactions
+ * in the log file. Offsets not known are zero, which is never a transaction start since log files start with a header.
+ * <p>
+ * The offsets of appended transactions are buffered in memory while the appender holds the log, and written to the index of their
+ * log version by {@link #flushIfNeeded()} after the appender has let go of it, so neither writing the index nor opening the index of a
+ * new log version happens in the critical section of appending. Lookups write whatever is buffered first. Indexes of older log versions
+ * that are missing, for example because they were written before this index existed, are built on demand by reading the log file
+ * through once. The index is not forced and is only a hint: whoever finds a transaction through it must verify that it was found, and
+ * read the log file from the start otherwise. Offsets that do not fit in the buffer are dropped, which only makes the index coarser.
+ * Index files of log files that no longer exist are deleted when the index of a new log version is opened.
+ */
+public class TransactionLogOffsetIndex
+{
+    static final String OFFSETS_PREFIX = "offsets.";
+    public static final int STRIDE = 64;
+    static final int FLUSH_THRESHOLD = 16;
+    private static final int BUFFER_CAPACITY = 1024;
+    private static final int HEADER_SIZE = Long.BYTES;
+
+    private final File logsDirectory;
+    private final LogFiles logFiles;
+    private final FileSystemAbstraction fileSystem;
+    private final LogEntryReader logEntryReader;
+    private final Log log;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate( Long.BYTES );
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // Guarded by this
+    private BufferedOffsets appendedOffsets = new BufferedOffsets();
+    private BufferedOffsets spareOffsets = new BufferedOffsets();
+    private long indexedVersion = -1;
+    private long indexedFirstTransactionId;
+    private volatile int bufferedCount;
+
+    // Guarded by writeLock
+    private long writeVersion = -1;
+    private long writeFirstTransactionId;
+    private StoreChannel writeChannel;
+
+    TransactionLogOffsetIndex( File logsDirectory, LogFiles logFiles, TransactionLogFilesContext context )
+    {
+        this.logsDirectory = logsDirectory;
+        this.logFiles = logFiles;
+        this.fileSystem = context.getFileSystem();
+        this.logEntryReader = context.getLogEntryReader();
+        this.log = context.getLogProvider().getLog( getClass() );
+    }
+
+    /**
+     * Record that a transaction was appended to the log. This only buffers the offset, see {@link #flushIfNeeded()}.
+     *
+     * @param transactionId id of the appended transaction.
+     * @param startPosition position in the log where the transaction starts.
+     */
+    public synchronized void transactionAppended( long transactionId, LogPosition startPosition )
+    {
+        long version = startPosition.getLogVersion();
+        if ( version == indexedVersion && (transactionId - indexedFirstTransactionId) % STRIDE != 0 )
+        {
+            // Not indexed, which can only be known once the index of the log version has been opened
+            return;
+        }
+        if ( appendedOffsets.add( version, transactionId, startPosition.getByteOffset() ) )
+        {
+            bufferedCount++;
+        }
+    }
+
+    /**
+     * Write the buffered offsets to the index if enough of them have been buffered, and no one else is writing them already.
+     * Called by the appender after it has let go of the log. Failing to write only disables the index for the rest of the log version.
+     */
+    public void flushIfNeeded()
+    {
+        if ( bufferedCount >= FLUSH_THRESHOLD && writeLock.tryLock() )
+        {
+            try
+            {
+                flushBuffered();
+            }
+            finally
+            {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Write all buffered offsets to the index.
+     */
+    public void flush()
+    {
+        writeLock.lock();
+        try
+        {
+            flushBuffered();
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Find where to start reading a log version from to find a transaction in it.
+     *
+     * @param version log version that has the transaction.
+     * @param transactionId id of the transaction.
+     * @return start position of the closest indexed transaction at or before the given transaction, or {@code null} if there is none.
+     * @throws IOException on failure to read the index.
+     */
+    public LogPosition lookup( long version, long transactionId ) throws IOException
+    {
+        flush();
+        File indexFile = indexFile( version );
+        if ( !fileSystem.fileExists( indexFile ) )
+        {
+            return null;
+        }
+        long firstTransactionId = firstTransactionId( version );
+        try ( StoreChannel channel = fileSystem.read( indexFile ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( Long.BYTES );
+            if ( readLong( channel, 0, buffer ) != firstTransactionId )
+            {
+                // Left behind by another log file of this version
+                return null;
+            }
+            long size = channel.size();
+            for ( long index = (transactionId - firstTransactionId) / STRIDE * STRIDE; index >= 0; index -= STRIDE )
+            {
+                long position = entryPosition( index );
+                if ( position + Long.BYTES <= size )
+                {
+                    long offset = readLong( channel, position, buffer );
+                    if ( offset > 0 )
+                    {
+                        return new LogPosition( version, offset );
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the start offsets of all indexed transactions of a log version, for finding the way through its log file without reading it through.
+     *
+     * @param version log version to get the offsets of.
+     * @return start offsets of the indexed transactions, where the offset at index {@code i} is the start of the {@code i * }{@link #STRIDE}th
+     * transaction in the log file and zero if not known, or {@code null} if the log version has no index.
+     * @throws IOException on failure to read the index.
+     */
+    public long[] transactionStartOffsets( long version ) throws IOException
+    {
+        flush();
+        File indexFile = indexFile( version );
+        if ( !fileSystem.fileExists( indexFile ) )
+        {
+            return null;
+        }
+        long firstTransactionId = firstTransactionId( version );
+        try ( StoreChannel channel = fileSystem.read( indexFile ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( Long.BYTES );
+            long size = channel.size();
+            if ( size < HEADER_SIZE || readLong( channel, 0, buffer ) != firstTransactionId )
+            {
+                // Left behind by another log file of this version
+                return null;
+            }
+            ByteBuffer entries = ByteBuffer.allocate( toIntExact( (size - HEADER_SIZE) / Long.BYTES * Long.BYTES ) );
+            channel.position( HEADER_SIZE ).readAll( entries );
+            entries.flip();
+            long[] offsets = new long[entries.remaining() / Long.BYTES];
+            entries.asLongBuffer().get( offsets );
+            return offsets;
+        }
+    }
+
+    /**
+     * Build the index of a log version that is no longer appended to, by reading its log file through.
+     *
+     * @param version log version to index.
+     * @throws IOException on failure to read the log file or write the index.
+     */
+    public void rebuild( long version ) throws IOException
+    {
+        writeLock.lock();
+        try
+        {
+            flushBuffered();
+            rebuildIndex( version );
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+    }
+
+    private void rebuildIndex( long version ) throws IOException
+    {
+        LogHeader header = logFiles.extractHeader( version );
+        long firstTransactionId = header.getLastCommittedTxId() + 1;
+        try ( ReadableLogChannel reader = logFiles.getLogFile().getReader( header.getStartPosition(), NO_MORE_CHANNELS );
+              StoreChannel channel = openIndexFile( version, firstTransactionId ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( Long.BYTES );
+            LogPosition startPosition = null;
+            LogEntry entry;
+            while ( (entry = logEntryReader.readLogEntry( reader )) != null )
+            {
+                if ( entry.getType() == TX_START )
+                {
+                    startPosition = ((LogEntryStart) entry).getStartPosition();
+                }
+                else if ( entry.getType() == TX_COMMIT && startPosition != null )
+                {
+                    long index = ((LogEntryCommit) entry).getTxId() - firstTransactionId;
+                    if ( index >= 0 && index % STRIDE == 0 )
+                    {
+                        buffer.clear().putLong( startPosition.getByteOffset() ).flip();
+                        channel.writeAll( buffer, entryPosition( index ) );
+                    }
+                }
+            }
+        }
+    }
+
+    void close()
+    {
+        writeLock.lock();
+        try
+        {
+            flushBuffered();
+            closeWriteChannel();
+            writeVersion = -1;
+            synchronized ( this )
+            {
+                indexedVersion = -1;
+            }
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+    }
+
+    private void flushBuffered()
+    {
+        BufferedOffsets offsets;
+        synchronized ( this )
+        {
+            offsets = appendedOffsets;
+            appendedOffsets = spareOffsets;
+            spareOffsets = offsets;
+            bufferedCount = 0;
+        }
+        for ( int i = 0; i < offsets.size; i++ )
+        {
+            write( offsets.versions[i], offsets.transactionIds[i], offsets.offsets[i] );
+        }
+        offsets.size = 0;
+        synchronized ( this )
+        {
+            indexedVersion = writeVersion;
+            indexedFirstTransactionId = writeFirstTransactionId;
+        }
+    }
+
+    private void write( long version, long transactionId, long offset )
+    {
+        try
+        {
+            if ( version != writeVersion )
+            {
+                openForWrite( version );
+            }
+            long index = transactionId - writeFirstTransactionId;
+            if ( writeChannel != null && index >= 0 && index % STRIDE == 0 )
+            {
+                writeBuffer.clear().putLong( offset ).flip();
+                writeChannel.writeAll( writeBuffer, entryPosition( index ) );
+            }
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Unable to write transaction offset index for log version " + writeVersion + ", it will not be indexed.", e );
+            closeWriteChannel();
+        }
+    }
+
+    private void openForWrite( long version ) throws IOException
+    {
+        closeWriteChannel();
+        writeVersion = version;
+        writeFirstTransactionId = firstTransactionId( version );
+        writeChannel = openIndexFile( version, writeFirstTransactionId );
+        deleteIndexesOfMissingLogFiles();
+    }
+
+    private StoreChannel openIndexFile( long version, long firstTransactionId ) throws IOException
+    {
+        StoreChannel channel = fileSystem.write( indexFile( version ) );
+        ByteBuffer buffer = ByteBuffer.allocate( Long.BYTES );
+        if ( channel.size() < HEADER_SIZE || readLong( channel, 0, buffer ) != firstTransactionId )
+        {
+            channel.truncate( 0 );
+            buffer.clear().putLong( firstTransactionId ).flip();
+            channel.writeAll( buffer, 0 );
+        }
+        return channel;
+    }
+
+    private void deleteIndexesOfMissingLogFiles()
+    {
+        File[] indexFiles = fileSystem.listFiles( logsDirectory, ( dir, name ) -> name.startsWith( OFFSETS_PREFIX ) );
+        if ( indexFiles != null )
+        {
+            for ( File indexFile : indexFiles )
+            {
+                File logFile = new File( logsDirectory, indexFile.getName().substring( OFFSETS_PREFIX.length() ) );
+                if ( !fileSystem.fileExists( logFile ) )
+                {
+                    fileSystem.deleteFile( indexFile );
+                }
+            }
+        }
+    }
+
+    private void closeWriteChannel()
+    {
+        if ( writeChannel != null )
+        {
+            try
+            {
+                writeChannel.close();
+            }
+            catch ( IOException e )
+            {
+                log.warn( "Unable to close transaction offset index for log version " + writeVersion + ".", e );
+            }
+            writeChannel = null;
+        }
+    }
+
+    private long firstTransactionId( long version ) throws IOException
+    {
+        return logFiles.extractHeader( version ).getLastCommittedTxId() + 1;
+    }
+
+    private File indexFile( long version )
+    {
+        return new File( logsDirectory, OFFSETS_PREFIX + logFiles.getLogFileForVersion( version ).getName() );
+    }
+
+    private static long entryPosition( long index )
+    {
+        return HEADER_SIZE + index / STRIDE * Long.BYTES;
+    }
+
+    private static long readLong( StoreChannel channel, long position, ByteBuffer buffer ) throws IOException
+    {
+        buffer.clear();
+        channel.position( position ).readAll( buffer );
+        return buffer.flip().getLong();
+    }
+
+    /**
+     * Offsets of appended transactions that are yet to be written to the index.
+     */
+    private static class BufferedOffsets
+    {
+        private final long[] versions = new long[BUFFER_CAPACITY];
+        private final long[] transactionIds = new long[BUFFER_CAPACITY];
+        private final long[] offsets = new long[BUFFER_CAPACITY];
+        private int size;
+
+        boolean add( long version, long transactionId, long offset )
+        {
+            if ( size == BUFFER_CAPACITY )
+            {
+                return false;
+            }
+            versions[size] = version;
+            transactionIds[size] = transactionId;
+            offsets[size] = offset;
+            size++;
+            return true;
+        }
+    }
+}
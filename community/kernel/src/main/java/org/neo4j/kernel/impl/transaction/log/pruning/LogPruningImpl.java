@@ -129,8 +129,11 @@ public class LogPruningImpl implements LogPruning
         {
             fromVersion = fromVersion == NO_VERSION ? version : Math.min( fromVersion, version );
             toVersion = toVersion == NO_VERSION ? version : Math.max( toVersion, version );
-            File logFile = logFiles.getLogFileForVersion( version );
-            fs.deleteFile( logFile );
+            if ( !logFiles.recycleLogFile( version ) )
+            {
+                File logFile = logFiles.getLogFileForVersion( version );
+                fs.deleteFile( logFile );
+            }
         }
 
         String describeResult( LogPruneStrategy strategy )
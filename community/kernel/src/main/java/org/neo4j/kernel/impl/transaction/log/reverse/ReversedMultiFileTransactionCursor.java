@@ -20,8 +20,14 @@
 package org.neo4j.kernel.impl.transaction.log.reverse;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.neo4j.function.ThrowingFunction;
+import org.neo4j.internal.helpers.NamedThreadFactory;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionCursor;
@@ -45,6 +51,9 @@ import static org.neo4j.kernel.impl.transaction.log.reverse.EagerlyReversedTrans
  * {@link PhysicalTransactionCursor} should be negligible due to the offset mapping that {@link ReversedSingleFileTransactionCursor}
  * does.
  *
+ * While the transactions of one log version are returned, the cursor of the previous version is created in the background,
+ * so that the forward pass it makes over its log file to find its way backwards is not waited for when moving over to it.
+ *
  * @see ReversedSingleFileTransactionCursor
  */
 public class ReversedMultiFileTransactionCursor implements TransactionCursor
@@ -55,6 +64,8 @@ public class ReversedMultiFileTransactionCursor implements TransactionCursor
 
     private long currentVersion;
     private TransactionCursor currentLogTransactionCursor;
+    private ExecutorService prefetcher;
+    private Future<TransactionCursor> previousLogTransactionCursor;
 
     /**
      * Utility method for creating a {@link ReversedMultiFileTransactionCursor} with a {@link LogFile} as the source of
@@ -80,7 +91,7 @@ public class ReversedMultiFileTransactionCursor implements TransactionCursor
             {
                 // This is a channel which can be positioned explicitly and is the typical case for such channels
                 // Let's take advantage of this fact and use a bit smarter reverse implementation
-                return new ReversedSingleFileTransactionCursor( (ReadAheadLogChannel) channel, logEntryReader,
+                return new ReversedSingleFileTransactionCursor( (ReadAheadLogChannel) channel, logEntryReader, logFiles.getOffsetIndex(),
                         failOnCorruptedLogFiles, monitor );
             }
 
@@ -126,17 +137,83 @@ public class ReversedMultiFileTransactionCursor implements TransactionCursor
             }
 
             closeCurrent();
-            LogPosition position = currentVersion > backToPosition.getLogVersion() ?
-                                   logFiles.extractHeader( currentVersion ).getStartPosition() : backToPosition;
-            currentLogTransactionCursor = cursorFactory.apply( position );
+            currentLogTransactionCursor = previousLogTransactionCursor != null ? awaitPreviousCursor() : cursorFactory.apply( startPosition( currentVersion ) );
+            prefetchPreviousCursor();
         }
         return true;
     }
 
+    private LogPosition startPosition( long version ) throws IOException
+    {
+        return version > backToPosition.getLogVersion() ? logFiles.extractHeader( version ).getStartPosition() : backToPosition;
+    }
+
+    private void prefetchPreviousCursor()
+    {
+        long previousVersion = currentVersion - 1;
+        if ( previousVersion < backToPosition.getLogVersion() )
+        {
+            return;
+        }
+        if ( prefetcher == null )
+        {
+            prefetcher = Executors.newSingleThreadExecutor( new NamedThreadFactory( "reverse-log-prefetch", true ) );
+        }
+        previousLogTransactionCursor = prefetcher.submit( () -> cursorFactory.apply( startPosition( previousVersion ) ) );
+    }
+
+    private TransactionCursor awaitPreviousCursor() throws IOException
+    {
+        Future<TransactionCursor> cursor = previousLogTransactionCursor;
+        previousLogTransactionCursor = null;
+        try
+        {
+            return cursor.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while reading log version " + currentVersion );
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof IOException )
+            {
+                throw (IOException) cause;
+            }
+            if ( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException) cause;
+            }
+            if ( cause instanceof Error )
+            {
+                throw (Error) cause;
+            }
+            throw new IOException( cause );
+        }
+    }
+
     @Override
     public void close() throws IOException
     {
-        closeCurrent();
+        try
+        {
+            closeCurrent();
+            if ( previousLogTransactionCursor != null )
+            {
+                // The cursor of the previous version was never used, but it still has to be closed
+                currentLogTransactionCursor = awaitPreviousCursor();
+                closeCurrent();
+            }
+        }
+        finally
+        {
+            if ( prefetcher != null )
+            {
+                prefetcher.shutdown();
+            }
+        }
     }
 
     private void closeCurrent() throws IOException
@@ -33,14 +33,19 @@ import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
 import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.entry.UnsupportedLogVersionException;
+import org.neo4j.kernel.impl.transaction.log.files.TransactionLogOffsetIndex;
 
 /**
  * Returns transactions in reverse order in a log file. It tries to keep peak memory consumption to a minimum
- * by first sketching out the offsets of all transactions in the log. Then it starts from the end and moves backwards,
- * taking advantage of read-ahead feature of the {@link ReadAheadLogChannel} by moving in chunks backwards in roughly
- * the size of the read-ahead window. Coming across large transactions means moving further back to at least read one transaction
- * per chunk "move". This is all internal, so from the outside it simply reverses a transaction log.
- * The memory overhead compared to reading a log in the natural order is almost negligible.
+ * by first sketching out a sparse index of transaction offsets in the log, one offset roughly every read-ahead window.
+ * When the log file has a {@link TransactionLogOffsetIndex}, the offsets are taken from it, and only the transactions after the last
+ * indexed one are read to sketch out the rest. Otherwise, or if the index doesn't match the log file, the whole log file is read through.
+ * Then it starts from the end and moves backwards one index entry at a time, taking advantage of read-ahead feature of the
+ * {@link ReadAheadLogChannel} by reading the transactions between two index entries forwards and returning them in reverse.
+ * Coming across large transactions means chunks grow to contain at least one whole transaction.
+ * This is all internal, so from the outside it simply reverses a transaction log.
+ * The memory overhead compared to reading a log in the natural order is almost negligible, and does not grow with
+ * the number of transactions in the log, only with its size divided by the read-ahead size.
  *
  * This cursor currently only works for a single log file, such that the given {@link ReadAheadLogChannel} should not be
  * instantiated with a {@link LogVersionBridge} moving it over to other versions when exhausted. For reversing a whole
@@ -48,13 +53,13 @@ import org.neo4j.kernel.impl.transaction.log.entry.UnsupportedLogVersionExceptio
  *
  * <pre>
  *
- *              ◄────────────────┤                          {@link #chunkTransactions} for the current chunk, reading {@link #readNextChunk()}.
+ *                           ◄─────────────┤               {@link #chunkTransactions} for the current chunk, reading {@link #readNextChunk()}.
  * [2  |3|4    |5  |6          |7 |8   |9      |10  ]
- * ▲   ▲ ▲     ▲   ▲           ▲  ▲    ▲       ▲
- * │   │ │     │   │           │  │    │       │
- * └───┴─┴─────┼───┴───────────┴──┴────┴───────┴─────────── {@link #offsets}
- *             │
- *             └─────────────────────────────────────────── {@link #chunkStartOffsetIndex} moves forward in {@link #readNextChunk()}
+ * ▲               ▲              ▲            ▲
+ * │               │              │            │
+ * └───────────────┴──────────────┼────────────┴─────────── {@link #offsets}, at least {@link #CHUNK_SIZE} apart
+ *                                │
+ *                                └──────────────────────── {@link #chunkStartOffsetIndex} moves backwards in {@link #readNextChunk()}
  *
  * </pre>
  *
@@ -66,53 +71,80 @@ public class ReversedSingleFileTransactionCursor implements TransactionCursor
     private static final int CHUNK_SIZE = ReadAheadChannel.DEFAULT_READ_AHEAD_SIZE;
 
     private final ReadAheadLogChannel channel;
+    private final TransactionLogOffsetIndex offsetIndex;
     private final boolean failOnCorruptedLogFiles;
     private final ReversedTransactionCursorMonitor monitor;
     private final TransactionCursor transactionCursor;
     // Should be generally large enough to hold transactions in a chunk, where one chunk is the read-ahead size of ReadAheadLogChannel
     private final Deque<CommittedTransactionRepresentation> chunkTransactions = new ArrayDeque<>( 20 );
     private CommittedTransactionRepresentation currentChunkTransaction;
-    // May be longer than required, offsetLength holds the actual length.
+    // Start offsets of transactions that begin a chunk. May be longer than required, offsetLength holds the actual length.
     private final long[] offsets;
     private int offsetsLength;
     private int chunkStartOffsetIndex;
+    // End offset of the last transaction that could be read
     private long totalSize;
 
     ReversedSingleFileTransactionCursor( ReadAheadLogChannel channel, LogEntryReader logEntryReader, boolean failOnCorruptedLogFiles,
             ReversedTransactionCursorMonitor monitor ) throws IOException
+    {
+        this( channel, logEntryReader, null, failOnCorruptedLogFiles, monitor );
+    }
+
+    ReversedSingleFileTransactionCursor( ReadAheadLogChannel channel, LogEntryReader logEntryReader, TransactionLogOffsetIndex offsetIndex,
+            boolean failOnCorruptedLogFiles, ReversedTransactionCursorMonitor monitor ) throws IOException
     {
         this.channel = channel;
+        this.offsetIndex = offsetIndex;
         this.failOnCorruptedLogFiles = failOnCorruptedLogFiles;
         this.monitor = monitor;
         // There's an assumption here: that the underlying channel can move in between calls and that the
         // transaction cursor will just happily read from the new position.
         this.transactionCursor = new PhysicalTransactionCursor( channel, logEntryReader );
-        this.offsets = sketchOutTransactionStartOffsets();
+        this.offsets = sketchOutChunkStartOffsets();
     }
 
     // Also initializes offset indexes
-    private long[] sketchOutTransactionStartOffsets() throws IOException
+    private long[] sketchOutChunkStartOffsets() throws IOException
     {
-        // Grows on demand. Initially sized to be able to hold all transaction start offsets for a single log file
-        long[] offsets = new long[10_000];
+        // Grows on demand. Initially sized to be able to hold all chunk start offsets for a single log file of a typical size
+        long[] offsets = new long[1_024];
         int offsetCursor = 0;
 
         long logVersion = channel.getVersion();
         long startOffset = channel.position();
+        long lastTransactionOffset = startOffset;
+        long[] indexedOffsets = indexedChunkStartOffsets( logVersion, startOffset );
+        if ( indexedOffsets != null )
+        {
+            // Only the transactions after the last indexed one are left to be read through
+            for ( long indexedOffset : indexedOffsets )
+            {
+                offsets = addOffset( offsets, offsetCursor++, indexedOffset );
+            }
+            startOffset = offsets[offsetCursor - 1];
+            lastTransactionOffset = startOffset;
+        }
+        channel.setCurrentPosition( startOffset );
         try
         {
             while ( transactionCursor.next() )
             {
-                if ( offsetCursor == offsets.length )
-                {   // Grow
-                    offsets = Arrays.copyOf( offsets, offsetCursor * 2 );
+                if ( offsetCursor == 0 || startOffset - offsets[offsetCursor - 1] >= CHUNK_SIZE )
+                {
+                    offsets = addOffset( offsets, offsetCursor++, startOffset );
                 }
-                offsets[offsetCursor++] = startOffset;
+                lastTransactionOffset = startOffset;
                 startOffset = channel.position();
             }
         }
         catch ( IOException | UnsupportedLogVersionException e )
         {
+            if ( offsetCursor > 0 && offsets[offsetCursor - 1] != lastTransactionOffset )
+            {
+                // The monitor reports the last entry as the start of the last readable transaction. Any transaction start is a valid chunk start.
+                offsets = addOffset( offsets, offsetCursor++, lastTransactionOffset );
+            }
             monitor.transactionalLogRecordReadFailure( offsets, offsetCursor, logVersion );
             if ( failOnCorruptedLogFiles )
             {
@@ -128,11 +160,76 @@ public class ReversedSingleFileTransactionCursor implements TransactionCursor
 
         offsetsLength = offsetCursor;
         chunkStartOffsetIndex = offsetCursor;
-        totalSize = channel.position();
+        totalSize = startOffset;
 
         return offsets;
     }
 
+    /**
+     * Use the {@link TransactionLogOffsetIndex} of the log version, if it has one, to find chunk start offsets without reading the log file
+     * through. The index is only a hint, so every offset taken from it is checked to be the start of the transaction it is indexed for.
+     *
+     * @return chunk start offsets from the first transaction up to and including the last indexed transaction, at least {@link #CHUNK_SIZE}
+     * apart, or {@code null} if the log version has no index or the index doesn't match the log file.
+     */
+    private long[] indexedChunkStartOffsets( long logVersion, long firstTransactionOffset )
+    {
+        if ( offsetIndex == null )
+        {
+            return null;
+        }
+        try
+        {
+            long[] indexedOffsets = offsetIndex.transactionStartOffsets( logVersion );
+            if ( indexedOffsets == null || indexedOffsets.length == 0 || indexedOffsets[0] != firstTransactionOffset ||
+                    !transactionStartsAt( firstTransactionOffset, -1 ) )
+            {
+                return null;
+            }
+            long firstTransactionId = transactionCursor.get().getCommitEntry().getTxId();
+            long[] offsets = new long[indexedOffsets.length];
+            int offsetCursor = 0;
+            offsets[offsetCursor++] = firstTransactionOffset;
+            for ( int i = 1; i < indexedOffsets.length; i++ )
+            {
+                long offset = indexedOffsets[i];
+                if ( offset - offsets[offsetCursor - 1] >= CHUNK_SIZE || (i == indexedOffsets.length - 1 && offset > offsets[offsetCursor - 1]) )
+                {
+                    if ( !transactionStartsAt( offset, firstTransactionId + (long) i * TransactionLogOffsetIndex.STRIDE ) )
+                    {
+                        return null;
+                    }
+                    offsets[offsetCursor++] = offset;
+                }
+            }
+            return Arrays.copyOf( offsets, offsetCursor );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            // A stale index may point somewhere that isn't the start of a transaction, reading the log file through will do instead
+            return null;
+        }
+    }
+
+    /**
+     * @param transactionId id of the transaction expected to start at the offset, or {@code -1} for any transaction.
+     */
+    private boolean transactionStartsAt( long offset, long transactionId ) throws IOException
+    {
+        channel.setCurrentPosition( offset );
+        return transactionCursor.next() && (transactionId == -1 || transactionCursor.get().getCommitEntry().getTxId() == transactionId);
+    }
+
+    private static long[] addOffset( long[] offsets, int offsetCursor, long offset )
+    {
+        if ( offsetCursor == offsets.length )
+        {   // Grow
+            offsets = Arrays.copyOf( offsets, offsetCursor * 2 );
+        }
+        offsets[offsetCursor] = offset;
+        return offsets;
+    }
+
     @Override
     public boolean next() throws IOException
     {
@@ -152,32 +249,16 @@ public class ReversedSingleFileTransactionCursor implements TransactionCursor
     {
         assert chunkStartOffsetIndex > 0;
 
-        // Start at lowOffsetIndex - 1 and count backwards until almost reaching the chunk size
+        // The chunk spans from the previous index entry up to the start of the chunk we last read
         long highOffset = chunkStartOffsetIndex == offsetsLength ? totalSize : offsets[chunkStartOffsetIndex];
-        int newLowOffsetIndex = chunkStartOffsetIndex;
-        while ( newLowOffsetIndex > 0 )
-        {
-            long deltaOffset = highOffset - offsets[--newLowOffsetIndex];
-            if ( deltaOffset > CHUNK_SIZE )
-            {   // We've now read more than the read-ahead size, let's call this the end of this chunk
-                break;
-            }
-        }
-        assert chunkStartOffsetIndex - newLowOffsetIndex > 0;
-
-        // We've established the chunk boundaries. Initialize all offsets and read the transactions in this
-        // chunk into actual transaction objects
-        int chunkLength = chunkStartOffsetIndex - newLowOffsetIndex;
-        chunkStartOffsetIndex = newLowOffsetIndex;
+        chunkStartOffsetIndex--;
         channel.setCurrentPosition( offsets[chunkStartOffsetIndex] );
         assert chunkTransactions.isEmpty();
-        for ( int i = 0; i < chunkLength; i++ )
+        while ( channel.position() < highOffset && transactionCursor.next() )
         {
-            boolean success = transactionCursor.next();
-            assert success;
-
             chunkTransactions.push( transactionCursor.get() );
         }
+        assert !chunkTransactions.isEmpty();
     }
 
     private boolean currentChunkExhausted()
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.stats;
+
+/**
+ * The phases of committing a transaction that latencies are kept track of, see {@link CommitLatencyCounters}.
+ */
+public enum CommitPhase
+{
+    /**
+     * Waiting for locks: the time the transaction waited for locks while it executed, as reported to the lock tracers of its queries,
+     * plus acquiring the locks that were deferred until commit. Only the latter is part of {@link #TOTAL}.
+     */
+    LOCKS,
+    /**
+     * Turning the transaction state into commands, including acquiring the locks needed for doing so.
+     */
+    COMMAND_CREATION,
+    /**
+     * Serializing and writing the commands to the transaction log, not counting forcing it.
+     */
+    LOG_APPEND,
+    /**
+     * Forcing the transaction log, or waiting for another transaction to force it.
+     */
+    LOG_FORCE,
+    /**
+     * Applying the commands to the stores, the counts store and the indexes.
+     */
+    STORE_APPLY,
+    /**
+     * Applying the index updates of a batch of transactions, or waiting for another thread to apply them. This is part of
+     * {@link #STORE_APPLY}, and is recorded once for every applied batch that updated indexes rather than once per commit.
+     */
+    INDEX_UPDATES,
+    /**
+     * The whole commit, from start to end.
+     */
+    TOTAL
+}
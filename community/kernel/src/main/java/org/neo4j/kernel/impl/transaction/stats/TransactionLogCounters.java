@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.transaction.stats;
 
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
+
 public interface TransactionLogCounters
 {
     /**
@@ -44,4 +46,10 @@ public interface TransactionLogCounters
      * @return last log rotation time in milliseconds
      */
     long lastLogRotationTimeMillis();
+
+    /**
+     * Latencies of the forces of the transaction log files
+     * @return histogram of transaction log force latencies
+     */
+    LatencyHistogram logForceLatencies();
 }
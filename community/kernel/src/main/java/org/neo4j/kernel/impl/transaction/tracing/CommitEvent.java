@@ -31,6 +31,18 @@ public interface CommitEvent extends AutoCloseable
         {
         }
 
+        @Override
+        public CommitLocksEvent beginCommitLocks()
+        {
+            return CommitLocksEvent.NULL;
+        }
+
+        @Override
+        public CommandCreationEvent beginCommandCreation()
+        {
+            return CommandCreationEvent.NULL;
+        }
+
         @Override
         public LogAppendEvent beginLogAppend()
         {
@@ -50,6 +62,16 @@ public interface CommitEvent extends AutoCloseable
     @Override
     void close();
 
+    /**
+     * Begin acquiring the locks that were deferred until commit.
+     */
+    CommitLocksEvent beginCommitLocks();
+
+    /**
+     * Begin turning the transaction state into commands.
+     */
+    CommandCreationEvent beginCommandCreation();
+
     /**
      * Begin appending commands for the committing transaction, to the transaction log.
      */
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.tracing;
+
+/**
+ * Represents the process of acquiring the locks of a committing transaction that were deferred until commit, together with the time the
+ * transaction already waited for locks before it started to commit.
+ */
+public interface CommitLocksEvent extends AutoCloseable
+{
+    CommitLocksEvent NULL = () ->
+    {
+    };
+
+    /**
+     * Adds the time the committing transaction waited for locks before it started to commit, as reported to the lock tracers of its queries.
+     */
+    default void lockWaitTime( long nanos )
+    {
+    }
+
+    /**
+     * Marks the end of acquiring the locks that were deferred until commit.
+     */
+    @Override
+    void close();
+}
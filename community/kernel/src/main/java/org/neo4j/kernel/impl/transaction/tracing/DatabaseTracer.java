@@ -19,7 +19,9 @@
  */
 package org.neo4j.kernel.impl.transaction.tracing;
 
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.transaction.stats.CommitPhase;
 
 public interface DatabaseTracer extends TransactionTracer, CheckPointTracer
 {
@@ -84,6 +86,18 @@ public interface DatabaseTracer extends TransactionTracer, CheckPointTracer
         {
             return 0;
         }
+
+        @Override
+        public LatencyHistogram logForceLatencies()
+        {
+            return LatencyHistogram.EMPTY;
+        }
+
+        @Override
+        public LatencyHistogram commitLatencies( CommitPhase phase )
+        {
+            return LatencyHistogram.EMPTY;
+        }
     };
 
     LogFileCreateEvent createLogFile();
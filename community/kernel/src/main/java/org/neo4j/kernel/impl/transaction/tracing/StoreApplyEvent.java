@@ -19,16 +19,24 @@
  */
 package org.neo4j.kernel.impl.transaction.tracing;
 
+import org.neo4j.storageengine.api.IndexUpdatesTracer;
+
 /**
  * Represents the process of applying transaction changes to the stores. Because we apply transactions in parallel,
- * the individual stores and indexes are not further specified.
+ * the individual stores are not further specified, but the time spent applying index updates is traced through
+ * {@link #indexUpdatesApplied(long)}.
  */
-public interface StoreApplyEvent extends AutoCloseable
+public interface StoreApplyEvent extends AutoCloseable, IndexUpdatesTracer
 {
     StoreApplyEvent NULL = () ->
     {
     };
 
+    @Override
+    default void indexUpdatesApplied( long nanos )
+    {
+    }
+
     /**
      * Marks the completion of the store application.
      */
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.memory.MemoryTracker;
+
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+import static org.neo4j.util.Preconditions.requirePositive;
+
+/**
+ * Block allocator that moves transaction state to disk once a transaction uses more native memory than a given threshold.
+ * <p>
+ * Blocks requested after that point are memory mapped from temporary files in the spill directory, rather than allocated from
+ * native memory. The operating system writes their pages out to the file when it needs the memory, and reads them back when
+ * they are touched, so the transaction state stays accessible as usual while the memory it holds on to is bounded.
+ * Mapped blocks are not accounted as native memory of the transaction. The files are unlinked as soon as they are mapped,
+ * so nothing is left behind in the spill directory if the database stops abruptly.
+ * <p>
+ * Only blocks of at least {@link #MIN_SPILLED_BLOCK_SIZE} bytes are spilled, which is where the bulk of large transaction states
+ * live: the tables of big hash sets and maps, and the chunks of property values.
+ * <p>
+ * This class is thread safe.
+ */
+public class SpillingBlockAllocatorDecorator implements OffHeapBlockAllocator
+{
+    static final long MIN_SPILLED_BLOCK_SIZE = ByteUnit.kibiBytes( 64 );
+
+    private final OffHeapBlockAllocator impl;
+    private final long spillThreshold;
+    private final Path spillDirectory;
+
+    /**
+     * @param impl allocator of blocks that are not spilled
+     * @param spillThreshold amount of native memory that a transaction may use before its blocks are spilled
+     * @param spillDirectory directory to create the files of spilled blocks in
+     */
+    public SpillingBlockAllocatorDecorator( OffHeapBlockAllocator impl, long spillThreshold, Path spillDirectory )
+    {
+        this.impl = requireNonNull( impl );
+        this.spillThreshold = requirePositive( spillThreshold );
+        this.spillDirectory = requireNonNull( spillDirectory );
+    }
+
+    @Override
+    public MemoryBlock allocate( long size, MemoryTracker tracker )
+    {
+        if ( size < MIN_SPILLED_BLOCK_SIZE || size > Integer.MAX_VALUE || tracker.usedNativeMemory() + size <= spillThreshold )
+        {
+            return impl.allocate( size, tracker );
+        }
+        return spill( size );
+    }
+
+    @Override
+    public void free( MemoryBlock block, MemoryTracker tracker )
+    {
+        if ( block instanceof SpilledMemoryBlock )
+        {
+            UnsafeUtil.invokeCleaner( ((SpilledMemoryBlock) block).buffer );
+            return;
+        }
+        impl.free( block, tracker );
+    }
+
+    @Override
+    public void release()
+    {
+        impl.release();
+    }
+
+    private MemoryBlock spill( long size )
+    {
+        try
+        {
+            Files.createDirectories( spillDirectory );
+            Path file = Files.createTempFile( spillDirectory, "tx-state", ".spill" );
+            try ( FileChannel channel = FileChannel.open( file, READ, WRITE, DELETE_ON_CLOSE ) )
+            {
+                MappedByteBuffer buffer = channel.map( FileChannel.MapMode.READ_WRITE, 0, size );
+                return new SpilledMemoryBlock( buffer, size );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( "Unable to spill " + size + " bytes of transaction state to " + spillDirectory, e );
+        }
+    }
+
+    private static class SpilledMemoryBlock extends MemoryBlock
+    {
+        private final MappedByteBuffer buffer;
+
+        SpilledMemoryBlock( MappedByteBuffer buffer, long size )
+        {
+            super( UnsafeUtil.getDirectByteBufferAddress( buffer ), size );
+            this.buffer = buffer;
+        }
+    }
+}
@@ -22,6 +22,7 @@ package org.neo4j.kernel.monitoring.tracing;
 import java.time.Clock;
 
 import org.neo4j.annotations.service.ServiceProvider;
+import org.neo4j.configuration.Config;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.api.tracer.DefaultTracer;
@@ -31,6 +32,9 @@ import org.neo4j.monitoring.Monitors;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.time.SystemNanoClock;
 
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.commit_latency_log_threshold;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.commit_latency_sample_interval;
+
 /**
  * The default TracerFactory, when nothing else is otherwise configured.
  */
@@ -54,4 +58,10 @@ public class DefaultTracerFactory implements TracerFactory
     {
         return new DefaultTracer();
     }
+
+    @Override
+    public DatabaseTracer createDatabaseTracer( Clock clock, Config config, Log log )
+    {
+        return new DefaultTracer( config.get( commit_latency_log_threshold ).toNanos(), config.get( commit_latency_sample_interval ), log );
+    }
 }
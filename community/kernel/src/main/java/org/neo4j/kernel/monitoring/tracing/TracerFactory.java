@@ -22,6 +22,7 @@ package org.neo4j.kernel.monitoring.tracing;
 import java.time.Clock;
 
 import org.neo4j.annotations.service.Service;
+import org.neo4j.configuration.Config;
 import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
@@ -59,6 +60,19 @@ public interface TracerFactory extends NamedService
      */
     DatabaseTracer createDatabaseTracer( Clock clock );
 
+    /**
+     * Create a new DatabaseTracer instance for a database.
+     *
+     * @param clock system clock
+     * @param config config of the database
+     * @param log log of the database
+     * @return The created instance.
+     */
+    default DatabaseTracer createDatabaseTracer( Clock clock, Config config, Log log )
+    {
+        return createDatabaseTracer( clock );
+    }
+
     /**
      * Create a new LockTracer instance.
      *
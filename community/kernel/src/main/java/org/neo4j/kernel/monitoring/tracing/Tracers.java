@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.monitoring.tracing;
 
+import org.neo4j.configuration.Config;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.lock.LockTracer;
@@ -138,6 +139,11 @@ public class Tracers
         return tracersFactory.createDatabaseTracer( clock );
     }
 
+    public DatabaseTracer getDatabaseTracer( Config config, Log log )
+    {
+        return tracersFactory.createDatabaseTracer( clock, config, log );
+    }
+
     private static TracerFactory createTracersFactory( String desiredImplementationName, Log msgLog )
     {
         if ( NULL_TRACERS_NAME.equalsIgnoreCase( desiredImplementationName ) )
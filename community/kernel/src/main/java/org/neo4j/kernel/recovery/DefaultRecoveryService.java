@@ -21,6 +21,7 @@ package org.neo4j.kernel.recovery;
 
 import java.io.IOException;
 
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
@@ -47,11 +48,34 @@ public class DefaultRecoveryService implements RecoveryService
     private final LogicalTransactionStore logicalTransactionStore;
     private final LogVersionRepository logVersionRepository;
     private final Log log;
+    private final RecoveryMonitor recoveryMonitor;
+    private final PageCacheTracer pageCacheTracer;
+    private final int parallelism;
+    private final int batchSize;
 
     DefaultRecoveryService( StorageEngine storageEngine, LogTailScanner logTailScanner, TransactionIdStore transactionIdStore,
             LogicalTransactionStore logicalTransactionStore, LogVersionRepository logVersionRepository, LogFiles logFiles,
             RecoveryStartInformationProvider.Monitor monitor, Log log )
     {
+        this( storageEngine, logTailScanner, transactionIdStore, logicalTransactionStore, logVersionRepository, logFiles, monitor, log,
+                new RecoveryMonitor()
+                {
+                }, PageCacheTracer.NULL, 1, 1 );
+    }
+
+    /**
+     * @param parallelism number of threads applying transactions in the forward pass of recovery, or {@code 1} to apply them sequentially.
+     * @param batchSize number of transactions tracked together when applying in parallel, see {@link ParallelRecoveryVisitor}.
+     */
+    DefaultRecoveryService( StorageEngine storageEngine, LogTailScanner logTailScanner, TransactionIdStore transactionIdStore,
+            LogicalTransactionStore logicalTransactionStore, LogVersionRepository logVersionRepository, LogFiles logFiles,
+            RecoveryStartInformationProvider.Monitor monitor, Log log, RecoveryMonitor recoveryMonitor, PageCacheTracer pageCacheTracer,
+            int parallelism, int batchSize )
+    {
+        this.recoveryMonitor = recoveryMonitor;
+        this.pageCacheTracer = pageCacheTracer;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
         this.storageEngine = storageEngine;
         this.transactionIdStore = transactionIdStore;
         this.logicalTransactionStore = logicalTransactionStore;
@@ -69,6 +93,11 @@ public class DefaultRecoveryService implements RecoveryService
     @Override
     public RecoveryApplier getRecoveryApplier( TransactionApplicationMode mode, PageCursorTracer cursorTracer )
     {
+        // Reverse recovery restores the store to a consistent state from an unknown one, so only the forward pass is applied in parallel
+        if ( parallelism > 1 && mode == TransactionApplicationMode.RECOVERY )
+        {
+            return new ParallelRecoveryVisitor( storageEngine, mode, cursorTracer, pageCacheTracer, recoveryMonitor, parallelism, batchSize );
+        }
         return new RecoveryVisitor( storageEngine, mode, cursorTracer );
     }
 
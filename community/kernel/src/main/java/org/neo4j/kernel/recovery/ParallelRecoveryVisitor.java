@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.internal.helpers.NamedThreadFactory;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+
+import static org.neo4j.kernel.impl.transaction.log.Commitment.NO_COMMITMENT;
+
+/**
+ * Applies recovered transactions on a number of threads, while the recovering thread keeps reading transactions ahead from the log.
+ * <p>
+ * Every transaction reports the parts of the store it writes to through {@link StorageCommand#visitWriteKeys(java.util.function.LongConsumer)}.
+ * A transaction is applied once all earlier transactions writing to any of the same keys have been applied, so every part of the store sees its
+ * changes in commit order and ends up the same as after sequential recovery. Transactions with commands that cannot report their keys, like schema
+ * and token changes, are applied on the recovering thread when all earlier transactions have been applied, and before any later one is started.
+ * <p>
+ * Dependencies are only tracked within a batch of transactions. When a batch is full, all of its transactions are applied before the next batch
+ * is started, which bounds the memory needed for tracking and is when progress is reported to {@link RecoveryMonitor#batchRecovered(long, int)}.
+ */
+class ParallelRecoveryVisitor implements RecoveryApplier
+{
+    private static final String PARALLEL_RECOVERY_TAG = "parallelRecoverDatabase";
+
+    private final StorageEngine storageEngine;
+    private final TransactionApplicationMode mode;
+    private final PageCursorTracer cursorTracer;
+    private final PageCacheTracer pageCacheTracer;
+    private final RecoveryMonitor monitor;
+    private final int batchSize;
+    private final ExecutorService executor;
+    private final MutableLongObjectMap<CompletableFuture<Void>> lastWriters = new LongObjectHashMap<>();
+    private final List<CompletableFuture<Void>> batch = new ArrayList<>();
+    private final MutableLongSet writeKeys = new LongHashSet();
+    private long lastTxIdInBatch;
+
+    ParallelRecoveryVisitor( StorageEngine storageEngine, TransactionApplicationMode mode, PageCursorTracer cursorTracer, PageCacheTracer pageCacheTracer,
+            RecoveryMonitor monitor, int parallelism, int batchSize )
+    {
+        this.storageEngine = storageEngine;
+        this.mode = mode;
+        this.cursorTracer = cursorTracer;
+        this.pageCacheTracer = pageCacheTracer;
+        this.monitor = monitor;
+        this.batchSize = batchSize;
+        this.executor = Executors.newFixedThreadPool( parallelism, new NamedThreadFactory( "recovery-applier" ) );
+    }
+
+    @Override
+    public boolean visit( CommittedTransactionRepresentation transaction ) throws Exception
+    {
+        long txId = transaction.getCommitEntry().getTxId();
+        if ( !collectWriteKeys( transaction ) )
+        {
+            awaitBatch();
+            apply( transaction, txId, cursorTracer );
+            monitor.batchRecovered( txId, 1 );
+            return false;
+        }
+
+        CompletableFuture<Void> applied;
+        Runnable task = () -> applyConcurrently( transaction, txId );
+        Set<CompletableFuture<Void>> dependencies = new HashSet<>();
+        writeKeys.forEach( key ->
+        {
+            CompletableFuture<Void> lastWriter = lastWriters.get( key );
+            // A failed writer stays a dependency, so that nothing is applied on top of its partial changes
+            if ( lastWriter != null && (!lastWriter.isDone() || lastWriter.isCompletedExceptionally()) )
+            {
+                dependencies.add( lastWriter );
+            }
+        } );
+        if ( dependencies.isEmpty() )
+        {
+            applied = CompletableFuture.runAsync( task, executor );
+        }
+        else
+        {
+            applied = CompletableFuture.allOf( dependencies.toArray( new CompletableFuture[0] ) ).thenRunAsync( task, executor );
+        }
+        writeKeys.forEach( key -> lastWriters.put( key, applied ) );
+        batch.add( applied );
+        lastTxIdInBatch = txId;
+        if ( batch.size() >= batchSize )
+        {
+            awaitBatch();
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        try
+        {
+            awaitBatch();
+        }
+        finally
+        {
+            executor.shutdown();
+            executor.awaitTermination( 1, TimeUnit.MINUTES );
+        }
+    }
+
+    private boolean collectWriteKeys( CommittedTransactionRepresentation transaction )
+    {
+        writeKeys.clear();
+        for ( StorageCommand command : transaction.getTransactionRepresentation() )
+        {
+            if ( !command.visitWriteKeys( writeKeys::add ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void awaitBatch()
+    {
+        if ( batch.isEmpty() )
+        {
+            return;
+        }
+        int numberOfTransactions = batch.size();
+        try
+        {
+            // Completes when all transactions in the batch have completed, also when some of them failed
+            CompletableFuture.allOf( batch.toArray( new CompletableFuture[0] ) ).join();
+        }
+        catch ( CompletionException e )
+        {
+            throw e.getCause() instanceof ParallelRecoveryException ? (ParallelRecoveryException) e.getCause() : e;
+        }
+        finally
+        {
+            batch.clear();
+            lastWriters.clear();
+        }
+        monitor.batchRecovered( lastTxIdInBatch, numberOfTransactions );
+    }
+
+    private void applyConcurrently( CommittedTransactionRepresentation transaction, long txId )
+    {
+        try ( PageCursorTracer workerCursorTracer = pageCacheTracer.createPageCursorTracer( PARALLEL_RECOVERY_TAG ) )
+        {
+            apply( transaction, txId, workerCursorTracer );
+        }
+        catch ( Throwable t )
+        {
+            throw new ParallelRecoveryException( txId, t );
+        }
+    }
+
+    private void apply( CommittedTransactionRepresentation transaction, long txId, PageCursorTracer cursorTracer ) throws Exception
+    {
+        TransactionToApply tx = new TransactionToApply( transaction.getTransactionRepresentation(), txId, cursorTracer );
+        tx.commitment( NO_COMMITMENT, txId );
+        tx.logPosition( transaction.getStartEntry().getStartPosition() );
+        storageEngine.apply( tx, mode );
+    }
+}
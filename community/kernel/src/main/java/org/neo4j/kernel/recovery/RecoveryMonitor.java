@@ -34,6 +34,15 @@ public interface RecoveryMonitor
         //noop
     }
 
+    /**
+     * Called when recovery applying transactions in parallel has applied a batch of transactions, up to and including {@code lastTxId}.
+     * Transactions are reported to {@link #transactionRecovered(long)} when read from the log, which may be before they have been applied.
+     */
+    default void batchRecovered( long lastTxId, int numberOfTransactions )
+    {
+        //noop
+    }
+
     default void recoveryCompleted( int numberOfRecoveredTransactions, long recoveryTimeInMilliseconds )
     {
         //noop
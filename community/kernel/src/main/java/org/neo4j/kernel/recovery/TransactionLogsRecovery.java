@@ -143,14 +143,23 @@ public class TransactionLogsRecovery extends LifecycleAdapter
                     recoveryToPosition = transactionsToRecover.position();
                 }
             }
-            catch ( Error | ClosedByInterruptException | DatabaseStartAbortedException e )
+            catch ( Error | ClosedByInterruptException | DatabaseStartAbortedException | ParallelRecoveryException e )
             {
                 // We do not want to truncate logs based on these exceptions. Since users can influence them with config changes
                 // the users are able to workaround this if truncations is really needed.
+                // Failures in parallel recovery cannot be truncated away either, since later transactions may already have been applied.
                 throw e;
             }
             catch ( Throwable t )
             {
+                // Closing the recovery applier has waited for the transactions it was still applying. If one of them failed, that failure is only
+                // attached to the failure to read the log, and must not be mistaken for a corrupted log tail that can be truncated.
+                ParallelRecoveryException parallelRecoveryFailure = findParallelRecoveryFailure( t );
+                if ( parallelRecoveryFailure != null )
+                {
+                    parallelRecoveryFailure.addSuppressed( t );
+                    throw parallelRecoveryFailure;
+                }
                 if ( failOnCorruptedLogFiles )
                 {
                     throwUnableToCleanRecover( t );
@@ -177,6 +186,24 @@ public class TransactionLogsRecovery extends LifecycleAdapter
         monitor.recoveryCompleted( numberOfRecoveredTransactions, recoveryStartTime.elapsed( MILLISECONDS ) );
     }
 
+    private static ParallelRecoveryException findParallelRecoveryFailure( Throwable t )
+    {
+        if ( t instanceof ParallelRecoveryException )
+        {
+            return (ParallelRecoveryException) t;
+        }
+        for ( Throwable suppressed : t.getSuppressed() )
+        {
+            ParallelRecoveryException failure = findParallelRecoveryFailure( suppressed );
+            if ( failure != null )
+            {
+                return failure;
+            }
+        }
+        Throwable cause = t.getCause();
+        return cause == null || cause == t ? null : findParallelRecoveryFailure( cause );
+    }
+
     private void initProgressReporter( RecoveryStartInformation recoveryStartInformation,
             CommittedTransactionRepresentation lastReversedTransaction )
     {
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.TestableTransactionAppender;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
+import org.neo4j.storageengine.api.CommandsToApply;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionIdStore;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.EXTERNAL;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.INTERNAL;
+
+class GroupApplyingTransactionCommitProcessTest
+{
+    private static final long INDEX_UPDATES_NANOS = 42;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool( 3 );
+    private final StorageEngine storageEngine = mock( StorageEngine.class );
+    private final TransactionIdStore transactionIdStore = mock( TransactionIdStore.class );
+    private final List<List<Long>> appliedGroups = new CopyOnWriteArrayList<>();
+    private final CountDownLatch firstApplyStarted = new CountDownLatch( 1 );
+    private final CountDownLatch releaseFirstApply = new CountDownLatch( 1 );
+    private GroupApplyingTransactionCommitProcess commitProcess;
+
+    @AfterEach
+    void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldApplyConcurrentlyCommittedTransactionsAsOneBatch() throws Exception
+    {
+        createCommitProcess( false );
+
+        Future<?> first = commitAsync( transaction() );
+        assertTrue( firstApplyStarted.await( 10, SECONDS ) );
+        TransactionToApply second = transaction();
+        TransactionToApply third = transaction();
+        Future<?> secondCommit = commitAsync( second );
+        Future<?> thirdCommit = commitAsync( third );
+        awaitThreadsInWorkSync( 3 );
+        releaseFirstApply.countDown();
+        first.get();
+        secondCommit.get();
+        thirdCommit.get();
+
+        assertThat( appliedGroups ).hasSize( 2 );
+        assertThat( appliedGroups.get( 0 ) ).containsExactly( 1L );
+        assertThat( appliedGroups.get( 1 ) ).containsExactlyInAnyOrder( 2L, 3L );
+        assertNull( second.next() );
+        assertNull( third.next() );
+    }
+
+    @Test
+    void shouldFailAllCommittersOfFailedBatch() throws Exception
+    {
+        createCommitProcess( true );
+
+        Future<?> first = commitAsync( transaction() );
+        assertTrue( firstApplyStarted.await( 10, SECONDS ) );
+        Future<?> second = commitAsync( transaction() );
+        Future<?> third = commitAsync( transaction() );
+        awaitThreadsInWorkSync( 3 );
+        releaseFirstApply.countDown();
+        first.get();
+
+        for ( Future<?> commit : List.of( second, third ) )
+        {
+            ExecutionException e = assertThrows( ExecutionException.class, commit::get );
+            assertThat( e ).hasCauseInstanceOf( TransactionFailureException.class );
+            assertThat( e.getCause() ).hasMessageContaining( "Could not apply the transaction to the store" );
+        }
+    }
+
+    @Test
+    void shouldReportIndexUpdatesOfGroupToEveryCommitterInIt() throws Exception
+    {
+        createCommitProcess( false );
+        List<Long> firstIndexUpdates = new CopyOnWriteArrayList<>();
+        List<Long> secondIndexUpdates = new CopyOnWriteArrayList<>();
+        List<Long> thirdIndexUpdates = new CopyOnWriteArrayList<>();
+
+        Future<?> first = commitAsync( transaction(), commitEvent( firstIndexUpdates ) );
+        assertTrue( firstApplyStarted.await( 10, SECONDS ) );
+        Future<?> second = commitAsync( transaction(), commitEvent( secondIndexUpdates ) );
+        Future<?> third = commitAsync( transaction(), commitEvent( thirdIndexUpdates ) );
+        awaitThreadsInWorkSync( 3 );
+        releaseFirstApply.countDown();
+        first.get();
+        second.get();
+        third.get();
+
+        assertThat( appliedGroups ).hasSize( 2 );
+        assertThat( firstIndexUpdates ).containsExactly( INDEX_UPDATES_NANOS );
+        assertThat( secondIndexUpdates ).containsExactly( INDEX_UPDATES_NANOS );
+        assertThat( thirdIndexUpdates ).containsExactly( INDEX_UPDATES_NANOS );
+    }
+
+    @Test
+    void shouldApplyOtherModesIndividually() throws Exception
+    {
+        createCommitProcess( false );
+        releaseFirstApply.countDown();
+
+        commitProcess.commit( transaction(), CommitEvent.NULL, EXTERNAL );
+
+        assertThat( appliedGroups ).containsExactly( List.of( 1L ) );
+    }
+
+    private void createCommitProcess( boolean failAfterFirstApply ) throws Exception
+    {
+        AtomicLong nextTxId = new AtomicLong();
+        when( transactionIdStore.nextCommittingTransactionId() ).thenAnswer( invocation -> nextTxId.incrementAndGet() );
+        doAnswer( invocation ->
+        {
+            List<Long> group = new CopyOnWriteArrayList<>();
+            for ( CommandsToApply batch = invocation.getArgument( 0 ); batch != null; batch = batch.next() )
+            {
+                group.add( batch.transactionId() );
+            }
+            appliedGroups.add( group );
+            CommandsToApply head = invocation.getArgument( 0 );
+            head.indexUpdatesTracer().indexUpdatesApplied( INDEX_UPDATES_NANOS );
+            firstApplyStarted.countDown();
+            assertTrue( releaseFirstApply.await( 10, SECONDS ) );
+            if ( failAfterFirstApply && appliedGroups.size() > 1 )
+            {
+                throw new IllegalStateException( "Failed to apply" );
+            }
+            return null;
+        } ).when( storageEngine ).apply( any(), any() );
+        commitProcess = new GroupApplyingTransactionCommitProcess( new TestableTransactionAppender( transactionIdStore ), storageEngine );
+    }
+
+    private Future<?> commitAsync( TransactionToApply transaction )
+    {
+        return commitAsync( transaction, CommitEvent.NULL );
+    }
+
+    private Future<?> commitAsync( TransactionToApply transaction, CommitEvent commitEvent )
+    {
+        return executor.submit( () ->
+        {
+            commitProcess.commit( transaction, commitEvent, INTERNAL );
+            return null;
+        } );
+    }
+
+    private static CommitEvent commitEvent( List<Long> indexUpdates )
+    {
+        CommitEvent commitEvent = mock( CommitEvent.class );
+        when( commitEvent.beginLogAppend() ).thenReturn( LogAppendEvent.NULL );
+        when( commitEvent.beginStoreApply() ).thenReturn( new StoreApplyEvent()
+        {
+            @Override
+            public void indexUpdatesApplied( long nanos )
+            {
+                indexUpdates.add( nanos );
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        } );
+        return commitEvent;
+    }
+
+    private static void awaitThreadsInWorkSync( int count ) throws InterruptedException
+    {
+        // The applying thread waits inside the work sync, and the other committers wait for it to apply their transactions
+        long waiting;
+        do
+        {
+            Thread.sleep( 10 );
+            waiting = Thread.getAllStackTraces().keySet().stream()
+                    .filter( thread -> thread.getState() == Thread.State.WAITING || thread.getState() == Thread.State.TIMED_WAITING )
+                    .filter( thread -> List.of( thread.getStackTrace() ).stream().anyMatch( frame -> frame.getClassName().endsWith( "WorkSync" ) ) )
+                    .count();
+        }
+        while ( waiting < count );
+    }
+
+    private static TransactionToApply transaction()
+    {
+        PhysicalTransactionRepresentation representation = new PhysicalTransactionRepresentation( Collections.emptyList() );
+        representation.setHeader( new byte[0], -1, -1, -1, -1 );
+        return new TransactionToApply( representation, NULL );
+    }
+}
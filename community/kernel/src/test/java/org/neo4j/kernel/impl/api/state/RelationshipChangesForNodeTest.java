@@ -23,11 +23,16 @@ import org.eclipse.collections.api.iterator.LongIterator;
 import org.junit.jupiter.api.Test;
 
 import org.neo4j.graphdb.Direction;
-
+import org.neo4j.kernel.impl.util.collection.CachingOffHeapBlockAllocator;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.OffHeapCollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.OnHeapCollectionsFactory;
 import org.neo4j.memory.EmptyMemoryTracker;
+import org.neo4j.memory.LocalMemoryTracker;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.neo4j.collection.PrimitiveLongCollections.asArray;
+import static org.neo4j.collection.PrimitiveLongCollections.count;
 import static org.neo4j.storageengine.api.RelationshipDirection.INCOMING;
 import static org.neo4j.storageengine.api.RelationshipDirection.LOOP;
 import static org.neo4j.storageengine.api.RelationshipDirection.OUTGOING;
@@ -39,7 +44,7 @@ class RelationshipChangesForNodeTest
     void shouldGetRelationships()
     {
         RelationshipChangesForNode changes = RelationshipChangesForNode.createRelationshipChangesForNode(
-                RelationshipChangesForNode.DiffStrategy.ADD, EmptyMemoryTracker.INSTANCE );
+                RelationshipChangesForNode.DiffStrategy.ADD, OnHeapCollectionsFactory.INSTANCE, EmptyMemoryTracker.INSTANCE );
 
         final int TYPE = 2;
 
@@ -58,7 +63,7 @@ class RelationshipChangesForNodeTest
     void shouldGetRelationshipsByTypeAndDirection()
     {
         RelationshipChangesForNode changes = RelationshipChangesForNode.createRelationshipChangesForNode(
-                RelationshipChangesForNode.DiffStrategy.ADD, EmptyMemoryTracker.INSTANCE );
+                RelationshipChangesForNode.DiffStrategy.ADD, OnHeapCollectionsFactory.INSTANCE, EmptyMemoryTracker.INSTANCE );
 
         final int TYPE = 2;
         final int DECOY_TYPE = 666;
@@ -79,4 +84,62 @@ class RelationshipChangesForNodeTest
         LongIterator rawOutgoing = changes.getRelationships( Direction.OUTGOING, TYPE );
         assertThat( asArray( rawOutgoing ) ).containsExactly( 2, 3, 4, 5, 6 );
     }
+
+    @Test
+    void shouldKeepRelationshipsMovedToCollectionsFactory()
+    {
+        CollectionsFactory collectionsFactory = new OffHeapCollectionsFactory( new CachingOffHeapBlockAllocator() );
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        RelationshipChangesForNode changes = RelationshipChangesForNode.createRelationshipChangesForNode(
+                RelationshipChangesForNode.DiffStrategy.ADD, collectionsFactory, memoryTracker );
+
+        final int TYPE = 2;
+        final int relationships = RelationshipChangesForNode.MAX_ON_HEAP_RELATIONSHIPS * 3;
+
+        for ( int i = 0; i < RelationshipChangesForNode.MAX_ON_HEAP_RELATIONSHIPS; i++ )
+        {
+            changes.addRelationship( i, TYPE, OUTGOING );
+        }
+        assertThat( memoryTracker.usedNativeMemory() ).isZero();
+
+        for ( int i = RelationshipChangesForNode.MAX_ON_HEAP_RELATIONSHIPS; i < relationships; i++ )
+        {
+            changes.addRelationship( i, TYPE, OUTGOING );
+        }
+        assertThat( memoryTracker.usedNativeMemory() ).isPositive();
+        assertThat( changes.augmentDegree( OUTGOING, 5, TYPE ) ).isEqualTo( 5 + relationships );
+        assertThat( changes.removeRelationship( 7, TYPE, OUTGOING ) ).isTrue();
+        assertThat( count( changes.getRelationships( Direction.OUTGOING, TYPE ) ) ).isEqualTo( relationships - 1 );
+
+        collectionsFactory.release();
+        assertThat( memoryTracker.usedNativeMemory() ).isZero();
+    }
+
+    @Test
+    void shouldUseLessHeapForManyRelationshipsOffHeap()
+    {
+        final int relationships = 100_000;
+        CollectionsFactory offHeapFactory = new OffHeapCollectionsFactory( new CachingOffHeapBlockAllocator() );
+        LocalMemoryTracker onHeapTracker = new LocalMemoryTracker();
+        LocalMemoryTracker offHeapTracker = new LocalMemoryTracker();
+        RelationshipChangesForNode onHeap = RelationshipChangesForNode.createRelationshipChangesForNode(
+                RelationshipChangesForNode.DiffStrategy.ADD, OnHeapCollectionsFactory.INSTANCE, onHeapTracker );
+        RelationshipChangesForNode offHeap = RelationshipChangesForNode.createRelationshipChangesForNode(
+                RelationshipChangesForNode.DiffStrategy.ADD, offHeapFactory, offHeapTracker );
+
+        for ( int i = 0; i < relationships; i++ )
+        {
+            onHeap.addRelationship( i, i % 4, OUTGOING );
+            offHeap.addRelationship( i, i % 4, OUTGOING );
+        }
+
+        // the ids alone take 800 kB, the sets on heap at least that much
+        assertThat( onHeapTracker.estimatedHeapMemory() ).isGreaterThan( relationships * Long.BYTES );
+        assertThat( onHeapTracker.usedNativeMemory() ).isZero();
+        assertThat( offHeapTracker.estimatedHeapMemory() ).isLessThan( onHeapTracker.estimatedHeapMemory() / 100 );
+        assertThat( offHeapTracker.usedNativeMemory() ).isGreaterThan( relationships * Long.BYTES );
+
+        offHeapFactory.release();
+        assertThat( offHeapTracker.usedNativeMemory() ).isZero();
+    }
 }
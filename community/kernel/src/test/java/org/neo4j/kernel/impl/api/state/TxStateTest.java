@@ -85,9 +85,12 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
+import static org.neo4j.collection.PrimitiveLongCollections.count;
 import static org.neo4j.internal.helpers.collection.Iterators.asSet;
 import static org.neo4j.internal.helpers.collection.Pair.of;
 import static org.neo4j.internal.schema.SchemaDescriptor.forLabel;
+import static org.neo4j.storageengine.api.RelationshipDirection.INCOMING;
+import static org.neo4j.storageengine.api.RelationshipDirection.OUTGOING;
 import static org.neo4j.values.storable.Values.stringValue;
 
 @ExtendWith( RandomExtension.class )
@@ -1023,6 +1026,34 @@ abstract class TxStateTest
         verifyNoMoreInteractions( collectionsFactory );
     }
 
+    @Test
+    void getOrCreateNodeState_fewRelationships_doNotUseCollectionsFactory()
+    {
+        final NodeStateImpl nodeState = state.getOrCreateNodeState( 1 );
+
+        nodeState.addRelationship( 10, 1, OUTGOING );
+        nodeState.addRelationship( 11, 2, INCOMING );
+        nodeState.removeRelationship( 12, 1, OUTGOING );
+
+        verifyNoMoreInteractions( collectionsFactory );
+    }
+
+    @Test
+    void getOrCreateNodeState_manyRelationships_useCollectionsFactory()
+    {
+        final NodeStateImpl nodeState = state.getOrCreateNodeState( 1 );
+
+        for ( int i = 0; i <= RelationshipChangesForNode.MAX_ON_HEAP_RELATIONSHIPS; i++ )
+        {
+            nodeState.addRelationship( 10 + i, 1, OUTGOING );
+        }
+        nodeState.addRelationship( 100, 2, INCOMING );
+
+        verify( collectionsFactory ).newLongSet( memoryTracker );
+        verifyNoMoreInteractions( collectionsFactory );
+        assertEquals( RelationshipChangesForNode.MAX_ON_HEAP_RELATIONSHIPS + 2, count( nodeState.getAddedRelationships() ) );
+    }
+
     @Test
     void getOrCreateLabelStateNodeDiffSets_useCollectionsFactory()
     {
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.tracer;
+
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.stats.CommitPhase;
+import org.neo4j.kernel.impl.transaction.tracing.CommandCreationEvent;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.CommitLocksEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
+import org.neo4j.kernel.impl.transaction.tracing.TransactionEvent;
+import org.neo4j.logging.AssertableLogProvider;
+import org.neo4j.logging.NullLog;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.kernel.impl.transaction.stats.CommitPhase.INDEX_UPDATES;
+import static org.neo4j.kernel.impl.transaction.stats.CommitPhase.LOCKS;
+import static org.neo4j.kernel.impl.transaction.stats.CommitPhase.LOG_APPEND;
+import static org.neo4j.kernel.impl.transaction.stats.CommitPhase.LOG_FORCE;
+import static org.neo4j.kernel.impl.transaction.stats.CommitPhase.TOTAL;
+import static org.neo4j.logging.AssertableLogProvider.Level.INFO;
+import static org.neo4j.logging.LogAssertions.assertThat;
+
+class DefaultTracerTest
+{
+    private final AssertableLogProvider logProvider = new AssertableLogProvider();
+
+    @Test
+    void shouldRecordLatencyOfEachCommitPhase() throws InterruptedException
+    {
+        DefaultTracer tracer = new DefaultTracer();
+
+        commit( tracer, 2 );
+        commit( tracer, 0 );
+
+        for ( CommitPhase phase : CommitPhase.values() )
+        {
+            if ( phase != INDEX_UPDATES )
+            {
+                assertThat( tracer.commitLatencies( phase ).count() ).as( phase.name() ).isEqualTo( 2 );
+            }
+        }
+        assertThat( tracer.commitLatencies( LOG_FORCE ).maxNanos() ).isGreaterThanOrEqualTo( MILLISECONDS.toNanos( 2 ) );
+        assertThat( tracer.commitLatencies( LOG_APPEND ).maxNanos() ).isLessThan( tracer.commitLatencies( TOTAL ).maxNanos() );
+        assertThat( tracer.commitLatencies( TOTAL ).maxNanos() ).isGreaterThanOrEqualTo( MILLISECONDS.toNanos( 2 ) );
+        assertThat( tracer.logForceLatencies().count() ).isEqualTo( 2 );
+    }
+
+    @Test
+    void shouldRecordIndexUpdatesSeparatelyFromCommits()
+    {
+        DefaultTracer tracer = new DefaultTracer();
+
+        try ( TransactionEvent transactionEvent = tracer.beginTransaction( NULL );
+              CommitEvent commitEvent = transactionEvent.beginCommitEvent();
+              StoreApplyEvent storeApplyEvent = commitEvent.beginStoreApply() )
+        {
+            storeApplyEvent.indexUpdatesApplied( 2_000 );
+            storeApplyEvent.indexUpdatesApplied( 4_000 );
+        }
+
+        assertThat( tracer.commitLatencies( INDEX_UPDATES ).count() ).isEqualTo( 2 );
+        assertThat( tracer.commitLatencies( INDEX_UPDATES ).maxNanos() ).isGreaterThanOrEqualTo( 4_000 );
+    }
+
+    @Test
+    void shouldRecordLockWaitTimeBeforeCommitAsLocks()
+    {
+        DefaultTracer tracer = new DefaultTracer();
+
+        try ( TransactionEvent transactionEvent = tracer.beginTransaction( NULL );
+              CommitEvent commitEvent = transactionEvent.beginCommitEvent() )
+        {
+            try ( CommitLocksEvent locksEvent = commitEvent.beginCommitLocks() )
+            {
+                locksEvent.lockWaitTime( MILLISECONDS.toNanos( 5 ) );
+            }
+            try ( LogAppendEvent logAppendEvent = commitEvent.beginLogAppend() )
+            {
+                logAppendEvent.appendToLogFile( new LogPosition( 0, 64 ), new LogPosition( 0, 128 ) );
+            }
+        }
+
+        assertThat( tracer.commitLatencies( LOCKS ).maxNanos() ).isGreaterThanOrEqualTo( MILLISECONDS.toNanos( 5 ) );
+    }
+
+    @Test
+    void shouldOnlyRecordSampledCommits() throws InterruptedException
+    {
+        DefaultTracer tracer = new DefaultTracer( 0, 4, NullLog.getInstance() );
+
+        for ( int i = 0; i < 9; i++ )
+        {
+            commit( tracer, 0 );
+        }
+
+        assertThat( tracer.commitLatencies( TOTAL ).count() ).isEqualTo( 3 );
+        assertThat( tracer.commitLatencies( LOG_APPEND ).count() ).isEqualTo( 3 );
+        assertThat( tracer.logForceLatencies().count() ).isEqualTo( 9 );
+    }
+
+    @Test
+    void shouldReuseCommitEventOfThread()
+    {
+        DefaultTracer tracer = new DefaultTracer();
+        TransactionEvent transactionEvent = tracer.beginTransaction( NULL );
+
+        CommitEvent first = transactionEvent.beginCommitEvent();
+        first.close();
+        CommitEvent second = transactionEvent.beginCommitEvent();
+        CommitEvent nested = transactionEvent.beginCommitEvent();
+        nested.close();
+        second.close();
+
+        assertThat( second ).isSameAs( first );
+        assertThat( second.beginLogAppend() ).isSameAs( first.beginLogAppend() );
+        assertThat( nested ).isNotSameAs( second );
+    }
+
+    @Test
+    void shouldNotRecordCommitsWithoutChanges()
+    {
+        DefaultTracer tracer = new DefaultTracer();
+
+        try ( TransactionEvent transactionEvent = tracer.beginTransaction( NULL );
+              CommitEvent commitEvent = transactionEvent.beginCommitEvent() )
+        {
+            // A read only transaction commits without appending anything
+        }
+
+        assertThat( tracer.commitLatencies( TOTAL ).count() ).isZero();
+    }
+
+    @Test
+    void shouldLogCommitsOverThreshold() throws InterruptedException
+    {
+        DefaultTracer tracer = new DefaultTracer( MILLISECONDS.toNanos( 50 ), 1, logProvider.getLog( DefaultTracer.class ) );
+
+        commit( tracer, 0 );
+        assertThat( logProvider ).doesNotHaveAnyLogs();
+
+        commit( tracer, 60 );
+        assertThat( logProvider ).forLevel( INFO ).containsMessages( "Commit took ", "locks=", "command_creation=", "log_append=", "log_force=",
+                "store_apply=" );
+    }
+
+    private static void commit( DefaultTracer tracer, long forceMillis ) throws InterruptedException
+    {
+        try ( TransactionEvent transactionEvent = tracer.beginTransaction( NULL );
+              CommitEvent commitEvent = transactionEvent.beginCommitEvent() )
+        {
+            try ( CommitLocksEvent locksEvent = commitEvent.beginCommitLocks() )
+            {
+                // acquire locks
+            }
+            try ( CommandCreationEvent commandCreationEvent = commitEvent.beginCommandCreation() )
+            {
+                // create commands
+            }
+            try ( LogAppendEvent logAppendEvent = commitEvent.beginLogAppend() )
+            {
+                logAppendEvent.appendToLogFile( new LogPosition( 0, 64 ), new LogPosition( 0, 128 ) );
+                try ( LogForceWaitEvent forceWaitEvent = logAppendEvent.beginLogForceWait();
+                      LogForceEvent forceEvent = logAppendEvent.beginLogForce() )
+                {
+                    Thread.sleep( forceMillis );
+                }
+            }
+            try ( StoreApplyEvent storeApplyEvent = commitEvent.beginStoreApply() )
+            {
+                // apply to store
+            }
+        }
+    }
+}
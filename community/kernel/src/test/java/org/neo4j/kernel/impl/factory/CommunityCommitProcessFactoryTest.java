@@ -22,7 +22,9 @@ package org.neo4j.kernel.impl.factory;
 import org.junit.jupiter.api.Test;
 
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.kernel.impl.api.GroupApplyingTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.ReadOnlyTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionRepresentationCommitProcess;
@@ -57,4 +59,15 @@ class CommunityCommitProcessFactoryTest
 
         assertThat( commitProcess ).isInstanceOf( TransactionRepresentationCommitProcess.class );
     }
+
+    @Test
+    void createGroupApplyingCommitProcess()
+    {
+        CommunityCommitProcessFactory factory = new CommunityCommitProcessFactory();
+
+        TransactionCommitProcess commitProcess = factory.create( mock( TransactionAppender.class ),
+                mock( StorageEngine.class ), Config.defaults( GraphDatabaseInternalSettings.group_apply_transactions, true ) );
+
+        assertThat( commitProcess ).isInstanceOf( GroupApplyingTransactionCommitProcess.class );
+    }
 }
@@ -32,6 +32,7 @@ import java.util.stream.Collectors;
 import org.neo4j.kernel.DeadlockDetectedException;
 import org.neo4j.lock.LockTracer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.neo4j.lock.ResourceTypes.NODE;
 
 abstract class DeadlockCompatibility extends LockCompatibilityTestSupport
@@ -89,6 +90,9 @@ abstract class DeadlockCompatibility extends LockCompatibilityTestSupport
             {
                 if ( tryDetectDeadlock( call ) )
                 {
+                    DeadlockDetectionStatistics statistics = locks.deadlockDetectionStatistics();
+                    assertThat( statistics.detectedCycles() ).isGreaterThan( 0 );
+                    assertThat( statistics.detections() ).isGreaterThanOrEqualTo( statistics.detectedCycles() );
                     return;
                 }
             }
@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.locking.community;
 import org.junit.jupiter.api.Test;
 
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.lock.ResourceTypes;
 import org.neo4j.time.Clocks;
@@ -42,4 +43,12 @@ class CommunityLocksFactoryTest
         assertThat( locks1 ).isInstanceOf( CommunityLockManger.class );
         assertThat( locks2 ).isInstanceOf( CommunityLockManger.class );
     }
+
+    @Test
+    void createStripedLockManagerWhenConfigured()
+    {
+        CommunityLocksFactory factory = new CommunityLocksFactory();
+        Config config = Config.defaults( GraphDatabaseInternalSettings.community_striped_locks, true );
+        assertThat( factory.newInstance( config, Clocks.nanoClock(), ResourceTypes.values() ) ).isInstanceOf( StripedLockManager.class );
+    }
 }
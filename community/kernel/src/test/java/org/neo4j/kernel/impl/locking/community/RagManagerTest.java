@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.community;
+
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.locking.DeadlockDetectionStatistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RagManagerTest
+{
+    private final DeadlockDetectionStatistics statistics = new DeadlockDetectionStatistics();
+    private final RagManager ragManager = new RagManager( statistics );
+
+    @Test
+    void shouldDetectCycleAndCountDetections()
+    {
+        Object r1 = "r1";
+        Object r2 = "r2";
+        Object t1 = "t1";
+        Object t2 = "t2";
+        ragManager.lockAcquired( r1, t1 );
+        ragManager.lockAcquired( r2, t2 );
+
+        ragManager.checkWaitOn( r2, t1 );
+        var e = assertThrows( DeadlockDetectedException.class, () -> ragManager.checkWaitOn( r1, t2 ) );
+        assertThat( e.getMessage() ).contains( "t2 can't wait on resource r1" );
+
+        assertThat( statistics.detections() ).isEqualTo( 2 );
+        assertThat( statistics.detectedCycles() ).isEqualTo( 1 );
+
+        // The transaction that detected the deadlock is not left waiting, so it can check again
+        assertThrows( DeadlockDetectedException.class, () -> ragManager.checkWaitOn( r1, t2 ) );
+        assertThat( statistics.detectedCycles() ).isEqualTo( 2 );
+
+        ragManager.stopWaitOn( r2, t1 );
+        ragManager.checkWaitOn( r1, t2 );
+        ragManager.stopWaitOn( r1, t2 );
+        ragManager.lockReleased( r1, t1 );
+        ragManager.lockReleased( r2, t2 );
+        assertThrows( LockException.class, () -> ragManager.lockReleased( r1, t1 ) );
+    }
+
+    @Test
+    void shouldAllowUpgradeOfOwnSharedLockButNotOfTwoSharedHolders()
+    {
+        Object r1 = "r1";
+        Object t1 = "t1";
+        Object t2 = "t2";
+        ragManager.lockAcquired( r1, t1 );
+        ragManager.lockAcquired( r1, t2 );
+
+        ragManager.checkWaitOn( r1, t1 );
+        assertThrows( DeadlockDetectedException.class, () -> ragManager.checkWaitOn( r1, t2 ) );
+        assertThat( statistics.detectedCycles() ).isEqualTo( 1 );
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.community;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.test.Race;
+import org.neo4j.time.Clocks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.lock.LockTracer.NONE;
+import static org.neo4j.lock.ResourceTypes.NODE;
+import static org.neo4j.lock.ResourceTypes.RELATIONSHIP;
+
+class StripedLockManagerTest
+{
+    @Test
+    void shouldRoundStripeCountUpToPowerOfTwo()
+    {
+        assertThat( new StripedLockManager( Config.defaults(), Clocks.nanoClock(), 100 ).stripeCount() ).isEqualTo( 128 );
+    }
+
+    @Test
+    void shouldRemoveLocksFromTableWhenLastHolderReleases()
+    {
+        StripedLockManager manager = new StripedLockManager( Config.defaults(), Clocks.nanoClock(), 4 );
+        try ( Locks.Client first = manager.newClient();
+              Locks.Client second = manager.newClient() )
+        {
+            first.acquireShared( NONE, NODE, 1 );
+            second.acquireShared( NONE, NODE, 1 );
+            first.acquireExclusive( NONE, RELATIONSHIP, 1 );
+            assertThat( countLocks( manager ) ).isEqualTo( 3 );
+
+            first.releaseShared( NODE, 1 );
+            assertThat( countLocks( manager ) ).isEqualTo( 2 );
+            second.releaseShared( NODE, 1 );
+            first.releaseExclusive( RELATIONSHIP, 1 );
+            assertThat( countLocks( manager ) ).isZero();
+
+            // Locks can be taken again after they have been removed
+            assertThat( second.tryExclusiveLock( NODE, 1 ) ).isTrue();
+            assertThat( first.trySharedLock( NODE, 1 ) ).isFalse();
+        }
+        assertThat( countLocks( manager ) ).isZero();
+    }
+
+    @Test
+    void shouldUpgradeOwnSharedLockAndTakeSharedOnOwnExclusiveLock()
+    {
+        StripedLockManager manager = new StripedLockManager( Config.defaults(), Clocks.nanoClock(), 4 );
+        try ( Locks.Client client = manager.newClient();
+              Locks.Client other = manager.newClient() )
+        {
+            client.acquireShared( NONE, NODE, 1 );
+            client.acquireExclusive( NONE, NODE, 1 );
+            client.acquireShared( NONE, NODE, 2 );
+            assertThat( other.trySharedLock( NODE, 1 ) ).isFalse();
+
+            client.acquireExclusive( NONE, NODE, 3 );
+            client.acquireShared( NONE, NODE, 3 );
+            client.releaseExclusive( NODE, 3 );
+            assertThat( other.trySharedLock( NODE, 3 ) ).isTrue();
+            assertThat( other.tryExclusiveLock( NODE, 2 ) ).isFalse();
+        }
+        assertThat( countLocks( manager ) ).isZero();
+    }
+
+    @Test
+    void concurrentLockersMustNeverShareExclusiveLocks() throws Throwable
+    {
+        int resources = 16;
+        StripedLockManager manager = new StripedLockManager( Config.defaults(), Clocks.nanoClock(), 4 );
+        // Number of shared holders per resource, or -1 while exclusively held
+        AtomicIntegerArray holders = new AtomicIntegerArray( resources );
+        Race race = new Race();
+        race.addContestants( 8, () ->
+        {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int resource = random.nextInt( resources );
+            try ( Locks.Client client = manager.newClient() )
+            {
+                if ( random.nextBoolean() )
+                {
+                    client.acquireExclusive( NONE, NODE, resource );
+                    assertThat( holders.getAndSet( resource, -1 ) ).isZero();
+                    Thread.yield();
+                    assertThat( holders.getAndSet( resource, 0 ) ).isEqualTo( -1 );
+                    client.releaseExclusive( NODE, resource );
+                }
+                else
+                {
+                    client.acquireShared( NONE, NODE, resource );
+                    assertThat( holders.getAndIncrement( resource ) ).isGreaterThanOrEqualTo( 0 );
+                    Thread.yield();
+                    assertThat( holders.getAndDecrement( resource ) ).isGreaterThan( 0 );
+                }
+            }
+        }, 2_000 );
+        race.go();
+
+        assertThat( countLocks( manager ) ).isZero();
+    }
+
+    private static int countLocks( StripedLockManager manager )
+    {
+        int[] count = new int[1];
+        manager.accept( ( lockType, resourceType, transactionId, resourceId, description, estimatedWaitTime, lockIdentityHashCode ) -> count[0]++ );
+        return count[0];
+    }
+}
@@ -25,11 +25,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings.PageCacheHugePages;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.HugePages;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.logging.AssertableLogProvider;
 import org.neo4j.logging.NullLog;
 import org.neo4j.memory.MemoryPools;
 import org.neo4j.scheduler.JobScheduler;
@@ -39,7 +42,9 @@ import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
 import org.neo4j.time.Clocks;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_huge_pages;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.logging.LogAssertions.assertThat;
 
 @ExtendWith( EphemeralFileSystemExtension.class )
 class ConfiguringPageCacheFactoryTest
@@ -81,4 +86,26 @@ class ConfiguringPageCacheFactoryTest
             assertThat( cache.maxCachedPages() ).isEqualTo( pageCount );
         }
     }
+
+    @Test
+    void mustReportHowPageCacheMemoryIsBacked()
+    {
+        Config config = Config.newBuilder()
+                .set( pagecache_memory, Long.toString( MuninnPageCache.memoryRequiredForPages( 60 ) ) )
+                .set( pagecache_huge_pages, PageCacheHugePages.TRANSPARENT )
+                .build();
+        AssertableLogProvider logProvider = new AssertableLogProvider();
+        ConfiguringPageCacheFactory factory = new ConfiguringPageCacheFactory( fs, config, PageCacheTracer.NULL,
+                logProvider.getLog( ConfiguringPageCacheFactory.class ), EmptyVersionContextSupplier.EMPTY, jobScheduler, Clocks.nanoClock(),
+                new MemoryPools() );
+
+        try ( PageCache ignored = factory.getOrCreatePageCache() )
+        {
+            factory.dumpConfiguration();
+        }
+
+        boolean transparentHugePages = HugePages.TRANSPARENT.supported() == HugePages.TRANSPARENT;
+        assertThat( logProvider ).containsMessages(
+                "Page cache memory backed by: " + (transparentHugePages ? "transparent huge pages" : "regular pages") + "." );
+    }
 }
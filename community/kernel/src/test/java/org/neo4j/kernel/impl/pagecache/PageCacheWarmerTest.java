@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.logging.NullLog;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.PageCacheSupportExtension;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.collections.impl.factory.Sets.immutable;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch_whitelist;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
+
+@EphemeralTestDirectoryExtension
+class PageCacheWarmerTest
+{
+    @RegisterExtension
+    static PageCacheSupportExtension pageCacheExtension = new PageCacheSupportExtension();
+
+    @Inject
+    private FileSystemAbstraction fs;
+    @Inject
+    private TestDirectory testDirectory;
+
+    private JobScheduler scheduler;
+    private Path databaseDirectory;
+
+    @BeforeEach
+    void setUp()
+    {
+        scheduler = createInitialisedScheduler();
+        databaseDirectory = testDirectory.homePath();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        scheduler.close();
+    }
+
+    @Test
+    void reheatMustLoadProfiledPages() throws IOException
+    {
+        File file = testDirectory.file( "neostore.nodestore.db" );
+        createFile( file, 10 );
+
+        try ( PageCache pageCache = pageCacheExtension.getPageCache( fs );
+              PagedFile pagedFile = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next( 2 ) );
+                assertTrue( cursor.next( 3 ) );
+                assertTrue( cursor.next( 7 ) );
+            }
+            warmer( pageCache, Config.defaults() ).profile();
+        }
+        assertTrue( fs.fileExists( databaseDirectory.resolve( PageCacheWarmer.PROFILES_DIRECTORY )
+                .resolve( file.getName() + PageCacheWarmer.PROFILE_SUFFIX ).toFile() ) );
+
+        try ( PageCache pageCache = pageCacheExtension.getPageCache( fs );
+              PagedFile pagedFile = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            assertThat( pagesInMemory( pagedFile ) ).isEmpty();
+            assertThat( warmer( pageCache, Config.defaults() ).reheat() ).isEqualTo( 3L );
+            assertThat( pagesInMemory( pagedFile ) ).containsExactly( 2L, 3L, 7L );
+        }
+    }
+
+    @Test
+    void reheatMustIgnoreFilesWithoutProfile() throws IOException
+    {
+        File file = testDirectory.file( "neostore.nodestore.db" );
+        createFile( file, 10 );
+
+        try ( PageCache pageCache = pageCacheExtension.getPageCache( fs );
+              PagedFile pagedFile = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            assertThat( warmer( pageCache, Config.defaults() ).reheat() ).isEqualTo( 0L );
+            assertThat( pagesInMemory( pagedFile ) ).isEmpty();
+        }
+    }
+
+    @Test
+    void preloadMustLoadAllPagesOfWhitelistedFiles() throws IOException
+    {
+        File nodeStore = testDirectory.file( "neostore.nodestore.db" );
+        File relationshipStore = testDirectory.file( "neostore.relationshipstore.db" );
+        createFile( nodeStore, 4 );
+        createFile( relationshipStore, 4 );
+        Config config = Config.newBuilder()
+                .set( pagecache_warmup_prefetch, true )
+                .set( pagecache_warmup_prefetch_whitelist, "nodestore" )
+                .build();
+
+        try ( PageCache pageCache = pageCacheExtension.getPageCache( fs );
+              PagedFile nodeFile = pageCache.map( nodeStore, pageCache.pageSize() );
+              PagedFile relationshipFile = pageCache.map( relationshipStore, pageCache.pageSize() ) )
+        {
+            assertThat( warmer( pageCache, config ).preload() ).isEqualTo( 4L );
+            assertThat( pagesInMemory( nodeFile ) ).containsExactly( 0L, 1L, 2L, 3L );
+            assertThat( pagesInMemory( relationshipFile ) ).isEmpty();
+        }
+    }
+
+    private PageCacheWarmer warmer( PageCache pageCache, Config config )
+    {
+        return new PageCacheWarmer( fs, pageCache, scheduler, databaseDirectory, config, NullLog.getInstance(), PageCacheTracer.NULL );
+    }
+
+    private void createFile( File file, int pages ) throws IOException
+    {
+        try ( PageCache pageCache = pageCacheExtension.getPageCache( fs );
+              PagedFile pagedFile = pageCache.map( file, pageCache.pageSize(), immutable.of( CREATE ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            for ( int i = 0; i < pages; i++ )
+            {
+                assertTrue( cursor.next() );
+                cursor.putInt( i );
+            }
+        }
+    }
+
+    private static List<Long> pagesInMemory( PagedFile pagedFile ) throws IOException
+    {
+        List<Long> pages = new ArrayList<>();
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, NULL ) )
+        {
+            while ( cursor.next() )
+            {
+                if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                {
+                    pages.add( cursor.getCurrentPageId() );
+                }
+            }
+        }
+        return pages;
+    }
+}
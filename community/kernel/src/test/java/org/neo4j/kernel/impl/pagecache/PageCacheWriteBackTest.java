@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.logging.NullLog;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.PageCacheSupportExtension;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.collections.impl.factory.Sets.immutable;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_writeback_interval;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
+import static org.neo4j.test.assertion.Assert.assertEventually;
+import static org.neo4j.test.conditions.Conditions.equalityCondition;
+import static org.neo4j.test.rule.PageCacheConfig.config;
+
+@EphemeralTestDirectoryExtension
+class PageCacheWriteBackTest
+{
+    @RegisterExtension
+    static PageCacheSupportExtension pageCacheExtension = new PageCacheSupportExtension();
+
+    @Inject
+    private FileSystemAbstraction fs;
+    @Inject
+    private TestDirectory testDirectory;
+
+    private JobScheduler scheduler;
+    private final DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+
+    @BeforeEach
+    void setUp()
+    {
+        scheduler = createInitialisedScheduler();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        scheduler.close();
+    }
+
+    @Test
+    void writeBackMustWriteDirtyPagesOfAllMappedFiles() throws IOException
+    {
+        try ( PageCache pageCache = pageCacheExtension.getPageCache( fs, config().withTracer( tracer ) );
+              PagedFile nodeFile = pageCache.map( testDirectory.file( "neostore.nodestore.db" ), pageCache.pageSize(), immutable.of( CREATE ) );
+              PagedFile relationshipFile = pageCache.map( testDirectory.file( "neostore.relationshipstore.db" ), pageCache.pageSize(),
+                      immutable.of( CREATE ) ) )
+        {
+            writePages( nodeFile, 3 );
+            writePages( relationshipFile, 2 );
+
+            writeBack( pageCache, Config.defaults() ).writeBack();
+            assertThat( tracer.flushes() ).isEqualTo( 5L );
+
+            // Everything has already been written back, so the flush has nothing left to write.
+            pageCache.flushAndForce();
+            assertThat( tracer.flushes() ).isEqualTo( 5L );
+        }
+    }
+
+    @Test
+    void mustWriteBackPeriodicallyWhenEnabled() throws Exception
+    {
+        Config writeBackConfig = Config.defaults( pagecache_writeback_interval, Duration.ofMillis( 10 ) );
+        try ( PageCache pageCache = pageCacheExtension.getPageCache( fs, config().withTracer( tracer ) );
+              PagedFile pagedFile = pageCache.map( testDirectory.file( "neostore.nodestore.db" ), pageCache.pageSize(), immutable.of( CREATE ) ) )
+        {
+            PageCacheWriteBack writeBack = writeBack( pageCache, writeBackConfig );
+            writeBack.start();
+            try
+            {
+                writePages( pagedFile, 4 );
+                assertEventually( tracer::flushes, equalityCondition( 4L ), 1, TimeUnit.MINUTES );
+            }
+            finally
+            {
+                writeBack.stop();
+            }
+        }
+    }
+
+    private PageCacheWriteBack writeBack( PageCache pageCache, Config config )
+    {
+        return new PageCacheWriteBack( pageCache, scheduler, IOLimiter.UNLIMITED, config, NullLog.getInstance() );
+    }
+
+    private static void writePages( PagedFile pagedFile, int pages ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            for ( int i = 0; i < pages; i++ )
+            {
+                assertTrue( cursor.next() );
+                cursor.putInt( i );
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.pagecache.PagedFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_file_limits;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_file_reservations;
+
+class PagedFileQuotasTest
+{
+    private static final int PAGE_SIZE = 8192;
+
+    @Test
+    void mustSetQuotaOfFilesMatchingConfiguredPatterns()
+    {
+        Config config = Config.newBuilder()
+                .set( pagecache_file_reservations, "neostore\\.nodestore\\.db=20k" )
+                .set( pagecache_file_limits, "neostore\\.nodestore\\.db=1m, index-.*=64k" )
+                .build();
+        PagedFileQuotas quotas = PagedFileQuotas.fromConfig( config );
+
+        PagedFile nodeStore = pagedFile( "neostore.nodestore.db" );
+        quotas.apply( nodeStore );
+        verify( nodeStore ).setPageQuota( 3, 128 );
+
+        PagedFile index = pagedFile( "index-1" );
+        quotas.apply( index );
+        verify( index ).setPageQuota( 0, 8 );
+
+        PagedFile relationshipStore = pagedFile( "neostore.relationshipstore.db" );
+        quotas.apply( relationshipStore );
+        verify( relationshipStore, never() ).setPageQuota( anyLong(), anyLong() );
+    }
+
+    @Test
+    void reservationMustNotExceedLimit()
+    {
+        Config config = Config.newBuilder()
+                .set( pagecache_file_reservations, ".*=1m" )
+                .set( pagecache_file_limits, ".*=64k" )
+                .build();
+        PagedFile pagedFile = pagedFile( "neostore.nodestore.db" );
+
+        PagedFileQuotas.fromConfig( config ).apply( pagedFile );
+
+        verify( pagedFile ).setPageQuota( 8, 8 );
+    }
+
+    @Test
+    void mustAllowCommasInPatterns()
+    {
+        Config config = Config.newBuilder()
+                .set( pagecache_file_limits, "index-[0-9]{1,3}=64k,neostore\\.nodestore\\.db=1m" )
+                .build();
+        PagedFileQuotas quotas = PagedFileQuotas.fromConfig( config );
+
+        PagedFile index = pagedFile( "index-12" );
+        quotas.apply( index );
+        verify( index ).setPageQuota( 0, 8 );
+
+        PagedFile nodeStore = pagedFile( "neostore.nodestore.db" );
+        quotas.apply( nodeStore );
+        verify( nodeStore ).setPageQuota( 0, 128 );
+
+        PagedFile otherIndex = pagedFile( "index-1234" );
+        quotas.apply( otherIndex );
+        verify( otherIndex, never() ).setPageQuota( anyLong(), anyLong() );
+    }
+
+    @Test
+    void mustRejectInvalidEntries()
+    {
+        Config missingSize = Config.newBuilder().set( pagecache_file_limits, "neostore.nodestore.db" ).build();
+        Config invalidPattern = Config.newBuilder().set( pagecache_file_limits, "[=1m" ).build();
+        Config invalidSize = Config.newBuilder().set( pagecache_file_limits, ".*=1 lots" ).build();
+
+        assertThat( assertThrows( IllegalArgumentException.class, () -> PagedFileQuotas.fromConfig( missingSize ) ) )
+                .hasMessageContaining( pagecache_file_limits.name() );
+        assertThrows( IllegalArgumentException.class, () -> PagedFileQuotas.fromConfig( invalidPattern ) );
+        assertThrows( IllegalArgumentException.class, () -> PagedFileQuotas.fromConfig( invalidSize ) );
+    }
+
+    private static PagedFile pagedFile( String name )
+    {
+        PagedFile pagedFile = mock( PagedFile.class );
+        when( pagedFile.file() ).thenReturn( new File( name ) );
+        when( pagedFile.pageSize() ).thenReturn( PAGE_SIZE );
+        return pagedFile;
+    }
+}
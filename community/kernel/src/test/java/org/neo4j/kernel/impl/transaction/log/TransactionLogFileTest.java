@@ -435,6 +435,42 @@ class TransactionLogFileTest
             return NativeCallResult.SUCCESS;
         }
 
+        @Override
+        public NativeCallResult tryZeroRange( int fd, long offset, long bytes )
+        {
+            return NativeCallResult.SUCCESS;
+        }
+
+        @Override
+        public long tryMapHugePages( long bytes )
+        {
+            return ERROR;
+        }
+
+        @Override
+        public NativeCallResult tryUnmap( long address, long bytes )
+        {
+            return NativeCallResult.SUCCESS;
+        }
+
+        @Override
+        public NativeCallResult tryAdviseHugePages( long address, long bytes )
+        {
+            return NativeCallResult.SUCCESS;
+        }
+
+        @Override
+        public int getCurrentNumaNode()
+        {
+            return ERROR;
+        }
+
+        @Override
+        public NativeCallResult tryBindToNumaNode( long address, long bytes, int numaNode )
+        {
+            return NativeCallResult.SUCCESS;
+        }
+
         @Override
         public String describe()
         {
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.Flushable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
+import org.neo4j.kernel.database.DatabaseTracers;
+import org.neo4j.logging.AssertableLogProvider;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.configuration.GraphDatabaseSettings.check_point_iops_limit;
+import static org.neo4j.io.pagecache.IOLimiter.INITIAL_STAMP;
+import static org.neo4j.logging.LogAssertions.assertThat;
+
+class AdaptiveIOLimiterTest
+{
+    private static final Flushable FLUSHABLE = () -> {};
+
+    private final AtomicLong clock = new AtomicLong( SECONDS.toNanos( 10 ) );
+    private final List<Long> pauses = new ArrayList<>();
+    private final LatencyHistogram logForceLatencies = new LatencyHistogram();
+    private final LatencyHistogram pageFaultLatencies = new LatencyHistogram();
+    private final AssertableLogProvider logProvider = new AssertableLogProvider();
+
+    @Test
+    void mustPauseUntilEndOfQuantumWhenItsIosAreUsedUp()
+    {
+        AdaptiveIOLimiter limiter = limiter( 1000 );
+
+        long stamp = limiter.maybeLimitIO( INITIAL_STAMP, 0, FLUSHABLE );
+        clock.addAndGet( MILLISECONDS.toNanos( 30 ) );
+        stamp = limiter.maybeLimitIO( stamp, 60, FLUSHABLE );
+        assertThat( pauses ).isEmpty();
+        limiter.maybeLimitIO( stamp, 60, FLUSHABLE );
+
+        // 1000 IOPS allows 100 IOs per 100 millisecond quantum, and 30 milliseconds of it had passed.
+        assertThat( pauses ).containsExactly( MILLISECONDS.toNanos( 70 ) );
+    }
+
+    @Test
+    void mustNotPauseWhileLimitIsDisabled()
+    {
+        AdaptiveIOLimiter limiter = limiter( 1000 );
+
+        limiter.disableLimit();
+        assertFalse( limiter.isLimited() );
+        long stamp = INITIAL_STAMP;
+        for ( int i = 0; i < 10; i++ )
+        {
+            stamp = limiter.maybeLimitIO( stamp, 1000, FLUSHABLE );
+        }
+        limiter.enableLimit();
+
+        assertThat( pauses ).isEmpty();
+        assertThat( limiter.isLimited() ).isTrue();
+    }
+
+    @Test
+    void mustLowerLimitWhenLatencyIsAboveTarget()
+    {
+        AdaptiveIOLimiter limiter = limiter( 1000 );
+        limiter.maybeLimitIO( INITIAL_STAMP, 0, FLUSHABLE );
+
+        logForceLatencies.record( MILLISECONDS.toNanos( 4 ) );
+        pageFaultLatencies.record( MILLISECONDS.toNanos( 6 ) );
+        clock.addAndGet( SECONDS.toNanos( 1 ) );
+        limiter.maybeLimitIO( INITIAL_STAMP, 0, FLUSHABLE );
+
+        assertThat( limiter.currentIopsLimit() ).isEqualTo( 500 );
+        assertThat( logProvider ).containsMessages( "Checkpoint IO limit lowered from 1000 to 500 IOPS. " +
+                "Mean log force latency 4.000 ms, mean page fault latency 6.000 ms, target 2.000 ms." );
+    }
+
+    @Test
+    void mustRaiseLimitWhenLatencyIsWellBelowTarget()
+    {
+        AdaptiveIOLimiter limiter = limiter( 1000 );
+        limiter.maybeLimitIO( INITIAL_STAMP, 0, FLUSHABLE );
+
+        logForceLatencies.record( MILLISECONDS.toNanos( 0 ) );
+        clock.addAndGet( SECONDS.toNanos( 1 ) );
+        limiter.maybeLimitIO( INITIAL_STAMP, 0, FLUSHABLE );
+
+        assertThat( limiter.currentIopsLimit() ).isEqualTo( 1250 );
+        assertThat( logProvider ).containsMessages( "Checkpoint IO limit raised from 1000 to 1250 IOPS." );
+    }
+
+    @Test
+    void mustKeepLimitWithoutNewLatencies()
+    {
+        AdaptiveIOLimiter limiter = limiter( 1000 );
+        logForceLatencies.record( MILLISECONDS.toNanos( 10 ) );
+        limiter.maybeLimitIO( INITIAL_STAMP, 0, FLUSHABLE );
+
+        clock.addAndGet( SECONDS.toNanos( 1 ) );
+        limiter.maybeLimitIO( INITIAL_STAMP, 0, FLUSHABLE );
+
+        assertThat( limiter.currentIopsLimit() ).isEqualTo( 1000 );
+        assertThat( logProvider ).doesNotHaveAnyLogs();
+    }
+
+    @Test
+    void mustIgnoreLatenciesFromBeforeLimitedIo()
+    {
+        AdaptiveIOLimiter limiter = limiter( 1000 );
+        limiter.maybeLimitIO( INITIAL_STAMP, 0, FLUSHABLE );
+
+        // Latencies recorded between two check-points are not caused by check-point IO.
+        logForceLatencies.record( MILLISECONDS.toNanos( 10 ) );
+        clock.addAndGet( SECONDS.toNanos( 60 ) );
+        limiter.maybeLimitIO( INITIAL_STAMP, 0, FLUSHABLE );
+
+        assertThat( limiter.currentIopsLimit() ).isEqualTo( 1000 );
+    }
+
+    @Test
+    void mustNotLowerLimitBelowMinimum()
+    {
+        AdaptiveIOLimiter limiter = limiter( AdaptiveIOLimiter.MIN_IOPS );
+        limiter.maybeLimitIO( INITIAL_STAMP, 0, FLUSHABLE );
+
+        pageFaultLatencies.record( SECONDS.toNanos( 1 ) );
+        clock.addAndGet( SECONDS.toNanos( 1 ) );
+        limiter.maybeLimitIO( INITIAL_STAMP, 0, FLUSHABLE );
+
+        assertThat( limiter.currentIopsLimit() ).isEqualTo( AdaptiveIOLimiter.MIN_IOPS );
+        assertThat( logProvider ).doesNotHaveAnyLogs();
+    }
+
+    @Test
+    void mustResetLimitWhenConfiguredLimitChanges()
+    {
+        Config config = Config.defaults( check_point_iops_limit, 1000 );
+        AdaptiveIOLimiter limiter = new AdaptiveIOLimiter( config, DatabaseTracers.EMPTY, mock( PageCache.class ),
+                logProvider.getLog( AdaptiveIOLimiter.class ) );
+        assertThat( limiter.currentIopsLimit() ).isEqualTo( 1000 );
+
+        config.setDynamic( check_point_iops_limit, 5000, getClass().getSimpleName() );
+        assertThat( limiter.currentIopsLimit() ).isEqualTo( 5000 );
+        assertThat( logProvider ).containsMessages( "reconfigured from 1000 to 5000 IOPS" );
+
+        config.setDynamic( check_point_iops_limit, -1, getClass().getSimpleName() );
+        assertThat( limiter.currentIopsLimit() ).isEqualTo( AdaptiveIOLimiter.MAX_IOPS );
+    }
+
+    private AdaptiveIOLimiter limiter( int initialIops )
+    {
+        return new AdaptiveIOLimiter( MILLISECONDS.toNanos( 2 ), initialIops, () -> singletonList( logForceLatencies ),
+                () -> singletonList( pageFaultLatencies ),
+                logProvider.getLog( AdaptiveIOLimiter.class ), clock::get, pauses::add );
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.internal.nativeimpl.AbsentNativeAccess;
+import org.neo4j.internal.nativeimpl.NativeAccess;
+import org.neo4j.internal.nativeimpl.NativeAccessProvider;
+import org.neo4j.io.fs.DelegatingFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.kernel.impl.api.TestCommandReaderFactory;
+import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
+import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.storageengine.api.StoreId;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.Neo4jLayoutExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.transaction_log_recycled_files;
+import static org.neo4j.kernel.impl.transaction.log.files.RecycledLogFiles.RECYCLED_PREFIX;
+import static org.neo4j.kernel.impl.transaction.log.files.RecycledLogFiles.ZEROING_SUFFIX;
+
+@Neo4jLayoutExtension
+class RecycledLogFilesTest
+{
+    private static final long ROTATION_THRESHOLD = 4096;
+
+    @Inject
+    private FileSystemAbstraction fileSystem;
+    @Inject
+    private DatabaseLayout databaseLayout;
+
+    @Test
+    void prunedLogFileMustBeZeroedAndReused() throws IOException
+    {
+        LogFiles logFiles = createLogFiles( 1 );
+        writeLogFile( logFiles, 0 );
+        writeLogFile( logFiles, 1 );
+
+        assertThat( logFiles.recycleLogFile( 0 ) ).isTrue();
+        assertThat( logFiles.recycleLogFile( 1 ) ).isFalse();
+        assertThat( logFiles.versionExists( 0 ) ).isFalse();
+        assertThat( logFiles.versionExists( 1 ) ).isTrue();
+
+        File[] recycledFiles = recycledFiles( logFiles );
+        assertThat( recycledFiles ).hasSize( 1 );
+        assertThat( fileSystem.getFileSize( recycledFiles[0] ) ).isGreaterThanOrEqualTo( ROTATION_THRESHOLD );
+        assertThat( readAll( recycledFiles[0] ) ).containsOnly( 0 );
+
+        try ( PhysicalLogVersionedStoreChannel channel = logFiles.createLogChannelForVersion( 2, () -> 1L ) )
+        {
+            assertThat( channel.getVersion() ).isEqualTo( 2 );
+        }
+        assertThat( recycledFiles( logFiles ) ).isEmpty();
+        assertThat( logFiles.extractHeader( 2 ).getLogVersion() ).isEqualTo( 2 );
+        assertThat( logFiles.hasAnyEntries( 2 ) ).isFalse();
+    }
+
+    @Test
+    void prunedLogFileMustNotBeRecycledByDefault() throws IOException
+    {
+        LogFiles logFiles = createLogFiles( 0 );
+        writeLogFile( logFiles, 0 );
+
+        assertThat( logFiles.recycleLogFile( 0 ) ).isFalse();
+        assertThat( logFiles.versionExists( 0 ) ).isTrue();
+        assertThat( recycledFiles( logFiles ) ).isEmpty();
+    }
+
+    @Test
+    void prunedLogFileMustBeZeroedByWritingWithoutNativeAccess() throws IOException
+    {
+        LogFiles logFiles = createLogFiles( 1, fileSystem, new AbsentNativeAccess() );
+        writeLogFile( logFiles, 0 );
+
+        assertThat( logFiles.recycleLogFile( 0 ) ).isTrue();
+
+        File[] recycledFiles = recycledFiles( logFiles );
+        assertThat( recycledFiles ).hasSize( 1 );
+        assertThat( fileSystem.getFileSize( recycledFiles[0] ) ).isGreaterThanOrEqualTo( ROTATION_THRESHOLD );
+        assertThat( readAll( recycledFiles[0] ) ).containsOnly( 0 );
+    }
+
+    @Test
+    void logFileThatCouldNotBeZeroedMustNotBeReportedAsRecycled() throws IOException
+    {
+        FileSystemAbstraction failingFileSystem = new DelegatingFileSystemAbstraction( fileSystem )
+        {
+            @Override
+            public StoreChannel write( File fileName ) throws IOException
+            {
+                if ( fileName.getName().endsWith( ZEROING_SUFFIX ) )
+                {
+                    throw new IOException( "Unable to open " + fileName );
+                }
+                return super.write( fileName );
+            }
+        };
+        LogFiles logFiles = createLogFiles( 1, failingFileSystem, new AbsentNativeAccess() );
+        writeLogFile( logFiles, 0 );
+
+        assertThat( logFiles.recycleLogFile( 0 ) ).isFalse();
+        assertThat( logFiles.versionExists( 0 ) ).isFalse();
+        assertThat( recycledFiles( logFiles ) ).isEmpty();
+    }
+
+    @Test
+    void partiallyZeroedFilesMustBeDeletedOnInit() throws Exception
+    {
+        LogFiles logFiles = createLogFiles( 1 );
+        File zeroingFile = new File( logFiles.logFilesDirectory(), RECYCLED_PREFIX + logFiles.getLogFileForVersion( 0 ).getName() + ZEROING_SUFFIX );
+        fileSystem.write( zeroingFile ).close();
+
+        logFiles.init();
+
+        assertThat( fileSystem.fileExists( zeroingFile ) ).isFalse();
+    }
+
+    private void writeLogFile( LogFiles logFiles, long version ) throws IOException
+    {
+        try ( PhysicalLogVersionedStoreChannel channel = logFiles.createLogChannelForVersion( version, () -> 1L ) )
+        {
+            channel.position( channel.size() );
+            channel.writeAll( ByteBuffer.wrap( new byte[]{1, 2, 3, 4, 5, 6, 7, 8} ) );
+        }
+    }
+
+    private File[] recycledFiles( LogFiles logFiles )
+    {
+        return fileSystem.listFiles( logFiles.logFilesDirectory(), ( dir, name ) -> name.startsWith( RECYCLED_PREFIX ) );
+    }
+
+    private byte[] readAll( File file ) throws IOException
+    {
+        try ( StoreChannel channel = fileSystem.read( file ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( (int) channel.size() );
+            channel.readAll( buffer );
+            return buffer.array();
+        }
+    }
+
+    private LogFiles createLogFiles( int maxRecycledFiles ) throws IOException
+    {
+        return createLogFiles( maxRecycledFiles, fileSystem, NativeAccessProvider.getNativeAccess() );
+    }
+
+    private LogFiles createLogFiles( int maxRecycledFiles, FileSystemAbstraction fileSystem, NativeAccess nativeAccess ) throws IOException
+    {
+        return LogFilesBuilder
+                .builder( databaseLayout, fileSystem )
+                .withConfig( Config.defaults( transaction_log_recycled_files, maxRecycledFiles ) )
+                .withNativeAccess( nativeAccess )
+                .withRotationThreshold( ROTATION_THRESHOLD )
+                .withTransactionIdStore( new SimpleTransactionIdStore() )
+                .withLogVersionRepository( new SimpleLogVersionRepository() )
+                .withLogEntryReader( new VersionAwareLogEntryReader( new TestCommandReaderFactory() ) )
+                .withStoreId( StoreId.UNKNOWN )
+                .build();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.kernel.impl.api.TestCommandReaderFactory;
+import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
+import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.storageengine.api.StoreId;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.Neo4jLayoutExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.kernel.impl.transaction.log.files.TransactionLogOffsetIndex.FLUSH_THRESHOLD;
+import static org.neo4j.kernel.impl.transaction.log.files.TransactionLogOffsetIndex.OFFSETS_PREFIX;
+import static org.neo4j.kernel.impl.transaction.log.files.TransactionLogOffsetIndex.STRIDE;
+
+@Neo4jLayoutExtension
+class TransactionLogOffsetIndexTest
+{
+    @Inject
+    private FileSystemAbstraction fileSystem;
+    @Inject
+    private DatabaseLayout databaseLayout;
+
+    @Test
+    void lookupMustFindClosestIndexedTransactionAtOrBefore() throws IOException
+    {
+        LogFiles logFiles = createLogFiles();
+        createLogFile( logFiles, 0, 99 );
+        TransactionLogOffsetIndex offsetIndex = logFiles.getOffsetIndex();
+
+        for ( long txId = 100; txId < 100 + 2 * STRIDE; txId++ )
+        {
+            offsetIndex.transactionAppended( txId, new LogPosition( 0, txId * 10 ) );
+        }
+
+        assertThat( offsetIndex.lookup( 0, 100 ) ).isEqualTo( new LogPosition( 0, 1000 ) );
+        assertThat( offsetIndex.lookup( 0, 100 + STRIDE - 1 ) ).isEqualTo( new LogPosition( 0, 1000 ) );
+        assertThat( offsetIndex.lookup( 0, 100 + STRIDE ) ).isEqualTo( new LogPosition( 0, (100 + STRIDE) * 10 ) );
+        assertThat( offsetIndex.lookup( 0, 100 + 10 * STRIDE ) ).isEqualTo( new LogPosition( 0, (100 + STRIDE) * 10 ) );
+        assertThat( offsetIndex.lookup( 0, 99 ) ).isNull();
+    }
+
+    @Test
+    void lookupMustNotFindAnythingWithoutIndexFile() throws IOException
+    {
+        LogFiles logFiles = createLogFiles();
+        createLogFile( logFiles, 0, 99 );
+
+        assertThat( logFiles.getOffsetIndex().lookup( 0, 100 ) ).isNull();
+    }
+
+    @Test
+    void lookupMustIgnoreIndexOfOtherLogFileWithSameVersion() throws IOException
+    {
+        LogFiles logFiles = createLogFiles();
+        createLogFile( logFiles, 0, 99 );
+        logFiles.getOffsetIndex().transactionAppended( 100, new LogPosition( 0, 1000 ) );
+        logFiles.getOffsetIndex().close();
+
+        fileSystem.deleteFile( logFiles.getLogFileForVersion( 0 ) );
+        LogFiles recreatedLogFiles = createLogFiles();
+        createLogFile( recreatedLogFiles, 0, 199 );
+
+        assertThat( recreatedLogFiles.getOffsetIndex().lookup( 0, 200 ) ).isNull();
+    }
+
+    @Test
+    void appendingMustOnlyBufferOffsetsUntilFlushed() throws IOException
+    {
+        LogFiles logFiles = createLogFiles();
+        createLogFile( logFiles, 0, 99 );
+        TransactionLogOffsetIndex offsetIndex = logFiles.getOffsetIndex();
+        File indexFile = new File( logFiles.logFilesDirectory(), OFFSETS_PREFIX + logFiles.getLogFileForVersion( 0 ).getName() );
+
+        for ( long txId = 100; txId < 100 + FLUSH_THRESHOLD - 1; txId++ )
+        {
+            offsetIndex.transactionAppended( txId, new LogPosition( 0, txId * 10 ) );
+        }
+        offsetIndex.flushIfNeeded();
+        assertThat( fileSystem.fileExists( indexFile ) ).isFalse();
+
+        offsetIndex.transactionAppended( 100 + FLUSH_THRESHOLD - 1, new LogPosition( 0, (100 + FLUSH_THRESHOLD - 1) * 10 ) );
+        offsetIndex.flushIfNeeded();
+        assertThat( fileSystem.fileExists( indexFile ) ).isTrue();
+        assertThat( offsetIndex.lookup( 0, 100 ) ).isEqualTo( new LogPosition( 0, 1000 ) );
+    }
+
+    @Test
+    void rebuildMustWriteBufferedOffsetsFirst() throws IOException
+    {
+        LogFiles logFiles = createLogFiles();
+        createLogFile( logFiles, 0, 99 );
+        TransactionLogOffsetIndex offsetIndex = logFiles.getOffsetIndex();
+        offsetIndex.transactionAppended( 100 + STRIDE, new LogPosition( 0, 5000 ) );
+
+        // The log file has no transactions in it, so the rebuilt index only gets the buffered offset
+        offsetIndex.rebuild( 0 );
+
+        assertThat( offsetIndex.lookup( 0, 100 + STRIDE ) ).isEqualTo( new LogPosition( 0, 5000 ) );
+    }
+
+    @Test
+    void rotationMustDeleteIndexesOfMissingLogFiles() throws IOException
+    {
+        LogFiles logFiles = createLogFiles();
+        createLogFile( logFiles, 0, 99 );
+        TransactionLogOffsetIndex offsetIndex = logFiles.getOffsetIndex();
+        offsetIndex.transactionAppended( 100, new LogPosition( 0, 1000 ) );
+        offsetIndex.flush();
+        File indexFile = new File( logFiles.logFilesDirectory(), OFFSETS_PREFIX + logFiles.getLogFileForVersion( 0 ).getName() );
+        assertThat( fileSystem.fileExists( indexFile ) ).isTrue();
+
+        createLogFile( logFiles, 1, 199 );
+        fileSystem.deleteFile( logFiles.getLogFileForVersion( 0 ) );
+        offsetIndex.transactionAppended( 200, new LogPosition( 1, 1000 ) );
+        offsetIndex.flush();
+
+        assertThat( fileSystem.fileExists( indexFile ) ).isFalse();
+        assertThat( offsetIndex.lookup( 1, 200 ) ).isEqualTo( new LogPosition( 1, 1000 ) );
+    }
+
+    private static void createLogFile( LogFiles logFiles, long version, long lastCommittedTransactionId ) throws IOException
+    {
+        try ( PhysicalLogVersionedStoreChannel channel = logFiles.createLogChannelForVersion( version, () -> lastCommittedTransactionId ) )
+        {
+            assertThat( channel.getVersion() ).isEqualTo( version );
+        }
+    }
+
+    private LogFiles createLogFiles() throws IOException
+    {
+        return LogFilesBuilder
+                .builder( databaseLayout, fileSystem )
+                .withTransactionIdStore( new SimpleTransactionIdStore() )
+                .withLogVersionRepository( new SimpleLogVersionRepository() )
+                .withLogEntryReader( new VersionAwareLogEntryReader( new TestCommandReaderFactory() ) )
+                .withStoreId( StoreId.UNKNOWN )
+                .build();
+    }
+}
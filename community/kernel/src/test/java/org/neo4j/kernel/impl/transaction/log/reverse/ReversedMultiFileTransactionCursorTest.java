@@ -37,9 +37,13 @@ import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import static java.lang.Math.toIntExact;
 import static java.util.Arrays.copyOfRange;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.neo4j.kernel.impl.transaction.log.GivenTransactionCursor.exhaust;
 import static org.neo4j.kernel.impl.transaction.log.GivenTransactionCursor.given;
@@ -122,6 +126,52 @@ class ReversedMultiFileTransactionCursorTest
         assertTransactionRange( reversed, 0, 0 );
     }
 
+    @Test
+    void shouldPropagateFailureToOpenPreviousVersion() throws Exception
+    {
+        // GIVEN
+        ThrowingFunction<LogPosition,TransactionCursor,IOException> log = log( 2, 3 );
+        IOException failure = new IOException( "Corrupted log version 0" );
+        ThrowingFunction<LogPosition,TransactionCursor,IOException> failingLog = position ->
+        {
+            if ( position.getLogVersion() == 0 )
+            {
+                throw failure;
+            }
+            return log.apply( position );
+        };
+        TransactionCursor cursor = new ReversedMultiFileTransactionCursor( logFiles, failingLog, 1, start() );
+
+        // WHEN
+        for ( int i = 0; i < 3; i++ )
+        {
+            assertTrue( cursor.next() );
+        }
+
+        // THEN
+        IOException e = assertThrows( IOException.class, cursor::next );
+        assertSame( failure, e );
+        cursor.close();
+    }
+
+    @Test
+    void shouldClosePrefetchedCursorOfPreviousVersion() throws Exception
+    {
+        // GIVEN
+        TransactionCursor[] cursors = {mock( TransactionCursor.class ), mock( TransactionCursor.class )};
+        when( cursors[1].next() ).thenReturn( true );
+        TransactionCursor cursor =
+                new ReversedMultiFileTransactionCursor( logFiles, position -> cursors[toIntExact( position.getLogVersion() )], 1, start() );
+
+        // WHEN
+        assertTrue( cursor.next() );
+        cursor.close();
+
+        // THEN
+        verify( cursors[1] ).close();
+        verify( cursors[0] ).close();
+    }
+
     private void assertTransactionRange( CommittedTransactionRepresentation[] reversed, long highTxId, long lowTxId )
     {
         long expectedTxId = highTxId;
@@ -36,13 +36,18 @@ import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
 import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.FlushablePositionAwareChecksumChannel;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
+import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChecksumChannel;
 import org.neo4j.kernel.impl.transaction.log.TransactionLogWriter;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
+import org.neo4j.kernel.impl.transaction.log.files.TransactionLogOffsetIndex;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.logging.AssertableLogProvider;
 import org.neo4j.logging.LogProvider;
@@ -63,6 +68,7 @@ import static org.junit.jupiter.api.Assertions.fail;
 import static org.neo4j.kernel.impl.transaction.log.GivenTransactionCursor.exhaust;
 import static org.neo4j.kernel.impl.transaction.log.TestLogEntryReader.logEntryReader;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.TX_START;
+import static org.neo4j.kernel.impl.transaction.log.files.TransactionLogOffsetIndex.STRIDE;
 import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
 
 @Neo4jLayoutExtension
@@ -196,6 +202,52 @@ class ReversedSingleFileTransactionCursorTest
         assertThrows( IOException.class, this::readAllFromReversedCursorFailOnCorrupted );
     }
 
+    @Test
+    void shouldOnlyReadTransactionsAfterLastIndexedOneWhenLogFileHasOffsetIndex() throws IOException
+    {
+        // given
+        int transactionCount = 5_000;
+        writeTransactions( transactionCount, 1, 1 );
+        logFiles.getOffsetIndex().rebuild( 0 );
+        CountingLogEntryReader logEntryReader = new CountingLogEntryReader( logEntryReader() );
+
+        // when
+        try ( ReversedSingleFileTransactionCursor cursor = txCursor( logEntryReader, logFiles.getOffsetIndex() ) )
+        {
+            long entriesReadToSketchOutOffsets = logEntryReader.entriesRead;
+            CommittedTransactionRepresentation[] readTransactions = exhaust( cursor );
+
+            // then
+            assertThat( entriesReadToSketchOutOffsets ).isLessThan( transactionCount );
+            assertTransactionRange( readTransactions, txId, TransactionIdStore.BASE_TX_ID );
+        }
+    }
+
+    @Test
+    void shouldReadLogFileThroughWhenOffsetIndexDoesNotMatchIt() throws IOException
+    {
+        // given
+        writeTransactions( 1_000, 1, 1 );
+        TransactionLogOffsetIndex offsetIndex = logFiles.getOffsetIndex();
+        offsetIndex.rebuild( 0 );
+        long firstTransactionId = TransactionIdStore.BASE_TX_ID + 1;
+        LogPosition wrongPosition = offsetIndex.lookup( 0, firstTransactionId + 2 * STRIDE );
+        offsetIndex.transactionAppended( firstTransactionId + STRIDE, wrongPosition );
+        offsetIndex.flush();
+        CountingLogEntryReader logEntryReader = new CountingLogEntryReader( logEntryReader() );
+
+        // when
+        try ( ReversedSingleFileTransactionCursor cursor = txCursor( logEntryReader, offsetIndex ) )
+        {
+            long entriesReadToSketchOutOffsets = logEntryReader.entriesRead;
+            CommittedTransactionRepresentation[] readTransactions = exhaust( cursor );
+
+            // then
+            assertThat( entriesReadToSketchOutOffsets ).isGreaterThan( 1_000 );
+            assertTransactionRange( readTransactions, txId, TransactionIdStore.BASE_TX_ID );
+        }
+    }
+
     private CommittedTransactionRepresentation[] readAllFromReversedCursor() throws IOException
     {
         try ( ReversedSingleFileTransactionCursor cursor = txCursor( false ) )
@@ -237,6 +289,20 @@ class ReversedSingleFileTransactionCursorTest
         }
     }
 
+    private ReversedSingleFileTransactionCursor txCursor( LogEntryReader logEntryReader, TransactionLogOffsetIndex offsetIndex ) throws IOException
+    {
+        ReadAheadLogChannel fileReader = (ReadAheadLogChannel) logFile.getReader( logFiles.extractHeader( 0 ).getStartPosition() );
+        try
+        {
+            return new ReversedSingleFileTransactionCursor( fileReader, logEntryReader, offsetIndex, false, monitor );
+        }
+        catch ( Exception e )
+        {
+            fileReader.close();
+            throw e;
+        }
+    }
+
     private void writeTransactions( int transactionCount, int minTransactionSize, int maxTransactionSize ) throws IOException
     {
         FlushablePositionAwareChecksumChannel channel = logFile.getWriter();
@@ -270,6 +336,30 @@ class ReversedSingleFileTransactionCursorTest
         return tx;
     }
 
+    private static class CountingLogEntryReader implements LogEntryReader
+    {
+        private final LogEntryReader actual;
+        private long entriesRead;
+
+        CountingLogEntryReader( LogEntryReader actual )
+        {
+            this.actual = actual;
+        }
+
+        @Override
+        public LogEntry readLogEntry( ReadableClosablePositionAwareChecksumChannel source ) throws IOException
+        {
+            entriesRead++;
+            return actual.readLogEntry( source );
+        }
+
+        @Override
+        public LogPosition lastPosition()
+        {
+            return actual.lastPosition();
+        }
+    }
+
     private static class CorruptedLogEntryWriter extends LogEntryWriter
     {
         CorruptedLogEntryWriter( FlushableChecksumChannel channel )
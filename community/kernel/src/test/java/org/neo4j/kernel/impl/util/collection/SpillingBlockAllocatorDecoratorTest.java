@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.io.ByteUnit.kibiBytes;
+
+@TestDirectoryExtension
+class SpillingBlockAllocatorDecoratorTest
+{
+    @Inject
+    private TestDirectory testDirectory;
+
+    private final LocalMemoryTracker tracker = new LocalMemoryTracker();
+    private final CachingOffHeapBlockAllocator blockAllocator = new CachingOffHeapBlockAllocator();
+    private Path spillDirectory;
+    private MemoryAllocator allocator;
+
+    @BeforeEach
+    void setUp()
+    {
+        spillDirectory = testDirectory.directoryPath( "spill" );
+        allocator = new OffHeapMemoryAllocator( new SpillingBlockAllocatorDecorator( blockAllocator, kibiBytes( 128 ), spillDirectory ) );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        blockAllocator.release();
+    }
+
+    @Test
+    void shouldAllocateNativeMemoryBelowThreshold()
+    {
+        Memory memory = allocator.allocate( kibiBytes( 64 ), true, tracker );
+        assertThat( tracker.usedNativeMemory() ).isEqualTo( kibiBytes( 64 ) );
+
+        memory.free( tracker );
+        assertThat( tracker.usedNativeMemory() ).isZero();
+    }
+
+    @Test
+    void shouldSpillLargeBlocksAboveThreshold() throws IOException
+    {
+        Memory nativeMemory = allocator.allocate( kibiBytes( 64 ), true, tracker );
+        Memory spilledMemory = allocator.allocate( kibiBytes( 128 ), true, tracker );
+        assertThat( tracker.usedNativeMemory() ).isEqualTo( kibiBytes( 64 ) );
+
+        for ( long offset = 0; offset < spilledMemory.size(); offset += Long.BYTES )
+        {
+            spilledMemory.writeLong( offset, offset );
+        }
+        for ( long offset = 0; offset < spilledMemory.size(); offset += Long.BYTES )
+        {
+            assertThat( spilledMemory.readLong( offset ) ).isEqualTo( offset );
+        }
+        try ( Stream<Path> files = Files.list( spillDirectory ) )
+        {
+            assertThat( files ).as( "spill files are unlinked once mapped" ).isEmpty();
+        }
+
+        spilledMemory.free( tracker );
+        nativeMemory.free( tracker );
+        assertThat( tracker.usedNativeMemory() ).isZero();
+    }
+
+    @Test
+    void shouldNotSpillSmallBlocks()
+    {
+        Memory largeMemory = allocator.allocate( kibiBytes( 128 ), true, tracker );
+        Memory smallMemory = allocator.allocate( kibiBytes( 1 ), true, tracker );
+        assertThat( tracker.usedNativeMemory() ).isEqualTo( kibiBytes( 129 ) );
+
+        smallMemory.free( tracker );
+        largeMemory.free( tracker );
+        assertThat( tracker.usedNativeMemory() ).isZero();
+    }
+}
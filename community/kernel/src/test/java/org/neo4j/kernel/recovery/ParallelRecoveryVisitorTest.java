@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.LongConsumer;
+
+import org.neo4j.io.fs.WritableChannel;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.storageengine.api.StorageEngine;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
+
+class ParallelRecoveryVisitorTest
+{
+    private final StorageEngine storageEngine = mock( StorageEngine.class );
+    private final List<Long> applied = new CopyOnWriteArrayList<>();
+    private final Map<Long,Long> batches = new ConcurrentHashMap<>();
+    private final RecoveryMonitor monitor = new RecoveryMonitor()
+    {
+        @Override
+        public void batchRecovered( long lastTxId, int numberOfTransactions )
+        {
+            batches.put( lastTxId, (long) numberOfTransactions );
+        }
+    };
+
+    @Test
+    void shouldApplyTransactionsWritingToSameKeysInCommitOrder() throws Exception
+    {
+        recordAppliedTransactions( txId -> Thread.sleep( txId == 1 ? 100 : 0 ) );
+
+        try ( ParallelRecoveryVisitor visitor = visitor( 4, 100 ) )
+        {
+            visitor.visit( transaction( 1, 10, 11 ) );
+            visitor.visit( transaction( 2, 11 ) );
+            visitor.visit( transaction( 3, 12, 11 ) );
+        }
+
+        assertThat( applied ).containsExactly( 1L, 2L, 3L );
+    }
+
+    @Test
+    void shouldApplyIndependentTransactionsConcurrently() throws Exception
+    {
+        CountDownLatch secondApplied = new CountDownLatch( 1 );
+        recordAppliedTransactions( txId ->
+        {
+            if ( txId == 1 )
+            {
+                assertTrue( secondApplied.await( 10, SECONDS ) );
+            }
+            else
+            {
+                secondApplied.countDown();
+            }
+        } );
+
+        try ( ParallelRecoveryVisitor visitor = visitor( 2, 100 ) )
+        {
+            visitor.visit( transaction( 1, 10 ) );
+            visitor.visit( transaction( 2, 11 ) );
+        }
+
+        assertThat( applied ).containsExactly( 2L, 1L );
+    }
+
+    @Test
+    void shouldApplyTransactionsWithoutWriteKeysInIsolation() throws Exception
+    {
+        recordAppliedTransactions( txId -> Thread.sleep( txId == 1 ? 100 : 0 ) );
+
+        try ( ParallelRecoveryVisitor visitor = visitor( 4, 100 ) )
+        {
+            visitor.visit( transaction( 1, 10 ) );
+            visitor.visit( transaction( 2 ) );
+            visitor.visit( transaction( 3, 11 ) );
+        }
+
+        assertThat( applied ).containsExactly( 1L, 2L, 3L );
+        assertThat( batches ).containsEntry( 1L, 1L ).containsEntry( 2L, 1L ).containsEntry( 3L, 1L );
+    }
+
+    @Test
+    void shouldReportProgressPerBatch() throws Exception
+    {
+        recordAppliedTransactions( txId -> {} );
+
+        try ( ParallelRecoveryVisitor visitor = visitor( 4, 3 ) )
+        {
+            for ( long txId = 1; txId <= 7; txId++ )
+            {
+                visitor.visit( transaction( txId, txId ) );
+            }
+        }
+
+        assertThat( applied ).containsExactlyInAnyOrder( 1L, 2L, 3L, 4L, 5L, 6L, 7L );
+        assertThat( batches ).containsExactlyInAnyOrderEntriesOf( Map.of( 3L, 3L, 6L, 3L, 7L, 1L ) );
+    }
+
+    @Test
+    void shouldNotApplyDependentTransactionsAfterFailure() throws Exception
+    {
+        recordAppliedTransactions( txId ->
+        {
+            if ( txId == 1 )
+            {
+                throw new IllegalStateException( "Failed to apply" );
+            }
+        } );
+
+        ParallelRecoveryVisitor visitor = visitor( 4, 100 );
+        visitor.visit( transaction( 1, 10 ) );
+        visitor.visit( transaction( 2, 10 ) );
+        ParallelRecoveryException e = assertThrows( ParallelRecoveryException.class, visitor::close );
+
+        assertThat( e ).hasRootCauseInstanceOf( IllegalStateException.class );
+        assertThat( applied ).isEmpty();
+    }
+
+    private ParallelRecoveryVisitor visitor( int parallelism, int batchSize )
+    {
+        return new ParallelRecoveryVisitor( storageEngine, RECOVERY, PageCacheTracer.NULL.createPageCursorTracer( "test" ), PageCacheTracer.NULL,
+                monitor, parallelism, batchSize );
+    }
+
+    private void recordAppliedTransactions( TransactionApplication application ) throws Exception
+    {
+        doAnswer( invocation ->
+        {
+            long txId = invocation.<TransactionToApply>getArgument( 0 ).transactionId();
+            application.apply( txId );
+            applied.add( txId );
+            return null;
+        } ).when( storageEngine ).apply( any(), any() );
+    }
+
+    /**
+     * @param writeKeys keys written by the transaction, or none for a transaction that has to be applied in isolation.
+     */
+    private static CommittedTransactionRepresentation transaction( long txId, long... writeKeys )
+    {
+        PhysicalTransactionRepresentation representation = new PhysicalTransactionRepresentation( List.of( new KeyedCommand( writeKeys ) ) );
+        LogEntryStart start = new LogEntryStart( 0L, txId - 1, 0, null, LogPosition.UNSPECIFIED );
+        return new CommittedTransactionRepresentation( start, representation, new LogEntryCommit( txId, 0L, BASE_TX_CHECKSUM ) );
+    }
+
+    @FunctionalInterface
+    private interface TransactionApplication
+    {
+        void apply( long txId ) throws Exception;
+    }
+
+    private static class KeyedCommand implements StorageCommand
+    {
+        private final long[] writeKeys;
+
+        KeyedCommand( long[] writeKeys )
+        {
+            this.writeKeys = writeKeys;
+        }
+
+        @Override
+        public boolean visitWriteKeys( LongConsumer keys )
+        {
+            for ( long key : writeKeys )
+            {
+                keys.accept( key );
+            }
+            return writeKeys.length > 0;
+        }
+
+        @Override
+        public void serialize( WritableChannel channel )
+        {
+        }
+    }
+}
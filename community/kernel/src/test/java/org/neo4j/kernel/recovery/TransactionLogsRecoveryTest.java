@@ -48,6 +48,7 @@ import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.PositionAwarePhysicalFlushableChecksumChannel;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
@@ -79,8 +80,11 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -97,6 +101,8 @@ import static org.neo4j.kernel.recovery.RecoveryStartInformation.NO_RECOVERY_REQ
 import static org.neo4j.kernel.recovery.RecoveryStartInformationProvider.NO_MONITOR;
 import static org.neo4j.kernel.recovery.RecoveryStartupChecker.EMPTY_CHECKER;
 import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.REVERSE_RECOVERY;
 import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
 import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_COMMIT_TIMESTAMP;
 
@@ -485,6 +491,42 @@ class TransactionLogsRecoveryTest
         verify( monitor, never() ).recoveryCompleted( anyInt(), anyLong() );
     }
 
+    @Test
+    void shouldNotTruncateCorruptedLogTailWhenParallelApplyFailed() throws Exception
+    {
+        LogPosition startPosition = new LogPosition( logVersion, CURRENT_FORMAT_LOG_HEADER_SIZE );
+        RecoveryService recoveryService = mock( RecoveryService.class );
+        when( recoveryService.getRecoveryStartInformation() ).thenReturn( new RecoveryStartInformation( startPosition, 2 ) );
+        when( recoveryService.getTransactionsInReverseOrder( startPosition ) ).thenReturn( mock( TransactionCursor.class ) );
+        when( recoveryService.getRecoveryApplier( eq( REVERSE_RECOVERY ), any() ) ).thenReturn( mock( RecoveryApplier.class ) );
+
+        // the log tail after the first transaction is corrupted, while that transaction is still being applied, and fails
+        CommittedTransactionRepresentation transaction = mock( CommittedTransactionRepresentation.class );
+        when( transaction.getCommitEntry() ).thenReturn( new LogEntryCommit( 2, 0, BASE_TX_CHECKSUM ) );
+        TransactionCursor transactions = mock( TransactionCursor.class );
+        when( transactions.next() ).thenReturn( true ).thenThrow( new IOException( "Corrupted log tail" ) );
+        when( transactions.get() ).thenReturn( transaction );
+        when( transactions.position() ).thenReturn( new LogPosition( logVersion, 100 ) );
+        when( recoveryService.getTransactions( startPosition ) ).thenReturn( transactions );
+        RecoveryApplier applier = mock( RecoveryApplier.class );
+        ParallelRecoveryException applyFailure = new ParallelRecoveryException( 2, new IOException( "Failed to apply" ) );
+        doThrow( applyFailure ).when( applier ).close();
+        when( recoveryService.getRecoveryApplier( eq( RECOVERY ), any() ) ).thenReturn( applier );
+
+        CorruptedLogsTruncator logsTruncator = mock( CorruptedLogsTruncator.class );
+        RecoveryMonitor monitor = mock( RecoveryMonitor.class );
+        TransactionLogsRecovery logsRecovery = new TransactionLogsRecovery( recoveryService, logsTruncator, schemaLife, monitor, ProgressReporter.SILENT,
+                false, EMPTY_CHECKER, NULL );
+
+        var exception = assertThrows( ParallelRecoveryException.class, logsRecovery::init );
+
+        assertThat( exception ).isSameAs( applyFailure );
+        assertThat( exception.getSuppressed() ).anySatisfy( suppressed -> assertThat( suppressed ).hasMessage( "Corrupted log tail" ) );
+        verify( logsTruncator, never() ).truncate( any() );
+        verify( recoveryService, never() ).transactionsRecovered( any(), any(), any(), anyBoolean(), any() );
+        verify( monitor, never() ).recoveryCompleted( anyInt(), anyLong() );
+    }
+
     private boolean recover( File storeDir, LogFiles logFiles )
     {
         return recover( storeDir, logFiles, EMPTY_CHECKER );
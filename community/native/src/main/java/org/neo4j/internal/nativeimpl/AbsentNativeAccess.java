@@ -51,6 +51,42 @@ public class AbsentNativeAccess implements NativeAccess
         return NativeCallResult.SUCCESS;
     }
 
+    @Override
+    public NativeCallResult tryZeroRange( int fd, long offset, long bytes )
+    {
+        return new NativeCallResult( ERROR, "Native access is not available." );
+    }
+
+    @Override
+    public long tryMapHugePages( long bytes )
+    {
+        return ERROR;
+    }
+
+    @Override
+    public NativeCallResult tryUnmap( long address, long bytes )
+    {
+        return NativeCallResult.SUCCESS;
+    }
+
+    @Override
+    public NativeCallResult tryAdviseHugePages( long address, long bytes )
+    {
+        return NativeCallResult.SUCCESS;
+    }
+
+    @Override
+    public int getCurrentNumaNode()
+    {
+        return ERROR;
+    }
+
+    @Override
+    public NativeCallResult tryBindToNumaNode( long address, long bytes, int numaNode )
+    {
+        return NativeCallResult.SUCCESS;
+    }
+
     @Override
     public String describe()
     {
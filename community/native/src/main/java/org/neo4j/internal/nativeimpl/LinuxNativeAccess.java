@@ -47,6 +47,42 @@ public class LinuxNativeAccess implements NativeAccess
      */
     private static final int POSIX_FADV_DONTNEED = 4;
 
+    /**
+     * Constant defined in falloc.h for zeroing a range of a file by converting it to unwritten extents, rather than writing zeros.
+     * For more info check man page for fallocate.
+     */
+    private static final int FALLOC_FL_ZERO_RANGE = 0x10;
+
+    /**
+     * Constants defined in mman.h for mapping private, anonymous, readable and writable memory that is backed by huge pages.
+     * For more info check man page for mmap.
+     */
+    private static final int PROT_READ = 0x1;
+    private static final int PROT_WRITE = 0x2;
+    private static final int MAP_PRIVATE = 0x02;
+    private static final int MAP_ANONYMOUS = 0x20;
+    private static final int MAP_HUGETLB = 0x40000;
+
+    /**
+     * Constant defined in mman.h and advises that the specified memory should be backed by transparent huge pages.
+     * For more info check man page for madvise.
+     */
+    private static final int MADV_HUGEPAGE = 14;
+
+    /**
+     * Constants defined in mempolicy.h for a memory policy that prefers a single node, and for moving pages that have already been
+     * faulted in to comply with the policy. For more info check man page for mbind.
+     */
+    private static final int MPOL_PREFERRED = 1;
+    private static final int MPOL_MF_MOVE = 1 << 1;
+
+    /**
+     * Numbers of the system calls that glibc does not provide wrappers for, or only provides in recent versions, on the
+     * architectures that we know them for. For more info check man page for syscall.
+     */
+    private static final long SYS_MBIND;
+    private static final long SYS_GETCPU;
+
     private static final int EINVAL = 22;
     private static final int ERANGE = 34;
 
@@ -71,6 +107,22 @@ public class LinuxNativeAccess implements NativeAccess
         }
         NATIVE_ACCESS_AVAILABLE = available;
         INITIALIZATION_FAILURE = initFailure;
+
+        if ( Platform.isIntel() && Platform.is64Bit() )
+        {
+            SYS_MBIND = 237;
+            SYS_GETCPU = 309;
+        }
+        else if ( Platform.isARM() && Platform.is64Bit() )
+        {
+            SYS_MBIND = 235;
+            SYS_GETCPU = 168;
+        }
+        else
+        {
+            SYS_MBIND = ERROR;
+            SYS_GETCPU = ERROR;
+        }
     }
 
     /**
@@ -98,6 +150,70 @@ public class LinuxNativeAccess implements NativeAccess
      */
     private static native int posix_fallocate( int fd, long offset, long len ) throws LastErrorException;
 
+    /**
+     * Manipulate the allocated disk space for the file referred to by fd, for the byte range starting at offset and continuing for len bytes.
+     * @param fd file descriptor
+     * @param mode operation to perform on the range, e.g. {@link #FALLOC_FL_ZERO_RANGE}
+     * @param offset offset in the file
+     * @param len len in bytes
+     * @return 0 on success. On error, -1 is returned
+     */
+    private static native int fallocate( int fd, int mode, long offset, long len ) throws LastErrorException;
+
+    /**
+     * Creates a new mapping in the virtual address space of the calling process.
+     * @param address hint for where the mapping should be placed, or 0 to let the kernel choose
+     * @param length length of the mapping in bytes
+     * @param protection desired memory protection of the mapping
+     * @param flags mapping flags
+     * @param fd file descriptor of the mapped file, or -1 for anonymous mappings
+     * @param offset offset in the mapped file
+     * @return address of the mapping on success, or MAP_FAILED (that is, -1) on error
+     */
+    private static native long mmap( long address, long length, int protection, int flags, int fd, long offset ) throws LastErrorException;
+
+    /**
+     * Deletes the mappings for the specified address range.
+     * @param address address of the mapping
+     * @param length length of the mapping in bytes
+     * @return 0 on success. On error, -1 is returned
+     */
+    private static native int munmap( long address, long length ) throws LastErrorException;
+
+    /**
+     * Give advice about use of memory. Allows the kernel to choose appropriate read-ahead and caching techniques, or to back the
+     * memory with huge pages.
+     * @param address address of the memory region, aligned to the page size
+     * @param length length of the memory region in bytes
+     * @param advice advise options
+     * @return 0 on success. On error, -1 is returned
+     */
+    private static native int madvise( long address, long length, int advice ) throws LastErrorException;
+
+    /**
+     * Invoke the mbind system call, which sets the NUMA memory policy for a region of memory.
+     * @param number the mbind system call number
+     * @param address address of the memory region, aligned to the page size
+     * @param length length of the memory region in bytes
+     * @param mode memory policy mode
+     * @param nodeMask bit mask of the nodes the policy applies to
+     * @param maxNode number of bits in the node mask
+     * @param flags policy flags
+     * @return 0 on success. On error, -1 is returned
+     */
+    private static native int syscall( long number, long address, long length, int mode, long[] nodeMask, long maxNode, int flags )
+            throws LastErrorException;
+
+    /**
+     * Invoke the getcpu system call, which determines the CPU and NUMA node the calling thread is running on.
+     * @param number the getcpu system call number
+     * @param cpu array whose first element receives the CPU number
+     * @param node array whose first element receives the NUMA node number
+     * @param cache unused, should be null
+     * @return 0 on success. On error, -1 is returned
+     */
+    private static native int syscall( long number, int[] cpu, int[] node, Pointer cache ) throws LastErrorException;
+
     /**
      * Return pointer to a string describing error number, possibly using the LC_MESSAGES part of the current locale to select the appropriate language.
      * @param errnum error number to describe
@@ -156,6 +272,96 @@ public class LinuxNativeAccess implements NativeAccess
         return wrapResult( () -> posix_fallocate( fd, 0, bytes ) );
     }
 
+    @Override
+    public NativeCallResult tryZeroRange( int fd, long offset, long bytes )
+    {
+        if ( fd <= 0 )
+        {
+            return new NativeCallResult( ERROR, "Incorrect file descriptor." );
+        }
+        if ( offset < 0 || bytes <= 0 )
+        {
+            return new NativeCallResult( ERROR, "Range to zero should be positive. Requested: " + bytes + " bytes at offset " + offset );
+        }
+        return wrapResult( () -> fallocate( fd, FALLOC_FL_ZERO_RANGE, offset, bytes ) );
+    }
+
+    @Override
+    public long tryMapHugePages( long bytes )
+    {
+        if ( bytes <= 0 )
+        {
+            return ERROR;
+        }
+        try
+        {
+            return mmap( 0, bytes, PROT_READ | PROT_WRITE, MAP_PRIVATE | MAP_ANONYMOUS | MAP_HUGETLB, -1, 0 );
+        }
+        catch ( LastErrorException e )
+        {
+            return ERROR;
+        }
+    }
+
+    @Override
+    public NativeCallResult tryUnmap( long address, long bytes )
+    {
+        if ( address == 0 || address == ERROR )
+        {
+            return new NativeCallResult( ERROR, "Incorrect memory address." );
+        }
+        return wrapResult( () -> munmap( address, bytes ) );
+    }
+
+    @Override
+    public NativeCallResult tryAdviseHugePages( long address, long bytes )
+    {
+        if ( address == 0 || address == ERROR )
+        {
+            return new NativeCallResult( ERROR, "Incorrect memory address." );
+        }
+        return wrapResult( () -> madvise( address, bytes, MADV_HUGEPAGE ) );
+    }
+
+    @Override
+    public int getCurrentNumaNode()
+    {
+        if ( !NATIVE_ACCESS_AVAILABLE || SYS_GETCPU == ERROR )
+        {
+            return ERROR;
+        }
+        int[] cpu = new int[1];
+        int[] node = new int[1];
+        try
+        {
+            return syscall( SYS_GETCPU, cpu, node, null ) == SUCCESS ? node[0] : ERROR;
+        }
+        catch ( LastErrorException e )
+        {
+            return ERROR;
+        }
+    }
+
+    @Override
+    public NativeCallResult tryBindToNumaNode( long address, long bytes, int numaNode )
+    {
+        if ( address == 0 || address == ERROR )
+        {
+            return new NativeCallResult( ERROR, "Incorrect memory address." );
+        }
+        if ( numaNode < 0 || numaNode >= Long.SIZE )
+        {
+            return new NativeCallResult( ERROR, "Unsupported NUMA node: " + numaNode );
+        }
+        if ( SYS_MBIND == ERROR )
+        {
+            return new NativeCallResult( ERROR, "NUMA memory policies are not supported on this architecture." );
+        }
+        long[] nodeMask = {1L << numaNode};
+        // The kernel only reads maxnode - 1 bits of the mask, so one more than its width is needed for the last node to be bound.
+        return wrapResult( () -> syscall( SYS_MBIND, address, bytes, MPOL_PREFERRED, nodeMask, Long.SIZE + 1, MPOL_MF_MOVE ) );
+    }
+
     @Override
     public String describe()
     {
@@ -69,6 +69,57 @@ public interface NativeAccess
      */
     NativeCallResult tryPreallocateSpace( int fd, long bytes );
 
+    /**
+     * Try to zero a range of the file referenced by provided file descriptor without writing the zeros, by having the file system
+     * mark the range as reading back as zeros. The file is extended if the range goes past its end.
+     * @param fd file descriptor
+     * @param offset offset in the file where the range starts
+     * @param bytes length of the range in bytes
+     * @return returns zero on success, or an error number on failure, e.g. when the file system does not support it
+     */
+    NativeCallResult tryZeroRange( int fd, long offset, long bytes );
+
+    /**
+     * Try to map anonymous memory that is backed by explicit huge pages, from the pool of huge pages that has been reserved by the
+     * operating system. The mapped memory is zeroed.
+     * @param bytes number of bytes to map, which should be a multiple of the huge page size
+     * @return address of the mapped memory, or {@link #ERROR} if the memory could not be mapped
+     */
+    long tryMapHugePages( long bytes );
+
+    /**
+     * Try to unmap memory that was mapped by {@link #tryMapHugePages(long)}.
+     * @param address address of the mapped memory
+     * @param bytes number of mapped bytes
+     * @return returns zero on success, or an error number on failure
+     */
+    NativeCallResult tryUnmap( long address, long bytes );
+
+    /**
+     * Try to advise that the given region of memory should be backed by transparent huge pages.
+     * @param address address of the memory region, which should be aligned to the huge page size
+     * @param bytes length of the memory region in bytes
+     * @return returns zero on success, or an error number on failure
+     */
+    NativeCallResult tryAdviseHugePages( long address, long bytes );
+
+    /**
+     * Try to find the NUMA node of the CPU that the calling thread is currently running on. The thread can be migrated to another
+     * node at any time, so the answer is only a hint.
+     * @return the NUMA node id, or {@link #ERROR} if it could not be determined
+     */
+    int getCurrentNumaNode();
+
+    /**
+     * Try to set the memory policy of the given region of memory to prefer physical memory on the given NUMA node. Pages of the region
+     * that have already been touched are moved to the node if possible.
+     * @param address address of the memory region, aligned to the page size
+     * @param bytes length of the memory region in bytes
+     * @param numaNode the NUMA node id to prefer
+     * @return returns zero on success, or an error number on failure
+     */
+    NativeCallResult tryBindToNumaNode( long address, long bytes, int numaNode );
+
     /**
      * Details about native access provider
      * @return details about native access
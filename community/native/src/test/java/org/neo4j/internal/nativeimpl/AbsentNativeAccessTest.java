@@ -23,6 +23,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.neo4j.internal.nativeimpl.NativeCallResult.SUCCESS;
 
 class AbsentNativeAccessTest
@@ -50,4 +51,24 @@ class AbsentNativeAccessTest
         assertEquals( SUCCESS, absentNativeAccess.tryPreallocateSpace( 1, 2L ) );
         assertEquals( SUCCESS, absentNativeAccess.tryPreallocateSpace( 3, 4L ) );
     }
+
+    @Test
+    void absentNativeAccessNeverZeroesRanges()
+    {
+        assertTrue( absentNativeAccess.tryZeroRange( 1, 0, 1024 ).isError() );
+    }
+
+    @Test
+    void absentNativeAccessNeverMapsHugePages()
+    {
+        assertEquals( NativeAccess.ERROR, absentNativeAccess.tryMapHugePages( 2 * 1024 * 1024 ) );
+        assertEquals( SUCCESS, absentNativeAccess.tryAdviseHugePages( 1, 2 ) );
+    }
+
+    @Test
+    void absentNativeAccessDoesNotKnowNumaNodes()
+    {
+        assertEquals( NativeAccess.ERROR, absentNativeAccess.getCurrentNumaNode() );
+        assertEquals( SUCCESS, absentNativeAccess.tryBindToNumaNode( 1, 2, 0 ) );
+    }
 }
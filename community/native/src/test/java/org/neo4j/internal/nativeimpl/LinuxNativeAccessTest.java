@@ -19,6 +19,7 @@
  */
 package org.neo4j.internal.nativeimpl;
 
+import com.sun.jna.Native;
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -33,16 +34,23 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.file.FileStore;
 import java.nio.file.Files;
+import java.util.Arrays;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.neo4j.internal.nativeimpl.NativeAccess.ERROR;
 
 class LinuxNativeAccessTest
 {
+    private static final long HUGE_PAGE_SIZE = 2 * 1024 * 1024;
+    private static final long PAGE_SIZE = 4096;
+    private static final int EPERM = 1;
+    private static final int EOPNOTSUPP = 95;
+
     private final LinuxNativeAccess nativeAccess = new LinuxNativeAccess();
 
     @Test
@@ -162,6 +170,93 @@ class LinuxNativeAccessTest
                 assertFalse( nativeAccess.tryEvictFromCache( descriptor ).isError() );
             }
         }
+
+        @Test
+        void failToZeroRangeForIncorrectDescriptorOrRange()
+        {
+            assertEquals( ERROR, nativeAccess.tryZeroRange( 0, 0, 1024 ).getErrorCode() );
+            assertEquals( ERROR, nativeAccess.tryZeroRange( -1, 0, 1024 ).getErrorCode() );
+            assertEquals( ERROR, nativeAccess.tryZeroRange( 1, -1, 1024 ).getErrorCode() );
+            assertEquals( ERROR, nativeAccess.tryZeroRange( 1, 0, 0 ).getErrorCode() );
+        }
+
+        @Test
+        void zeroRangeOfFile() throws IOException, IllegalAccessException
+        {
+            File file = new File( tempFile, "zeroed" );
+            try ( RandomAccessFile randomFile = new RandomAccessFile( file, "rw" ) )
+            {
+                byte[] ones = new byte[(int) (2 * PAGE_SIZE)];
+                Arrays.fill( ones, (byte) 1 );
+                randomFile.write( ones );
+
+                NativeCallResult result = nativeAccess.tryZeroRange( getDescriptor( randomFile ), 0, 3 * PAGE_SIZE );
+                assumeTrue( result.getErrorCode() != EOPNOTSUPP, "The file system does not support zeroing ranges." );
+                assertFalse( result.isError(), result.getErrorMessage() );
+
+                byte[] content = new byte[(int) randomFile.length()];
+                randomFile.seek( 0 );
+                randomFile.readFully( content );
+                assertThat( content ).hasSize( (int) (3 * PAGE_SIZE) ).containsOnly( 0 );
+            }
+        }
+
+        @Test
+        void failToUnmapOrAdviseIncorrectAddress()
+        {
+            assertEquals( ERROR, nativeAccess.tryUnmap( 0, HUGE_PAGE_SIZE ).getErrorCode() );
+            assertEquals( ERROR, nativeAccess.tryAdviseHugePages( 0, HUGE_PAGE_SIZE ).getErrorCode() );
+            assertEquals( ERROR, nativeAccess.tryMapHugePages( 0 ) );
+        }
+
+        @Test
+        void mapAndUnmapHugePages()
+        {
+            long address = nativeAccess.tryMapHugePages( HUGE_PAGE_SIZE );
+            assumeTrue( address != ERROR, "No huge pages have been reserved by the operating system." );
+
+            assertEquals( 0, address % HUGE_PAGE_SIZE );
+            assertFalse( nativeAccess.tryUnmap( address, HUGE_PAGE_SIZE ).isError() );
+        }
+
+        @Test
+        void findCurrentNumaNode()
+        {
+            assumeKnownSystemCalls();
+            assertThat( nativeAccess.getCurrentNumaNode() ).isGreaterThanOrEqualTo( 0 );
+        }
+
+        @Test
+        void failToBindIncorrectAddressOrNode()
+        {
+            assertEquals( ERROR, nativeAccess.tryBindToNumaNode( 0, PAGE_SIZE, 0 ).getErrorCode() );
+            assertEquals( ERROR, nativeAccess.tryBindToNumaNode( PAGE_SIZE, PAGE_SIZE, -1 ).getErrorCode() );
+        }
+
+        @Test
+        void bindMemoryToCurrentNumaNode()
+        {
+            assumeKnownSystemCalls();
+            int node = nativeAccess.getCurrentNumaNode();
+            long pointer = Native.malloc( 3 * PAGE_SIZE );
+            try
+            {
+                long aligned = (pointer + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+                NativeCallResult result = nativeAccess.tryBindToNumaNode( aligned, PAGE_SIZE, node );
+                assumeTrue( result.getErrorCode() != EPERM, "Memory policies are not permitted in this environment." );
+                assertFalse( result.isError(), result.getErrorMessage() );
+            }
+            finally
+            {
+                Native.free( pointer );
+            }
+        }
+    }
+
+    private static void assumeKnownSystemCalls()
+    {
+        String arch = System.getProperty( "os.arch" );
+        assumeTrue( "amd64".equals( arch ) || "aarch64".equals( arch ), "System call numbers are not known for " + arch );
     }
 
     private void preallocate( File file, long bytes ) throws IOException, IllegalAccessException
@@ -64,6 +64,7 @@ import org.neo4j.kernel.impl.util.collection.CapacityLimitingBlockAllocatorDecor
 import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
 import org.neo4j.kernel.impl.util.collection.OffHeapBlockAllocator;
 import org.neo4j.kernel.impl.util.collection.OffHeapCollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.SpillingBlockAllocatorDecorator;
 import org.neo4j.kernel.impl.util.watcher.DefaultFileSystemWatcherService;
 import org.neo4j.kernel.impl.util.watcher.FileSystemWatcherService;
 import org.neo4j.kernel.info.JvmChecker;
@@ -425,6 +426,13 @@ public class GlobalModule
                 sharedBlockAllocator = allocator;
             }
             life.add( onShutdown( sharedBlockAllocator::release ) );
+            final long spillThreshold = config.get( GraphDatabaseInternalSettings.tx_state_spill_threshold );
+            if ( spillThreshold > 0 )
+            {
+                final OffHeapBlockAllocator spillingBlockAllocator = new SpillingBlockAllocatorDecorator( sharedBlockAllocator, spillThreshold,
+                        config.get( GraphDatabaseInternalSettings.tx_state_spill_directory ) );
+                return () -> new OffHeapCollectionsFactory( spillingBlockAllocator );
+            }
             return () -> new OffHeapCollectionsFactory( sharedBlockAllocator );
         default:
             throw new IllegalArgumentException( "Unknown transaction state memory allocation value: " + allocation );
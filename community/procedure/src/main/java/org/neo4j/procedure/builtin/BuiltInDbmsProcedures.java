@@ -19,14 +19,18 @@
  */
 package org.neo4j.procedure.builtin;
 
+import java.io.File;
+import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -39,11 +43,21 @@ import org.neo4j.graphdb.Transaction;
 import org.neo4j.internal.kernel.api.procs.ProcedureSignature;
 import org.neo4j.internal.kernel.api.procs.UserFunctionSignature;
 import org.neo4j.internal.kernel.api.security.SecurityContext;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
+import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.api.procedure.GlobalProcedures;
 import org.neo4j.kernel.api.procedure.SystemProcedure;
 import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.kernel.impl.locking.DeadlockDetectionStatistics;
+import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.query.FunctionInformation;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
+import org.neo4j.kernel.impl.transaction.stats.CommitLatencyCounters;
+import org.neo4j.kernel.impl.transaction.stats.CommitPhase;
+import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.Admin;
@@ -108,6 +122,51 @@ public class BuiltInDbmsProcedures
         return results.stream().sorted( Comparator.comparing( c -> c.name ) );
     }
 
+    @Admin
+    @SystemProcedure
+    @Description( "List the page fault and flush latencies of the files that are mapped by the page cache." )
+    @Procedure( name = "dbms.listPageCacheLatencies", mode = DBMS )
+    public Stream<PageCacheLatencyResult> listPageCacheLatencies() throws IOException
+    {
+        DependencyResolver resolver = graph.getDependencyResolver();
+        PageCache pageCache = resolver.resolveDependency( PageCache.class );
+        PageCacheCounters counters = resolver.resolveDependency( PageCacheTracer.class );
+
+        List<PageCacheLatencyResult> results = new ArrayList<>();
+        for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+        {
+            File file = pagedFile.file();
+            LatencyHistogram faultLatencies = counters.faultLatencies( file );
+            LatencyHistogram flushLatencies = counters.flushLatencies( file );
+            // The file may have been unmapped since we listed it, or the tracer may not be keeping track of latencies.
+            if ( faultLatencies != null && flushLatencies != null )
+            {
+                results.add( new PageCacheLatencyResult( file, faultLatencies, flushLatencies ) );
+            }
+        }
+        return results.stream().sorted( Comparator.comparing( r -> r.file ) );
+    }
+
+    @Admin
+    @SystemProcedure
+    @Description( "List the latencies of the phases of a sample of the transactions committed to the current database." )
+    @Procedure( name = "dbms.listCommitLatencies", mode = DBMS )
+    public Stream<CommitLatencyResult> listCommitLatencies()
+    {
+        CommitLatencyCounters counters = graph.getDependencyResolver().resolveDependency( DatabaseTracer.class );
+        return Arrays.stream( CommitPhase.values() ).map( phase -> new CommitLatencyResult( phase, counters.commitLatencies( phase ) ) );
+    }
+
+    @Admin
+    @SystemProcedure
+    @Description( "List the statistics of the deadlock detection done by the lock manager of the current database." )
+    @Procedure( name = "dbms.listDeadlockDetectionStatistics", mode = DBMS )
+    public Stream<DeadlockDetectionResult> listDeadlockDetectionStatistics()
+    {
+        Locks locks = graph.getDependencyResolver().resolveDependency( Locks.class );
+        return Stream.of( new DeadlockDetectionResult( locks.deadlockDetectionStatistics() ) );
+    }
+
     @Internal
     @SystemProcedure
     @Description( "Return config settings interesting to clients (e.g. Neo4j Browser)" )
@@ -256,6 +315,80 @@ public class BuiltInDbmsProcedures
         }
     }
 
+    public static class PageCacheLatencyResult
+    {
+        public final String file;
+        public final long faults;
+        public final long faultP50Micros;
+        public final long faultP99Micros;
+        public final long faultMaxMicros;
+        public final long flushes;
+        public final long flushP50Micros;
+        public final long flushP99Micros;
+        public final long flushMaxMicros;
+
+        PageCacheLatencyResult( File file, LatencyHistogram faultLatencies, LatencyHistogram flushLatencies )
+        {
+            this.file = file.getAbsolutePath();
+            this.faults = faultLatencies.count();
+            this.faultP50Micros = micros( faultLatencies.percentileNanos( 50 ) );
+            this.faultP99Micros = micros( faultLatencies.percentileNanos( 99 ) );
+            this.faultMaxMicros = micros( faultLatencies.maxNanos() );
+            this.flushes = flushLatencies.count();
+            this.flushP50Micros = micros( flushLatencies.percentileNanos( 50 ) );
+            this.flushP99Micros = micros( flushLatencies.percentileNanos( 99 ) );
+            this.flushMaxMicros = micros( flushLatencies.maxNanos() );
+        }
+
+        private static long micros( long nanos )
+        {
+            return TimeUnit.NANOSECONDS.toMicros( nanos );
+        }
+    }
+
+    public static class CommitLatencyResult
+    {
+        public final String phase;
+        public final long samples;
+        public final long p50Micros;
+        public final long p99Micros;
+        public final long p999Micros;
+        public final long maxMicros;
+        public final long totalMicros;
+
+        CommitLatencyResult( CommitPhase phase, LatencyHistogram latencies )
+        {
+            this.phase = phase.name();
+            this.samples = latencies.count();
+            this.p50Micros = PageCacheLatencyResult.micros( latencies.percentileNanos( 50 ) );
+            this.p99Micros = PageCacheLatencyResult.micros( latencies.percentileNanos( 99 ) );
+            this.p999Micros = PageCacheLatencyResult.micros( latencies.percentileNanos( 99.9 ) );
+            this.maxMicros = PageCacheLatencyResult.micros( latencies.maxNanos() );
+            this.totalMicros = PageCacheLatencyResult.micros( latencies.totalNanos() );
+        }
+    }
+
+    public static class DeadlockDetectionResult
+    {
+        public final long detections;
+        public final long detectedCycles;
+        public final long p50Micros;
+        public final long p99Micros;
+        public final long maxMicros;
+        public final long totalMicros;
+
+        DeadlockDetectionResult( DeadlockDetectionStatistics statistics )
+        {
+            LatencyHistogram detectionTimes = statistics.detectionTimes();
+            this.detections = statistics.detections();
+            this.detectedCycles = statistics.detectedCycles();
+            this.p50Micros = PageCacheLatencyResult.micros( detectionTimes.percentileNanos( 50 ) );
+            this.p99Micros = PageCacheLatencyResult.micros( detectionTimes.percentileNanos( 99 ) );
+            this.maxMicros = PageCacheLatencyResult.micros( detectionTimes.maxNanos() );
+            this.totalMicros = PageCacheLatencyResult.micros( detectionTimes.totalNanos() );
+        }
+    }
+
     public static class FunctionResult
     {
         public final String name;
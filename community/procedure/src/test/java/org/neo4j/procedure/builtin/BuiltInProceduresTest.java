@@ -23,6 +23,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.stubbing.Answer;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -65,12 +66,22 @@ import org.neo4j.internal.schema.constraints.ConstraintDescriptorFactory;
 import org.neo4j.internal.schema.constraints.NodeExistenceConstraintDescriptor;
 import org.neo4j.internal.schema.constraints.NodeKeyConstraintDescriptor;
 import org.neo4j.internal.schema.constraints.UniquenessConstraintDescriptor;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.api.procedure.Context;
 import org.neo4j.kernel.api.procedure.GlobalProcedures;
 import org.neo4j.kernel.impl.api.index.IndexingService;
+import org.neo4j.kernel.impl.api.tracer.DefaultTracer;
 import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.kernel.impl.locking.DeadlockDetectionStatistics;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.transaction.stats.CommitPhase;
+import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.kernel.impl.util.DefaultValueMapper;
 import org.neo4j.kernel.impl.util.ValueUtils;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -426,6 +437,76 @@ class BuiltInProceduresTest
         );
     }
 
+    @Test
+    void listPageCacheLatencies() throws Throwable
+    {
+        // Given
+        File file = new File( "neostore.nodestore.db" );
+        PagedFile pagedFile = mock( PagedFile.class );
+        when( pagedFile.file() ).thenReturn( file );
+        PageCache pageCache = mock( PageCache.class );
+        when( pageCache.listExistingMappings() ).thenReturn( List.of( pagedFile ) );
+        LatencyHistogram faultLatencies = new LatencyHistogram();
+        faultLatencies.record( 2_000 );
+        faultLatencies.record( 4_000 );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        tracer.latencies( file, faultLatencies, new LatencyHistogram() );
+        when( resolver.resolveDependency( PageCache.class ) ).thenReturn( pageCache );
+        when( resolver.resolveDependency( PageCacheTracer.class ) ).thenReturn( tracer );
+
+        // When / Then
+        assertThat( call( "dbms.listPageCacheLatencies" ) ).containsExactly(
+                record( file.getAbsolutePath(), 2L, 2L, 4L, 4L, 0L, 0L, 0L, 0L ) );
+    }
+
+    @Test
+    void listCommitLatencies() throws Throwable
+    {
+        // Given
+        DefaultTracer tracer = new DefaultTracer();
+        tracer.commitLatencies( CommitPhase.LOG_FORCE ).record( 2_000 );
+        tracer.commitLatencies( CommitPhase.LOG_FORCE ).record( 4_000 );
+        when( resolver.resolveDependency( DatabaseTracer.class ) ).thenReturn( tracer );
+
+        // When / Then
+        assertThat( call( "dbms.listCommitLatencies" ) ).containsExactly(
+                record( "LOCKS", 0L, 0L, 0L, 0L, 0L, 0L ),
+                record( "COMMAND_CREATION", 0L, 0L, 0L, 0L, 0L, 0L ),
+                record( "LOG_APPEND", 0L, 0L, 0L, 0L, 0L, 0L ),
+                record( "LOG_FORCE", 2L, 2L, 4L, 4L, 4L, 6L ),
+                record( "STORE_APPLY", 0L, 0L, 0L, 0L, 0L, 0L ),
+                record( "INDEX_UPDATES", 0L, 0L, 0L, 0L, 0L, 0L ),
+                record( "TOTAL", 0L, 0L, 0L, 0L, 0L, 0L ) );
+    }
+
+    @Test
+    void listDeadlockDetectionStatistics() throws Throwable
+    {
+        // Given
+        DeadlockDetectionStatistics statistics = new DeadlockDetectionStatistics();
+        statistics.detectionCompleted( 2_000, false );
+        statistics.detectionCompleted( 4_000, true );
+        Locks locks = mock( Locks.class );
+        when( locks.deadlockDetectionStatistics() ).thenReturn( statistics );
+        when( resolver.resolveDependency( Locks.class ) ).thenReturn( locks );
+
+        // When / Then
+        assertThat( call( "dbms.listDeadlockDetectionStatistics" ) ).containsExactly( record( 2L, 1L, 2L, 4L, 4L, 6L ) );
+    }
+
+    @Test
+    void listEmptyDeadlockDetectionStatisticsOfLockManagerWithoutDetection() throws Throwable
+    {
+        // Given
+        Locks locks = mock( Locks.class );
+        when( locks.deadlockDetectionStatistics() ).thenReturn( DeadlockDetectionStatistics.NONE );
+        when( resolver.resolveDependency( Locks.class ) ).thenReturn( locks );
+        DeadlockDetectionStatistics.NONE.detectionCompleted( 2_000, true );
+
+        // When / Then
+        assertThat( call( "dbms.listDeadlockDetectionStatistics" ) ).containsExactly( record( 0L, 0L, 0L, 0L, 0L, 0L ) );
+    }
+
     private static Object[] record( Object... fields )
     {
         return fields;
@@ -34,6 +34,7 @@ import org.neo4j.memory.MemoryTracker;
 import org.neo4j.storageengine.api.EntityTokenUpdate;
 import org.neo4j.storageengine.api.EntityTokenUpdateListener;
 import org.neo4j.storageengine.api.IndexUpdateListener;
+import org.neo4j.storageengine.api.IndexUpdatesTracer;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.util.concurrent.AsyncApply;
 import org.neo4j.util.concurrent.WorkSync;
@@ -48,6 +49,7 @@ public class BatchContext implements AutoCloseable
     private final StorageEngine storageEngine;
     private final SchemaCache schemaCache;
     private final PageCursorTracer cursorTracer;
+    private final IndexUpdatesTracer indexUpdatesTracer;
     private final MemoryTracker memoryTracker;
     private final IdUpdateListener idUpdateListener;
 
@@ -61,8 +63,8 @@ public class BatchContext implements AutoCloseable
             WorkSync<EntityTokenUpdateListener,TokenUpdateWork> labelScanStoreSync,
             WorkSync<EntityTokenUpdateListener,TokenUpdateWork> relationshipTypeScanStoreSync,
             WorkSync<IndexUpdateListener,IndexUpdatesWork> indexUpdatesSync, NodeStore nodeStore, PropertyStore propertyStore,
-            RecordStorageEngine recordStorageEngine, SchemaCache schemaCache, PageCursorTracer cursorTracer, MemoryTracker memoryTracker,
-            IdUpdateListener idUpdateListener )
+            RecordStorageEngine recordStorageEngine, SchemaCache schemaCache, PageCursorTracer cursorTracer,
+            IndexUpdatesTracer indexUpdatesTracer, MemoryTracker memoryTracker, IdUpdateListener idUpdateListener )
     {
         this.indexActivator = new IndexActivator( indexUpdateListener );
         this.labelScanStoreSync = labelScanStoreSync;
@@ -73,6 +75,7 @@ public class BatchContext implements AutoCloseable
         this.storageEngine = recordStorageEngine;
         this.schemaCache = schemaCache;
         this.cursorTracer = cursorTracer;
+        this.indexUpdatesTracer = indexUpdatesTracer;
         this.memoryTracker = memoryTracker;
         this.idUpdateListener = idUpdateListener;
         this.lockGroup = new LockGroup();
@@ -114,6 +117,7 @@ public class BatchContext implements AutoCloseable
         }
         if ( indexUpdates != null && indexUpdates.hasUpdates() )
         {
+            long startNanos = System.nanoTime();
             try
             {
                 indexUpdatesSync.apply( new IndexUpdatesWork( indexUpdates, cursorTracer ) );
@@ -122,6 +126,7 @@ public class BatchContext implements AutoCloseable
             {
                 throw new IOException( "Failed to flush index updates", e );
             }
+            indexUpdatesTracer.indexUpdatesApplied( System.nanoTime() - startNanos );
             indexUpdates = null;
         }
 
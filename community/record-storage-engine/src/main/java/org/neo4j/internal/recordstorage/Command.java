@@ -27,6 +27,7 @@ import java.time.OffsetTime;
 import java.time.ZonedDateTime;
 import java.util.Collection;
 import java.util.Map;
+import java.util.function.LongConsumer;
 
 import org.neo4j.internal.schema.SchemaRule;
 import org.neo4j.io.fs.ReadableChannel;
@@ -137,6 +138,37 @@ public abstract class Command implements StorageCommand
 
     public abstract boolean handle( CommandVisitor handler ) throws IOException;
 
+    /*
+     * Write keys reported by visitWriteKeys have the kind of record in the top byte and the record id in the rest.
+     * Dynamic records of all stores share one kind, which may only make independent commands look dependent.
+     */
+    static final long NODE_WRITE_KEY = 1L << 56;
+    static final long RELATIONSHIP_WRITE_KEY = 2L << 56;
+    static final long RELATIONSHIP_GROUP_WRITE_KEY = 3L << 56;
+    static final long PROPERTY_WRITE_KEY = 4L << 56;
+    static final long DYNAMIC_WRITE_KEY = 5L << 56;
+
+    static void visitRecordWriteKeys( long kind, AbstractBaseRecord before, AbstractBaseRecord after, LongConsumer keys )
+    {
+        keys.accept( kind | after.getId() );
+        if ( before.hasSecondaryUnitId() )
+        {
+            keys.accept( kind | before.getSecondaryUnitId() );
+        }
+        if ( after.hasSecondaryUnitId() )
+        {
+            keys.accept( kind | after.getSecondaryUnitId() );
+        }
+    }
+
+    static void visitDynamicWriteKeys( Iterable<DynamicRecord> records, LongConsumer keys )
+    {
+        for ( DynamicRecord record : records )
+        {
+            keys.accept( DYNAMIC_WRITE_KEY | record.getId() );
+        }
+    }
+
     protected String beforeAndAfterToString( AbstractBaseRecord before, AbstractBaseRecord after )
     {
         return format( "\t-%s%n\t+%s", before, after );
@@ -233,6 +265,15 @@ public abstract class Command implements StorageCommand
             return handler.visitNodeCommand( this );
         }
 
+        @Override
+        public boolean visitWriteKeys( LongConsumer keys )
+        {
+            visitRecordWriteKeys( NODE_WRITE_KEY, before, after, keys );
+            visitDynamicWriteKeys( before.getDynamicLabelRecords(), keys );
+            visitDynamicWriteKeys( after.getDynamicLabelRecords(), keys );
+            return true;
+        }
+
         @Override
         public void serialize( WritableChannel channel ) throws IOException
         {
@@ -282,6 +323,13 @@ public abstract class Command implements StorageCommand
             return handler.visitRelationshipCommand( this );
         }
 
+        @Override
+        public boolean visitWriteKeys( LongConsumer keys )
+        {
+            visitRecordWriteKeys( RELATIONSHIP_WRITE_KEY, before, after, keys );
+            return true;
+        }
+
         @Override
         public void serialize( WritableChannel channel ) throws IOException
         {
@@ -334,6 +382,13 @@ public abstract class Command implements StorageCommand
             return handler.visitRelationshipGroupCommand( this );
         }
 
+        @Override
+        public boolean visitWriteKeys( LongConsumer keys )
+        {
+            visitRecordWriteKeys( RELATIONSHIP_GROUP_WRITE_KEY, before, after, keys );
+            return true;
+        }
+
         @Override
         public void serialize( WritableChannel channel ) throws IOException
         {
@@ -410,6 +465,45 @@ public abstract class Command implements StorageCommand
             return handler.visitPropertyCommand( this );
         }
 
+        @Override
+        public boolean visitWriteKeys( LongConsumer keys )
+        {
+            // Index updates of the owning entity are derived from its record and whole property chain, so the entity is part of the write set
+            boolean beforeOwned = visitOwnerWriteKey( before, keys );
+            boolean afterOwned = visitOwnerWriteKey( after, keys );
+            if ( !beforeOwned && !afterOwned )
+            {
+                return false;
+            }
+            visitRecordWriteKeys( PROPERTY_WRITE_KEY, before, after, keys );
+            for ( PropertyBlock block : before )
+            {
+                visitDynamicWriteKeys( block.getValueRecords(), keys );
+            }
+            for ( PropertyBlock block : after )
+            {
+                visitDynamicWriteKeys( block.getValueRecords(), keys );
+            }
+            visitDynamicWriteKeys( after.getDeletedRecords(), keys );
+            return true;
+        }
+
+        private static boolean visitOwnerWriteKey( PropertyRecord record, LongConsumer keys )
+        {
+            if ( record.isNodeSet() )
+            {
+                keys.accept( NODE_WRITE_KEY | record.getNodeId() );
+                return true;
+            }
+            if ( record.isRelSet() )
+            {
+                keys.accept( RELATIONSHIP_WRITE_KEY | record.getRelId() );
+                return true;
+            }
+            // Not loaded or created yet, or owned by a schema rule, which is applied in isolation by its schema rule command
+            return false;
+        }
+
         public long getEntityId()
         {
             return after.isNodeSet() ? after.getNodeId() : after.getRelId();
@@ -1021,6 +1115,13 @@ public abstract class Command implements StorageCommand
             return handler.visitNodeCountsCommand( this );
         }
 
+        @Override
+        public boolean visitWriteKeys( LongConsumer keys )
+        {
+            // The counts store accepts deltas in any order
+            return true;
+        }
+
         public int labelId()
         {
             return labelId;
@@ -1074,6 +1175,13 @@ public abstract class Command implements StorageCommand
             return handler.visitRelationshipCountsCommand( this );
         }
 
+        @Override
+        public boolean visitWriteKeys( LongConsumer keys )
+        {
+            // The counts store accepts deltas in any order
+            return true;
+        }
+
         public int startLabelId()
         {
             return startLabelId;
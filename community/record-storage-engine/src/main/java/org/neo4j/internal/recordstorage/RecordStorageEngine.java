@@ -349,8 +349,8 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         TransactionApplierFactoryChain batchApplier = applierChain( mode );
         CommandsToApply initialBatch = batch;
         try ( BatchContext context = new BatchContext( indexUpdateListener, labelScanStoreSync, relationshipTypeScanStoreSync, indexUpdatesSync,
-                neoStores.getNodeStore(), neoStores.getPropertyStore(), this, schemaCache, initialBatch.cursorTracer(), otherMemoryTracker,
-                batchApplier.getIdUpdateListenerSupplier().get() ) )
+                neoStores.getNodeStore(), neoStores.getPropertyStore(), this, schemaCache, initialBatch.cursorTracer(),
+                initialBatch.indexUpdatesTracer(), otherMemoryTracker, batchApplier.getIdUpdateListenerSupplier().get() ) )
         {
             while ( batch != null )
             {
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.internal.recordstorage.Command.LabelTokenCommand;
+import org.neo4j.internal.recordstorage.Command.NodeCommand;
+import org.neo4j.internal.recordstorage.Command.NodeCountsCommand;
+import org.neo4j.internal.recordstorage.Command.PropertyCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipCommand;
+import org.neo4j.kernel.impl.store.record.LabelTokenRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandWriteKeysTest
+{
+    @Test
+    void nodeAndItsPropertiesShouldShareWriteKey()
+    {
+        NodeRecord node = new NodeRecord( 5 ).initialize( true, 7, false, -1, 0 );
+        PropertyRecord property = new PropertyRecord( 7 );
+        property.setInUse( true );
+        property.setNodeId( 5 );
+
+        MutableLongSet nodeKeys = writeKeys( new NodeCommand( new NodeRecord( 5 ), node ) );
+        MutableLongSet propertyKeys = writeKeys( new PropertyCommand( new PropertyRecord( 7 ), property ) );
+
+        assertTrue( nodeKeys.anySatisfy( propertyKeys::contains ) );
+    }
+
+    @Test
+    void differentEntitiesShouldNotShareWriteKeys()
+    {
+        MutableLongSet nodeKeys = writeKeys( new NodeCommand( new NodeRecord( 5 ), new NodeRecord( 5 ).initialize( true, -1, false, -1, 0 ) ) );
+        RelationshipRecord relationship = new RelationshipRecord( 5 );
+        relationship.setInUse( true );
+        MutableLongSet relationshipKeys = writeKeys( new RelationshipCommand( new RelationshipRecord( 5 ), relationship ) );
+        PropertyRecord relationshipProperty = new PropertyRecord( 5 );
+        relationshipProperty.setInUse( true );
+        relationshipProperty.setRelId( 5 );
+        MutableLongSet propertyKeys = writeKeys( new PropertyCommand( new PropertyRecord( 5 ), relationshipProperty ) );
+
+        assertFalse( nodeKeys.anySatisfy( relationshipKeys::contains ) );
+        assertFalse( nodeKeys.anySatisfy( propertyKeys::contains ) );
+        assertTrue( relationshipKeys.anySatisfy( propertyKeys::contains ) );
+    }
+
+    @Test
+    void countsCommandsShouldHaveNoWriteKeys()
+    {
+        assertThat( writeKeys( new NodeCountsCommand( 1, 2 ) ).isEmpty() ).isTrue();
+    }
+
+    @Test
+    void tokenCommandsShouldBeAppliedInIsolation()
+    {
+        LabelTokenRecord token = new LabelTokenRecord( 1 );
+        token.setInUse( true );
+        assertFalse( new LabelTokenCommand( new LabelTokenRecord( 1 ), token ).visitWriteKeys( key -> {} ) );
+    }
+
+    private static MutableLongSet writeKeys( StorageCommand command )
+    {
+        MutableLongSet keys = new LongHashSet();
+        assertTrue( command.visitWriteKeys( keys::add ) );
+        return keys;
+    }
+}
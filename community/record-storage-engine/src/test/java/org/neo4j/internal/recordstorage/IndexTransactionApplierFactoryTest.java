@@ -38,6 +38,7 @@ import org.neo4j.lock.LockGroup;
 import org.neo4j.storageengine.api.EntityTokenUpdate;
 import org.neo4j.storageengine.api.EntityTokenUpdateListener;
 import org.neo4j.storageengine.api.IndexUpdateListener;
+import org.neo4j.storageengine.api.IndexUpdatesTracer;
 import org.neo4j.util.concurrent.WorkSync;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -67,8 +68,8 @@ class IndexTransactionApplierFactoryTest
         PropertyStore propertyStore = mock( PropertyStore.class );
         IndexTransactionApplierFactory applier = new IndexTransactionApplierFactory( indexUpdateListener );
         try ( var batchContext = new BatchContext( indexUpdateListener, labelScanSync, relationshipTypeScanStoreSync, indexUpdatesSync,
-                mock( NodeStore.class ), propertyStore, mock( RecordStorageEngine.class ), mock( SchemaCache.class ), NULL, INSTANCE,
-                mock( IdUpdateListener.class ) ) )
+                mock( NodeStore.class ), propertyStore, mock( RecordStorageEngine.class ), mock( SchemaCache.class ), NULL,
+                IndexUpdatesTracer.NULL, INSTANCE, mock( IdUpdateListener.class ) ) )
         {
             try ( TransactionApplier txApplier = applier.startTx( new GroupOfCommands(), batchContext ) )
             {
@@ -38,6 +38,14 @@ public interface CommandsToApply extends CommandStream
      */
     PageCursorTracer cursorTracer();
 
+    /**
+     * @return tracer of the time spent applying the index updates of this group of commands.
+     */
+    default IndexUpdatesTracer indexUpdatesTracer()
+    {
+        return IndexUpdatesTracer.NULL;
+    }
+
     /**
      * @return next group of commands in this batch.
      */
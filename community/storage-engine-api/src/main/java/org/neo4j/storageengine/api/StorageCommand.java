@@ -21,6 +21,7 @@ package org.neo4j.storageengine.api;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.function.LongConsumer;
 
 import org.neo4j.io.fs.WritableChannel;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
@@ -48,6 +49,22 @@ public interface StorageCommand
      */
     void serialize( WritableChannel channel ) throws IOException;
 
+    /**
+     * Reports the parts of the store that applying this command writes to, as opaque keys, for the purpose of applying independent
+     * transactions concurrently during recovery. Two commands that write to overlapping parts of the store, or where one of them reads
+     * what the other writes while being applied, must report at least one key in common. Reporting too many keys is always safe.
+     * <p>
+     * Commands that cannot describe their effects this way return {@code false}, and will then be applied in isolation,
+     * after all transactions before them and before any transaction after them.
+     *
+     * @param keys receives the keys this command writes to.
+     * @return {@code true} if all keys were reported, or {@code false} if this command must be applied in isolation.
+     */
+    default boolean visitWriteKeys( LongConsumer keys )
+    {
+        return false;
+    }
+
     interface TokenCommand extends StorageCommand
     {
         /**
@@ -94,6 +94,13 @@ public class AdversarialPagedFile implements PagedFile
         delegate.flushAndForce( limiter );
     }
 
+    @Override
+    public void writeBack( IOLimiter limiter ) throws IOException
+    {
+        adversary.injectFailure( FileNotFoundException.class, IOException.class, SecurityException.class );
+        delegate.writeBack( limiter );
+    }
+
     @Override
     public long getLastPageId() throws IOException
     {
@@ -101,6 +108,19 @@ public class AdversarialPagedFile implements PagedFile
         return delegate.getLastPageId();
     }
 
+    @Override
+    public int touch( long pageId, int count, PageCursorTracer tracer ) throws IOException
+    {
+        adversary.injectFailure( IOException.class, IllegalStateException.class );
+        return delegate.touch( pageId, count, tracer );
+    }
+
+    @Override
+    public void setPageQuota( long reservedPages, long maxPages )
+    {
+        delegate.setPageQuota( reservedPages, maxPages );
+    }
+
     @Override
     public void close()
     {
@@ -51,6 +51,18 @@ public class DelegatingPagedFile implements PagedFile
         return delegate.getLastPageId();
     }
 
+    @Override
+    public int touch( long pageId, int count, PageCursorTracer tracer ) throws IOException
+    {
+        return delegate.touch( pageId, count, tracer );
+    }
+
+    @Override
+    public void setPageQuota( long reservedPages, long maxPages )
+    {
+        delegate.setPageQuota( reservedPages, maxPages );
+    }
+
     @Override
     public int pageSize()
     {
@@ -92,4 +104,10 @@ public class DelegatingPagedFile implements PagedFile
     {
         delegate.flushAndForce( limiter );
     }
+
+    @Override
+    public void writeBack( IOLimiter limiter ) throws IOException
+    {
+        delegate.writeBack( limiter );
+    }
 }
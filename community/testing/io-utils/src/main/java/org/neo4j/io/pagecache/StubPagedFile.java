@@ -80,12 +80,28 @@ public class StubPagedFile implements PagedFile
     {
     }
 
+    @Override
+    public void writeBack( IOLimiter limiter )
+    {
+    }
+
     @Override
     public long getLastPageId()
     {
         return lastPageId;
     }
 
+    @Override
+    public int touch( long pageId, int count, PageCursorTracer tracer )
+    {
+        return 0;
+    }
+
+    @Override
+    public void setPageQuota( long reservedPages, long maxPages )
+    {
+    }
+
     @Override
     public void close()
     {
@@ -463,6 +463,26 @@ public final class UnsafeUtil
         memoryTracker.releaseNative( bytes );
     }
 
+    /**
+     * Account for memory that was allocated by other means than {@link #allocateMemory}, such as by mapping huge pages, as if it had
+     * been allocated with {@link #allocateMemory}. The memory must be released with {@link #untrackExternalMemory} before it is
+     * deallocated.
+     */
+    public static void trackExternalMemory( long pointer, long bytes, MemoryTracker memoryTracker )
+    {
+        addAllocatedPointer( pointer, bytes );
+        memoryTracker.allocateNative( bytes );
+    }
+
+    /**
+     * Stop accounting for memory that was tracked with {@link #trackExternalMemory}, as if it had been freed with {@link #free}.
+     */
+    public static void untrackExternalMemory( long pointer, long bytes, MemoryTracker memoryTracker )
+    {
+        checkFree( pointer );
+        memoryTracker.releaseNative( bytes );
+    }
+
     private static void addAllocatedPointer( long pointer, long sizeInBytes )
     {
         if ( CHECK_NATIVE_ACCESS )